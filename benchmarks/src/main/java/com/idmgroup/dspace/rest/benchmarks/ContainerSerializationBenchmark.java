@@ -0,0 +1,105 @@
+package com.idmgroup.dspace.rest.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+
+/**
+ * Reading and writing pages of collections and communities in JSON and XML. Run it with the GC profiler to get the
+ * allocations per page:
+ * 
+ * <pre>
+ * $ java -jar target/benchmarks.jar ContainerSerializationBenchmark -prof gc
+ * </pre>
+ * 
+ * @author arnaud
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContainerSerializationBenchmark {
+
+    private final PageCodec codec = new PageCodec();
+
+    private byte[] collectionsJson;
+
+    private Collection[] collectionsPage;
+
+    private byte[] collectionsXml;
+
+    private byte[] communitiesJson;
+
+    private Community[] communitiesPage;
+
+    private byte[] communitiesXml;
+
+    @Param({ "10", "100", "1000" })
+    public int pageSize;
+
+    @Benchmark
+    public Collection[] collectionsJsonRead() {
+        return codec.fromJson(collectionsJson, Collection[].class);
+    }
+
+    @Benchmark
+    public byte[] collectionsJsonWrite() {
+        return codec.toJson(collectionsPage);
+    }
+
+    @Benchmark
+    public Collection[] collectionsXmlRead() {
+        return codec.fromXml(collectionsXml, Collection.class);
+    }
+
+    @Benchmark
+    public byte[] collectionsXmlWrite() {
+        return codec.toXml(collectionsPage, Collection.class, "collections", "collection");
+    }
+
+    @Benchmark
+    public Community[] communitiesJsonRead() {
+        return codec.fromJson(communitiesJson, Community[].class);
+    }
+
+    @Benchmark
+    public byte[] communitiesJsonWrite() {
+        return codec.toJson(communitiesPage);
+    }
+
+    @Benchmark
+    public Community[] communitiesXmlRead() {
+        return codec.fromXml(communitiesXml, Community.class);
+    }
+
+    @Benchmark
+    public byte[] communitiesXmlWrite() {
+        return codec.toXml(communitiesPage, Community.class, "communities", "community");
+    }
+
+    @Setup
+    public void setUp() {
+        collectionsPage = Fixtures.collections(pageSize);
+        collectionsJson = codec.toJson(collectionsPage);
+        collectionsXml = codec.toXml(collectionsPage, Collection.class, "collections", "collection");
+        communitiesPage = Fixtures.communities(pageSize);
+        communitiesJson = codec.toJson(communitiesPage);
+        communitiesXml = codec.toXml(communitiesPage, Community.class, "communities", "community");
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.idmgroup.dspace.rest.benchmarks;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+
+/**
+ * Synthetic DSpace objects, shaped like the ones of a real repository, for the benchmarks.
+ * 
+ * @author arnaud
+ */
+public final class Fixtures {
+
+    private static final String[] METADATA_KEYS = { "dc.contributor.author", "dc.date.accessioned",
+            "dc.date.available", "dc.date.issued", "dc.description.abstract", "dc.identifier.uri", "dc.language.iso",
+            "dc.publisher", "dc.subject", "dc.title", "dc.type" };
+
+    /**
+     * Gets a bitstream.
+     * 
+     * @param id
+     *            the bitstream ID.
+     * @return the bitstream.
+     */
+    public static Bitstream bitstream(int id) {
+        Bitstream bitstream = new Bitstream();
+        bitstream.setId(id);
+        bitstream.setType("bitstream");
+        bitstream.setName("file-" + id + ".pdf");
+        bitstream.setLink("/rest/bitstreams/" + id);
+        bitstream.setBundleName("ORIGINAL");
+        bitstream.setDescription("Full text of the item");
+        bitstream.setFormat("Adobe PDF");
+        bitstream.setMimeType("application/pdf");
+        bitstream.setRetrieveLink("/bitstreams/" + id + "/retrieve");
+        bitstream.setSequenceId(1);
+        bitstream.setSizeBytes(1048576L + id);
+        return bitstream;
+    }
+
+    /**
+     * Gets a page of bitstreams.
+     * 
+     * @param size
+     *            the number of bitstreams.
+     * @return the bitstreams, with IDs from 1.
+     */
+    public static Bitstream[] bitstreams(int size) {
+        Bitstream[] page = new Bitstream[size];
+        for (int i = 0; i < size; ++i) {
+            page[i] = bitstream(i + 1);
+        }
+        return page;
+    }
+
+    /**
+     * Gets a collection.
+     * 
+     * @param id
+     *            the collection ID.
+     * @return the collection.
+     */
+    public static Collection collection(int id) {
+        Collection collection = new Collection();
+        collection.setId(id);
+        collection.setType("collection");
+        collection.setName("Collection " + id);
+        collection.setHandle("123456789/" + (10000 + id));
+        collection.setLink("/rest/collections/" + id);
+        collection.setCopyrightText("");
+        collection.setIntroductoryText("<p>Introductory text of the collection " + id + "</p>");
+        collection.setLicense("");
+        collection.setNumberItems(id * 10);
+        collection.setShortDescription("Short description of the collection " + id);
+        collection.setSidebarText("");
+        return collection;
+    }
+
+    /**
+     * Gets a page of collections.
+     * 
+     * @param size
+     *            the number of collections.
+     * @return the collections, with IDs from 1.
+     */
+    public static Collection[] collections(int size) {
+        Collection[] page = new Collection[size];
+        for (int i = 0; i < size; ++i) {
+            page[i] = collection(i + 1);
+        }
+        return page;
+    }
+
+    /**
+     * Gets a page of communities.
+     * 
+     * @param size
+     *            the number of communities.
+     * @return the communities, with IDs from 1.
+     */
+    public static Community[] communities(int size) {
+        Community[] page = new Community[size];
+        for (int i = 0; i < size; ++i) {
+            page[i] = community(i + 1);
+        }
+        return page;
+    }
+
+    /**
+     * Gets a community.
+     * 
+     * @param id
+     *            the community ID.
+     * @return the community.
+     */
+    public static Community community(int id) {
+        Community community = new Community();
+        community.setId(id);
+        community.setType("community");
+        community.setName("Community " + id);
+        community.setHandle("123456789/" + id);
+        community.setLink("/rest/communities/" + id);
+        community.setCopyrightText("");
+        community.setCountItems(id * 100);
+        community.setIntroductoryText("<p>Introductory text of the community " + id + "</p>");
+        community.setShortDescription("Short description of the community " + id);
+        community.setSidebarText("");
+        return community;
+    }
+
+    /**
+     * Gets an item.
+     * 
+     * @param id
+     *            the item ID.
+     * @param metadataEntries
+     *            the number of metadata entries.
+     * @return the item.
+     */
+    public static Item item(int id, int metadataEntries) {
+        Item item = new Item();
+        item.setId(id);
+        item.setType("item");
+        item.setName("Item " + id);
+        item.setHandle("123456789/" + (100000 + id));
+        item.setLink("/rest/items/" + id);
+        item.setArchived("true");
+        item.setWithdrawn("false");
+        item.setLastModified("2015-11-" + (10 + id % 20) + " 12:34:56.789");
+        for (int i = 0; i < metadataEntries; ++i) {
+            MetadataEntry entry = new MetadataEntry();
+            entry.setKey(METADATA_KEYS[i % METADATA_KEYS.length]);
+            entry.setLanguage(i % 2 == 0 ? "en_US" : null);
+            entry.setValue("Value " + i + " of the item " + id + ", long enough to look like a real title or subject");
+            item.getMetadata().add(entry);
+        }
+        return item;
+    }
+
+    /**
+     * Gets a page of items.
+     * 
+     * @param size
+     *            the number of items.
+     * @param metadataEntries
+     *            the number of metadata entries of each item.
+     * @return the items, with IDs from 1.
+     */
+    public static Item[] items(int size, int metadataEntries) {
+        Item[] page = new Item[size];
+        for (int i = 0; i < size; ++i) {
+            page[i] = item(i + 1, metadataEntries);
+        }
+        return page;
+    }
+
+    private Fixtures() {
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.idmgroup.dspace.rest.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Reading and writing pages of items in JSON and XML, from a few metadata entries per item to the hundreds of a
+ * heavily described one. Run it with the GC profiler to get the allocations per page:
+ * 
+ * <pre>
+ * $ java -jar target/benchmarks.jar ItemSerializationBenchmark -prof gc
+ * </pre>
+ * 
+ * @author arnaud
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemSerializationBenchmark {
+
+    private final PageCodec codec = new PageCodec();
+
+    private byte[] json;
+
+    @Param({ "10", "300" })
+    public int metadataEntries;
+
+    private Item[] page;
+
+    @Param({ "1", "20", "100" })
+    public int pageSize;
+
+    private byte[] xml;
+
+    @Benchmark
+    public Item[] jsonRead() {
+        return codec.fromJson(json, Item[].class);
+    }
+
+    @Benchmark
+    public byte[] jsonWrite() {
+        return codec.toJson(page);
+    }
+
+    @Setup
+    public void setUp() {
+        page = Fixtures.items(pageSize, metadataEntries);
+        json = codec.toJson(page);
+        xml = codec.toXml(page, Item.class, "items", "item");
+    }
+
+    @Benchmark
+    public Item[] xmlRead() {
+        return codec.fromXml(xml, Item.class);
+    }
+
+    @Benchmark
+    public byte[] xmlWrite() {
+        return codec.toXml(page, Item.class, "items", "item");
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.idmgroup.dspace.rest.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.idmgroup.dspace.rest.PooledHttpTransport;
+import com.idmgroup.dspace.rest.StubHttpServer;
+import com.idmgroup.dspace.rest.TestDSpaceRestClientBitstreamData.SyntheticRetrieveHandler;
+import com.idmgroup.dspace.rest.jersey.DSpaceJerseyRestClient;
+import com.idmgroup.dspace.rest.jersey.DemoDspaceOrg_Rest;
+import com.idmgroup.dspace.rest.jersey.DemoDspaceOrg_Rest.Items;
+
+/**
+ * Per-request overhead of {@link DSpaceJerseyRestClient}: building the resources for each call versus reusing the
+ * ones built by {@link DSpaceJerseyRestClient#init()}, and the round trip of 64 threads reading a small bitstream from
+ * a local stub with the default URLConnection handler and with a {@link PooledHttpTransport}.
+ * 
+ * <pre>
+ * $ java -jar target/benchmarks.jar JerseyTransportBenchmark
+ * </pre>
+ * 
+ * @author arnaud
+ */
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@State(Scope.Benchmark)
+public class JerseyTransportBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+        @Override
+        public void write(int b) {
+        }
+
+    };
+
+    private DSpaceJerseyRestClient client;
+
+    private StubHttpServer server;
+
+    private PooledHttpTransport transport;
+
+    @Param({ "default", "pooled" })
+    public String transportType;
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Items newResource() {
+        return DemoDspaceOrg_Rest.items(client.getClient(), client.getBaseUri());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(64)
+    public long roundTrip() throws IOException {
+        return client.getBitstreamData(1024, DISCARD);
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        server = new StubHttpServer();
+        server.handle("/bitstreams", new SyntheticRetrieveHandler());
+        server.start();
+        client = new DSpaceJerseyRestClient(server.getBaseUrl());
+        if ("pooled".equals(transportType)) {
+            transport = new PooledHttpTransport();
+            transport.setMaxPerRoute(64);
+            client.setTransport(transport);
+        }
+        client.init();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Items sharedResource() {
+        return client.items();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (transport != null) {
+            transport.close();
+        }
+        server.stop();
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.idmgroup.dspace.rest.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Reads and writes pages of DSpace objects the way the clients do: in JSON with an object mapper configured like the
+ * one of the Spring message converter, and in XML with JAXB, as a wrapper element holding one element per object, like
+ * the lists read by Jersey. As in the message converters, the marshallers are created for each page.
+ * 
+ * @author arnaud
+ */
+public class PageCodec {
+
+    private final JAXBContext jaxbContext;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    private final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+
+    public PageCodec() {
+        try {
+            jaxbContext = JAXBContext.newInstance(Bitstream.class, Collection.class, Community.class, Item.class);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("cannot create the JAXB context", e);
+        }
+    }
+
+    /**
+     * Reads a page from JSON.
+     * 
+     * @param json
+     *            the JSON array.
+     * @param pageType
+     *            the array type, e.g. Item[].class.
+     * @return the page.
+     */
+    public <T> T[] fromJson(byte[] json, Class<T[]> pageType) {
+        try {
+            return objectMapper.readValue(json, pageType);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read the page", e);
+        }
+    }
+
+    /**
+     * Reads a page from XML.
+     * 
+     * @param xml
+     *            the XML document.
+     * @param type
+     *            the type of the objects, e.g. Item.class.
+     * @return the page.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T[] fromXml(byte[] xml, Class<T> type) {
+        try {
+            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(xml));
+            try {
+                List<T> page = new ArrayList<T>();
+                // The wrapper element, then the first object.
+                reader.nextTag();
+                reader.nextTag();
+                while (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                    // The unmarshaller stops right after the end of the object.
+                    page.add(unmarshaller.unmarshal(reader, type).getValue());
+                    if (reader.getEventType() != XMLStreamConstants.START_ELEMENT
+                            && reader.getEventType() != XMLStreamConstants.END_ELEMENT) {
+                        reader.nextTag();
+                    }
+                }
+                return page.toArray((T[]) Array.newInstance(type, page.size()));
+            } finally {
+                reader.close();
+            }
+        } catch (JAXBException e) {
+            throw new IllegalStateException("cannot read the page", e);
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("cannot read the page", e);
+        }
+    }
+
+    /**
+     * Writes a page to JSON.
+     * 
+     * @param page
+     *            the page.
+     * @return the JSON array.
+     */
+    public byte[] toJson(Object[] page) {
+        try {
+            return objectMapper.writeValueAsBytes(page);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot write the page", e);
+        }
+    }
+
+    /**
+     * Writes a page to XML.
+     * 
+     * @param page
+     *            the page.
+     * @param type
+     *            the type of the objects, e.g. Item.class.
+     * @param wrapperName
+     *            the name of the wrapper element, e.g. "items".
+     * @param elementName
+     *            the name of the element of each object, e.g. "item".
+     * @return the XML document.
+     */
+    public <T> byte[] toXml(T[] page, Class<T> type, String wrapperName, String elementName) {
+        try {
+            Marshaller marshaller = jaxbContext.createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement(wrapperName);
+            QName name = new QName(elementName);
+            for (T object : page) {
+                marshaller.marshal(new JAXBElement<T>(name, type, object), writer);
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+            return out.toByteArray();
+        } catch (JAXBException e) {
+            throw new IllegalStateException("cannot write the page", e);
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("cannot write the page", e);
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.idmgroup.dspace.rest.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriTemplateHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.idmgroup.dspace.rest.DSpaceRestClient;
+import com.idmgroup.dspace.rest.EndpointTemplate;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Cost of building the requests of {@link DSpaceRestClient}, without any I/O: the responses come from memory. The
+ * URI and entity built with {@link EndpointTemplate} and the cached headers are compared with the way the client
+ * used to build them, with {@link UriComponentsBuilder}, the URI template handler and new headers for each call. Run
+ * it with the GC profiler to get the allocations per call:
+ * 
+ * <pre>
+ * $ java -jar target/benchmarks.jar RequestConstructionBenchmark -prof gc
+ * </pre>
+ * 
+ * @author arnaud
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestConstructionBenchmark {
+
+    /**
+     * Answers every request with the same item, from memory.
+     */
+    private static class InMemoryRequestFactory implements ClientHttpRequestFactory {
+
+        @Override
+        public ClientHttpRequest createRequest(final URI uri, final HttpMethod httpMethod) {
+            return new ClientHttpRequest() {
+
+                private final HttpHeaders headers = new HttpHeaders();
+
+                @Override
+                public ClientHttpResponse execute() {
+                    return new InMemoryResponse();
+                }
+
+                @Override
+                public OutputStream getBody() {
+                    return new ByteArrayOutputStream();
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public HttpMethod getMethod() {
+                    return httpMethod;
+                }
+
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+
+            };
+        }
+
+    }
+
+    private static class InMemoryResponse implements ClientHttpResponse {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        public InMemoryResponse() {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(ITEM.length);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(ITEM);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public String getStatusText() {
+            return "OK";
+        }
+
+    }
+
+    private static final String BASE_URL = "http://127.0.0.1:8080/rest";
+
+    private static final EndpointTemplate GET_ITEM = new EndpointTemplate("/items/{item_id}", "expand");
+
+    private static final byte[] ITEM = "{\"id\":1,\"type\":\"item\",\"name\":\"item 1\",\"handle\":\"123456789/1\"}"
+            .getBytes(Charset.forName("UTF-8"));
+
+    private DSpaceRestClient client;
+
+    private final DefaultUriTemplateHandler uriTemplateHandler = new DefaultUriTemplateHandler();
+
+    @Benchmark
+    public Item getItem() {
+        return client.getItem(1, "metadata");
+    }
+
+    @Benchmark
+    public HttpEntity<?> legacyEntity() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<Object>(null, headers);
+    }
+
+    @Benchmark
+    public URI legacyUri() {
+        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
+        uriVariables.put("item_id", 1);
+        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(BASE_URL).path("/items/{item_id}")
+                .queryParam("expand", "metadata");
+        return uriTemplateHandler.expand(queryBuilder.buildAndExpand(uriVariables).toUriString());
+    }
+
+    @Setup
+    public void setUp() {
+        client = new DSpaceRestClient(BASE_URL, new RestTemplate(new InMemoryRequestFactory()));
+    }
+
+    @Benchmark
+    public URI templateUri() {
+        return GET_ITEM.expand(BASE_URL, 1, "metadata");
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.idmgroup.dspace.rest.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.idmgroup.dspace.rest.DSpaceRestClient;
+import com.idmgroup.dspace.rest.PooledHttpTransport;
+import com.idmgroup.dspace.rest.StubHttpServer;
+import com.idmgroup.dspace.rest.TestDSpaceRestClientBitstreamData.SyntheticRetrieveHandler;
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.DSpaceJerseyRestClient;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Full round trips of the read paths of {@link DSpaceRestClient} and {@link DSpaceJerseyRestClient} against a local
+ * stub: a page of items, the bitstreams of an item and the content of a bitstream. Both clients go through a
+ * {@link PooledHttpTransport}, so that the difference is the client itself. Run it with the GC profiler to get the
+ * allocations per call:
+ * 
+ * <pre>
+ * $ java -jar target/benchmarks.jar RoundTripBenchmark -prof gc
+ * </pre>
+ * 
+ * @author arnaud
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+
+    /**
+     * Serves the same JSON page for any request.
+     */
+    private static class PageHandler implements HttpHandler {
+
+        private final byte[] json;
+
+        public PageHandler(byte[] json) {
+            this.json = json;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, json.length);
+            exchange.getResponseBody().write(json);
+            exchange.close();
+        }
+
+    }
+
+    /**
+     * Length of the bitstream, which the stub takes from its ID.
+     */
+    private static final int BITSTREAM_SIZE = 65536;
+
+    private static final OutputStream DISCARD = new OutputStream() {
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+        @Override
+        public void write(int b) {
+        }
+
+    };
+
+    private static final int METADATA_ENTRIES = 20;
+
+    @Param({ "spring", "jersey" })
+    public String client;
+
+    private DSpaceJerseyRestClient jerseyClient;
+
+    @Param({ "10", "100" })
+    public int pageSize;
+
+    private StubHttpServer server;
+
+    private DSpaceRestClient springClient;
+
+    private PooledHttpTransport transport;
+
+    @Benchmark
+    public long getBitstreamData() throws IOException {
+        if (springClient != null)
+            return springClient.getBitstreamData(BITSTREAM_SIZE, DISCARD);
+        return jerseyClient.getBitstreamData(BITSTREAM_SIZE, DISCARD);
+    }
+
+    @Benchmark
+    public Bitstream[] getItemBitstreams() {
+        if (springClient != null)
+            return springClient.getItemBitstreams(1, pageSize, 0);
+        return jerseyClient.items().item_idBitstreams(1)
+                .getAsJson(pageSize, 0, null, null, null, Bitstream[].class);
+    }
+
+    @Benchmark
+    public Item[] getItems() {
+        if (springClient != null)
+            return springClient.getItems("metadata", pageSize, 0);
+        return jerseyClient.items().getAsJson("metadata", pageSize, 0, null, null, null, Item[].class);
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        PageCodec codec = new PageCodec();
+        final PageHandler items = new PageHandler(codec.toJson(Fixtures.items(pageSize, METADATA_ENTRIES)));
+        final PageHandler bitstreams = new PageHandler(codec.toJson(Fixtures.bitstreams(pageSize)));
+        server = new StubHttpServer();
+        server.handle("/bitstreams", new SyntheticRetrieveHandler());
+        server.handle("/items", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (exchange.getRequestURI().getPath().endsWith("/bitstreams")) {
+                    bitstreams.handle(exchange);
+                } else {
+                    items.handle(exchange);
+                }
+            }
+
+        });
+        server.start();
+        transport = new PooledHttpTransport();
+        if ("spring".equals(client)) {
+            springClient = transport.newClient(server.getBaseUrl());
+        } else {
+            jerseyClient = new DSpaceJerseyRestClient(server.getBaseUrl());
+            jerseyClient.setTransport(transport);
+            jerseyClient.init();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        transport.close();
+        server.stop();
+    }
+
+}
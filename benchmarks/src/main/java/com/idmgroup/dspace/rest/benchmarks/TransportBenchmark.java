@@ -0,0 +1,111 @@
+package com.idmgroup.dspace.rest.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.DSpaceRestClient;
+import com.idmgroup.dspace.rest.PooledHttpTransport;
+import com.idmgroup.dspace.rest.StubHttpServer;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Throughput of 64 threads sharing one client reading items from a local stub, with the default
+ * {@link RestTemplate}, i.e. HttpURLConnection, and with a {@link PooledHttpTransport}. The stub can wait before
+ * answering, like a remote server, so that the requests in flight are not limited by the CPU.
+ * 
+ * <pre>
+ * $ java -jar target/benchmarks.jar TransportBenchmark
+ * </pre>
+ * 
+ * @author arnaud
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(64)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    private static final byte[] ITEM = "{\"id\":1,\"type\":\"item\",\"name\":\"item 1\",\"handle\":\"123456789/1\"}"
+            .getBytes(Charset.forName("UTF-8"));
+
+    private DSpaceRestClient client;
+
+    /**
+     * Milliseconds the stub waits before answering.
+     */
+    @Param({ "0", "20" })
+    public long latency;
+
+    private StubHttpServer server;
+
+    private PooledHttpTransport transport;
+
+    @Param({ "default", "pooled" })
+    public String transportType;
+
+    @Benchmark
+    public Item getItem() {
+        return client.getItem(1, null);
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.handle("/items", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (latency > 0) {
+                    try {
+                        Thread.sleep(latency);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, ITEM.length);
+                exchange.getResponseBody().write(ITEM);
+                exchange.close();
+            }
+
+        });
+        server.start();
+        if ("pooled".equals(transportType)) {
+            transport = new PooledHttpTransport();
+            transport.setMaxPerRoute(64);
+            client = transport.newClient(server.getBaseUrl());
+        } else {
+            client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (transport != null) {
+            transport.close();
+        }
+        server.stop();
+    }
+
+}
@@ -94,6 +94,26 @@ sub is_optional_param {
     }
 }
 
+# Set while generating the AsyncRestTemplate based client, whose methods return a ListenableFuture.
+my $async = 0;
+
+# Set while generating the endpoint templates instead of the methods.
+my $templates = 0;
+
+# Names of the endpoint templates already generated.
+my %template_names;
+
+# Name of the endpoint template constant of an overload, e.g. GET_ITEM for getItem. The overload with the optional
+# parameters (userIP...) is suffixed by _WITH_USER_IP.
+sub template_name {
+    my ($method_name, $with_optional) = @_;
+    my $name = $method_name;
+    $name =~ s/([a-z0-9])([A-Z])/$1_$2/g;
+    $name = uc($name);
+    $name .= '_WITH_USER_IP' if $with_optional;
+    return $name;
+}
+
 my $parser = XML::LibXML->new();
 
 my $wadl = $parser->parse_file($wadl_file) or die;
@@ -123,8 +143,7 @@ sub traverse_methods {
         my @overloads;
         push @overloads, {
             params_strs => [],
-            params_code => '',
-            url_code => "        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path(\"$full_path\")"
+            query_names => []
         };
 
         my $params = $xpc->find('wadl:request/wadl:param', $method);
@@ -132,12 +151,6 @@ sub traverse_methods {
             my $name = $param->getAttribute('name');
             foreach my $overl (@overloads) {
                 push @{$overl->{params_strs}}, to_java_type($param->getAttribute('type')).' '.$name;
-                $overl->{params_code} .= <<EOF
-        if ($name != null) {
-            uriVariables.put(\"$name\", $name);
-        }
-EOF
-                ;
             }
         }
         foreach my $param (@$params) {
@@ -153,11 +166,33 @@ EOF
             }
             foreach my $overl (@selection) {
                 push @{$overl->{params_strs}}, to_java_type($param->getAttribute('type')).' '.$name;
-                $overl->{url_code} .= "\n                .queryParam(\"$name\", $name)";
+                push @{$overl->{query_names}}, $name;
             }
         }
-        foreach my $overl (@overloads) {
-            $overl->{url_code} .= ';';
+
+        # The values given to the template: the URI variables in the order of the path, then the query parameters.
+        my @variables = $full_path =~ m/\{(\w+)\}/g;
+        for (my $i = 0; $i < @overloads; ++$i) {
+            my $overl = $overloads[$i];
+            $overl->{template} = template_name($method_name, @overloads > 1 && $i == 0);
+            $overl->{url_code} = $overl->{template}.'.expand('.join(', ', 'baseUrl', @variables, @{$overl->{query_names}}).')';
+        }
+
+        if ($templates) {
+            foreach my $overl (@overloads) {
+                die "duplicate endpoint template $overl->{template}" if $template_names{$overl->{template}}++;
+                my $args = join ', ', map { "\"$_\"" } ($full_path, @{$overl->{query_names}});
+                my $declaration = "    private static final EndpointTemplate $overl->{template} = new EndpointTemplate(";
+                if (length($declaration.$args) + 2 <= 120) {
+                    print "$declaration$args);\n\n";
+                } elsif (length($args) + 14 <= 120 || !@{$overl->{query_names}}) {
+                    print "$declaration\n            $args);\n\n";
+                } else {
+                    my $query_args = join ', ', map { "\"$_\"" } @{$overl->{query_names}};
+                    print "$declaration\n            \"$full_path\",\n            $query_args);\n\n";
+                }
+            }
+            next;
         }
 
         my $request_entity = 'toEntity(null)';
@@ -192,21 +227,19 @@ EOF
             ;
         }
 
+        if ($async) {
+            print_async_overloads($method_name, $method_verb, $return_type, $request_entity, \@overloads);
+            next;
+        }
+
         foreach my $overl (@overloads) {
             my $params_str = join ', ', @{$overl->{params_strs}};
-            my $build_code = 'build()';
-            my $pre_call_code2 = '';
-            if ($overl->{params_code} ne '') {
-                $pre_call_code2 = "\n        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();\n".$overl->{params_code};
-                $build_code = 'buildAndExpand(uriVariables)';
-            }
             if ($method_name eq 'logout') {
                 print <<EOF
     public $return_type $method_name($params_str) {
         try {
-$pre_call_code$pre_call_code2$overl->{url_code}
-            // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-            $return_type result = restTemplate.exchange(queryBuilder.$build_code.toUriString(), HttpMethod.$method_verb,
+$pre_call_code            URI uri = $overl->{url_code};
+            $return_type result = restTemplate.exchange(uri, HttpMethod.$method_verb,
                     $request_entity, $return_type.class).getBody();
 $post_call_code
             return result;
@@ -220,9 +253,8 @@ EOF
             } elsif ($method_name eq 'getObject') {
                 print <<EOF
     public <T> T $method_name($params_str, Class<T> returnType) {
-$pre_call_code$pre_call_code2$overl->{url_code}
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        T result = restTemplate.exchange(queryBuilder.$build_code.toUriString(), HttpMethod.$method_verb,
+$pre_call_code        URI uri = $overl->{url_code};
+        T result = restTemplate.exchange(uri, HttpMethod.$method_verb,
                 $request_entity, returnType).getBody();
 $post_call_code
         return result;
@@ -233,9 +265,8 @@ EOF
             } else {
                 print <<EOF
     public $return_type $method_name($params_str) {
-$pre_call_code$pre_call_code2$overl->{url_code}
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        $return_type result = restTemplate.exchange(queryBuilder.$build_code.toUriString(), HttpMethod.$method_verb,
+$pre_call_code        URI uri = $overl->{url_code};
+        $return_type result = restTemplate.exchange(uri, HttpMethod.$method_verb,
                 $request_entity, $return_type.class).getBody();
 $post_call_code
         return result;
@@ -248,10 +279,68 @@ EOF
     }
 }
 
+sub print_async_overloads {
+    my ($method_name, $method_verb, $return_type, $request_entity, $overloads) = @_;
+    foreach my $overl (@$overloads) {
+        my $params_str = join ', ', @{$overl->{params_strs}};
+        if ($method_name eq 'logout') {
+            print <<EOF
+    public ListenableFuture<$return_type> $method_name($params_str) {
+        try {
+            URI uri = $overl->{url_code};
+            ListenableFuture<ResponseEntity<$return_type>> result = asyncRestTemplate.exchange(uri,
+                    HttpMethod.$method_verb, $request_entity, $return_type.class);
+
+            return new ResponseBodyFuture<$return_type>(result);
+        } finally {
+            dspaceToken = null;
+        }
+    }
+
+EOF
+            ;
+        } elsif ($method_name eq 'getObject') {
+            print <<EOF
+    public <T> ListenableFuture<T> $method_name($params_str, Class<T> returnType) {
+        URI uri = $overl->{url_code};
+        ListenableFuture<ResponseEntity<T>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.$method_verb, $request_entity, returnType);
+
+        return new ResponseBodyFuture<T>(result);
+    }
+
+EOF
+            ;
+        } else {
+            # The login future remembers the token.
+            my $future = $method_name eq 'login' ? 'LoginFuture' : "ResponseBodyFuture<$return_type>";
+            print <<EOF
+    public ListenableFuture<$return_type> $method_name($params_str) {
+        URI uri = $overl->{url_code};
+        ListenableFuture<ResponseEntity<$return_type>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.$method_verb, $request_entity, $return_type.class);
+
+        return new $future(result);
+    }
+
+EOF
+            ;
+        }
+    }
+}
+
 my $line;
 while($line = <>) {
-    if ($line =~ m/^\s*\[\% generated_code \%\]\s*$/) {
+    if ($line =~ m/^\s*\[\% generated_templates \%\]\s*$/) {
+        $templates = 1;
+        traverse_resources($xpc->find('/wadl:application/wadl:resources', $wadl)->[0], '');
+        $templates = 0;
+    } elsif ($line =~ m/^\s*\[\% generated_code \%\]\s*$/) {
+        traverse_resources($xpc->find('/wadl:application/wadl:resources', $wadl)->[0], '');
+    } elsif ($line =~ m/^\s*\[\% generated_async_code \%\]\s*$/) {
+        $async = 1;
         traverse_resources($xpc->find('/wadl:application/wadl:resources', $wadl)->[0], '');
+        $async = 0;
     } else {
         print $line;
     }
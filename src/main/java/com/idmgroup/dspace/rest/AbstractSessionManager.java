@@ -0,0 +1,258 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Keeps one authenticated session per user, each a client of its own, whatever the kind of client: see
+ * {@link SessionManager} for {@link DSpaceRestClient} and
+ * {@link com.idmgroup.dspace.rest.jersey.JerseySessionManager} for the Jersey client.
+ * 
+ * A session is logged in on first use. A call reads the session from a concurrent map and its token from a volatile
+ * field: once logged in, no lock is taken. When DSpace refuses a request, the session is asked for its status. If it
+ * is not authenticated any more, it logs in again and the call is made once more; otherwise the user is really not
+ * allowed and the error is thrown. When many threads see the same session expire, only one of them logs in again.
+ * 
+ * This class is thread-safe. The users are told apart by their e-mail.
+ * 
+ * @author arnaud
+ * @param <C>
+ *            the type of the clients.
+ */
+public abstract class AbstractSessionManager<C> {
+
+    /**
+     * Calls DSpace with the client of a session.
+     * 
+     * @param <S>
+     *            the type of the client.
+     * @param <T>
+     *            the type of the result.
+     */
+    protected interface Call<S, T> {
+
+        T call(S client);
+
+    }
+
+    /**
+     * The session of a user.
+     */
+    private class Session {
+
+        private final C client;
+
+        private boolean closed;
+
+        private final User user;
+
+        public Session(C client, User user) {
+            this.client = client;
+            this.user = user;
+        }
+
+        private void doLogin() {
+            logins.incrementAndGet();
+            if (AbstractSessionManager.this.login(client, user) == null)
+                throw new IllegalStateException("DSpace returned no token for " + user.getEmail());
+        }
+
+        /**
+         * Logs in, unless already done by another thread.
+         */
+        public synchronized void login() {
+            if (getToken(client) == null && !closed) {
+                doLogin();
+            }
+        }
+
+        public synchronized void logout() {
+            closed = true;
+            if (getToken(client) != null) {
+                AbstractSessionManager.this.logout(client);
+            }
+        }
+
+        /**
+         * Logs in again after a request with the token given was refused.
+         * 
+         * @return true if the request can be made again with a new token.
+         */
+        public synchronized boolean renew(String refused) {
+            if (closed)
+                return false;
+            String current = getToken(client);
+            if (current != null && !current.equals(refused))
+                // Already renewed by another thread.
+                return true;
+            if (current != null && isAuthenticated(client))
+                return false;
+            doLogin();
+            return true;
+        }
+
+    }
+
+    private final AtomicLong logins = new AtomicLong();
+
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<String, Session>();
+
+    /**
+     * Calls DSpace as a user, logging in first if needed, and once more if the session expired.
+     * 
+     * @param user
+     *            the user.
+     * @param call
+     *            makes the requests, called again if the session expired.
+     * @return the result of the call.
+     */
+    protected <T> T call(User user, Call<C, T> call) {
+        Session session = session(user);
+        String token = getToken(session.client);
+        try {
+            return call.call(session.client);
+        } catch (RuntimeException e) {
+            if (!isRefused(e) || !session.renew(token))
+                throw e;
+        }
+        return call.call(session.client);
+    }
+
+    /**
+     * Gets the client of the session of a user, logging in first if needed. It can be used directly, without logging
+     * in again when the session expires.
+     * 
+     * @param user
+     *            the user.
+     * @return the client, logged in.
+     */
+    public C getClient(User user) {
+        return session(user).client;
+    }
+
+    /**
+     * Gets the number of logins made, first ones and renewals.
+     * 
+     * @return the number of logins.
+     */
+    public long getLogins() {
+        return logins.get();
+    }
+
+    /**
+     * Gets the number of sessions.
+     * 
+     * @return the number of users having a session.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the token of a client.
+     * 
+     * @param client
+     *            the client.
+     * @return the token, or null if not logged in.
+     */
+    protected abstract String getToken(C client);
+
+    /**
+     * Asks DSpace whether the token of a client is still authenticated.
+     * 
+     * @param client
+     *            the client.
+     * @return true if the session is still open.
+     */
+    protected abstract boolean isAuthenticated(C client);
+
+    /**
+     * Tells whether an error is DSpace refusing a request, i.e. a 401 or 403 status.
+     * 
+     * @param error
+     *            the error thrown by a call.
+     * @return true if the session may have expired.
+     */
+    protected abstract boolean isRefused(RuntimeException error);
+
+    /**
+     * Logs a client in.
+     * 
+     * @param client
+     *            the client.
+     * @param user
+     *            the user.
+     * @return the token, or null if none.
+     */
+    protected abstract String login(C client, User user);
+
+    /**
+     * Logs a client out.
+     * 
+     * @param client
+     *            the client.
+     */
+    protected abstract void logout(C client);
+
+    /**
+     * Logs out a user. The next call as this user opens a new session.
+     * 
+     * @param user
+     *            the user.
+     */
+    public void logout(User user) {
+        Session session = sessions.remove(user.getEmail());
+        if (session != null) {
+            session.logout();
+        }
+    }
+
+    /**
+     * Logs out all the users, e.g. on shutdown. All the sessions are closed even if some logouts fail.
+     */
+    public void logoutAll() {
+        RuntimeException error = null;
+        for (String email : new ArrayList<String>(sessions.keySet())) {
+            Session session = sessions.remove(email);
+            if (session == null)
+                continue;
+            try {
+                session.logout();
+            } catch (RuntimeException e) {
+                if (error == null)
+                    error = e;
+                else
+                    error.addSuppressed(e);
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * Creates the client of a new session.
+     * 
+     * @return the client, not logged in.
+     */
+    protected abstract C newClient();
+
+    private Session session(User user) {
+        Session session = sessions.get(user.getEmail());
+        if (session == null) {
+            Session created = new Session(newClient(), user);
+            session = sessions.putIfAbsent(user.getEmail(), created);
+            if (session == null) {
+                session = created;
+            }
+        }
+        if (getToken(session.client) == null) {
+            session.login();
+        }
+        return session;
+    }
+
+}
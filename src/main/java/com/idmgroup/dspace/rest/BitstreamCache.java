@@ -0,0 +1,416 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.CheckSum;
+
+/**
+ * Disk cache of the content of the bitstreams, keyed by checksum, so that identical files attached to different items
+ * share one entry.
+ * 
+ * The checksum of each bitstream ID is read with {@link DSpaceRestClient#getBitstream(Integer, String)} and kept in
+ * memory for {@link #getChecksumTimeToLive()}: a bitstream whose content is replaced is served with its old content
+ * until then, unless {@link #forget(Integer)} is called. A missing entry is downloaded to a temporary file, verified
+ * against its checksum and moved into place, so that a partial file is never served. A cached entry is copied with
+ * {@link FileChannel#transferTo}, which lets the operating system send it without copying it through the Java heap,
+ * e.g. to a socket. The least recently used entries are deleted once the total size goes over the cap; the order of use
+ * is kept across restarts in the modification time of the files. The bitstreams without checksum are not cached. E.g.:
+ * 
+ * <pre>
+ * BitstreamCache cache = new BitstreamCache(client, Paths.get("bitstreams"), 10L &lt;&lt; 30);
+ * cache.getBitstreamData(bitstreamId, response.getOutputStream());
+ * </pre>
+ * 
+ * The directory must not be shared with another instance. This class is thread-safe: concurrent misses of the same
+ * entry download it once.
+ * 
+ * @author arnaud
+ */
+public class BitstreamCache {
+
+    /**
+     * The checksum of a bitstream, as last read.
+     */
+    private static class Checksum {
+
+        /**
+         * The entry, an empty string if none.
+         */
+        private final String key;
+
+        private final long read = System.currentTimeMillis();
+
+        public Checksum(String key) {
+            this.key = key;
+        }
+
+    }
+
+    private static final String DEFAULT_CHECKSUM_ALGORITHM = "MD5";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * The entry of a bitstream, or null if it cannot be cached.
+     */
+    private static String keyOf(Bitstream bitstream) {
+        CheckSum checkSum = bitstream.getCheckSum();
+        if (checkSum == null || checkSum.getValue() == null || !checkSum.getValue().matches("[0-9a-fA-F]+"))
+            return null;
+        String algorithm = checkSum.getCheckSumAlgorithm();
+        if (algorithm == null || algorithm.length() <= 0)
+            algorithm = DEFAULT_CHECKSUM_ALGORITHM;
+        if (!algorithm.matches("[0-9a-zA-Z-]+"))
+            return null;
+        return algorithm.toUpperCase() + "-" + checkSum.getValue().toLowerCase();
+    }
+
+    /**
+     * The checksums, by bitstream ID.
+     */
+    private final ConcurrentMap<Integer, Checksum> checksums = new ConcurrentHashMap<Integer, Checksum>();
+
+    private long checksumTimeToLive = 10 * 60 * 1000;
+
+    private final DSpaceRestClient client;
+
+    private final Path directory;
+
+    private final ConcurrentMap<String, FutureTask<Long>> downloads = new ConcurrentHashMap<String, FutureTask<Long>>();
+
+    /**
+     * The sizes of the entries, from the least recently used.
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final long maxSize;
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private long size;
+
+    /**
+     * New instance, keeping the entries already in the directory.
+     * 
+     * @param client
+     *            the client used to read the bitstreams.
+     * @param directory
+     *            the directory of the entries, created if needed.
+     * @param maxSize
+     *            the maximum total size of the entries, in bytes.
+     * @throws IOException
+     *             when the directory cannot be read.
+     */
+    public BitstreamCache(DSpaceRestClient client, Path directory, long maxSize) throws IOException {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("maximum size must not be negative: " + maxSize);
+        this.client = client;
+        this.directory = directory;
+        this.maxSize = maxSize;
+        Files.createDirectories(directory);
+        final Map<Path, FileTime> used = new LinkedHashMap<Path, FileTime>();
+        DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+        try {
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    // Left by a download interrupted by a crash.
+                    Files.delete(file);
+                } else {
+                    used.put(file, Files.getLastModifiedTime(file));
+                }
+            }
+        } finally {
+            files.close();
+        }
+        List<Path> sorted = new ArrayList<Path>(used.keySet());
+        Collections.sort(sorted, new Comparator<Path>() {
+
+            @Override
+            public int compare(Path o1, Path o2) {
+                return used.get(o1).compareTo(used.get(o2));
+            }
+
+        });
+        synchronized (entries) {
+            for (Path file : sorted) {
+                long fileSize = Files.size(file);
+                entries.put(file.getFileName().toString(), fileSize);
+                size += fileSize;
+            }
+            evict(null);
+        }
+    }
+
+    /**
+     * Downloads an entry, unless already there.
+     * 
+     * @return the size of the entry.
+     */
+    private long download(final Bitstream bitstream, final String key) throws IOException {
+        synchronized (entries) {
+            Long cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        FutureTask<Long> task = new FutureTask<Long>(new Callable<Long>() {
+
+            @Override
+            public Long call() throws IOException {
+                misses.incrementAndGet();
+                Path temp = Files.createTempFile(directory, "bitstream", TEMP_SUFFIX);
+                try {
+                    client.getBitstreamData(bitstream.getId(), temp);
+                    String algorithm = key.substring(0, key.lastIndexOf('-'));
+                    String digest;
+                    try {
+                        digest = Streams.digest(temp, algorithm);
+                    } catch (NoSuchAlgorithmException e) {
+                        throw new BitstreamVerificationException("unsupported checksum algorithm " + algorithm, e);
+                    }
+                    if (!key.equals(algorithm + "-" + digest))
+                        throw new BitstreamVerificationException("bitstream " + bitstream.getId() + " has "
+                                + algorithm + " " + digest + ", expected " + key.substring(algorithm.length() + 1));
+                    long entrySize = Files.size(temp);
+                    Files.move(temp, directory.resolve(key), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    synchronized (entries) {
+                        Long previous = entries.put(key, entrySize);
+                        size += entrySize - (previous == null ? 0 : previous);
+                        evict(key);
+                    }
+                    return entrySize;
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+
+        });
+        FutureTask<Long> running = downloads.putIfAbsent(key, task);
+        if (running == null) {
+            running = task;
+            try {
+                task.run();
+            } finally {
+                downloads.remove(key, task);
+            }
+        }
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for bitstream " + bitstream.getId(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the total size fits, except the one given.
+     */
+    private void evict(String kept) throws IOException {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getKey().equals(kept))
+                continue;
+            // Readers having the file open still read it whole.
+            Files.deleteIfExists(directory.resolve(entry.getKey()));
+            size -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Forgets the checksum of a bitstream, so that the next read asks DSpace for it again. To be called when the
+     * content of the bitstream is replaced, e.g. after {@link DSpaceRestClient#updateBitstreamData(Integer, Path)}.
+     * The entry of the old content stays until evicted, since other bitstreams may share it.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     */
+    public void forget(Integer bitstream_id) {
+        checksums.remove(bitstream_id);
+    }
+
+    /**
+     * Streams the content of a bitstream to a channel, from the cache if possible. The channel is not closed.
+     * 
+     * @param bitstream
+     *            the bitstream metadata, as returned by {@link DSpaceRestClient#getBitstream(Integer, String)}.
+     * @param out
+     *            the destination.
+     * @return the number of bytes written.
+     * @throws IOException
+     *             when the cache cannot be read or written, {@link BitstreamVerificationException} when the downloaded
+     *             content does not match the checksum.
+     */
+    public long getBitstreamData(Bitstream bitstream, WritableByteChannel out) throws IOException {
+        String key = keyOf(bitstream);
+        checksums.put(bitstream.getId(), new Checksum(key == null ? "" : key));
+        return getBitstreamData(bitstream, key, out);
+    }
+
+    private long getBitstreamData(Bitstream bitstream, String key, WritableByteChannel out) throws IOException {
+        if (key == null)
+            return client.getBitstreamData(bitstream.getId(), out);
+        while (true) {
+            long entrySize = download(bitstream, key);
+            Path file = directory.resolve(key);
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // Evicted in between, or deleted behind our back.
+                synchronized (entries) {
+                    Long removed = entries.get(key);
+                    if (removed != null && !Files.exists(file)) {
+                        entries.remove(key);
+                        size -= removed;
+                    }
+                }
+                continue;
+            }
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                long position = 0;
+                while (position < entrySize) {
+                    position += channel.transferTo(position, entrySize - position, out);
+                }
+                return position;
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Streams the content of a bitstream to a channel, from the cache if possible. The channel is not closed.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param out
+     *            the destination.
+     * @return the number of bytes written.
+     * @throws IOException
+     *             when the cache cannot be read or written, {@link BitstreamVerificationException} when the downloaded
+     *             content does not match the checksum.
+     */
+    public long getBitstreamData(Integer bitstream_id, WritableByteChannel out) throws IOException {
+        Checksum checksum = checksums.get(bitstream_id);
+        if (checksum == null || System.currentTimeMillis() - checksum.read > checksumTimeToLive)
+            return getBitstreamData(client.getBitstream(bitstream_id, null), out);
+        Bitstream bitstream = new Bitstream();
+        bitstream.setId(bitstream_id);
+        return getBitstreamData(bitstream, checksum.key.isEmpty() ? null : checksum.key, out);
+    }
+
+    /**
+     * Streams the content of a bitstream to an output stream, from the cache if possible. The output stream is not
+     * closed.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param out
+     *            the destination.
+     * @return the number of bytes written.
+     * @throws IOException
+     *             when the cache cannot be read or written, {@link BitstreamVerificationException} when the downloaded
+     *             content does not match the checksum.
+     */
+    public long getBitstreamData(Integer bitstream_id, OutputStream out) throws IOException {
+        return getBitstreamData(bitstream_id, Channels.newChannel(out));
+    }
+
+    /**
+     * Gets how long the checksum of a bitstream is kept before asking DSpace for it again.
+     * 
+     * @return the time to live, in milliseconds.
+     */
+    public long getChecksumTimeToLive() {
+        return checksumTimeToLive;
+    }
+
+    /**
+     * Gets the number of reads served from the cache.
+     * 
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the maximum total size of the entries.
+     * 
+     * @return the maximum size, in bytes.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of reads that downloaded the bitstream.
+     * 
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the total size of the entries.
+     * 
+     * @return the size, in bytes.
+     */
+    public long getSize() {
+        synchronized (entries) {
+            return size;
+        }
+    }
+
+    /**
+     * Sets how long the checksum of a bitstream is kept before asking DSpace for it again, 10 minutes by default.
+     * 
+     * @param checksumTimeToLive
+     *            the time to live, in milliseconds.
+     */
+    public void setChecksumTimeToLive(long checksumTimeToLive) {
+        this.checksumTimeToLive = checksumTimeToLive;
+    }
+
+}
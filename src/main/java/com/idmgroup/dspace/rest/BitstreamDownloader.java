@@ -0,0 +1,402 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.CheckSum;
+
+/**
+ * Downloads bitstreams to files with HTTP range requests.
+ * 
+ * A transfer interrupted by an I/O error or a server error is resumed from the last byte written, up to
+ * {@link #getMaxAttempts()} times without progress; an error writing the file is not retried. A sequential download
+ * also resumes a partial file left by a previous run. Large bitstreams can be fetched as several ranges in parallel,
+ * unless the server ignores the range of the first request. In the end, the file is checked against the size and the
+ * checksum announced by DSpace.
+ * 
+ * @author arnaud
+ */
+public class BitstreamDownloader {
+
+    /**
+     * Writes to a file channel at an advancing position, so that several ranges can be written concurrently. It keeps
+     * the failure of a write, so that an error of the local disk is told from an error of the transfer.
+     */
+    private static class PositionalChannel implements WritableByteChannel {
+
+        private final FileChannel channel;
+
+        private IOException failure;
+
+        private long position;
+
+        public PositionalChannel(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            int written;
+            try {
+                written = channel.write(src, position);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+            position += written;
+            return written;
+        }
+
+    }
+
+    private static final String DEFAULT_CHECKSUM_ALGORITHM = "MD5";
+
+    private static final long PROBE_SIZE = 64 * 1024;
+
+    private final DSpaceRestClient client;
+
+    private ExecutorService executor;
+
+    private int maxAttempts = 5;
+
+    private long minPartSize = 16 * 1024 * 1024;
+
+    private int parallelism = 1;
+
+    private boolean verifyChecksum = true;
+
+    /**
+     * New instance.
+     * 
+     * @param client
+     *            the client used to fetch the bitstreams.
+     */
+    public BitstreamDownloader(DSpaceRestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Downloads a bitstream to a file, then verifies it.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param target
+     *            the destination file.
+     * @return the bitstream metadata the file was checked against.
+     * @throws IOException
+     *             when the transfer fails for good, {@link BitstreamVerificationException} when the file does not
+     *             match.
+     */
+    public Bitstream download(Integer bitstream_id, Path target) throws IOException {
+        Bitstream bitstream = client.getBitstream(bitstream_id, null);
+        download(bitstream, target);
+        return bitstream;
+    }
+
+    /**
+     * Downloads a bitstream to a file, then verifies it.
+     * 
+     * @param bitstream
+     *            the bitstream metadata, as returned by {@link DSpaceRestClient#getBitstream(Integer, String)}.
+     * @param target
+     *            the destination file.
+     * @throws IOException
+     *             when the transfer fails for good, {@link BitstreamVerificationException} when the file does not
+     *             match.
+     */
+    public void download(Bitstream bitstream, Path target) throws IOException {
+        Long sizeBytes = bitstream.getSizeBytes();
+        FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (sizeBytes == null || parallelism <= 1 || sizeBytes < 2 * minPartSize) {
+                downloadSequential(bitstream.getId(), sizeBytes, channel);
+            } else {
+                downloadParallel(bitstream.getId(), sizeBytes, channel);
+            }
+        } finally {
+            channel.close();
+        }
+        verify(bitstream, target);
+    }
+
+    private void downloadParallel(final Integer bitstream_id, long sizeBytes, final FileChannel channel)
+            throws IOException {
+        if (channel.size() > sizeBytes) {
+            channel.truncate(sizeBytes);
+        }
+        // A small first range tells whether the server serves ranges: if not, it sends the whole content at once.
+        PositionalChannel probe = new PositionalChannel(channel, 0);
+        try {
+            client.getBitstreamDataPrefix(bitstream_id, PROBE_SIZE, probe);
+        } catch (RuntimeException e) {
+            if (probe.failure != null)
+                throw probe.failure;
+            if (!isRetryable(e))
+                throw e;
+        }
+        if (probe.position > PROBE_SIZE) {
+            // The parts would each receive the whole content too: go on with a single download.
+            downloadSequential(bitstream_id, sizeBytes, channel);
+            return;
+        }
+        long offset = probe.position;
+        long partCount = Math.max(1, Math.min(parallelism, (sizeBytes - offset) / minPartSize));
+        long partSize = (sizeBytes - offset + partCount - 1) / partCount;
+        ExecutorService partExecutor = executor != null ? executor : Executors.newFixedThreadPool((int) partCount);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (long start = offset; start < sizeBytes; start += partSize) {
+                final long partStart = start;
+                final long partEnd = Math.min(start + partSize, sizeBytes);
+                futures.add(partExecutor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws IOException {
+                        downloadRange(bitstream_id, partStart, partEnd, channel);
+                        return null;
+                    }
+
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted while downloading bitstream " + bitstream_id, e);
+                } catch (ExecutionException e) {
+                    for (Future<Void> other : futures) {
+                        other.cancel(true);
+                    }
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException)
+                        throw (IOException) cause;
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    throw new IOException(cause);
+                }
+            }
+        } finally {
+            if (partExecutor != executor) {
+                partExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private void downloadRange(Integer bitstream_id, long start, long end, FileChannel channel) throws IOException {
+        long position = start;
+        int failures = 0;
+        while (position < end) {
+            PositionalChannel out = new PositionalChannel(channel, position);
+            try {
+                client.getBitstreamDataRange(bitstream_id, position, end, out);
+            } catch (RuntimeException e) {
+                if (out.failure != null)
+                    throw out.failure;
+                if (!isRetryable(e))
+                    throw e;
+                failures = onFailure(bitstream_id, position, out.position, failures, e);
+                position = out.position;
+                continue;
+            }
+            if (out.position < end) {
+                failures = onFailure(bitstream_id, position, out.position, failures, null);
+            }
+            position = out.position;
+        }
+    }
+
+    private void downloadSequential(Integer bitstream_id, Long sizeBytes, FileChannel channel) throws IOException {
+        long position = channel.size();
+        if (sizeBytes == null || position > sizeBytes) {
+            // Nothing to check the partial content against.
+            channel.truncate(0);
+            position = 0;
+        }
+        int failures = 0;
+        while (sizeBytes == null || position < sizeBytes) {
+            PositionalChannel out = new PositionalChannel(channel, position);
+            try {
+                client.getBitstreamDataRange(bitstream_id, position, -1, out);
+            } catch (RuntimeException e) {
+                if (out.failure != null)
+                    throw out.failure;
+                if (!isRetryable(e))
+                    throw e;
+                failures = onFailure(bitstream_id, position, out.position, failures, e);
+                position = out.position;
+                continue;
+            }
+            if (sizeBytes == null)
+                break;
+            if (out.position < sizeBytes) {
+                failures = onFailure(bitstream_id, position, out.position, failures, null);
+            }
+            position = out.position;
+        }
+    }
+
+    /**
+     * Gets the executor running the parallel ranges.
+     * 
+     * @return the executor, or null if a pool is created for each download.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Gets the maximum number of consecutive attempts without progress on a range.
+     * 
+     * @return the maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Gets the minimum size of a range fetched in parallel.
+     * 
+     * @return the minimum part size in bytes.
+     */
+    public long getMinPartSize() {
+        return minPartSize;
+    }
+
+    /**
+     * Gets the number of ranges fetched in parallel.
+     * 
+     * @return the parallelism.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Tells whether the checksum is verified.
+     * 
+     * @return true if the checksum is verified.
+     */
+    public boolean isVerifyChecksum() {
+        return verifyChecksum;
+    }
+
+    private boolean isRetryable(RuntimeException e) {
+        return e instanceof ResourceAccessException || e instanceof HttpServerErrorException;
+    }
+
+    private int onFailure(Integer bitstream_id, long from, long to, int failures, RuntimeException e)
+            throws IOException {
+        int result = to > from ? 1 : failures + 1;
+        if (result >= maxAttempts) {
+            String message = "giving up downloading bitstream " + bitstream_id + " at byte " + to + " after "
+                    + result + " attempts";
+            throw e != null ? new IOException(message, e) : new IOException(message);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the executor running the parallel ranges. It is not shut down by the downloader.
+     * 
+     * @param executor
+     *            the executor, or null to create a pool for each download.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the maximum number of consecutive attempts without progress on a range.
+     * 
+     * @param maxAttempts
+     *            the maximum number of attempts.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Sets the minimum size of a range fetched in parallel. Smaller bitstreams are fetched sequentially.
+     * 
+     * @param minPartSize
+     *            the minimum part size in bytes.
+     */
+    public void setMinPartSize(long minPartSize) {
+        this.minPartSize = minPartSize;
+    }
+
+    /**
+     * Sets the number of ranges fetched in parallel. With 1, the default, a partial file left by a previous run is
+     * resumed.
+     * 
+     * @param parallelism
+     *            the parallelism.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets whether the checksum is verified. The size always is.
+     * 
+     * @param verifyChecksum
+     *            true to verify the checksum.
+     */
+    public void setVerifyChecksum(boolean verifyChecksum) {
+        this.verifyChecksum = verifyChecksum;
+    }
+
+    private void verify(Bitstream bitstream, Path target) throws IOException {
+        Long sizeBytes = bitstream.getSizeBytes();
+        long size = Files.size(target);
+        if (sizeBytes != null && size != sizeBytes) {
+            throw new BitstreamVerificationException("bitstream " + bitstream.getId() + " has " + size
+                    + " bytes, expected " + sizeBytes);
+        }
+        CheckSum checkSum = bitstream.getCheckSum();
+        if (verifyChecksum && checkSum != null && checkSum.getValue() != null) {
+            String algorithm = checkSum.getCheckSumAlgorithm();
+            if (algorithm == null || algorithm.length() <= 0)
+                algorithm = DEFAULT_CHECKSUM_ALGORITHM;
+            String digest;
+            try {
+                digest = Streams.digest(target, algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new BitstreamVerificationException("unsupported checksum algorithm " + algorithm, e);
+            }
+            if (!digest.equalsIgnoreCase(checkSum.getValue())) {
+                throw new BitstreamVerificationException("bitstream " + bitstream.getId() + " has " + algorithm + " "
+                        + digest + ", expected " + checkSum.getValue());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a downloaded bitstream does not match the size or the checksum announced by DSpace.
+ * 
+ * @author arnaud
+ */
+public class BitstreamVerificationException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BitstreamVerificationException(String message) {
+        super(message);
+    }
+
+    public BitstreamVerificationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
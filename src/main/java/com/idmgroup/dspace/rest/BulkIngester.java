@@ -0,0 +1,209 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Creates many items in a collection with {@link DSpaceRestClient#addCollectionItem(Integer, Item)}, keeping several
+ * creations in flight at once.
+ * 
+ * The source is read lazily: the next item is only taken once a creation slot is free, so at most
+ * {@link #getConcurrency()} items are held whatever the size of the source. A failed creation does not stop the
+ * others, each item gets its own {@link IngestResult}. E.g.:
+ * 
+ * <pre>
+ * new BulkIngester(client).ingest(collectionId, records, new IngestHandler() {
+ * 
+ *     &#064;Override
+ *     public void handle(IngestResult result) {
+ *         ...
+ *     }
+ * 
+ * });
+ * </pre>
+ * 
+ * @author arnaud
+ */
+public class BulkIngester {
+
+    private final DSpaceRestClient client;
+
+    private int concurrency = 4;
+
+    private ExecutorService executor;
+
+    /**
+     * New instance.
+     * 
+     * @param client
+     *            the client used to create the items.
+     */
+    public BulkIngester(DSpaceRestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Gets the maximum number of creations in flight.
+     * 
+     * @return the concurrency.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Gets the executor running the creations.
+     * 
+     * @return the executor, by default a pool of daemon threads created on first use.
+     */
+    public synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Workers.daemonPool("dspace-ingester");
+        }
+        return executor;
+    }
+
+    /**
+     * Creates items in a collection and collects their outcomes. All of them are kept until the end: for large
+     * sources, prefer {@link #ingest(Integer, Iterator, IngestHandler)}.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param items
+     *            the items to create.
+     * @return the outcomes, in the order of the source.
+     */
+    public List<IngestResult> ingest(Integer collection_id, Iterable<? extends Item> items) {
+        final List<IngestResult> results = new ArrayList<IngestResult>();
+        ingest(collection_id, items.iterator(), new IngestHandler() {
+
+            @Override
+            public void handle(IngestResult result) {
+                synchronized (results) {
+                    results.add(result);
+                }
+            }
+
+        });
+        Collections.sort(results, new Comparator<IngestResult>() {
+
+            @Override
+            public int compare(IngestResult o1, IngestResult o2) {
+                return o1.getIndex() < o2.getIndex() ? -1 : (o1.getIndex() == o2.getIndex() ? 0 : 1);
+            }
+
+        });
+        return results;
+    }
+
+    /**
+     * Creates items in a collection. Returns when all the creations are done.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param items
+     *            the items to create, read from the calling thread as creation slots free up.
+     * @param handler
+     *            receives the outcome of each item, from several threads at once.
+     * @return the number of items read from the source.
+     * @throws RuntimeException
+     *             the first exception thrown by the handler or the source, which stops the ingest once the creations
+     *             in flight are done.
+     */
+    public long ingest(final Integer collection_id, Iterator<? extends Item> items, final IngestHandler handler) {
+        final int permits = concurrency;
+        final Semaphore slots = new Semaphore(permits);
+        final AtomicReference<RuntimeException> aborted = new AtomicReference<RuntimeException>();
+        ExecutorService executor = getExecutor();
+        long index = 0;
+        try {
+            try {
+                while (aborted.get() == null && items.hasNext()) {
+                    slots.acquire();
+                    final Item item;
+                    try {
+                        item = items.next();
+                    } catch (RuntimeException e) {
+                        slots.release();
+                        throw e;
+                    }
+                    final long position = index++;
+                    Runnable creation = new Runnable() {
+
+                        @Override
+                        public void run() {
+                            try {
+                                IngestResult result;
+                                try {
+                                    result = new IngestResult(position, item, client.addCollectionItem(
+                                            collection_id, item), null);
+                                } catch (RuntimeException e) {
+                                    result = new IngestResult(position, item, null, e);
+                                }
+                                handler.handle(result);
+                            } catch (RuntimeException e) {
+                                aborted.compareAndSet(null, e);
+                            } finally {
+                                slots.release();
+                            }
+                        }
+
+                    };
+                    try {
+                        executor.execute(creation);
+                    } catch (RejectedExecutionException e) {
+                        slots.release();
+                        throw e;
+                    }
+                }
+            } catch (RuntimeException e) {
+                aborted.compareAndSet(null, e);
+            } finally {
+                // Wait for the creations in flight.
+                slots.acquire(permits);
+                slots.release(permits);
+            }
+        } catch (InterruptedException e) {
+            aborted.compareAndSet(null, new IllegalStateException("interrupted while ingesting", e));
+            Thread.currentThread().interrupt();
+        }
+
+        if (aborted.get() != null)
+            throw aborted.get();
+        return index;
+    }
+
+    /**
+     * Sets the maximum number of creations in flight, 4 by default. It is also the maximum number of items read ahead
+     * from the source.
+     * 
+     * @param concurrency
+     *            the concurrency.
+     */
+    public void setConcurrency(int concurrency) {
+        if (concurrency < 1)
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Sets the executor running the creations. It is not shut down by this class and it must not reject tasks while
+     * there are fewer than {@link #getConcurrency()} running.
+     * 
+     * @param executor
+     *            the executor.
+     */
+    public synchronized void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+}
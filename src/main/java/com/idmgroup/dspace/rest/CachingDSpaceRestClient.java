@@ -0,0 +1,777 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.InputStream;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+import com.idmgroup.dspace.rest.jersey.ResourcePolicy;
+
+/**
+ * DSpace REST client caching the communities, collections, items and bitstreams it reads, see {@link ObjectCache}.
+ * 
+ * The cached methods are {@link #getBitstream(Integer, String)},
+ * {@link #getCollection(Integer, String, Integer, Integer)}, {@link #getCommunity(Integer, String)},
+ * {@link #getItem(Integer, String)} and {@link #getObject(String, String, String, Class)}, keyed by all their
+ * parameters. The overloads with the userIP, userAgent and xforwardedfor parameters are not cached, since they are
+ * meant to be accounted for by the server.
+ * 
+ * The mutating methods of this client invalidate the objects they change, the objects embedding them and, on
+ * deletion, their parents. When the parents of a deleted object are not known from the cache, all the objects of the
+ * parent type are invalidated. Changes made by other clients are only seen when the entries expire.
+ * 
+ * In the revalidating mode, see {@link #setRevalidate(boolean)}, the expired items, collections and communities are
+ * not fetched again but revalidated with a conditional request, using the ETag and Last-Modified headers sent by the
+ * server or the lastModified field of the items. When the server answers 304 Not Modified, the cached object is
+ * returned without reading anything.
+ * 
+ * The cached objects are shared between the callers and must not be modified.
+ * 
+ * @author arnaud
+ */
+public class CachingDSpaceRestClient extends DSpaceRestClient {
+
+    private static final String BITSTREAM = "bitstream";
+
+    private static final String COLLECTION = "collection";
+
+    private static final String COMMUNITY = "community";
+
+    private static final String ITEM = "item";
+
+    private ObjectCache cache = new ObjectCache();
+
+    private boolean revalidate;
+
+    private TimeZone serverTimeZone = TimeZone.getTimeZone("UTC");
+
+    /**
+     * New instance, unconfigured.
+     */
+    public CachingDSpaceRestClient() {
+    }
+
+    /**
+     * New instance with a base URL and a configured {@link RestTemplate} instance.
+     * 
+     * @param baseUrl
+     *            the base URL of the DSpace REST API, e.g. "https://demo.dspace.org/rest".
+     * @param restTemplate
+     */
+    public CachingDSpaceRestClient(String baseUrl, RestTemplate restTemplate) {
+        super(baseUrl, restTemplate);
+    }
+
+    private static void addKey(List<String> keys, DSpaceObject object) {
+        String key = keyOf(object);
+        if (key != null)
+            keys.add(key);
+    }
+
+    private static void addKeys(List<String> keys, List<? extends DSpaceObject> objects) {
+        for (DSpaceObject object : objects) {
+            addKey(keys, object);
+        }
+    }
+
+    private static List<String> embeddedKeys(Object value) {
+        List<String> result = new ArrayList<String>();
+        if (value instanceof Item) {
+            Item item = (Item) value;
+            addKeys(result, item.getBitstreams());
+            addKey(result, item.getParentCollection());
+            addKeys(result, item.getParentCollectionList());
+            addKeys(result, item.getParentCommunityList());
+        } else if (value instanceof Collection) {
+            Collection collection = (Collection) value;
+            addKeys(result, collection.getItems());
+            addKey(result, collection.getLogo());
+            addKey(result, collection.getParentCommunity());
+            addKeys(result, collection.getParentCommunityList());
+        } else if (value instanceof Community) {
+            Community community = (Community) value;
+            addKeys(result, community.getCollections());
+            addKey(result, community.getLogo());
+            addKey(result, community.getParentCommunity());
+            addKeys(result, community.getSubcommunities());
+        } else if (value instanceof Bitstream) {
+            addKey(result, ((Bitstream) value).getParentObject());
+        }
+        return result;
+    }
+
+    private static String key(String type, Integer id) {
+        return type + "/" + id;
+    }
+
+    private static String keyOf(DSpaceObject object) {
+        if (object == null || object.getId() == null)
+            return null;
+        String type;
+        if (object instanceof Item)
+            type = ITEM;
+        else if (object instanceof Collection)
+            type = COLLECTION;
+        else if (object instanceof Community)
+            type = COMMUNITY;
+        else if (object instanceof Bitstream)
+            type = BITSTREAM;
+        else
+            type = object.getType();
+        return type == null ? null : key(type, object.getId());
+    }
+
+    @Override
+    public Void addBitstreamPolicy(Integer bitstream_id, ResourcePolicy requestBody) {
+        try {
+            return super.addBitstreamPolicy(bitstream_id, requestBody);
+        } finally {
+            changed(BITSTREAM, bitstream_id);
+        }
+    }
+
+    @Override
+    public Void addBitstreamPolicy(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor,
+            ResourcePolicy requestBody) {
+        try {
+            return super.addBitstreamPolicy(bitstream_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(BITSTREAM, bitstream_id);
+        }
+    }
+
+    @Override
+    public Item addCollectionItem(Integer collection_id, Item requestBody) {
+        try {
+            return super.addCollectionItem(collection_id, requestBody);
+        } finally {
+            changed(COLLECTION, collection_id);
+        }
+    }
+
+    @Override
+    public Item addCollectionItem(Integer collection_id, String userIP, String userAgent, String xforwardedfor,
+            Item requestBody) {
+        try {
+            return super.addCollectionItem(collection_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(COLLECTION, collection_id);
+        }
+    }
+
+    @Override
+    public Collection addCommunityCollection(Integer community_id, Collection requestBody) {
+        try {
+            return super.addCommunityCollection(community_id, requestBody);
+        } finally {
+            changed(COMMUNITY, community_id);
+        }
+    }
+
+    @Override
+    public Collection addCommunityCollection(Integer community_id, String userIP, String userAgent,
+            String xforwardedfor, Collection requestBody) {
+        try {
+            return super.addCommunityCollection(community_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(COMMUNITY, community_id);
+        }
+    }
+
+    @Override
+    public Community addCommunityCommunity(Integer community_id, Community requestBody) {
+        try {
+            return super.addCommunityCommunity(community_id, requestBody);
+        } finally {
+            changed(COMMUNITY, community_id);
+        }
+    }
+
+    @Override
+    public Community addCommunityCommunity(Integer community_id, String userIP, String userAgent,
+            String xforwardedfor, Community requestBody) {
+        try {
+            return super.addCommunityCommunity(community_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(COMMUNITY, community_id);
+        }
+    }
+
+    @Override
+    public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year,
+            Integer month, Integer day, InputStream requestBody) {
+        try {
+            return super.addItemBitstream(item_id, name, description, groupId, year, month, day, requestBody);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    @Override
+    public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year,
+            Integer month, Integer day, InputStream requestBody, long contentLength) {
+        try {
+            return super.addItemBitstream(item_id, name, description, groupId, year, month, day, requestBody,
+                    contentLength);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    @Override
+    public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year,
+            Integer month, Integer day, String userIP, String userAgent, String xforwardedfor,
+            InputStream requestBody) {
+        try {
+            return super.addItemBitstream(item_id, name, description, groupId, year, month, day, userIP, userAgent,
+                    xforwardedfor, requestBody);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    @Override
+    public void addItemMetadata(Integer item_id, MetadataEntry[] requestBody) {
+        try {
+            super.addItemMetadata(item_id, requestBody);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    @Override
+    public Void addItemMetadata(Integer item_id, MetadataEntry requestBody) {
+        try {
+            return super.addItemMetadata(item_id, requestBody);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    @Override
+    public Void addItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor,
+            MetadataEntry requestBody) {
+        try {
+            return super.addItemMetadata(item_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    private void changed(String type, Integer id) {
+        cache.invalidate(key(type, id), false);
+    }
+
+    @Override
+    public Void deleteBitstream(Integer bitstream_id) {
+        try {
+            return super.deleteBitstream(bitstream_id);
+        } finally {
+            removed(BITSTREAM, bitstream_id, ITEM);
+        }
+    }
+
+    @Override
+    public Void deleteBitstream(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteBitstream(bitstream_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            removed(BITSTREAM, bitstream_id, ITEM);
+        }
+    }
+
+    @Override
+    public Void deleteBitstreamPolicy(Integer policy_id, Integer bitstream_id) {
+        try {
+            return super.deleteBitstreamPolicy(policy_id, bitstream_id);
+        } finally {
+            changed(BITSTREAM, bitstream_id);
+        }
+    }
+
+    @Override
+    public Void deleteBitstreamPolicy(Integer policy_id, Integer bitstream_id, String userIP, String userAgent,
+            String xforwardedfor) {
+        try {
+            return super.deleteBitstreamPolicy(policy_id, bitstream_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(BITSTREAM, bitstream_id);
+        }
+    }
+
+    @Override
+    public Void deleteCollection(Integer collection_id) {
+        try {
+            return super.deleteCollection(collection_id);
+        } finally {
+            removed(COLLECTION, collection_id, COMMUNITY);
+        }
+    }
+
+    @Override
+    public Void deleteCollection(Integer collection_id, String userIP, String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteCollection(collection_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            removed(COLLECTION, collection_id, COMMUNITY);
+        }
+    }
+
+    @Override
+    public Void deleteCollectionItem(Integer collection_id, Integer item_id) {
+        try {
+            return super.deleteCollectionItem(collection_id, item_id);
+        } finally {
+            changed(COLLECTION, collection_id);
+            removed(ITEM, item_id, null);
+        }
+    }
+
+    @Override
+    public Void deleteCollectionItem(Integer collection_id, Integer item_id, String userIP, String userAgent,
+            String xforwardedfor) {
+        try {
+            return super.deleteCollectionItem(collection_id, item_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(COLLECTION, collection_id);
+            removed(ITEM, item_id, null);
+        }
+    }
+
+    @Override
+    public Void deleteCommunity(Integer community_id) {
+        try {
+            return super.deleteCommunity(community_id);
+        } finally {
+            removed(COMMUNITY, community_id, COMMUNITY);
+        }
+    }
+
+    @Override
+    public Void deleteCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteCommunity(community_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            removed(COMMUNITY, community_id, COMMUNITY);
+        }
+    }
+
+    @Override
+    public Void deleteCommunityCollection(Integer collection_id, Integer community_id) {
+        try {
+            return super.deleteCommunityCollection(collection_id, community_id);
+        } finally {
+            changed(COMMUNITY, community_id);
+            removed(COLLECTION, collection_id, null);
+        }
+    }
+
+    @Override
+    public Void deleteCommunityCollection(Integer collection_id, Integer community_id, String userIP,
+            String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteCommunityCollection(collection_id, community_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(COMMUNITY, community_id);
+            removed(COLLECTION, collection_id, null);
+        }
+    }
+
+    @Override
+    public Void deleteCommunityCommunity(Integer community_id, Integer community_id2) {
+        try {
+            return super.deleteCommunityCommunity(community_id, community_id2);
+        } finally {
+            changed(COMMUNITY, community_id);
+            removed(COMMUNITY, community_id2, null);
+        }
+    }
+
+    @Override
+    public Void deleteCommunityCommunity(Integer community_id, Integer community_id2, String userIP,
+            String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteCommunityCommunity(community_id, community_id2, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(COMMUNITY, community_id);
+            removed(COMMUNITY, community_id2, null);
+        }
+    }
+
+    @Override
+    public Void deleteItem(Integer item_id) {
+        try {
+            return super.deleteItem(item_id);
+        } finally {
+            removed(ITEM, item_id, COLLECTION);
+        }
+    }
+
+    @Override
+    public Void deleteItem(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteItem(item_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            removed(ITEM, item_id, COLLECTION);
+        }
+    }
+
+    @Override
+    public Void deleteItemBitstream(Integer item_id, Integer bitstream_id) {
+        try {
+            return super.deleteItemBitstream(item_id, bitstream_id);
+        } finally {
+            changed(ITEM, item_id);
+            removed(BITSTREAM, bitstream_id, null);
+        }
+    }
+
+    @Override
+    public Void deleteItemBitstream(Integer item_id, Integer bitstream_id, String userIP, String userAgent,
+            String xforwardedfor) {
+        try {
+            return super.deleteItemBitstream(item_id, bitstream_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(ITEM, item_id);
+            removed(BITSTREAM, bitstream_id, null);
+        }
+    }
+
+    @Override
+    public Void deleteItemMetadata(Integer item_id) {
+        try {
+            return super.deleteItemMetadata(item_id);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteItemMetadata(item_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    @Override
+    public Bitstream getBitstream(Integer bitstream_id, String expand) {
+        String key = key(BITSTREAM, bitstream_id);
+        String variant = "expand=" + expand;
+        Bitstream result = (Bitstream) cache.get(key, variant);
+        if (result == null) {
+            long stamp = cache.stamp();
+            result = super.getBitstream(bitstream_id, expand);
+            cache.put(key, variant, result, embeddedKeys(result), stamp);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the cache.
+     * 
+     * @return the cache.
+     */
+    public ObjectCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public Collection getCollection(Integer collection_id, String expand, Integer limit, Integer offset) {
+        String key = key(COLLECTION, collection_id);
+        String variant = "expand=" + expand + "&limit=" + limit + "&offset=" + offset;
+        if (revalidate) {
+            Map<String, Object> queryParams = new LinkedHashMap<String, Object>();
+            queryParams.put("expand", expand);
+            queryParams.put("limit", limit);
+            queryParams.put("offset", offset);
+            return revalidate(key, variant, "/collections/{collection_id}",
+                    Collections.singletonMap("collection_id", collection_id), queryParams, Collection.class);
+        }
+        Collection result = (Collection) cache.get(key, variant);
+        if (result == null) {
+            long stamp = cache.stamp();
+            result = super.getCollection(collection_id, expand, limit, offset);
+            cache.put(key, variant, result, embeddedKeys(result), stamp);
+        }
+        return result;
+    }
+
+    @Override
+    public Community getCommunity(Integer community_id, String expand) {
+        String key = key(COMMUNITY, community_id);
+        String variant = "expand=" + expand;
+        if (revalidate) {
+            return revalidate(key, variant, "/communities/{community_id}",
+                    Collections.singletonMap("community_id", community_id), Collections.singletonMap("expand", expand),
+                    Community.class);
+        }
+        Community result = (Community) cache.get(key, variant);
+        if (result == null) {
+            long stamp = cache.stamp();
+            result = super.getCommunity(community_id, expand);
+            cache.put(key, variant, result, embeddedKeys(result), stamp);
+        }
+        return result;
+    }
+
+    @Override
+    public Item getItem(Integer item_id, String expand) {
+        String key = key(ITEM, item_id);
+        String variant = "expand=" + expand;
+        if (revalidate) {
+            return revalidate(key, variant, "/items/{item_id}", Collections.singletonMap("item_id", item_id),
+                    Collections.singletonMap("expand", expand), Item.class);
+        }
+        Item result = (Item) cache.get(key, variant);
+        if (result == null) {
+            long stamp = cache.stamp();
+            result = super.getItem(item_id, expand);
+            cache.put(key, variant, result, embeddedKeys(result), stamp);
+        }
+        return result;
+    }
+
+    @Override
+    public <T> T getObject(String prefix, String suffix, String expand, Class<T> returnType) {
+        String handle = prefix + "/" + suffix + "?expand=" + expand + "&type=" + returnType.getName();
+        Object cached = cache.getByHandle(handle);
+        if (returnType.isInstance(cached))
+            return returnType.cast(cached);
+        long stamp = cache.stamp();
+        T result = super.getObject(prefix, suffix, expand, returnType);
+        if (result instanceof DSpaceObject) {
+            String key = keyOf((DSpaceObject) result);
+            if (key != null)
+                cache.putByHandle(handle, key, result, embeddedKeys(result), stamp);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the time zone of the server, used to read the lastModified field of the items.
+     * 
+     * @return the time zone of the server.
+     */
+    public TimeZone getServerTimeZone() {
+        return serverTimeZone;
+    }
+
+    /**
+     * Tells whether the expired objects are revalidated with conditional requests.
+     * 
+     * @return true in the revalidating mode.
+     */
+    public boolean isRevalidate() {
+        return revalidate;
+    }
+
+    private long parseLastModified(String lastModified) {
+        if (lastModified == null)
+            return -1;
+        // e.g. "2015-10-06 12:08:24.373", the milliseconds are ignored
+        DateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        format.setTimeZone(serverTimeZone);
+        try {
+            return format.parse(lastModified).getTime();
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    private void removed(String type, Integer id, String parentType) {
+        Set<String> invalidated = cache.invalidate(key(type, id), true);
+        if (parentType == null)
+            return;
+        String prefix = parentType + "/";
+        for (String key : invalidated) {
+            if (key.startsWith(prefix))
+                return;
+        }
+        // the parents are unknown
+        cache.invalidateType(parentType);
+    }
+
+    private <T> T revalidate(String key, String variant, String path, Map<String, ?> uriVariables,
+            Map<String, ?> queryParams, Class<T> responseType) {
+        ObjectCache.Entry entry = cache.getEntry(key, variant);
+        if (entry != null && !entry.isExpired())
+            return responseType.cast(entry.getValue());
+        long stamp = cache.stamp();
+        ResponseEntity<T> response = getConditionally(path, uriVariables, queryParams, responseType,
+                entry == null ? null : entry.getETag(), entry == null ? -1 : entry.getLastModified());
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && entry != null) {
+            cache.touch(key, variant, entry);
+            return responseType.cast(entry.getValue());
+        }
+        T result = response.getBody();
+        long lastModified = response.getHeaders().getLastModified();
+        if (lastModified < 0 && result instanceof Item)
+            lastModified = parseLastModified(((Item) result).getLastModified());
+        cache.put(key, variant, result, embeddedKeys(result), stamp, response.getHeaders().getETag(), lastModified);
+        return result;
+    }
+
+    /**
+     * Sets the cache, e.g. to share it between clients of the same server.
+     * 
+     * @param cache
+     *            the cache.
+     */
+    public void setCache(ObjectCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Sets whether the expired items, collections and communities are revalidated with conditional requests, false by
+     * default. Set a short time to live on the cache to revalidate them often.
+     * 
+     * @param revalidate
+     *            true for the revalidating mode.
+     */
+    public void setRevalidate(boolean revalidate) {
+        this.revalidate = revalidate;
+    }
+
+    /**
+     * Sets the time zone of the server, UTC by default. It is used to read the lastModified field of the items, when
+     * the server does not send a Last-Modified header.
+     * 
+     * @param serverTimeZone
+     *            the time zone of the server.
+     */
+    public void setServerTimeZone(TimeZone serverTimeZone) {
+        this.serverTimeZone = serverTimeZone;
+    }
+
+    @Override
+    public Void updateBitstream(Integer bitstream_id, Bitstream requestBody) {
+        try {
+            return super.updateBitstream(bitstream_id, requestBody);
+        } finally {
+            changed(BITSTREAM, bitstream_id);
+        }
+    }
+
+    @Override
+    public Void updateBitstream(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor,
+            Bitstream requestBody) {
+        try {
+            return super.updateBitstream(bitstream_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(BITSTREAM, bitstream_id);
+        }
+    }
+
+    @Override
+    public Void updateBitstreamData(Integer bitstream_id, InputStream requestBody) {
+        try {
+            return super.updateBitstreamData(bitstream_id, requestBody);
+        } finally {
+            changed(BITSTREAM, bitstream_id);
+        }
+    }
+
+    @Override
+    public void updateBitstreamData(Integer bitstream_id, InputStream requestBody, long contentLength) {
+        try {
+            super.updateBitstreamData(bitstream_id, requestBody, contentLength);
+        } finally {
+            changed(BITSTREAM, bitstream_id);
+        }
+    }
+
+    @Override
+    public Void updateBitstreamData(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor,
+            InputStream requestBody) {
+        try {
+            return super.updateBitstreamData(bitstream_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(BITSTREAM, bitstream_id);
+        }
+    }
+
+    @Override
+    public Void updateCollection(Integer collection_id, Collection requestBody) {
+        try {
+            return super.updateCollection(collection_id, requestBody);
+        } finally {
+            changed(COLLECTION, collection_id);
+        }
+    }
+
+    @Override
+    public Void updateCollection(Integer collection_id, String userIP, String userAgent, String xforwardedfor,
+            Collection requestBody) {
+        try {
+            return super.updateCollection(collection_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(COLLECTION, collection_id);
+        }
+    }
+
+    @Override
+    public Void updateCommunity(Integer community_id, Community requestBody) {
+        try {
+            return super.updateCommunity(community_id, requestBody);
+        } finally {
+            changed(COMMUNITY, community_id);
+        }
+    }
+
+    @Override
+    public Void updateCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor,
+            Community requestBody) {
+        try {
+            return super.updateCommunity(community_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(COMMUNITY, community_id);
+        }
+    }
+
+    @Override
+    public Void updateItemMetadata(Integer item_id) {
+        try {
+            return super.updateItemMetadata(item_id);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    @Override
+    public void updateItemMetadata(Integer item_id, MetadataEntry[] requestBody) {
+        try {
+            super.updateItemMetadata(item_id, requestBody);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+    @Override
+    public Void updateItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        try {
+            return super.updateItemMetadata(item_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(ITEM, item_id);
+        }
+    }
+
+}
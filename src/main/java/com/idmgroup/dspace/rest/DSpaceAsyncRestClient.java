@@ -0,0 +1,1094 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.InputStream;
+import java.net.URI;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureAdapter;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.web.client.AsyncRestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+import com.idmgroup.dspace.rest.jersey.ResourcePolicy;
+import com.idmgroup.dspace.rest.jersey.Status;
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Asynchronous DSpace REST client implementation.
+ * 
+ * It is based on the Spring {@link AsyncRestTemplate} and manages the "rest-dspace-token" header for you. Every
+ * method returns as soon as the request is sent. To keep many requests in flight with few threads, configure the
+ * template with a non-blocking request factory, e.g. HttpComponentsAsyncClientHttpRequestFactory or
+ * Netty4ClientHttpRequestFactory: the default one uses a thread per request.
+ * 
+ * @author arnaud
+ */
+public class DSpaceAsyncRestClient {
+
+    /**
+     * Unwraps the token returned by the login and remembers it, as soon as the response arrives.
+     */
+    private class LoginFuture extends ListenableFutureAdapter<String, ResponseEntity<String>> {
+
+        public LoginFuture(ListenableFuture<ResponseEntity<String>> adaptee) {
+            super(adaptee);
+            adaptee.addCallback(new ListenableFutureCallback<ResponseEntity<String>>() {
+
+                @Override
+                public void onFailure(Throwable ex) {
+                }
+
+                @Override
+                public void onSuccess(ResponseEntity<String> response) {
+                    setToken(response.getBody());
+                }
+
+            });
+        }
+
+        @Override
+        protected String adapt(ResponseEntity<String> response) {
+            // Also done here, the callback may not have run yet when the caller gets the result.
+            return setToken(response.getBody());
+        }
+
+    }
+
+    /**
+     * Unwraps the body of the response.
+     */
+    private static class ResponseBodyFuture<T> extends ListenableFutureAdapter<T, ResponseEntity<T>> {
+
+        public ResponseBodyFuture(ListenableFuture<ResponseEntity<T>> adaptee) {
+            super(adaptee);
+        }
+
+        @Override
+        protected T adapt(ResponseEntity<T> response) {
+            return response.getBody();
+        }
+
+    }
+
+    private static final EndpointTemplate GET_BITSTREAM_DATA_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/retrieve", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_BITSTREAM_DATA = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/retrieve");
+
+    private static final EndpointTemplate ADD_BITSTREAM_POLICY_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_BITSTREAM_POLICY = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy");
+
+    private static final EndpointTemplate GET_BITSTREAM_POLICIES = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy");
+
+    private static final EndpointTemplate UPDATE_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_BITSTREAM = new EndpointTemplate("/bitstreams/{bitstream_id}");
+
+    private static final EndpointTemplate DELETE_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_BITSTREAM = new EndpointTemplate("/bitstreams/{bitstream_id}");
+
+    private static final EndpointTemplate GET_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}", "expand", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_BITSTREAM = new EndpointTemplate("/bitstreams/{bitstream_id}", "expand");
+
+    private static final EndpointTemplate UPDATE_BITSTREAM_DATA_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/data", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_BITSTREAM_DATA = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/data");
+
+    private static final EndpointTemplate DELETE_BITSTREAM_POLICY_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy/{policy_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_BITSTREAM_POLICY = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy/{policy_id}");
+
+    private static final EndpointTemplate GET_BITSTREAMS_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_BITSTREAMS = new EndpointTemplate(
+            "/bitstreams", "expand", "limit", "offset");
+
+    private static final EndpointTemplate UPDATE_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_COMMUNITY = new EndpointTemplate("/communities/{community_id}");
+
+    private static final EndpointTemplate GET_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}", "expand", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COMMUNITY = new EndpointTemplate("/communities/{community_id}", "expand");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COMMUNITY = new EndpointTemplate("/communities/{community_id}");
+
+    private static final EndpointTemplate ADD_COMMUNITY_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/communities", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_COMMUNITY_COMMUNITY = new EndpointTemplate(
+            "/communities/{community_id}/communities");
+
+    private static final EndpointTemplate GET_COMMUNITY_COMMUNITIES_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/communities",
+            "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COMMUNITY_COMMUNITIES = new EndpointTemplate(
+            "/communities/{community_id}/communities", "expand", "limit", "offset");
+
+    private static final EndpointTemplate ADD_COMMUNITY_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/collections", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_COMMUNITY_COLLECTION = new EndpointTemplate(
+            "/communities/{community_id}/collections");
+
+    private static final EndpointTemplate GET_COMMUNITY_COLLECTIONS_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/collections",
+            "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COMMUNITY_COLLECTIONS = new EndpointTemplate(
+            "/communities/{community_id}/collections", "expand", "limit", "offset");
+
+    private static final EndpointTemplate GET_TOP_COMMUNITIES_WITH_USER_IP = new EndpointTemplate(
+            "/communities/top-communities", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_TOP_COMMUNITIES = new EndpointTemplate(
+            "/communities/top-communities", "expand", "limit", "offset");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/collections/{collection_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_COLLECTION = new EndpointTemplate(
+            "/communities/{community_id}/collections/{collection_id}");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/communities/{community_id2}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_COMMUNITY = new EndpointTemplate(
+            "/communities/{community_id}/communities/{community_id2}");
+
+    private static final EndpointTemplate GET_COMMUNITIES_WITH_USER_IP = new EndpointTemplate(
+            "/communities", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COMMUNITIES = new EndpointTemplate(
+            "/communities", "expand", "limit", "offset");
+
+    private static final EndpointTemplate CREATE_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate CREATE_COMMUNITY = new EndpointTemplate("/communities");
+
+    private static final EndpointTemplate UPDATE_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_COLLECTION = new EndpointTemplate("/collections/{collection_id}");
+
+    private static final EndpointTemplate DELETE_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COLLECTION = new EndpointTemplate("/collections/{collection_id}");
+
+    private static final EndpointTemplate GET_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COLLECTION = new EndpointTemplate(
+            "/collections/{collection_id}", "expand", "limit", "offset");
+
+    private static final EndpointTemplate DELETE_COLLECTION_ITEM_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}/items/{item_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COLLECTION_ITEM = new EndpointTemplate(
+            "/collections/{collection_id}/items/{item_id}");
+
+    private static final EndpointTemplate FIND_COLLECTION_BY_NAME = new EndpointTemplate(
+            "/collections/find-collection");
+
+    private static final EndpointTemplate ADD_COLLECTION_ITEM_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}/items", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_COLLECTION_ITEM = new EndpointTemplate(
+            "/collections/{collection_id}/items");
+
+    private static final EndpointTemplate GET_COLLECTION_ITEMS_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}/items", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COLLECTION_ITEMS = new EndpointTemplate(
+            "/collections/{collection_id}/items", "expand", "limit", "offset");
+
+    private static final EndpointTemplate GET_COLLECTIONS_WITH_USER_IP = new EndpointTemplate(
+            "/collections", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COLLECTIONS = new EndpointTemplate(
+            "/collections", "expand", "limit", "offset");
+
+    private static final EndpointTemplate GET_OBJECT = new EndpointTemplate("/handle/{prefix}/{suffix}", "expand");
+
+    private static final EndpointTemplate TEST = new EndpointTemplate("/test");
+
+    private static final EndpointTemplate STATUS = new EndpointTemplate("/status");
+
+    private static final EndpointTemplate LOGIN = new EndpointTemplate("/login");
+
+    private static final EndpointTemplate LOGOUT = new EndpointTemplate("/logout");
+
+    private static final EndpointTemplate SAY_HTML_HELLO = new EndpointTemplate("/");
+
+    private static final EndpointTemplate GET_ITEM_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}", "expand", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_ITEM = new EndpointTemplate("/items/{item_id}", "expand");
+
+    private static final EndpointTemplate DELETE_ITEM_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_ITEM = new EndpointTemplate("/items/{item_id}");
+
+    private static final EndpointTemplate UPDATE_ITEM_METADATA_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/metadata", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_ITEM_METADATA = new EndpointTemplate("/items/{item_id}/metadata");
+
+    private static final EndpointTemplate ADD_ITEM_METADATA_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/metadata", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_ITEM_METADATA = new EndpointTemplate("/items/{item_id}/metadata");
+
+    private static final EndpointTemplate DELETE_ITEM_METADATA_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/metadata", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_ITEM_METADATA = new EndpointTemplate("/items/{item_id}/metadata");
+
+    private static final EndpointTemplate GET_ITEM_METADATA_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/metadata", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_ITEM_METADATA = new EndpointTemplate("/items/{item_id}/metadata");
+
+    private static final EndpointTemplate GET_ITEM_BITSTREAMS_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/bitstreams", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_ITEM_BITSTREAMS = new EndpointTemplate(
+            "/items/{item_id}/bitstreams", "limit", "offset");
+
+    private static final EndpointTemplate ADD_ITEM_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/bitstreams",
+            "name", "description", "groupId", "year", "month", "day", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_ITEM_BITSTREAM = new EndpointTemplate(
+            "/items/{item_id}/bitstreams", "name", "description", "groupId", "year", "month", "day");
+
+    private static final EndpointTemplate FIND_ITEMS_BY_METADATA_FIELD_WITH_USER_IP = new EndpointTemplate(
+            "/items/find-by-metadata-field", "expand", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate FIND_ITEMS_BY_METADATA_FIELD = new EndpointTemplate(
+            "/items/find-by-metadata-field", "expand");
+
+    private static final EndpointTemplate DELETE_ITEM_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/bitstreams/{bitstream_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_ITEM_BITSTREAM = new EndpointTemplate(
+            "/items/{item_id}/bitstreams/{bitstream_id}");
+
+    private static final EndpointTemplate GET_ITEMS_WITH_USER_IP = new EndpointTemplate(
+            "/items", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_ITEMS = new EndpointTemplate("/items", "expand", "limit", "offset");
+
+
+    private AsyncRestTemplate asyncRestTemplate;
+
+    private String baseUrl;
+
+    private volatile String dspaceToken;
+
+    private volatile RequestHeaders requestHeaders;
+
+    private MediaType requestMediaType = MediaType.APPLICATION_JSON;
+
+    /**
+     * New instance, unconfigured.
+     */
+    public DSpaceAsyncRestClient() {
+    }
+
+    /**
+     * New instance with a base URL and a configured {@link AsyncRestTemplate} instance.
+     * 
+     * @param baseUrl
+     *            the base URL of the DSpace REST API, e.g. "https://demo.dspace.org/rest".
+     * @param asyncRestTemplate
+     */
+    public DSpaceAsyncRestClient(String baseUrl, AsyncRestTemplate asyncRestTemplate) {
+        setBaseUrl(baseUrl);
+        setAsyncRestTemplate(asyncRestTemplate);
+    }
+
+    /**
+     * Gets the asynchronous REST template.
+     * 
+     * @return the asynchronous REST template.
+     */
+    public AsyncRestTemplate getAsyncRestTemplate() {
+        return asyncRestTemplate;
+    }
+
+    /**
+     * Gets the base URL of the DSpace REST API.
+     * 
+     * @return the base URL.
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Gets the request media type.
+     * 
+     * @return the request media type.
+     */
+    public MediaType getRequestMediaType() {
+        return requestMediaType;
+    }
+
+    /**
+     * Sets the asynchronous REST template.
+     * 
+     * @param asyncRestTemplate
+     *            the asynchronous REST template.
+     */
+    public void setAsyncRestTemplate(AsyncRestTemplate asyncRestTemplate) {
+        this.asyncRestTemplate = asyncRestTemplate;
+    }
+
+    /**
+     * Sets the base URL of the DSpace REST API.
+     * 
+     * @param baseUrl
+     *            the base URL of the DSpace REST API, e.g. "https://demo.dspace.org/rest".
+     */
+    public void setBaseUrl(String baseUrl) {
+        if (baseUrl.endsWith("/"))
+            this.baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        else
+            this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Sets the request media type.
+     * 
+     * @param requestMediaType
+     *            the request media type.
+     */
+    public void setRequestMediaType(MediaType requestMediaType) {
+        this.requestMediaType = requestMediaType;
+    }
+
+    private String setToken(String result) {
+        if (result == null || result.length() <= 0)
+            result = null;
+        dspaceToken = result;
+        return result;
+    }
+
+    private HttpEntity<?> toEntity(Object requestBody) {
+        RequestHeaders headers = RequestHeaders.of(requestHeaders, dspaceToken, requestMediaType);
+        requestHeaders = headers;
+        return headers.toEntity(requestBody);
+    }
+
+    public ListenableFuture<byte[]> getBitstreamData(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_BITSTREAM_DATA_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<byte[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), byte[].class);
+
+        return new ResponseBodyFuture<byte[]>(result);
+    }
+
+    public ListenableFuture<byte[]> getBitstreamData(Integer bitstream_id) {
+        URI uri = GET_BITSTREAM_DATA.expand(baseUrl, bitstream_id);
+        ListenableFuture<ResponseEntity<byte[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), byte[].class);
+
+        return new ResponseBodyFuture<byte[]>(result);
+    }
+
+    public ListenableFuture<Void> addBitstreamPolicy(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor, ResourcePolicy requestBody) {
+        URI uri = ADD_BITSTREAM_POLICY_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> addBitstreamPolicy(Integer bitstream_id, ResourcePolicy requestBody) {
+        URI uri = ADD_BITSTREAM_POLICY.expand(baseUrl, bitstream_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<ResourcePolicy[]> getBitstreamPolicies(Integer bitstream_id) {
+        URI uri = GET_BITSTREAM_POLICIES.expand(baseUrl, bitstream_id);
+        ListenableFuture<ResponseEntity<ResourcePolicy[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), ResourcePolicy[].class);
+
+        return new ResponseBodyFuture<ResourcePolicy[]>(result);
+    }
+
+    public ListenableFuture<Void> updateBitstream(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor, Bitstream requestBody) {
+        URI uri = UPDATE_BITSTREAM_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> updateBitstream(Integer bitstream_id, Bitstream requestBody) {
+        URI uri = UPDATE_BITSTREAM.expand(baseUrl, bitstream_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteBitstream(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_BITSTREAM_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteBitstream(Integer bitstream_id) {
+        URI uri = DELETE_BITSTREAM.expand(baseUrl, bitstream_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Bitstream> getBitstream(Integer bitstream_id, String expand, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_BITSTREAM_WITH_USER_IP.expand(baseUrl, bitstream_id, expand, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Bitstream>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Bitstream.class);
+
+        return new ResponseBodyFuture<Bitstream>(result);
+    }
+
+    public ListenableFuture<Bitstream> getBitstream(Integer bitstream_id, String expand) {
+        URI uri = GET_BITSTREAM.expand(baseUrl, bitstream_id, expand);
+        ListenableFuture<ResponseEntity<Bitstream>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Bitstream.class);
+
+        return new ResponseBodyFuture<Bitstream>(result);
+    }
+
+    public ListenableFuture<Void> updateBitstreamData(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor, InputStream requestBody) {
+        URI uri = UPDATE_BITSTREAM_DATA_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(new InputStreamResource(requestBody)), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> updateBitstreamData(Integer bitstream_id, InputStream requestBody) {
+        URI uri = UPDATE_BITSTREAM_DATA.expand(baseUrl, bitstream_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(new InputStreamResource(requestBody)), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteBitstreamPolicy(Integer policy_id, Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_BITSTREAM_POLICY_WITH_USER_IP.expand(baseUrl, bitstream_id, policy_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteBitstreamPolicy(Integer policy_id, Integer bitstream_id) {
+        URI uri = DELETE_BITSTREAM_POLICY.expand(baseUrl, bitstream_id, policy_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Bitstream[]> getBitstreams(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_BITSTREAMS_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Bitstream[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Bitstream[].class);
+
+        return new ResponseBodyFuture<Bitstream[]>(result);
+    }
+
+    public ListenableFuture<Bitstream[]> getBitstreams(String expand, Integer limit, Integer offset) {
+        URI uri = GET_BITSTREAMS.expand(baseUrl, expand, limit, offset);
+        ListenableFuture<ResponseEntity<Bitstream[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Bitstream[].class);
+
+        return new ResponseBodyFuture<Bitstream[]>(result);
+    }
+
+    public ListenableFuture<Void> updateCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor, Community requestBody) {
+        URI uri = UPDATE_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> updateCommunity(Integer community_id, Community requestBody) {
+        URI uri = UPDATE_COMMUNITY.expand(baseUrl, community_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Community> getCommunity(Integer community_id, String expand, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, expand, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Community>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Community.class);
+
+        return new ResponseBodyFuture<Community>(result);
+    }
+
+    public ListenableFuture<Community> getCommunity(Integer community_id, String expand) {
+        URI uri = GET_COMMUNITY.expand(baseUrl, community_id, expand);
+        ListenableFuture<ResponseEntity<Community>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Community.class);
+
+        return new ResponseBodyFuture<Community>(result);
+    }
+
+    public ListenableFuture<Void> deleteCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteCommunity(Integer community_id) {
+        URI uri = DELETE_COMMUNITY.expand(baseUrl, community_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Community> addCommunityCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor, Community requestBody) {
+        URI uri = ADD_COMMUNITY_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Community>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Community.class);
+
+        return new ResponseBodyFuture<Community>(result);
+    }
+
+    public ListenableFuture<Community> addCommunityCommunity(Integer community_id, Community requestBody) {
+        URI uri = ADD_COMMUNITY_COMMUNITY.expand(baseUrl, community_id);
+        ListenableFuture<ResponseEntity<Community>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Community.class);
+
+        return new ResponseBodyFuture<Community>(result);
+    }
+
+    public ListenableFuture<Community[]> getCommunityCommunities(Integer community_id, String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_COMMUNITY_COMMUNITIES_WITH_USER_IP.expand(baseUrl, community_id, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Community[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Community[].class);
+
+        return new ResponseBodyFuture<Community[]>(result);
+    }
+
+    public ListenableFuture<Community[]> getCommunityCommunities(Integer community_id, String expand, Integer limit, Integer offset) {
+        URI uri = GET_COMMUNITY_COMMUNITIES.expand(baseUrl, community_id, expand, limit, offset);
+        ListenableFuture<ResponseEntity<Community[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Community[].class);
+
+        return new ResponseBodyFuture<Community[]>(result);
+    }
+
+    public ListenableFuture<Collection> addCommunityCollection(Integer community_id, String userIP, String userAgent, String xforwardedfor, Collection requestBody) {
+        URI uri = ADD_COMMUNITY_COLLECTION_WITH_USER_IP.expand(baseUrl, community_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Collection>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Collection.class);
+
+        return new ResponseBodyFuture<Collection>(result);
+    }
+
+    public ListenableFuture<Collection> addCommunityCollection(Integer community_id, Collection requestBody) {
+        URI uri = ADD_COMMUNITY_COLLECTION.expand(baseUrl, community_id);
+        ListenableFuture<ResponseEntity<Collection>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Collection.class);
+
+        return new ResponseBodyFuture<Collection>(result);
+    }
+
+    public ListenableFuture<Collection[]> getCommunityCollections(Integer community_id, String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_COMMUNITY_COLLECTIONS_WITH_USER_IP.expand(baseUrl, community_id, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Collection[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Collection[].class);
+
+        return new ResponseBodyFuture<Collection[]>(result);
+    }
+
+    public ListenableFuture<Collection[]> getCommunityCollections(Integer community_id, String expand, Integer limit, Integer offset) {
+        URI uri = GET_COMMUNITY_COLLECTIONS.expand(baseUrl, community_id, expand, limit, offset);
+        ListenableFuture<ResponseEntity<Collection[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Collection[].class);
+
+        return new ResponseBodyFuture<Collection[]>(result);
+    }
+
+    public ListenableFuture<Community[]> getTopCommunities(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_TOP_COMMUNITIES_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Community[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Community[].class);
+
+        return new ResponseBodyFuture<Community[]>(result);
+    }
+
+    public ListenableFuture<Community[]> getTopCommunities(String expand, Integer limit, Integer offset) {
+        URI uri = GET_TOP_COMMUNITIES.expand(baseUrl, expand, limit, offset);
+        ListenableFuture<ResponseEntity<Community[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Community[].class);
+
+        return new ResponseBodyFuture<Community[]>(result);
+    }
+
+    public ListenableFuture<Void> deleteCommunityCollection(Integer collection_id, Integer community_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_COMMUNITY_COLLECTION_WITH_USER_IP.expand(baseUrl, community_id, collection_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteCommunityCollection(Integer collection_id, Integer community_id) {
+        URI uri = DELETE_COMMUNITY_COLLECTION.expand(baseUrl, community_id, collection_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteCommunityCommunity(Integer community_id, Integer community_id2, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_COMMUNITY_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, community_id2, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteCommunityCommunity(Integer community_id, Integer community_id2) {
+        URI uri = DELETE_COMMUNITY_COMMUNITY.expand(baseUrl, community_id, community_id2);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Community[]> getCommunities(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_COMMUNITIES_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Community[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Community[].class);
+
+        return new ResponseBodyFuture<Community[]>(result);
+    }
+
+    public ListenableFuture<Community[]> getCommunities(String expand, Integer limit, Integer offset) {
+        URI uri = GET_COMMUNITIES.expand(baseUrl, expand, limit, offset);
+        ListenableFuture<ResponseEntity<Community[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Community[].class);
+
+        return new ResponseBodyFuture<Community[]>(result);
+    }
+
+    public ListenableFuture<Community> createCommunity(String userIP, String userAgent, String xforwardedfor, Community requestBody) {
+        URI uri = CREATE_COMMUNITY_WITH_USER_IP.expand(baseUrl, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Community>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Community.class);
+
+        return new ResponseBodyFuture<Community>(result);
+    }
+
+    public ListenableFuture<Community> createCommunity(Community requestBody) {
+        URI uri = CREATE_COMMUNITY.expand(baseUrl);
+        ListenableFuture<ResponseEntity<Community>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Community.class);
+
+        return new ResponseBodyFuture<Community>(result);
+    }
+
+    public ListenableFuture<Void> updateCollection(Integer collection_id, String userIP, String userAgent, String xforwardedfor, Collection requestBody) {
+        URI uri = UPDATE_COLLECTION_WITH_USER_IP.expand(baseUrl, collection_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> updateCollection(Integer collection_id, Collection requestBody) {
+        URI uri = UPDATE_COLLECTION.expand(baseUrl, collection_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteCollection(Integer collection_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_COLLECTION_WITH_USER_IP.expand(baseUrl, collection_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteCollection(Integer collection_id) {
+        URI uri = DELETE_COLLECTION.expand(baseUrl, collection_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Collection> getCollection(Integer collection_id, String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_COLLECTION_WITH_USER_IP.expand(baseUrl, collection_id, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Collection>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Collection.class);
+
+        return new ResponseBodyFuture<Collection>(result);
+    }
+
+    public ListenableFuture<Collection> getCollection(Integer collection_id, String expand, Integer limit, Integer offset) {
+        URI uri = GET_COLLECTION.expand(baseUrl, collection_id, expand, limit, offset);
+        ListenableFuture<ResponseEntity<Collection>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Collection.class);
+
+        return new ResponseBodyFuture<Collection>(result);
+    }
+
+    public ListenableFuture<Void> deleteCollectionItem(Integer collection_id, Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_COLLECTION_ITEM_WITH_USER_IP.expand(baseUrl, collection_id, item_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteCollectionItem(Integer collection_id, Integer item_id) {
+        URI uri = DELETE_COLLECTION_ITEM.expand(baseUrl, collection_id, item_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Collection> findCollectionByName() {
+        URI uri = FIND_COLLECTION_BY_NAME.expand(baseUrl);
+        ListenableFuture<ResponseEntity<Collection>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(null), Collection.class);
+
+        return new ResponseBodyFuture<Collection>(result);
+    }
+
+    public ListenableFuture<Item> addCollectionItem(Integer collection_id, String userIP, String userAgent, String xforwardedfor, Item requestBody) {
+        URI uri = ADD_COLLECTION_ITEM_WITH_USER_IP.expand(baseUrl, collection_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Item>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Item.class);
+
+        return new ResponseBodyFuture<Item>(result);
+    }
+
+    public ListenableFuture<Item> addCollectionItem(Integer collection_id, Item requestBody) {
+        URI uri = ADD_COLLECTION_ITEM.expand(baseUrl, collection_id);
+        ListenableFuture<ResponseEntity<Item>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Item.class);
+
+        return new ResponseBodyFuture<Item>(result);
+    }
+
+    public ListenableFuture<Item[]> getCollectionItems(Integer collection_id, String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_COLLECTION_ITEMS_WITH_USER_IP.expand(baseUrl, collection_id, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Item[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Item[].class);
+
+        return new ResponseBodyFuture<Item[]>(result);
+    }
+
+    public ListenableFuture<Item[]> getCollectionItems(Integer collection_id, String expand, Integer limit, Integer offset) {
+        URI uri = GET_COLLECTION_ITEMS.expand(baseUrl, collection_id, expand, limit, offset);
+        ListenableFuture<ResponseEntity<Item[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Item[].class);
+
+        return new ResponseBodyFuture<Item[]>(result);
+    }
+
+    public ListenableFuture<Collection[]> getCollections(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_COLLECTIONS_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Collection[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Collection[].class);
+
+        return new ResponseBodyFuture<Collection[]>(result);
+    }
+
+    public ListenableFuture<Collection[]> getCollections(String expand, Integer limit, Integer offset) {
+        URI uri = GET_COLLECTIONS.expand(baseUrl, expand, limit, offset);
+        ListenableFuture<ResponseEntity<Collection[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Collection[].class);
+
+        return new ResponseBodyFuture<Collection[]>(result);
+    }
+
+    public <T> ListenableFuture<T> getObject(String prefix, String suffix, String expand, Class<T> returnType) {
+        URI uri = GET_OBJECT.expand(baseUrl, prefix, suffix, expand);
+        ListenableFuture<ResponseEntity<T>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), returnType);
+
+        return new ResponseBodyFuture<T>(result);
+    }
+
+    public ListenableFuture<String> test() {
+        URI uri = TEST.expand(baseUrl);
+        ListenableFuture<ResponseEntity<String>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), String.class);
+
+        return new ResponseBodyFuture<String>(result);
+    }
+
+    public ListenableFuture<Status> status() {
+        URI uri = STATUS.expand(baseUrl);
+        ListenableFuture<ResponseEntity<Status>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Status.class);
+
+        return new ResponseBodyFuture<Status>(result);
+    }
+
+    public ListenableFuture<String> login(User requestBody) {
+        URI uri = LOGIN.expand(baseUrl);
+        ListenableFuture<ResponseEntity<String>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), String.class);
+
+        return new LoginFuture(result);
+    }
+
+    public ListenableFuture<Void> logout() {
+        try {
+            URI uri = LOGOUT.expand(baseUrl);
+            ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                    HttpMethod.POST, toEntity(null), Void.class);
+
+            return new ResponseBodyFuture<Void>(result);
+        } finally {
+            dspaceToken = null;
+        }
+    }
+
+    public ListenableFuture<String> sayHtmlHello() {
+        URI uri = SAY_HTML_HELLO.expand(baseUrl);
+        ListenableFuture<ResponseEntity<String>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), String.class);
+
+        return new ResponseBodyFuture<String>(result);
+    }
+
+    public ListenableFuture<Item> getItem(Integer item_id, String expand, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_ITEM_WITH_USER_IP.expand(baseUrl, item_id, expand, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Item>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Item.class);
+
+        return new ResponseBodyFuture<Item>(result);
+    }
+
+    public ListenableFuture<Item> getItem(Integer item_id, String expand) {
+        URI uri = GET_ITEM.expand(baseUrl, item_id, expand);
+        ListenableFuture<ResponseEntity<Item>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Item.class);
+
+        return new ResponseBodyFuture<Item>(result);
+    }
+
+    public ListenableFuture<Void> deleteItem(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_ITEM_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteItem(Integer item_id) {
+        URI uri = DELETE_ITEM.expand(baseUrl, item_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> updateItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = UPDATE_ITEM_METADATA_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> updateItemMetadata(Integer item_id) {
+        URI uri = UPDATE_ITEM_METADATA.expand(baseUrl, item_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.PUT, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> addItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor, MetadataEntry requestBody) {
+        URI uri = ADD_ITEM_METADATA_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> addItemMetadata(Integer item_id, MetadataEntry requestBody) {
+        URI uri = ADD_ITEM_METADATA.expand(baseUrl, item_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_ITEM_METADATA_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteItemMetadata(Integer item_id) {
+        URI uri = DELETE_ITEM_METADATA.expand(baseUrl, item_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<MetadataEntry> getItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_ITEM_METADATA_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<MetadataEntry>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), MetadataEntry.class);
+
+        return new ResponseBodyFuture<MetadataEntry>(result);
+    }
+
+    public ListenableFuture<MetadataEntry> getItemMetadata(Integer item_id) {
+        URI uri = GET_ITEM_METADATA.expand(baseUrl, item_id);
+        ListenableFuture<ResponseEntity<MetadataEntry>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), MetadataEntry.class);
+
+        return new ResponseBodyFuture<MetadataEntry>(result);
+    }
+
+    public ListenableFuture<Bitstream[]> getItemBitstreams(Integer item_id, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_ITEM_BITSTREAMS_WITH_USER_IP.expand(baseUrl, item_id, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Bitstream[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Bitstream[].class);
+
+        return new ResponseBodyFuture<Bitstream[]>(result);
+    }
+
+    public ListenableFuture<Bitstream[]> getItemBitstreams(Integer item_id, Integer limit, Integer offset) {
+        URI uri = GET_ITEM_BITSTREAMS.expand(baseUrl, item_id, limit, offset);
+        ListenableFuture<ResponseEntity<Bitstream[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Bitstream[].class);
+
+        return new ResponseBodyFuture<Bitstream[]>(result);
+    }
+
+    public ListenableFuture<Bitstream> addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year, Integer month, Integer day, String userIP, String userAgent, String xforwardedfor, InputStream requestBody) {
+        URI uri = ADD_ITEM_BITSTREAM_WITH_USER_IP.expand(baseUrl, item_id, name, description, groupId, year, month, day, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Bitstream>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(new InputStreamResource(requestBody)), Bitstream.class);
+
+        return new ResponseBodyFuture<Bitstream>(result);
+    }
+
+    public ListenableFuture<Bitstream> addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year, Integer month, Integer day, InputStream requestBody) {
+        URI uri = ADD_ITEM_BITSTREAM.expand(baseUrl, item_id, name, description, groupId, year, month, day);
+        ListenableFuture<ResponseEntity<Bitstream>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(new InputStreamResource(requestBody)), Bitstream.class);
+
+        return new ResponseBodyFuture<Bitstream>(result);
+    }
+
+    public ListenableFuture<Item[]> findItemsByMetadataField(String expand, String userIP, String userAgent, String xforwardedfor, MetadataEntry requestBody) {
+        URI uri = FIND_ITEMS_BY_METADATA_FIELD_WITH_USER_IP.expand(baseUrl, expand, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Item[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Item[].class);
+
+        return new ResponseBodyFuture<Item[]>(result);
+    }
+
+    public ListenableFuture<Item[]> findItemsByMetadataField(String expand, MetadataEntry requestBody) {
+        URI uri = FIND_ITEMS_BY_METADATA_FIELD.expand(baseUrl, expand);
+        ListenableFuture<ResponseEntity<Item[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.POST, toEntity(requestBody), Item[].class);
+
+        return new ResponseBodyFuture<Item[]>(result);
+    }
+
+    public ListenableFuture<Void> deleteItemBitstream(Integer item_id, Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = DELETE_ITEM_BITSTREAM_WITH_USER_IP.expand(baseUrl, item_id, bitstream_id, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Void> deleteItemBitstream(Integer item_id, Integer bitstream_id) {
+        URI uri = DELETE_ITEM_BITSTREAM.expand(baseUrl, item_id, bitstream_id);
+        ListenableFuture<ResponseEntity<Void>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.DELETE, toEntity(null), Void.class);
+
+        return new ResponseBodyFuture<Void>(result);
+    }
+
+    public ListenableFuture<Item[]> getItems(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_ITEMS_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        ListenableFuture<ResponseEntity<Item[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Item[].class);
+
+        return new ResponseBodyFuture<Item[]>(result);
+    }
+
+    public ListenableFuture<Item[]> getItems(String expand, Integer limit, Integer offset) {
+        URI uri = GET_ITEMS.expand(baseUrl, expand, limit, offset);
+        ListenableFuture<ResponseEntity<Item[]>> result = asyncRestTemplate.exchange(uri,
+                HttpMethod.GET, toEntity(null), Item[].class);
+
+        return new ResponseBodyFuture<Item[]>(result);
+    }
+
+
+}
@@ -0,0 +1,284 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.concurrent.ExecutorService;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Lazy iterables over the limit/offset listings of a {@link DSpaceRestClient}.
+ * 
+ * The pages are fetched on demand, and the next ones in the background while the caller works on the current one, see
+ * {@link PageIterator}. E.g.:
+ * 
+ * <pre>
+ * for (Item item : new DSpacePaging(client).collectionItems(collectionId, null)) {
+ *     ...
+ * }
+ * </pre>
+ * 
+ * @author arnaud
+ */
+public class DSpacePaging {
+
+    private final DSpaceRestClient client;
+
+    private ExecutorService executor;
+
+    private int pageSize = 100;
+
+    private int prefetch = 1;
+
+    /**
+     * New instance.
+     * 
+     * @param client
+     *            the client used to fetch the pages.
+     */
+    public DSpacePaging(DSpaceRestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Lists all the bitstreams.
+     * 
+     * @param expand
+     *            the expand parameter.
+     * @return the lazy listing.
+     */
+    public PageIterable<Bitstream> bitstreams(final String expand) {
+        return pages(new PageFetcher<Bitstream>() {
+
+            @Override
+            public Bitstream[] fetch(int limit, int offset) {
+                return client.getBitstreams(expand, limit, offset);
+            }
+
+        });
+    }
+
+    /**
+     * Lists the items of a collection.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param expand
+     *            the expand parameter.
+     * @return the lazy listing.
+     */
+    public PageIterable<Item> collectionItems(final Integer collection_id, final String expand) {
+        return pages(new PageFetcher<Item>() {
+
+            @Override
+            public Item[] fetch(int limit, int offset) {
+                return client.getCollectionItems(collection_id, expand, limit, offset);
+            }
+
+        });
+    }
+
+    /**
+     * Lists all the collections.
+     * 
+     * @param expand
+     *            the expand parameter.
+     * @return the lazy listing.
+     */
+    public PageIterable<Collection> collections(final String expand) {
+        return pages(new PageFetcher<Collection>() {
+
+            @Override
+            public Collection[] fetch(int limit, int offset) {
+                return client.getCollections(expand, limit, offset);
+            }
+
+        });
+    }
+
+    /**
+     * Lists all the communities.
+     * 
+     * @param expand
+     *            the expand parameter.
+     * @return the lazy listing.
+     */
+    public PageIterable<Community> communities(final String expand) {
+        return pages(new PageFetcher<Community>() {
+
+            @Override
+            public Community[] fetch(int limit, int offset) {
+                return client.getCommunities(expand, limit, offset);
+            }
+
+        });
+    }
+
+    /**
+     * Lists the collections of a community.
+     * 
+     * @param community_id
+     *            the community ID.
+     * @param expand
+     *            the expand parameter.
+     * @return the lazy listing.
+     */
+    public PageIterable<Collection> communityCollections(final Integer community_id, final String expand) {
+        return pages(new PageFetcher<Collection>() {
+
+            @Override
+            public Collection[] fetch(int limit, int offset) {
+                return client.getCommunityCollections(community_id, expand, limit, offset);
+            }
+
+        });
+    }
+
+    /**
+     * Lists the sub-communities of a community.
+     * 
+     * @param community_id
+     *            the community ID.
+     * @param expand
+     *            the expand parameter.
+     * @return the lazy listing.
+     */
+    public PageIterable<Community> communityCommunities(final Integer community_id, final String expand) {
+        return pages(new PageFetcher<Community>() {
+
+            @Override
+            public Community[] fetch(int limit, int offset) {
+                return client.getCommunityCommunities(community_id, expand, limit, offset);
+            }
+
+        });
+    }
+
+    /**
+     * Gets the executor running the background fetches.
+     * 
+     * @return the executor, by default a pool of daemon threads created on first use.
+     */
+    public synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Workers.daemonPool("dspace-paging");
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the number of objects per page.
+     * 
+     * @return the page size.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Gets the number of pages fetched ahead.
+     * 
+     * @return the prefetch depth.
+     */
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    /**
+     * Lists the bitstreams of an item.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @return the lazy listing.
+     */
+    public PageIterable<Bitstream> itemBitstreams(final Integer item_id) {
+        return pages(new PageFetcher<Bitstream>() {
+
+            @Override
+            public Bitstream[] fetch(int limit, int offset) {
+                return client.getItemBitstreams(item_id, limit, offset);
+            }
+
+        });
+    }
+
+    /**
+     * Lists all the items.
+     * 
+     * @param expand
+     *            the expand parameter.
+     * @return the lazy listing.
+     */
+    public PageIterable<Item> items(final String expand) {
+        return pages(new PageFetcher<Item>() {
+
+            @Override
+            public Item[] fetch(int limit, int offset) {
+                return client.getItems(expand, limit, offset);
+            }
+
+        });
+    }
+
+    /**
+     * Lists anything, with the current page size and prefetch depth.
+     * 
+     * @param fetcher
+     *            fetches the pages.
+     * @return the lazy listing.
+     */
+    public <T> PageIterable<T> pages(PageFetcher<T> fetcher) {
+        return new PageIterable<T>(fetcher, pageSize, prefetch, prefetch > 0 ? getExecutor() : null);
+    }
+
+    /**
+     * Sets the executor running the background fetches. It is not shut down by this class.
+     * 
+     * @param executor
+     *            the executor.
+     */
+    public synchronized void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the number of objects per page, 100 by default.
+     * 
+     * @param pageSize
+     *            the page size.
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sets the number of pages fetched ahead, 1 by default. With 0, the pages are fetched on demand in the caller
+     * thread.
+     * 
+     * @param prefetch
+     *            the prefetch depth.
+     */
+    public void setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Lists the top communities.
+     * 
+     * @param expand
+     *            the expand parameter.
+     * @return the lazy listing.
+     */
+    public PageIterable<Community> topCommunities(final String expand) {
+        return pages(new PageFetcher<Community>() {
+
+            @Override
+            public Community[] fetch(int limit, int offset) {
+                return client.getTopCommunities(expand, limit, offset);
+            }
+
+        });
+    }
+
+}
@@ -1,17 +1,49 @@
 package com.idmgroup.dspace.rest;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.LinkedHashMap;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.net.URI;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.idmgroup.dspace.rest.jersey.Bitstream;
 import com.idmgroup.dspace.rest.jersey.Collection;
 import com.idmgroup.dspace.rest.jersey.Community;
@@ -24,20 +56,267 @@ import com.idmgroup.dspace.rest.jersey.User;
 /**
  * DSpace REST client implementation.
  * 
- * It is based on the Spring {@link RestTemplate} and manages the "rest-dspace-token" header for you.
+ * It is based on the Spring {@link RestTemplate} and manages the "rest-dspace-token" header for you. An instance holds
+ * one session: it can be shared by threads acting as the same user, see {@link SessionManager} for several users.
  * 
  * @author arnaud
  */
 public class DSpaceRestClient {
 
+    private static final EndpointTemplate GET_BITSTREAM_DATA_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/retrieve", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_BITSTREAM_DATA = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/retrieve");
+
+    private static final EndpointTemplate ADD_BITSTREAM_POLICY_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_BITSTREAM_POLICY = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy");
+
+    private static final EndpointTemplate GET_BITSTREAM_POLICIES = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy");
+
+    private static final EndpointTemplate UPDATE_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_BITSTREAM = new EndpointTemplate("/bitstreams/{bitstream_id}");
+
+    private static final EndpointTemplate DELETE_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_BITSTREAM = new EndpointTemplate("/bitstreams/{bitstream_id}");
+
+    private static final EndpointTemplate GET_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}", "expand", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_BITSTREAM = new EndpointTemplate("/bitstreams/{bitstream_id}", "expand");
+
+    private static final EndpointTemplate UPDATE_BITSTREAM_DATA_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/data", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_BITSTREAM_DATA = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/data");
+
+    private static final EndpointTemplate DELETE_BITSTREAM_POLICY_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy/{policy_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_BITSTREAM_POLICY = new EndpointTemplate(
+            "/bitstreams/{bitstream_id}/policy/{policy_id}");
+
+    private static final EndpointTemplate GET_BITSTREAMS_WITH_USER_IP = new EndpointTemplate(
+            "/bitstreams", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_BITSTREAMS = new EndpointTemplate(
+            "/bitstreams", "expand", "limit", "offset");
+
+    private static final EndpointTemplate UPDATE_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_COMMUNITY = new EndpointTemplate("/communities/{community_id}");
+
+    private static final EndpointTemplate GET_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}", "expand", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COMMUNITY = new EndpointTemplate("/communities/{community_id}", "expand");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COMMUNITY = new EndpointTemplate("/communities/{community_id}");
+
+    private static final EndpointTemplate ADD_COMMUNITY_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/communities", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_COMMUNITY_COMMUNITY = new EndpointTemplate(
+            "/communities/{community_id}/communities");
+
+    private static final EndpointTemplate GET_COMMUNITY_COMMUNITIES_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/communities",
+            "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COMMUNITY_COMMUNITIES = new EndpointTemplate(
+            "/communities/{community_id}/communities", "expand", "limit", "offset");
+
+    private static final EndpointTemplate ADD_COMMUNITY_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/collections", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_COMMUNITY_COLLECTION = new EndpointTemplate(
+            "/communities/{community_id}/collections");
+
+    private static final EndpointTemplate GET_COMMUNITY_COLLECTIONS_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/collections",
+            "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COMMUNITY_COLLECTIONS = new EndpointTemplate(
+            "/communities/{community_id}/collections", "expand", "limit", "offset");
+
+    private static final EndpointTemplate GET_TOP_COMMUNITIES_WITH_USER_IP = new EndpointTemplate(
+            "/communities/top-communities", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_TOP_COMMUNITIES = new EndpointTemplate(
+            "/communities/top-communities", "expand", "limit", "offset");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/collections/{collection_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_COLLECTION = new EndpointTemplate(
+            "/communities/{community_id}/collections/{collection_id}");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities/{community_id}/communities/{community_id2}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COMMUNITY_COMMUNITY = new EndpointTemplate(
+            "/communities/{community_id}/communities/{community_id2}");
+
+    private static final EndpointTemplate GET_COMMUNITIES_WITH_USER_IP = new EndpointTemplate(
+            "/communities", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COMMUNITIES = new EndpointTemplate(
+            "/communities", "expand", "limit", "offset");
+
+    private static final EndpointTemplate CREATE_COMMUNITY_WITH_USER_IP = new EndpointTemplate(
+            "/communities", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate CREATE_COMMUNITY = new EndpointTemplate("/communities");
+
+    private static final EndpointTemplate UPDATE_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_COLLECTION = new EndpointTemplate("/collections/{collection_id}");
+
+    private static final EndpointTemplate DELETE_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COLLECTION = new EndpointTemplate("/collections/{collection_id}");
+
+    private static final EndpointTemplate GET_COLLECTION_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COLLECTION = new EndpointTemplate(
+            "/collections/{collection_id}", "expand", "limit", "offset");
+
+    private static final EndpointTemplate DELETE_COLLECTION_ITEM_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}/items/{item_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_COLLECTION_ITEM = new EndpointTemplate(
+            "/collections/{collection_id}/items/{item_id}");
+
+    private static final EndpointTemplate FIND_COLLECTION_BY_NAME = new EndpointTemplate(
+            "/collections/find-collection");
+
+    private static final EndpointTemplate ADD_COLLECTION_ITEM_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}/items", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_COLLECTION_ITEM = new EndpointTemplate(
+            "/collections/{collection_id}/items");
+
+    private static final EndpointTemplate GET_COLLECTION_ITEMS_WITH_USER_IP = new EndpointTemplate(
+            "/collections/{collection_id}/items", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COLLECTION_ITEMS = new EndpointTemplate(
+            "/collections/{collection_id}/items", "expand", "limit", "offset");
+
+    private static final EndpointTemplate GET_COLLECTIONS_WITH_USER_IP = new EndpointTemplate(
+            "/collections", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_COLLECTIONS = new EndpointTemplate(
+            "/collections", "expand", "limit", "offset");
+
+    private static final EndpointTemplate GET_OBJECT = new EndpointTemplate("/handle/{prefix}/{suffix}", "expand");
+
+    private static final EndpointTemplate TEST = new EndpointTemplate("/test");
+
+    private static final EndpointTemplate STATUS = new EndpointTemplate("/status");
+
+    private static final EndpointTemplate LOGIN = new EndpointTemplate("/login");
+
+    private static final EndpointTemplate LOGOUT = new EndpointTemplate("/logout");
+
+    private static final EndpointTemplate SAY_HTML_HELLO = new EndpointTemplate("/");
+
+    private static final EndpointTemplate GET_ITEM_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}", "expand", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_ITEM = new EndpointTemplate("/items/{item_id}", "expand");
+
+    private static final EndpointTemplate DELETE_ITEM_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_ITEM = new EndpointTemplate("/items/{item_id}");
+
+    private static final EndpointTemplate UPDATE_ITEM_METADATA_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/metadata", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate UPDATE_ITEM_METADATA = new EndpointTemplate("/items/{item_id}/metadata");
+
+    private static final EndpointTemplate ADD_ITEM_METADATA_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/metadata", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_ITEM_METADATA = new EndpointTemplate("/items/{item_id}/metadata");
+
+    private static final EndpointTemplate DELETE_ITEM_METADATA_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/metadata", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_ITEM_METADATA = new EndpointTemplate("/items/{item_id}/metadata");
+
+    private static final EndpointTemplate GET_ITEM_METADATA_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/metadata", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_ITEM_METADATA = new EndpointTemplate("/items/{item_id}/metadata");
+
+    private static final EndpointTemplate GET_ITEM_BITSTREAMS_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/bitstreams", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_ITEM_BITSTREAMS = new EndpointTemplate(
+            "/items/{item_id}/bitstreams", "limit", "offset");
+
+    private static final EndpointTemplate ADD_ITEM_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/bitstreams",
+            "name", "description", "groupId", "year", "month", "day", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate ADD_ITEM_BITSTREAM = new EndpointTemplate(
+            "/items/{item_id}/bitstreams", "name", "description", "groupId", "year", "month", "day");
+
+    private static final EndpointTemplate FIND_ITEMS_BY_METADATA_FIELD_WITH_USER_IP = new EndpointTemplate(
+            "/items/find-by-metadata-field", "expand", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate FIND_ITEMS_BY_METADATA_FIELD = new EndpointTemplate(
+            "/items/find-by-metadata-field", "expand");
+
+    private static final EndpointTemplate DELETE_ITEM_BITSTREAM_WITH_USER_IP = new EndpointTemplate(
+            "/items/{item_id}/bitstreams/{bitstream_id}", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate DELETE_ITEM_BITSTREAM = new EndpointTemplate(
+            "/items/{item_id}/bitstreams/{bitstream_id}");
+
+    private static final EndpointTemplate GET_ITEMS_WITH_USER_IP = new EndpointTemplate(
+            "/items", "expand", "limit", "offset", "userIP", "userAgent", "xforwardedfor");
+
+    private static final EndpointTemplate GET_ITEMS = new EndpointTemplate("/items", "expand", "limit", "offset");
+
+
+    /**
+     * The templates of the paths given to {@link #getConditionally} and {@link #getProjected}, parsed once.
+     */
+    private static final ConcurrentMap<String, EndpointTemplate> ENDPOINT_TEMPLATES =
+            new ConcurrentHashMap<String, EndpointTemplate>();
+
+    private static final int MAX_ENDPOINT_TEMPLATES = 256;
+
     private String baseUrl;
 
-    private String dspaceToken;
+    private volatile String dspaceToken;
+
+    private volatile RequestHeaders requestHeaders;
 
     private MediaType requestMediaType = MediaType.APPLICATION_JSON;
 
     private RestTemplate restTemplate;
 
+    private ClientHttpRequestFactory uploadRequestFactory = newUploadRequestFactory();
+
     /**
      * New instance, unconfigured.
      */
@@ -65,6 +344,15 @@ public class DSpaceRestClient {
         return baseUrl;
     }
 
+    /**
+     * Gets the "rest-dspace-token" sent with the requests.
+     * 
+     * @return the token of the session opened by {@link #login(User)}, or null if not logged in.
+     */
+    public String getDspaceToken() {
+        return dspaceToken;
+    }
+
     /**
      * Gets the request media type.
      * 
@@ -83,6 +371,15 @@ public class DSpaceRestClient {
         return restTemplate;
     }
 
+    /**
+     * Gets the request factory used to stream uploads.
+     * 
+     * @return the upload request factory.
+     */
+    public ClientHttpRequestFactory getUploadRequestFactory() {
+        return uploadRequestFactory;
+    }
+
     /**
      * Sets the base URL of the DSpace REST API.
      * 
@@ -116,944 +413,1180 @@ public class DSpaceRestClient {
         this.restTemplate = restTemplate;
     }
 
+    /**
+     * Sets the request factory used to stream uploads. It must not buffer the request body: the default is a
+     * {@link SimpleClientHttpRequestFactory} with request body buffering turned off, see
+     * {@link PooledHttpTransport#newUploadRequestFactory()} for one sharing a pool of connections.
+     * 
+     * @param uploadRequestFactory
+     *            the upload request factory.
+     */
+    public void setUploadRequestFactory(ClientHttpRequestFactory uploadRequestFactory) {
+        this.uploadRequestFactory = uploadRequestFactory;
+    }
+
+    private static ClientHttpRequestFactory newUploadRequestFactory() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setBufferRequestBody(false);
+        requestFactory.setChunkSize(Streams.BUFFER_SIZE);
+        return requestFactory;
+    }
+
     private HttpEntity<?> toEntity(Object requestBody) {
-        HttpHeaders headers = new HttpHeaders();
-        if (dspaceToken != null) {
-            headers.add("rest-dspace-token", dspaceToken);
+        RequestHeaders headers = RequestHeaders.of(requestHeaders, dspaceToken, requestMediaType);
+        requestHeaders = headers;
+        return headers.toEntity(requestBody);
+    }
+
+    private URI bitstreamDataUri(Integer bitstream_id) {
+        return GET_BITSTREAM_DATA.expand(baseUrl, bitstream_id);
+    }
+
+    private RequestCallback toRequestCallback() {
+        return new RequestCallback() {
+
+            @Override
+            public void doWithRequest(ClientHttpRequest request) throws IOException {
+                HttpHeaders headers = request.getHeaders();
+                if (dspaceToken != null) {
+                    headers.add("rest-dspace-token", dspaceToken);
+                }
+                headers.setAccept(Collections.singletonList(MediaType.ALL));
+            }
+
+        };
+    }
+
+    /**
+     * Streams the content of a bitstream to an output stream, through a fixed size buffer. The output stream is not
+     * closed.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param out
+     *            the destination.
+     * @return the number of bytes written.
+     */
+    public long getBitstreamData(Integer bitstream_id, final OutputStream out) {
+        return restTemplate.execute(bitstreamDataUri(bitstream_id), HttpMethod.GET, toRequestCallback(),
+                new ResponseExtractor<Long>() {
+
+                    @Override
+                    public Long extractData(ClientHttpResponse response) throws IOException {
+                        return Streams.copy(response.getBody(), out);
+                    }
+
+                });
+    }
+
+    /**
+     * Streams the content of a bitstream to a channel, through a fixed size buffer. The channel is not closed.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param out
+     *            the destination.
+     * @return the number of bytes written.
+     */
+    public long getBitstreamData(Integer bitstream_id, final WritableByteChannel out) {
+        return restTemplate.execute(bitstreamDataUri(bitstream_id), HttpMethod.GET, toRequestCallback(),
+                new ResponseExtractor<Long>() {
+
+                    @Override
+                    public Long extractData(ClientHttpResponse response) throws IOException {
+                        return Streams.copy(response.getBody(), out);
+                    }
+
+                });
+    }
+
+    /**
+     * Streams the content of a bitstream to a file, through a fixed size buffer. The file is only opened once the
+     * server has answered successfully.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param path
+     *            the destination file.
+     * @param options
+     *            the options used to open the file, by default it is created or truncated.
+     * @return the number of bytes written.
+     */
+    public long getBitstreamData(Integer bitstream_id, final Path path, final OpenOption... options) {
+        return restTemplate.execute(bitstreamDataUri(bitstream_id), HttpMethod.GET, toRequestCallback(),
+                new ResponseExtractor<Long>() {
+
+                    @Override
+                    public Long extractData(ClientHttpResponse response) throws IOException {
+                        return Streams.copy(response.getBody(), path, options);
+                    }
+
+                });
+    }
+
+    /**
+     * Streams a range of the content of a bitstream to a channel, through a fixed size buffer, using an HTTP "Range"
+     * request. When the server ignores the range and sends the whole content, the bytes before the range are skipped.
+     * The channel is not closed.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param start
+     *            the position of the first byte of the range.
+     * @param end
+     *            the position after the last byte of the range, or -1 for the end of the content.
+     * @param out
+     *            the destination.
+     * @return the number of bytes written.
+     */
+    public long getBitstreamDataRange(Integer bitstream_id, long start, long end, WritableByteChannel out) {
+        return getBitstreamDataRange(bitstream_id, start, end, false, out);
+    }
+
+    /**
+     * Streams the beginning of the content of a bitstream to a channel, through a fixed size buffer, using an HTTP
+     * "Range" request. When the server ignores the range, the whole content is written instead: a result above the
+     * end of the range tells that the content is complete and that the server does not serve ranges. The channel is
+     * not closed.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param end
+     *            the position after the last byte of the range.
+     * @param out
+     *            the destination.
+     * @return the number of bytes written.
+     */
+    public long getBitstreamDataPrefix(Integer bitstream_id, long end, WritableByteChannel out) {
+        return getBitstreamDataRange(bitstream_id, 0, end, true, out);
+    }
+
+    private long getBitstreamDataRange(Integer bitstream_id, final long start, final long end,
+            final boolean wholeIfIgnored, final WritableByteChannel out) {
+        final RequestCallback requestCallback = toRequestCallback();
+        return restTemplate.execute(bitstreamDataUri(bitstream_id), HttpMethod.GET, new RequestCallback() {
+
+            @Override
+            public void doWithRequest(ClientHttpRequest request) throws IOException {
+                requestCallback.doWithRequest(request);
+                if (start > 0 || end >= 0) {
+                    request.getHeaders().set("Range", "bytes=" + start + "-" + (end >= 0 ? String.valueOf(end - 1) : ""));
+                }
+            }
+
+        }, new ResponseExtractor<Long>() {
+
+            @Override
+            public Long extractData(ClientHttpResponse response) throws IOException {
+                InputStream in = response.getBody();
+                if (response.getStatusCode() != HttpStatus.PARTIAL_CONTENT) {
+                    if (wholeIfIgnored)
+                        return Streams.copy(in, out);
+                    Streams.skip(in, start);
+                }
+                return Streams.copy(in, out, end >= 0 ? end - start : Long.MAX_VALUE);
+            }
+
+        });
+    }
+
+    /**
+     * Opens the content of a bitstream as a live stream. Nothing is buffered: the caller reads directly from the
+     * connection and must close the stream to release it.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @return the content of the bitstream.
+     */
+    public InputStream openBitstreamData(Integer bitstream_id) {
+        URI uri = bitstreamDataUri(bitstream_id);
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            toRequestCallback().doWithRequest(request);
+            response = request.execute();
+            if (restTemplate.getErrorHandler().hasError(response)) {
+                restTemplate.getErrorHandler().handleError(response);
+            }
+            final ClientHttpResponse opened = response;
+            InputStream result = new FilterInputStream(response.getBody()) {
+
+                @Override
+                public void close() throws IOException {
+                    // Close the body first so that the response does not drain what is left of it.
+                    try {
+                        super.close();
+                    } finally {
+                        opened.close();
+                    }
+                }
+
+            };
+            response = null;
+            return result;
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
-        if (requestMediaType != null) {
-            headers.setContentType(requestMediaType);
+    }
+
+    private <T> T executeUpload(URI uri, HttpMethod method, final InputStream requestBody, long contentLength,
+            Class<T> responseType) {
+        ClientHttpResponse response = null;
+        try {
+            ClientHttpRequest request = uploadRequestFactory.createRequest(uri, method);
+            HttpHeaders headers = request.getHeaders();
+            if (dspaceToken != null) {
+                headers.add("rest-dspace-token", dspaceToken);
+            }
+            if (requestMediaType != null) {
+                headers.setContentType(requestMediaType);
+            }
+            // SimpleStreamingClientHttpRequest truncates the content length to an int, larger bodies go chunked.
+            boolean streaming = request instanceof StreamingHttpOutputMessage;
+            if (contentLength >= 0 && (contentLength <= Integer.MAX_VALUE || streaming)) {
+                headers.setContentLength(contentLength);
+            }
+            HttpMessageConverterExtractor<T> extractor = null;
+            if (!Void.class.equals(responseType)) {
+                extractor = new HttpMessageConverterExtractor<T>(responseType, restTemplate.getMessageConverters());
+                List<MediaType> acceptableMediaTypes = new ArrayList<MediaType>();
+                for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+                    if (converter.canRead(responseType, null)) {
+                        acceptableMediaTypes.addAll(converter.getSupportedMediaTypes());
+                    }
+                }
+                headers.setAccept(acceptableMediaTypes);
+            }
+            if (streaming) {
+                // E.g. HttpComponentsClientHttpRequestFactory without buffering: the body is written on execute.
+                ((StreamingHttpOutputMessage) request).setBody(new StreamingHttpOutputMessage.Body() {
+
+                    @Override
+                    public void writeTo(OutputStream outputStream) throws IOException {
+                        Streams.copy(requestBody, outputStream);
+                    }
+
+                });
+            } else {
+                Streams.copy(requestBody, request.getBody());
+            }
+            response = request.execute();
+            if (restTemplate.getErrorHandler().hasError(response)) {
+                restTemplate.getErrorHandler().handleError(response);
+            }
+            return extractor == null ? null : extractor.extractData(response);
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": "
+                    + e.getMessage(), e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
         }
-        HttpEntity<Object> entity = new HttpEntity<Object>(requestBody, headers);
-        return entity;
     }
 
-    public byte[] getBitstreamData(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on file \"" + file + "\": " + e.getMessage(), e);
+        }
+    }
+
+    private static InputStream openFile(Path file) {
+        try {
+            return Files.newInputStream(file);
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on file \"" + file + "\": " + e.getMessage(), e);
+        }
+    }
 
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
+    /**
+     * Adds a bitstream to an item, streaming the content without buffering it, see
+     * {@link #setUploadRequestFactory(ClientHttpRequestFactory)}. The stream is not closed.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @param name
+     *            the bitstream name.
+     * @param description
+     *            the bitstream description.
+     * @param groupId
+     *            the group ID.
+     * @param year
+     *            embargo year.
+     * @param month
+     *            embargo month.
+     * @param day
+     *            embargo day.
+     * @param requestBody
+     *            the content.
+     * @param contentLength
+     *            the length of the content, or -1 when unknown in which case the content is sent chunked.
+     * @return the created bitstream.
+     */
+    public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year,
+            Integer month, Integer day, InputStream requestBody, long contentLength) {
+        URI uri = ADD_ITEM_BITSTREAM.expand(baseUrl, item_id, name, description, groupId, year, month, day);
+        return executeUpload(uri, HttpMethod.POST, requestBody, contentLength, Bitstream.class);
+    }
+
+    /**
+     * Adds a bitstream to an item, streaming the content of a file with a known content length.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @param name
+     *            the bitstream name.
+     * @param description
+     *            the bitstream description.
+     * @param groupId
+     *            the group ID.
+     * @param year
+     *            embargo year.
+     * @param month
+     *            embargo month.
+     * @param day
+     *            embargo day.
+     * @param file
+     *            the content.
+     * @return the created bitstream.
+     */
+    public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year,
+            Integer month, Integer day, Path file) {
+        long contentLength = sizeOf(file);
+        InputStream requestBody = openFile(file);
+        try {
+            return addItemBitstream(item_id, name, description, groupId, year, month, day, requestBody, contentLength);
+        } finally {
+            closeQuietly(requestBody);
+        }
+    }
+
+    /**
+     * Replaces the content of a bitstream, streaming it without buffering it, see
+     * {@link #setUploadRequestFactory(ClientHttpRequestFactory)}. The stream is not closed.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param requestBody
+     *            the content.
+     * @param contentLength
+     *            the length of the content, or -1 when unknown in which case the content is sent chunked.
+     */
+    public void updateBitstreamData(Integer bitstream_id, InputStream requestBody, long contentLength) {
+        executeUpload(UPDATE_BITSTREAM_DATA.expand(baseUrl, bitstream_id), HttpMethod.PUT, requestBody,
+                contentLength, Void.class);
+    }
+
+    /**
+     * Replaces the content of a bitstream, streaming the content of a file with a known content length.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param file
+     *            the content.
+     */
+    public void updateBitstreamData(Integer bitstream_id, Path file) {
+        long contentLength = sizeOf(file);
+        InputStream requestBody = openFile(file);
+        try {
+            updateBitstreamData(bitstream_id, requestBody, contentLength);
+        } finally {
+            closeQuietly(requestBody);
         }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}/retrieve")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        byte[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Adds metadata entries to an item in one request. The generated overload only sends one entry, while DSpace reads
+     * an array.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @param requestBody
+     *            the entries to add.
+     */
+    public void addItemMetadata(Integer item_id, MetadataEntry[] requestBody) {
+        restTemplate.exchange(ADD_ITEM_METADATA.expand(baseUrl, item_id), HttpMethod.POST, toEntity(requestBody),
+                Void.class);
+    }
+
+    /**
+     * Replaces metadata fields of an item in one request: the values of the keys of the entries are dropped and
+     * replaced by the entries, the other keys are left as they are. The generated overload sends no body at all.
+     * 
+     * DSpace 5 drops the values of a key again for each entry, so that only the last entry of a key is kept: give one
+     * entry per key and add the other values with {@link #addItemMetadata(Integer, MetadataEntry[])}, as
+     * {@link MetadataEditor} does.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @param requestBody
+     *            the new entries.
+     */
+    public void updateItemMetadata(Integer item_id, MetadataEntry[] requestBody) {
+        restTemplate.exchange(UPDATE_ITEM_METADATA.expand(baseUrl, item_id), HttpMethod.PUT, toEntity(requestBody),
+                Void.class);
+    }
+
+    /**
+     * Gets a resource with a conditional request, e.g. "/items/{item_id}". The server answers 304 Not Modified,
+     * without a body, while the resource still matches the validators of the copy the caller already has.
+     * 
+     * @param path
+     *            the path relative to the base URL, with URI variables.
+     * @param uriVariables
+     *            the URI variables.
+     * @param queryParams
+     *            the query parameters, e.g. "expand".
+     * @param responseType
+     *            the type of the response body.
+     * @param eTag
+     *            the ETag of the copy, sent as If-None-Match, or null.
+     * @param lastModified
+     *            the last modification date of the copy in milliseconds since the epoch, sent as If-Modified-Since,
+     *            or -1.
+     * @return the response, without a body if its status is 304.
+     */
+    public <T> ResponseEntity<T> getConditionally(String path, Map<String, ?> uriVariables,
+            Map<String, ?> queryParams, Class<T> responseType, String eTag, long lastModified) {
+        HttpEntity<?> entity = toEntity(null);
+        if (eTag != null || lastModified >= 0) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(entity.getHeaders());
+            if (eTag != null) {
+                headers.setIfNoneMatch(eTag);
+            }
+            if (lastModified >= 0) {
+                headers.setIfModifiedSince(lastModified);
+            }
+            entity = new HttpEntity<Object>(headers);
+        }
+        return restTemplate.exchange(expand(path, uriVariables, queryParams), HttpMethod.GET, entity, responseType);
+    }
+
+    /**
+     * Gets a resource reading only some of its fields, e.g. "/items/{item_id}" or "/collections/{collection_id}/items",
+     * the others being skipped while parsing. The response is always requested in JSON.
+     * 
+     * @param path
+     *            the path relative to the base URL, with URI variables.
+     * @param uriVariables
+     *            the URI variables.
+     * @param queryParams
+     *            the query parameters, e.g. "expand".
+     * @param responseType
+     *            the type of the response body, an array type for the listings, e.g. Item[].class.
+     * @param projection
+     *            the fields to read.
+     * @return the resource, or the array of resources.
+     */
+    public <T> T getProjected(String path, Map<String, ?> uriVariables, Map<String, ?> queryParams,
+            final Class<T> responseType, final Projection projection) {
+        final ObjectMapper objectMapper = objectMapper();
+        return restTemplate.execute(expand(path, uriVariables, queryParams), HttpMethod.GET,
+                toJsonRequestCallback(null, objectMapper), new ResponseExtractor<T>() {
+
+                    @Override
+                    public T extractData(ClientHttpResponse response) throws IOException {
+                        if (responseType.isArray()) {
+                            @SuppressWarnings("unchecked")
+                            Class<Object> elementType = (Class<Object>) responseType.getComponentType();
+                            final List<Object> elements = new ArrayList<Object>();
+                            new JsonArrayReader<Object>(objectMapper, elementType, projection).read(
+                                    response.getBody(), new ListingHandler<Object>() {
+
+                                        @Override
+                                        public void handle(Object object) {
+                                            elements.add(object);
+                                        }
+
+                                    });
+                            return responseType.cast(elements.toArray((Object[]) Array.newInstance(elementType,
+                                    elements.size())));
+                        }
+                        JsonParser parser = objectMapper.getFactory().createParser(response.getBody());
+                        try {
+                            JsonToken token = parser.nextToken();
+                            if (token != JsonToken.START_OBJECT)
+                                throw new HttpMessageNotReadableException("Expected a JSON object but got " + token);
+                            return projection.bind(parser, objectMapper.readerFor(responseType));
+                        } catch (JsonProcessingException e) {
+                            throw new HttpMessageNotReadableException("Could not read JSON: " + e.getMessage(), e);
+                        } finally {
+                            parser.close();
+                        }
+                    }
+
+                });
+    }
+
+    private URI expand(String path, Map<String, ?> uriVariables, Map<String, ?> queryParams) {
+        String key = queryParams.isEmpty() ? path : path + queryParams.keySet();
+        EndpointTemplate template = ENDPOINT_TEMPLATES.get(key);
+        if (template == null) {
+            template = new EndpointTemplate(path, queryParams.keySet().toArray(new String[queryParams.size()]));
+            // The paths come from the callers: past a few hundred, they are likely built with their values.
+            if (ENDPOINT_TEMPLATES.size() < MAX_ENDPOINT_TEMPLATES) {
+                ENDPOINT_TEMPLATES.putIfAbsent(key, template);
+            }
+        }
+        return template.expand(baseUrl, uriVariables, queryParams);
+    }
+
+    private ObjectMapper objectMapper() {
+        for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+            if (converter instanceof MappingJackson2HttpMessageConverter)
+                return ((MappingJackson2HttpMessageConverter) converter).getObjectMapper();
+        }
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    private RequestCallback toJsonRequestCallback(final Object requestBody, final ObjectMapper objectMapper) {
+        return new RequestCallback() {
+
+            @Override
+            public void doWithRequest(ClientHttpRequest request) throws IOException {
+                HttpHeaders headers = request.getHeaders();
+                if (dspaceToken != null) {
+                    headers.add("rest-dspace-token", dspaceToken);
+                }
+                headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+                if (requestBody != null) {
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                    objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                            .writeValue(request.getBody(), requestBody);
+                }
+            }
+
+        };
+    }
+
+    private long streamItems(URI uri, HttpMethod method, Object requestBody, Projection projection,
+            final ListingHandler<? super Item> handler) {
+        ObjectMapper objectMapper = objectMapper();
+        final JsonArrayReader<Item> reader = new JsonArrayReader<Item>(objectMapper, Item.class, projection);
+        return restTemplate.execute(uri, method, toJsonRequestCallback(requestBody, objectMapper),
+                new ResponseExtractor<Long>() {
+
+                    @Override
+                    public Long extractData(ClientHttpResponse response) throws IOException {
+                        return reader.read(response.getBody(), handler);
+                    }
+
+                });
+    }
+
+    /**
+     * Finds the items having a metadata entry, handing each item over as soon as it is parsed instead of building the
+     * whole result. The request and the response are always in JSON.
+     * 
+     * @param expand
+     *            the expand parameter, e.g. "metadata".
+     * @param requestBody
+     *            the metadata entry to look for.
+     * @param handler
+     *            receives the items, in order.
+     * @return the number of items handled.
+     */
+    public long findItemsByMetadataField(String expand, MetadataEntry requestBody,
+            ListingHandler<? super Item> handler) {
+        return streamItems(FIND_ITEMS_BY_METADATA_FIELD.expand(baseUrl, expand), HttpMethod.POST, requestBody,
+                null, handler);
+    }
+
+    /**
+     * Lists the items of a collection, handing each item over as soon as it is parsed instead of building the whole
+     * page, so that the memory used does not depend on the page size. The response is always requested in JSON.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param expand
+     *            the expand parameter, e.g. "metadata,bitstreams".
+     * @param limit
+     *            the page size.
+     * @param offset
+     *            the offset of the page.
+     * @param handler
+     *            receives the items, in order.
+     * @return the number of items handled, less than the limit on the last page.
+     */
+    public long getCollectionItems(Integer collection_id, String expand, Integer limit, Integer offset,
+            ListingHandler<? super Item> handler) {
+        return streamItems(GET_COLLECTION_ITEMS.expand(baseUrl, collection_id, expand, limit, offset),
+                HttpMethod.GET, null, null, handler);
+    }
+
+    /**
+     * Lists the items, handing each item over as soon as it is parsed instead of building the whole page, so that the
+     * memory used does not depend on the page size. The response is always requested in JSON.
+     * 
+     * @param expand
+     *            the expand parameter, e.g. "metadata,bitstreams".
+     * @param limit
+     *            the page size.
+     * @param offset
+     *            the offset of the page.
+     * @param handler
+     *            receives the items, in order.
+     * @return the number of items handled, less than the limit on the last page.
+     */
+    public long getItems(String expand, Integer limit, Integer offset, ListingHandler<? super Item> handler) {
+        return streamItems(GET_ITEMS.expand(baseUrl, expand, limit, offset), HttpMethod.GET, null, null, handler);
+    }
+
+    /**
+     * Finds the items having a metadata entry, reading only some of their fields, and hands each item over as soon as
+     * it is parsed.
+     * 
+     * @param expand
+     *            the expand parameter, e.g. "metadata".
+     * @param requestBody
+     *            the metadata entry to look for.
+     * @param projection
+     *            the fields to read.
+     * @param handler
+     *            receives the items, in order.
+     * @return the number of items handled.
+     */
+    public long findItemsByMetadataField(String expand, MetadataEntry requestBody, Projection projection,
+            ListingHandler<? super Item> handler) {
+        return streamItems(FIND_ITEMS_BY_METADATA_FIELD.expand(baseUrl, expand), HttpMethod.POST, requestBody,
+                projection, handler);
+    }
+
+    /**
+     * Lists the items of a collection, reading only some of their fields, and hands each item over as soon as it is
+     * parsed.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param expand
+     *            the expand parameter, e.g. "metadata".
+     * @param limit
+     *            the page size.
+     * @param offset
+     *            the offset of the page.
+     * @param projection
+     *            the fields to read.
+     * @param handler
+     *            receives the items, in order.
+     * @return the number of items handled, less than the limit on the last page.
+     */
+    public long getCollectionItems(Integer collection_id, String expand, Integer limit, Integer offset,
+            Projection projection, ListingHandler<? super Item> handler) {
+        return streamItems(GET_COLLECTION_ITEMS.expand(baseUrl, collection_id, expand, limit, offset),
+                HttpMethod.GET, null, projection, handler);
+    }
+
+    /**
+     * Lists the items, reading only some of their fields, and hands each item over as soon as it is parsed.
+     * 
+     * @param expand
+     *            the expand parameter, e.g. "metadata".
+     * @param limit
+     *            the page size.
+     * @param offset
+     *            the offset of the page.
+     * @param projection
+     *            the fields to read.
+     * @param handler
+     *            receives the items, in order.
+     * @return the number of items handled, less than the limit on the last page.
+     */
+    public long getItems(String expand, Integer limit, Integer offset, Projection projection,
+            ListingHandler<? super Item> handler) {
+        return streamItems(GET_ITEMS.expand(baseUrl, expand, limit, offset), HttpMethod.GET, null, projection,
+                handler);
+    }
+
+    public byte[] getBitstreamData(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
+        URI uri = GET_BITSTREAM_DATA_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        byte[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), byte[].class).getBody();
 
         return result;
     }
 
     public byte[] getBitstreamData(Integer bitstream_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}/retrieve");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        byte[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_BITSTREAM_DATA.expand(baseUrl, bitstream_id);
+        byte[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), byte[].class).getBody();
 
         return result;
     }
 
     public Void addBitstreamPolicy(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor, ResourcePolicy requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}/policy")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_BITSTREAM_POLICY_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public Void addBitstreamPolicy(Integer bitstream_id, ResourcePolicy requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}/policy");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_BITSTREAM_POLICY.expand(baseUrl, bitstream_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public ResourcePolicy[] getBitstreamPolicies(Integer bitstream_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}/policy");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        ResourcePolicy[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_BITSTREAM_POLICIES.expand(baseUrl, bitstream_id);
+        ResourcePolicy[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), ResourcePolicy[].class).getBody();
 
         return result;
     }
 
     public Void updateBitstream(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor, Bitstream requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_BITSTREAM_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public Void updateBitstream(Integer bitstream_id, Bitstream requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_BITSTREAM.expand(baseUrl, bitstream_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteBitstream(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_BITSTREAM_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteBitstream(Integer bitstream_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_BITSTREAM.expand(baseUrl, bitstream_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Bitstream getBitstream(Integer bitstream_id, String expand, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}")
-                .queryParam("expand", expand)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Bitstream result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_BITSTREAM_WITH_USER_IP.expand(baseUrl, bitstream_id, expand, userIP, userAgent, xforwardedfor);
+        Bitstream result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Bitstream.class).getBody();
 
         return result;
     }
 
     public Bitstream getBitstream(Integer bitstream_id, String expand) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}")
-                .queryParam("expand", expand);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Bitstream result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_BITSTREAM.expand(baseUrl, bitstream_id, expand);
+        Bitstream result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Bitstream.class).getBody();
 
         return result;
     }
 
     public Void updateBitstreamData(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor, InputStream requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}/data")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_BITSTREAM_DATA_WITH_USER_IP.expand(baseUrl, bitstream_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(new InputStreamResource(requestBody)), Void.class).getBody();
 
         return result;
     }
 
     public Void updateBitstreamData(Integer bitstream_id, InputStream requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}/data");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_BITSTREAM_DATA.expand(baseUrl, bitstream_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(new InputStreamResource(requestBody)), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteBitstreamPolicy(Integer policy_id, Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (policy_id != null) {
-            uriVariables.put("policy_id", policy_id);
-        }
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}/policy/{policy_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_BITSTREAM_POLICY_WITH_USER_IP.expand(baseUrl, bitstream_id, policy_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteBitstreamPolicy(Integer policy_id, Integer bitstream_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (policy_id != null) {
-            uriVariables.put("policy_id", policy_id);
-        }
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams/{bitstream_id}/policy/{policy_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_BITSTREAM_POLICY.expand(baseUrl, bitstream_id, policy_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Bitstream[] getBitstreams(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Bitstream[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_BITSTREAMS_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        Bitstream[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Bitstream[].class).getBody();
 
         return result;
     }
 
     public Bitstream[] getBitstreams(String expand, Integer limit, Integer offset) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/bitstreams")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Bitstream[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_BITSTREAMS.expand(baseUrl, expand, limit, offset);
+        Bitstream[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Bitstream[].class).getBody();
 
         return result;
     }
 
     public Void updateCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor, Community requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public Void updateCommunity(Integer community_id, Community requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_COMMUNITY.expand(baseUrl, community_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public Community getCommunity(Integer community_id, String expand, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}")
-                .queryParam("expand", expand)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, expand, userIP, userAgent, xforwardedfor);
+        Community result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Community.class).getBody();
 
         return result;
     }
 
     public Community getCommunity(Integer community_id, String expand) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}")
-                .queryParam("expand", expand);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COMMUNITY.expand(baseUrl, community_id, expand);
+        Community result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Community.class).getBody();
 
         return result;
     }
 
     public Void deleteCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteCommunity(Integer community_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COMMUNITY.expand(baseUrl, community_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Community addCommunityCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor, Community requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/communities")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_COMMUNITY_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, userIP, userAgent, xforwardedfor);
+        Community result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Community.class).getBody();
 
         return result;
     }
 
     public Community addCommunityCommunity(Integer community_id, Community requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/communities");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_COMMUNITY_COMMUNITY.expand(baseUrl, community_id);
+        Community result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Community.class).getBody();
 
         return result;
     }
 
     public Community[] getCommunityCommunities(Integer community_id, String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/communities")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COMMUNITY_COMMUNITIES_WITH_USER_IP.expand(baseUrl, community_id, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        Community[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Community[].class).getBody();
 
         return result;
     }
 
     public Community[] getCommunityCommunities(Integer community_id, String expand, Integer limit, Integer offset) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/communities")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COMMUNITY_COMMUNITIES.expand(baseUrl, community_id, expand, limit, offset);
+        Community[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Community[].class).getBody();
 
         return result;
     }
 
     public Collection addCommunityCollection(Integer community_id, String userIP, String userAgent, String xforwardedfor, Collection requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/collections")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Collection result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_COMMUNITY_COLLECTION_WITH_USER_IP.expand(baseUrl, community_id, userIP, userAgent, xforwardedfor);
+        Collection result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Collection.class).getBody();
 
         return result;
     }
 
     public Collection addCommunityCollection(Integer community_id, Collection requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/collections");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Collection result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_COMMUNITY_COLLECTION.expand(baseUrl, community_id);
+        Collection result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Collection.class).getBody();
 
         return result;
     }
 
     public Collection[] getCommunityCollections(Integer community_id, String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/collections")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Collection[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COMMUNITY_COLLECTIONS_WITH_USER_IP.expand(baseUrl, community_id, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        Collection[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Collection[].class).getBody();
 
         return result;
     }
 
     public Collection[] getCommunityCollections(Integer community_id, String expand, Integer limit, Integer offset) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/collections")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Collection[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COMMUNITY_COLLECTIONS.expand(baseUrl, community_id, expand, limit, offset);
+        Collection[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Collection[].class).getBody();
 
         return result;
     }
 
     public Community[] getTopCommunities(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/top-communities")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_TOP_COMMUNITIES_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        Community[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Community[].class).getBody();
 
         return result;
     }
 
     public Community[] getTopCommunities(String expand, Integer limit, Integer offset) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/top-communities")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_TOP_COMMUNITIES.expand(baseUrl, expand, limit, offset);
+        Community[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Community[].class).getBody();
 
         return result;
     }
 
     public Void deleteCommunityCollection(Integer collection_id, Integer community_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/collections/{collection_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COMMUNITY_COLLECTION_WITH_USER_IP.expand(baseUrl, community_id, collection_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteCommunityCollection(Integer collection_id, Integer community_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/collections/{collection_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COMMUNITY_COLLECTION.expand(baseUrl, community_id, collection_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteCommunityCommunity(Integer community_id, Integer community_id2, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        if (community_id2 != null) {
-            uriVariables.put("community_id2", community_id2);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/communities/{community_id2}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COMMUNITY_COMMUNITY_WITH_USER_IP.expand(baseUrl, community_id, community_id2, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteCommunityCommunity(Integer community_id, Integer community_id2) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (community_id != null) {
-            uriVariables.put("community_id", community_id);
-        }
-        if (community_id2 != null) {
-            uriVariables.put("community_id2", community_id2);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities/{community_id}/communities/{community_id2}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COMMUNITY_COMMUNITY.expand(baseUrl, community_id, community_id2);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Community[] getCommunities(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_COMMUNITIES_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        Community[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Community[].class).getBody();
 
         return result;
     }
 
     public Community[] getCommunities(String expand, Integer limit, Integer offset) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_COMMUNITIES.expand(baseUrl, expand, limit, offset);
+        Community[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Community[].class).getBody();
 
         return result;
     }
 
     public Community createCommunity(String userIP, String userAgent, String xforwardedfor, Community requestBody) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.POST,
+        URI uri = CREATE_COMMUNITY_WITH_USER_IP.expand(baseUrl, userIP, userAgent, xforwardedfor);
+        Community result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Community.class).getBody();
 
         return result;
     }
 
     public Community createCommunity(Community requestBody) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/communities");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Community result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.POST,
+        URI uri = CREATE_COMMUNITY.expand(baseUrl);
+        Community result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Community.class).getBody();
 
         return result;
     }
 
     public Void updateCollection(Integer collection_id, String userIP, String userAgent, String xforwardedfor, Collection requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_COLLECTION_WITH_USER_IP.expand(baseUrl, collection_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public Void updateCollection(Integer collection_id, Collection requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_COLLECTION.expand(baseUrl, collection_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteCollection(Integer collection_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COLLECTION_WITH_USER_IP.expand(baseUrl, collection_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteCollection(Integer collection_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COLLECTION.expand(baseUrl, collection_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Collection getCollection(Integer collection_id, String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Collection result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COLLECTION_WITH_USER_IP.expand(baseUrl, collection_id, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        Collection result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Collection.class).getBody();
 
         return result;
     }
 
     public Collection getCollection(Integer collection_id, String expand, Integer limit, Integer offset) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Collection result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COLLECTION.expand(baseUrl, collection_id, expand, limit, offset);
+        Collection result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Collection.class).getBody();
 
         return result;
     }
 
     public Void deleteCollectionItem(Integer collection_id, Integer item_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}/items/{item_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COLLECTION_ITEM_WITH_USER_IP.expand(baseUrl, collection_id, item_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteCollectionItem(Integer collection_id, Integer item_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}/items/{item_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_COLLECTION_ITEM.expand(baseUrl, collection_id, item_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Collection findCollectionByName() {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/find-collection");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Collection result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.POST,
+        URI uri = FIND_COLLECTION_BY_NAME.expand(baseUrl);
+        Collection result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(null), Collection.class).getBody();
 
         return result;
     }
 
     public Item addCollectionItem(Integer collection_id, String userIP, String userAgent, String xforwardedfor, Item requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}/items")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_COLLECTION_ITEM_WITH_USER_IP.expand(baseUrl, collection_id, userIP, userAgent, xforwardedfor);
+        Item result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Item.class).getBody();
 
         return result;
     }
 
     public Item addCollectionItem(Integer collection_id, Item requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}/items");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_COLLECTION_ITEM.expand(baseUrl, collection_id);
+        Item result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Item.class).getBody();
 
         return result;
     }
 
     public Item[] getCollectionItems(Integer collection_id, String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}/items")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COLLECTION_ITEMS_WITH_USER_IP.expand(baseUrl, collection_id, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        Item[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Item[].class).getBody();
 
         return result;
     }
 
     public Item[] getCollectionItems(Integer collection_id, String expand, Integer limit, Integer offset) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (collection_id != null) {
-            uriVariables.put("collection_id", collection_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections/{collection_id}/items")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_COLLECTION_ITEMS.expand(baseUrl, collection_id, expand, limit, offset);
+        Item[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Item[].class).getBody();
 
         return result;
     }
 
     public Collection[] getCollections(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Collection[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_COLLECTIONS_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        Collection[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Collection[].class).getBody();
 
         return result;
     }
 
     public Collection[] getCollections(String expand, Integer limit, Integer offset) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/collections")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Collection[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_COLLECTIONS.expand(baseUrl, expand, limit, offset);
+        Collection[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Collection[].class).getBody();
 
         return result;
     }
 
     public <T> T getObject(String prefix, String suffix, String expand, Class<T> returnType) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (prefix != null) {
-            uriVariables.put("prefix", prefix);
-        }
-        if (suffix != null) {
-            uriVariables.put("suffix", suffix);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/handle/{prefix}/{suffix}")
-                .queryParam("expand", expand);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        T result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_OBJECT.expand(baseUrl, prefix, suffix, expand);
+        T result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), returnType).getBody();
 
         return result;
     }
 
     public String test() {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/test");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        String result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = TEST.expand(baseUrl);
+        String result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), String.class).getBody();
 
         return result;
     }
 
     public Status status() {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/status");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Status result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = STATUS.expand(baseUrl);
+        Status result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Status.class).getBody();
 
         return result;
     }
 
     public String login(User requestBody) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/login");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        String result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.POST,
+        URI uri = LOGIN.expand(baseUrl);
+        String result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), String.class).getBody();
         if (result == null || result.length() <= 0)
             result = null;
@@ -1064,9 +1597,8 @@ public class DSpaceRestClient {
 
     public Void logout() {
         try {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/logout");
-            // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-            Void result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.POST,
+            URI uri = LOGOUT.expand(baseUrl);
+            Void result = restTemplate.exchange(uri, HttpMethod.POST,
                     toEntity(null), Void.class).getBody();
 
             return result;
@@ -1076,362 +1608,184 @@ public class DSpaceRestClient {
     }
 
     public String sayHtmlHello() {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        String result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = SAY_HTML_HELLO.expand(baseUrl);
+        String result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), String.class).getBody();
 
         return result;
     }
 
     public Item getItem(Integer item_id, String expand, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}")
-                .queryParam("expand", expand)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_ITEM_WITH_USER_IP.expand(baseUrl, item_id, expand, userIP, userAgent, xforwardedfor);
+        Item result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Item.class).getBody();
 
         return result;
     }
 
     public Item getItem(Integer item_id, String expand) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}")
-                .queryParam("expand", expand);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_ITEM.expand(baseUrl, item_id, expand);
+        Item result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Item.class).getBody();
 
         return result;
     }
 
     public Void deleteItem(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_ITEM_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteItem(Integer item_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_ITEM.expand(baseUrl, item_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void updateItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/metadata")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_ITEM_METADATA_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void updateItemMetadata(Integer item_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/metadata");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.PUT,
+        URI uri = UPDATE_ITEM_METADATA.expand(baseUrl, item_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.PUT,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void addItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor, MetadataEntry requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/metadata")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_ITEM_METADATA_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public Void addItemMetadata(Integer item_id, MetadataEntry requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/metadata");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_ITEM_METADATA.expand(baseUrl, item_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/metadata")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_ITEM_METADATA_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteItemMetadata(Integer item_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/metadata");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_ITEM_METADATA.expand(baseUrl, item_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public MetadataEntry getItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/metadata")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        MetadataEntry result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_ITEM_METADATA_WITH_USER_IP.expand(baseUrl, item_id, userIP, userAgent, xforwardedfor);
+        MetadataEntry result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), MetadataEntry.class).getBody();
 
         return result;
     }
 
     public MetadataEntry getItemMetadata(Integer item_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/metadata");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        MetadataEntry result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_ITEM_METADATA.expand(baseUrl, item_id);
+        MetadataEntry result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), MetadataEntry.class).getBody();
 
         return result;
     }
 
     public Bitstream[] getItemBitstreams(Integer item_id, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/bitstreams")
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Bitstream[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_ITEM_BITSTREAMS_WITH_USER_IP.expand(baseUrl, item_id, limit, offset, userIP, userAgent, xforwardedfor);
+        Bitstream[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Bitstream[].class).getBody();
 
         return result;
     }
 
     public Bitstream[] getItemBitstreams(Integer item_id, Integer limit, Integer offset) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/bitstreams")
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Bitstream[] result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.GET,
+        URI uri = GET_ITEM_BITSTREAMS.expand(baseUrl, item_id, limit, offset);
+        Bitstream[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Bitstream[].class).getBody();
 
         return result;
     }
 
     public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year, Integer month, Integer day, String userIP, String userAgent, String xforwardedfor, InputStream requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/bitstreams")
-                .queryParam("name", name)
-                .queryParam("description", description)
-                .queryParam("groupId", groupId)
-                .queryParam("year", year)
-                .queryParam("month", month)
-                .queryParam("day", day)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Bitstream result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_ITEM_BITSTREAM_WITH_USER_IP.expand(baseUrl, item_id, name, description, groupId, year, month, day, userIP, userAgent, xforwardedfor);
+        Bitstream result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(new InputStreamResource(requestBody)), Bitstream.class).getBody();
 
         return result;
     }
 
     public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year, Integer month, Integer day, InputStream requestBody) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/bitstreams")
-                .queryParam("name", name)
-                .queryParam("description", description)
-                .queryParam("groupId", groupId)
-                .queryParam("year", year)
-                .queryParam("month", month)
-                .queryParam("day", day);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Bitstream result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.POST,
+        URI uri = ADD_ITEM_BITSTREAM.expand(baseUrl, item_id, name, description, groupId, year, month, day);
+        Bitstream result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(new InputStreamResource(requestBody)), Bitstream.class).getBody();
 
         return result;
     }
 
     public Item[] findItemsByMetadataField(String expand, String userIP, String userAgent, String xforwardedfor, MetadataEntry requestBody) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/find-by-metadata-field")
-                .queryParam("expand", expand)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.POST,
+        URI uri = FIND_ITEMS_BY_METADATA_FIELD_WITH_USER_IP.expand(baseUrl, expand, userIP, userAgent, xforwardedfor);
+        Item[] result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Item[].class).getBody();
 
         return result;
     }
 
     public Item[] findItemsByMetadataField(String expand, MetadataEntry requestBody) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/find-by-metadata-field")
-                .queryParam("expand", expand);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.POST,
+        URI uri = FIND_ITEMS_BY_METADATA_FIELD.expand(baseUrl, expand);
+        Item[] result = restTemplate.exchange(uri, HttpMethod.POST,
                 toEntity(requestBody), Item[].class).getBody();
 
         return result;
     }
 
     public Void deleteItemBitstream(Integer item_id, Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/bitstreams/{bitstream_id}")
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_ITEM_BITSTREAM_WITH_USER_IP.expand(baseUrl, item_id, bitstream_id, userIP, userAgent, xforwardedfor);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Void deleteItemBitstream(Integer item_id, Integer bitstream_id) {
-
-        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
-        if (item_id != null) {
-            uriVariables.put("item_id", item_id);
-        }
-        if (bitstream_id != null) {
-            uriVariables.put("bitstream_id", bitstream_id);
-        }
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items/{item_id}/bitstreams/{bitstream_id}");
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Void result = restTemplate.exchange(queryBuilder.buildAndExpand(uriVariables).toUriString(), HttpMethod.DELETE,
+        URI uri = DELETE_ITEM_BITSTREAM.expand(baseUrl, item_id, bitstream_id);
+        Void result = restTemplate.exchange(uri, HttpMethod.DELETE,
                 toEntity(null), Void.class).getBody();
 
         return result;
     }
 
     public Item[] getItems(String expand, Integer limit, Integer offset, String userIP, String userAgent, String xforwardedfor) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset)
-                .queryParam("userIP", userIP)
-                .queryParam("userAgent", userAgent)
-                .queryParam("xforwardedfor", xforwardedfor);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_ITEMS_WITH_USER_IP.expand(baseUrl, expand, limit, offset, userIP, userAgent, xforwardedfor);
+        Item[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Item[].class).getBody();
 
         return result;
     }
 
     public Item[] getItems(String expand, Integer limit, Integer offset) {
-        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(baseUrl).path("/items")
-                .queryParam("expand", expand)
-                .queryParam("limit", limit)
-                .queryParam("offset", offset);
-        // "toUri" has a problem with encoding the query string, this is why we use "toUriString"
-        Item[] result = restTemplate.exchange(queryBuilder.build().toUriString(), HttpMethod.GET,
+        URI uri = GET_ITEMS.expand(baseUrl, expand, limit, offset);
+        Item[] result = restTemplate.exchange(uri, HttpMethod.GET,
                 toEntity(null), Item[].class).getBody();
 
         return result;
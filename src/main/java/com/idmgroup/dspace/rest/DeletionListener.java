@@ -0,0 +1,29 @@
+package com.idmgroup.dspace.rest;
+
+/**
+ * Follows the progress of a {@link SubtreeDeleter}.
+ * 
+ * @author arnaud
+ */
+public interface DeletionListener {
+
+    /**
+     * Called once an object is deleted, or found already gone. Called concurrently from the deleter workers.
+     * 
+     * @param path
+     *            the path of the object relative to the base URL, e.g. "/items/42".
+     */
+    void deleted(String path);
+
+    /**
+     * Called when an object cannot be deleted. Its ancestors are then kept. Called concurrently from the deleter
+     * workers.
+     * 
+     * @param path
+     *            the path of the object relative to the base URL, e.g. "/items/42".
+     * @param error
+     *            the error.
+     */
+    void failed(String path, RuntimeException error);
+
+}
@@ -0,0 +1,91 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.Map;
+
+/**
+ * Outcome of a {@link SubtreeDeleter} run.
+ * 
+ * @author arnaud
+ */
+public class DeletionResult {
+
+    private final long collections;
+
+    private final long communities;
+
+    private final Map<String, RuntimeException> failures;
+
+    private final long items;
+
+    private final long kept;
+
+    public DeletionResult(long items, long collections, long communities, long kept,
+            Map<String, RuntimeException> failures) {
+        this.items = items;
+        this.collections = collections;
+        this.communities = communities;
+        this.kept = kept;
+        this.failures = failures;
+    }
+
+    /**
+     * Gets the number of collections deleted.
+     * 
+     * @return the number of collections.
+     */
+    public long getCollections() {
+        return collections;
+    }
+
+    /**
+     * Gets the number of communities deleted.
+     * 
+     * @return the number of communities.
+     */
+    public long getCommunities() {
+        return communities;
+    }
+
+    /**
+     * Gets the objects that could not be listed or deleted.
+     * 
+     * @return the errors, by path of the object relative to the base URL, e.g. "/items/42".
+     */
+    public Map<String, RuntimeException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the number of items deleted.
+     * 
+     * @return the number of items.
+     */
+    public long getItems() {
+        return items;
+    }
+
+    /**
+     * Gets the number of containers not deleted because some of their content could not be.
+     * 
+     * @return the number of containers kept.
+     */
+    public long getKept() {
+        return kept;
+    }
+
+    /**
+     * Tells whether the whole subtree was deleted.
+     * 
+     * @return true if there was no failure.
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "DeletionResult [items=" + items + ", collections=" + collections + ", communities=" + communities
+                + ", kept=" + kept + ", failures=" + failures.keySet() + "]";
+    }
+
+}
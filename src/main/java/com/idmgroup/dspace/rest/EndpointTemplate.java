@@ -0,0 +1,206 @@
+package com.idmgroup.dspace.rest;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template of the URI of an endpoint of the DSpace REST API, e.g. "/items/{item_id}" with the query parameter
+ * "expand". It is parsed once, then expanded for each request straight into a {@link URI}, without going through
+ * {@link org.springframework.web.util.UriComponentsBuilder} and the URI template handler of the REST template.
+ * 
+ * The values are encoded the way {@link org.springframework.web.util.UriComponents#encode()} encodes a path and
+ * query parameters. A query parameter whose value is null is sent without a value, e.g. "?expand".
+ * 
+ * @author arnaud
+ */
+public final class EndpointTemplate {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private static final boolean[] PATH = new boolean[128];
+
+    private static final boolean[] QUERY_PARAM = new boolean[128];
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static {
+        String pchar = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-._~!$&'()*+,;=:@";
+        for (int i = 0; i < pchar.length(); ++i) {
+            PATH[pchar.charAt(i)] = true;
+            QUERY_PARAM[pchar.charAt(i)] = true;
+        }
+        PATH['/'] = true;
+        QUERY_PARAM['/'] = true;
+        QUERY_PARAM['?'] = true;
+        QUERY_PARAM['='] = false;
+        QUERY_PARAM['&'] = false;
+        QUERY_PARAM['+'] = false;
+    }
+
+    private static void appendEncoded(StringBuilder builder, Object value, boolean[] allowed) {
+        if (value instanceof Integer) {
+            builder.append(((Integer) value).intValue());
+            return;
+        }
+        String string = value.toString();
+        for (int i = 0; i < string.length(); ++i) {
+            char c = string.charAt(i);
+            if (c >= 128 || !allowed[c]) {
+                builder.append(string, 0, i);
+                for (byte b : string.substring(i).getBytes(UTF_8)) {
+                    if (b >= 0 && allowed[b]) {
+                        builder.append((char) b);
+                    } else {
+                        builder.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+                    }
+                }
+                return;
+            }
+        }
+        builder.append(string);
+    }
+
+    private final String[] literals;
+
+    private final int length;
+
+    private final String path;
+
+    private final String[] queryParams;
+
+    private final String[] queryPrefixes;
+
+    private final String[] variables;
+
+    /**
+     * New instance.
+     * 
+     * @param path
+     *            the path relative to the base URL, with URI variables, e.g. "/items/{item_id}".
+     * @param queryParams
+     *            the names of the query parameters, in the order of their values.
+     * @throws IllegalArgumentException
+     *             if a URI variable is not closed.
+     */
+    public EndpointTemplate(String path, String... queryParams) {
+        List<String> literals = new ArrayList<String>();
+        List<String> variables = new ArrayList<String>();
+        int start = 0;
+        int open;
+        while ((open = path.indexOf('{', start)) >= 0) {
+            int close = path.indexOf('}', open);
+            if (close < 0)
+                throw new IllegalArgumentException("unclosed URI variable in " + path);
+            literals.add(path.substring(start, open));
+            variables.add(path.substring(open + 1, close));
+            start = close + 1;
+        }
+        literals.add(path.substring(start));
+        this.path = path;
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.variables = variables.toArray(new String[variables.size()]);
+        this.queryParams = queryParams.clone();
+        this.queryPrefixes = new String[queryParams.length];
+        int length = path.length();
+        for (int i = 0; i < queryParams.length; ++i) {
+            queryPrefixes[i] = (i == 0 ? "?" : "&") + queryParams[i];
+            length += queryPrefixes[i].length() + 8;
+        }
+        this.length = length;
+    }
+
+    /**
+     * Expands the template.
+     * 
+     * @param baseUrl
+     *            the base URL of the DSpace REST API, without a trailing slash, e.g. "https://demo.dspace.org/rest".
+     * @param values
+     *            the values of the URI variables in the order of the path, then the values of the query parameters,
+     *            possibly null.
+     * @return the URI.
+     * @throws IllegalArgumentException
+     *             if the number of values does not match, or a URI variable is null.
+     */
+    public URI expand(String baseUrl, Object... values) {
+        if (values.length != variables.length + queryParams.length)
+            throw new IllegalArgumentException(values.length + " values given for " + this);
+        StringBuilder builder = new StringBuilder(baseUrl.length() + length);
+        builder.append(baseUrl).append(literals[0]);
+        for (int i = 0; i < variables.length; ++i) {
+            if (values[i] == null)
+                throw new IllegalArgumentException("no value for '" + variables[i] + "'");
+            appendEncoded(builder, values[i], PATH);
+            builder.append(literals[i + 1]);
+        }
+        for (int i = 0; i < queryParams.length; ++i) {
+            builder.append(queryPrefixes[i]);
+            Object value = values[variables.length + i];
+            if (value != null) {
+                builder.append('=');
+                appendEncoded(builder, value, QUERY_PARAM);
+            }
+        }
+        return URI.create(builder.toString());
+    }
+
+    /**
+     * Expands the template with named values.
+     * 
+     * @param baseUrl
+     *            the base URL of the DSpace REST API, without a trailing slash, e.g. "https://demo.dspace.org/rest".
+     * @param uriVariables
+     *            the values of the URI variables, by name.
+     * @param queryParams
+     *            the values of the query parameters, by name, possibly null.
+     * @return the URI.
+     * @throws IllegalArgumentException
+     *             if a URI variable has no value.
+     */
+    public URI expand(String baseUrl, Map<String, ?> uriVariables, Map<String, ?> queryParams) {
+        Object[] values = new Object[variables.length + this.queryParams.length];
+        for (int i = 0; i < variables.length; ++i) {
+            values[i] = uriVariables.get(variables[i]);
+        }
+        for (int i = 0; i < this.queryParams.length; ++i) {
+            values[variables.length + i] = queryParams == null ? null : queryParams.get(this.queryParams[i]);
+        }
+        return expand(baseUrl, values);
+    }
+
+    /**
+     * Gets the path.
+     * 
+     * @return the path relative to the base URL, with URI variables, e.g. "/items/{item_id}".
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the names of the query parameters.
+     * 
+     * @return the names of the query parameters.
+     */
+    public List<String> getQueryParams() {
+        return Arrays.asList(queryParams.clone());
+    }
+
+    /**
+     * Gets the names of the URI variables.
+     * 
+     * @return the names of the URI variables, in the order of the path.
+     */
+    public List<String> getVariables() {
+        return Arrays.asList(variables.clone());
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointTemplate [path=" + path + ", queryParams=" + Arrays.toString(queryParams) + "]";
+    }
+
+}
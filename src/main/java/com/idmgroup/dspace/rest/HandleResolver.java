@@ -0,0 +1,355 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idmgroup.dspace.rest.Workers.Action;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+
+/**
+ * Resolves handles to the objects they point to, caching the type and ID of each handle.
+ * 
+ * The handles not found are remembered for a shorter time than the others. The handles can be given as
+ * "123456789/42", "hdl:123456789/42" or "http://hdl.handle.net/123456789/42". E.g.:
+ * 
+ * <pre>
+ * HandleResolver resolver = new HandleResolver(client);
+ * Map&lt;String, ResolvedHandle&gt; resolved = resolver.resolveAll(handles);
+ * DSpaceObject object = resolver.getObject("123456789/42", "metadata");
+ * if (object instanceof Item) {
+ *     ...
+ * }
+ * </pre>
+ * 
+ * @author arnaud
+ */
+public class HandleResolver {
+
+    private static class CachedHandle {
+
+        private final long expires;
+
+        private final ResolvedHandle value;
+
+        public CachedHandle(ResolvedHandle value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+
+    }
+
+    private final Map<String, CachedHandle> cache = new LinkedHashMap<String, CachedHandle>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedHandle> eldest) {
+            return size() > maxSize;
+        }
+
+    };
+
+    private final DSpaceRestClient client;
+
+    private ExecutorService executor;
+
+    private int maxSize = 100000;
+
+    private long notFoundTimeToLive = 5 * 60 * 1000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private int parallelism = 8;
+
+    private long timeToLive = 24 * 60 * 60 * 1000;
+
+    /**
+     * New instance.
+     * 
+     * @param client
+     *            the client used to resolve the handles.
+     */
+    public HandleResolver(DSpaceRestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Gets the resolution of a handle, unless unknown or expired.
+     */
+    private CachedHandle cached(String normalized) {
+        synchronized (cache) {
+            CachedHandle entry = cache.get(normalized);
+            if (entry != null && entry.expires - System.currentTimeMillis() > 0)
+                return entry;
+            return null;
+        }
+    }
+
+    /**
+     * Removes all the resolved handles.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Gets the object of a handle from DSpace, with the class matching its type, and remembers its type and ID.
+     * 
+     * @return the object, or null if the handle is not found.
+     */
+    private DSpaceObject fetch(String normalized, String expand) {
+        String[] parts = split(normalized);
+        DSpaceObject object;
+        ResolvedHandle result;
+        long ttl;
+        try {
+            Map<?, ?> json = client.getObject(parts[0], parts[1], expand, Map.class);
+            if (json == null) {
+                object = null;
+                result = null;
+            } else {
+                object = objectMapper.convertValue(json, DSpaceObject.class);
+                result = new ResolvedHandle(normalized, object.getType(), object.getId());
+                if (result.getObjectClass() != DSpaceObject.class) {
+                    object = objectMapper.convertValue(json, result.getObjectClass());
+                }
+            }
+            ttl = result == null ? notFoundTimeToLive : timeToLive;
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() != HttpStatus.NOT_FOUND)
+                throw e;
+            object = null;
+            result = null;
+            ttl = notFoundTimeToLive;
+        }
+        synchronized (cache) {
+            cache.put(normalized, new CachedHandle(result, System.currentTimeMillis() + ttl));
+        }
+        return object;
+    }
+
+    /**
+     * Gets the executor running the bulk resolutions.
+     * 
+     * @return the executor, by default a pool of daemon threads created on first use.
+     */
+    public synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Workers.daemonPool("dspace-handles");
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the maximum number of handles remembered.
+     * 
+     * @return the maximum size.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the time the handles not found are remembered.
+     * 
+     * @return the time to live in milliseconds.
+     */
+    public long getNotFoundTimeToLive() {
+        return notFoundTimeToLive;
+    }
+
+    /**
+     * Resolves a handle and gets the object with the class matching its type. A handle not resolved yet costs one
+     * request to DSpace, whose answer is both remembered as the resolution and returned. A resolved handle is read with
+     * {@link DSpaceRestClient#getItem(Integer, String)},
+     * {@link DSpaceRestClient#getCollection(Integer, String, Integer, Integer)} or
+     * {@link DSpaceRestClient#getCommunity(Integer, String)}.
+     * 
+     * @param handle
+     *            the handle.
+     * @param expand
+     *            the expand parameter.
+     * @return the object, e.g. an {@link com.idmgroup.dspace.rest.jersey.Item}, or null if the handle is not found.
+     */
+    public DSpaceObject getObject(String handle, String expand) {
+        String normalized = normalize(handle);
+        CachedHandle entry = cached(normalized);
+        if (entry == null)
+            return fetch(normalized, expand);
+        ResolvedHandle resolved = entry.value;
+        if (resolved == null)
+            return null;
+        if ("item".equals(resolved.getType()))
+            return client.getItem(resolved.getId(), expand);
+        else if ("collection".equals(resolved.getType()))
+            return client.getCollection(resolved.getId(), expand, null, null);
+        else if ("community".equals(resolved.getType()))
+            return client.getCommunity(resolved.getId(), expand);
+        String[] parts = split(resolved.getHandle());
+        return client.getObject(parts[0], parts[1], expand, DSpaceObject.class);
+    }
+
+    /**
+     * Gets the number of handles resolved at once by {@link #resolveAll(Collection)}.
+     * 
+     * @return the parallelism.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Gets the time the handles found are remembered.
+     * 
+     * @return the time to live in milliseconds.
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Resolves a handle.
+     * 
+     * @param handle
+     *            the handle.
+     * @return the type and ID of the object, or null if the handle is not found.
+     * @throws IllegalArgumentException
+     *             if the handle is malformed.
+     */
+    public ResolvedHandle resolve(String handle) {
+        String normalized = normalize(handle);
+        CachedHandle entry = cached(normalized);
+        if (entry != null)
+            return entry.value;
+        DSpaceObject object = fetch(normalized, null);
+        return object == null ? null : new ResolvedHandle(normalized, object.getType(), object.getId());
+    }
+
+    /**
+     * Resolves many handles, several at once, each distinct handle only once.
+     * 
+     * @param handles
+     *            the handles.
+     * @return the type and ID of the objects, by handle as given, in the order given. The value is null for the
+     *         handles not found. The handles that could not be resolved for another reason, e.g. a server error, are
+     *         left out.
+     * @throws IllegalArgumentException
+     *             if a handle is malformed.
+     */
+    public Map<String, ResolvedHandle> resolveAll(Collection<String> handles) {
+        final Map<String, ResolvedHandle> resolved = new ConcurrentHashMap<String, ResolvedHandle>();
+        final Map<String, Boolean> notFound = new ConcurrentHashMap<String, Boolean>();
+        List<String> distinct = new ArrayList<String>(new LinkedHashSet<String>(handles));
+        for (String handle : distinct) {
+            split(normalize(handle));
+        }
+        Workers.forEach(getExecutor(), parallelism, distinct, new Action<String>() {
+
+            @Override
+            public void run(String handle) {
+                try {
+                    ResolvedHandle result = resolve(handle);
+                    if (result == null)
+                        notFound.put(handle, Boolean.TRUE);
+                    else
+                        resolved.put(handle, result);
+                } catch (RestClientException e) {
+                    // left out
+                }
+            }
+
+        });
+
+        Map<String, ResolvedHandle> result = new LinkedHashMap<String, ResolvedHandle>();
+        for (String handle : handles) {
+            if (resolved.containsKey(handle))
+                result.put(handle, resolved.get(handle));
+            else if (notFound.containsKey(handle))
+                result.put(handle, null);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the executor running the bulk resolutions. It is not shut down by this class.
+     * 
+     * @param executor
+     *            the executor.
+     */
+    public synchronized void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the maximum number of handles remembered, 100000 by default. The least recently used are forgotten first.
+     * 
+     * @param maxSize
+     *            the maximum size.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Sets the time the handles not found are remembered, 5 minutes by default.
+     * 
+     * @param notFoundTimeToLive
+     *            the time to live in milliseconds.
+     */
+    public void setNotFoundTimeToLive(long notFoundTimeToLive) {
+        this.notFoundTimeToLive = notFoundTimeToLive;
+    }
+
+    /**
+     * Sets the number of handles resolved at once by {@link #resolveAll(Collection)}, 8 by default.
+     * 
+     * @param parallelism
+     *            the parallelism.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the time the handles found are remembered, 24 hours by default.
+     * 
+     * @param timeToLive
+     *            the time to live in milliseconds.
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    private static String normalize(String handle) {
+        String result = handle.trim();
+        if (result.startsWith("hdl:"))
+            result = result.substring("hdl:".length());
+        else
+            result = result.replaceFirst("^https?://(hdl\\.handle\\.net|[^/]+/handle)/", "");
+        return result;
+    }
+
+    private static String[] split(String handle) {
+        int slash = handle.indexOf('/');
+        if (slash <= 0 || slash == handle.length() - 1)
+            throw new IllegalArgumentException("malformed handle: " + handle);
+        return new String[] { handle.substring(0, slash), handle.substring(slash + 1) };
+    }
+
+}
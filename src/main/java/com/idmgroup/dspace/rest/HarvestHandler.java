@@ -0,0 +1,20 @@
+package com.idmgroup.dspace.rest;
+
+/**
+ * Receives the objects found by a {@link Harvester}.
+ * 
+ * @author arnaud
+ * @param <T>
+ *            the type of the harvested objects.
+ */
+public interface HarvestHandler<T> {
+
+    /**
+     * Handles one object. Called concurrently from the harvester workers.
+     * 
+     * @param object
+     *            the object.
+     */
+    void handle(T object);
+
+}
@@ -0,0 +1,78 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.Map;
+
+/**
+ * Outcome of a {@link Harvester} run.
+ * 
+ * @author arnaud
+ */
+public class HarvestResult {
+
+    private final long duplicates;
+
+    private final int expected;
+
+    private final Map<Integer, RuntimeException> failures;
+
+    private final long harvested;
+
+    public HarvestResult(int expected, long harvested, long duplicates, Map<Integer, RuntimeException> failures) {
+        this.expected = expected;
+        this.harvested = harvested;
+        this.duplicates = duplicates;
+        this.failures = failures;
+    }
+
+    /**
+     * Gets the number of objects seen twice because of the page overlap, and not handled again.
+     * 
+     * @return the number of duplicates.
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Gets the number of objects announced before the harvest, e.g. Collection.numberItems.
+     * 
+     * @return the expected number of objects, or -1 if unknown.
+     */
+    public int getExpected() {
+        return expected;
+    }
+
+    /**
+     * Gets the pages that could not be fetched.
+     * 
+     * @return the errors, by offset of the page.
+     */
+    public Map<Integer, RuntimeException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the number of objects handled.
+     * 
+     * @return the number of objects handled.
+     */
+    public long getHarvested() {
+        return harvested;
+    }
+
+    /**
+     * Tells whether every page was fetched.
+     * 
+     * @return true if there was no failure.
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "HarvestResult [expected=" + expected + ", harvested=" + harvested + ", duplicates=" + duplicates
+                + ", failures=" + failures.keySet() + "]";
+    }
+
+}
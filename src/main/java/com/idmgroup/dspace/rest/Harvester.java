@@ -0,0 +1,369 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Harvests large listings of a {@link DSpaceRestClient} with several workers fetching distinct pages at once.
+ * 
+ * The workers take the pages in offset order and stop after the first short page. A page that cannot be fetched is
+ * recorded and skipped; the workers give up after a number of failed pages in a row, or at the first failed page past
+ * the number of objects announced, so that a server down does not keep them fetching forever. When the listing changes
+ * during the harvest, objects shift between pages: each page is fetched with an overlap on the previous one so that a
+ * few deletions do not make objects fall through the gap, and the objects seen twice are skipped by ID. E.g.:
+ * 
+ * <pre>
+ * HarvestResult result = new Harvester(client).harvestCollection(collectionId, null, new HarvestHandler&lt;Item&gt;() {
+ * 
+ *     &#064;Override
+ *     public void handle(Item item) {
+ *         ...
+ *     }
+ * 
+ * });
+ * </pre>
+ * 
+ * @author arnaud
+ */
+public class Harvester {
+
+    private final DSpaceRestClient client;
+
+    private ExecutorService executor;
+
+    private int maxConsecutiveFailures = 5;
+
+    private int overlap = 10;
+
+    private int pageSize = 100;
+
+    private int workers = 4;
+
+    /**
+     * New instance.
+     * 
+     * @param client
+     *            the client used to fetch the pages.
+     */
+    public Harvester(DSpaceRestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Gets the executor running the workers.
+     * 
+     * @return the executor, by default a pool of daemon threads created on first use.
+     */
+    public synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Workers.daemonPool("dspace-harvester");
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the number of failed pages in a row after which the workers give up.
+     * 
+     * @return the maximum number of consecutive failures.
+     */
+    public int getMaxConsecutiveFailures() {
+        return maxConsecutiveFailures;
+    }
+
+    /**
+     * Gets the number of objects of the previous page fetched again with each page.
+     * 
+     * @return the overlap.
+     */
+    public int getOverlap() {
+        return overlap;
+    }
+
+    /**
+     * Gets the number of new objects per page.
+     * 
+     * @return the page size.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Gets the number of pages fetched at once.
+     * 
+     * @return the number of workers.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Harvests anything. Returns when all the workers are done.
+     * 
+     * @param fetcher
+     *            fetches the pages, from several threads at once.
+     * @param expected
+     *            the number of objects announced, or -1 if unknown. It limits the number of workers on small
+     *            listings, and a failed page past it ends the harvest.
+     * @param handler
+     *            receives the objects, from several threads at once.
+     * @return the outcome.
+     * @throws RuntimeException
+     *             the first exception thrown by the handler, which stops the harvest.
+     */
+    public <T extends DSpaceObject> HarvestResult harvest(final PageFetcher<T> fetcher, final int expected,
+            final HarvestHandler<? super T> handler) {
+        final BitSet seen = new BitSet();
+        final AtomicInteger nextOffset = new AtomicInteger();
+        // Offset of the end of the listing, known after the first short page.
+        final AtomicInteger end = new AtomicInteger(Integer.MAX_VALUE);
+        final AtomicLong harvested = new AtomicLong();
+        final AtomicLong duplicates = new AtomicLong();
+        // Failed pages since the last page fetched, by any worker.
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        final Map<Integer, RuntimeException> failures = new TreeMap<Integer, RuntimeException>();
+        final AtomicReference<RuntimeException> aborted = new AtomicReference<RuntimeException>();
+
+        Runnable worker = new Runnable() {
+
+            @Override
+            public void run() {
+                while (aborted.get() == null) {
+                    int start = nextOffset.getAndAdd(pageSize);
+                    if (start >= end.get())
+                        return;
+                    int offset = Math.max(0, start - overlap);
+                    int limit = start + pageSize - offset;
+                    T[] page;
+                    try {
+                        page = fetcher.fetch(limit, offset);
+                    } catch (RuntimeException e) {
+                        synchronized (failures) {
+                            failures.put(start, e);
+                        }
+                        if (consecutiveFailures.incrementAndGet() >= maxConsecutiveFailures
+                                || (expected >= 0 && start >= expected + pageSize))
+                            lowerEnd(end, start);
+                        continue;
+                    }
+                    consecutiveFailures.set(0);
+                    int length = page == null ? 0 : page.length;
+                    if (length < limit)
+                        lowerEnd(end, offset + length);
+                    for (int i = 0; i < length; ++i) {
+                        if (page[i] == null)
+                            continue;
+                        Integer id = page[i].getId();
+                        if (id != null && id >= 0) {
+                            synchronized (seen) {
+                                if (seen.get(id)) {
+                                    duplicates.incrementAndGet();
+                                    continue;
+                                }
+                                seen.set(id);
+                            }
+                        }
+                        try {
+                            handler.handle(page[i]);
+                        } catch (RuntimeException e) {
+                            aborted.compareAndSet(null, e);
+                            return;
+                        }
+                        harvested.incrementAndGet();
+                    }
+                }
+            }
+
+        };
+
+        int count = workers;
+        if (expected >= 0)
+            count = Math.max(1, Math.min(count, (expected + pageSize - 1) / pageSize));
+        Future<?>[] futures = new Future<?>[count];
+        ExecutorService executor = getExecutor();
+        for (int i = 0; i < count; ++i) {
+            futures[i] = executor.submit(worker);
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            aborted.compareAndSet(null, new IllegalStateException("interrupted while harvesting", e));
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        if (aborted.get() != null)
+            throw aborted.get();
+        return new HarvestResult(expected, harvested.get(), duplicates.get(), failures);
+    }
+
+    /**
+     * Harvests the items of a collection. The number of items of the collection is read first.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param expand
+     *            the expand parameter of the items.
+     * @param queue
+     *            receives the items, the workers wait while it is full.
+     * @return the outcome.
+     */
+    public HarvestResult harvestCollection(Integer collection_id, String expand, BlockingQueue<? super Item> queue) {
+        return harvestCollection(collection_id, expand, Harvester.<Item> toHandler(queue));
+    }
+
+    /**
+     * Harvests the items of a collection. The number of items of the collection is read first.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param expand
+     *            the expand parameter of the items.
+     * @param handler
+     *            receives the items, from several threads at once.
+     * @return the outcome.
+     */
+    public HarvestResult harvestCollection(final Integer collection_id, final String expand,
+            HarvestHandler<? super Item> handler) {
+        Collection collection = client.getCollection(collection_id, null, null, null);
+        int expected = collection.getNumberItems() == null ? -1 : collection.getNumberItems();
+        return harvest(new PageFetcher<Item>() {
+
+            @Override
+            public Item[] fetch(int limit, int offset) {
+                return client.getCollectionItems(collection_id, expand, limit, offset);
+            }
+
+        }, expected, handler);
+    }
+
+    /**
+     * Harvests all the items.
+     * 
+     * @param expand
+     *            the expand parameter of the items.
+     * @param queue
+     *            receives the items, the workers wait while it is full.
+     * @return the outcome.
+     */
+    public HarvestResult harvestItems(String expand, BlockingQueue<? super Item> queue) {
+        return harvestItems(expand, Harvester.<Item> toHandler(queue));
+    }
+
+    /**
+     * Harvests all the items.
+     * 
+     * @param expand
+     *            the expand parameter of the items.
+     * @param handler
+     *            receives the items, from several threads at once.
+     * @return the outcome.
+     */
+    public HarvestResult harvestItems(final String expand, HarvestHandler<? super Item> handler) {
+        return harvest(new PageFetcher<Item>() {
+
+            @Override
+            public Item[] fetch(int limit, int offset) {
+                return client.getItems(expand, limit, offset);
+            }
+
+        }, -1, handler);
+    }
+
+    private static void lowerEnd(AtomicInteger end, int value) {
+        int current;
+        while (value < (current = end.get())) {
+            if (end.compareAndSet(current, value))
+                return;
+        }
+    }
+
+    /**
+     * Sets the executor running the workers. It is not shut down by this class.
+     * 
+     * @param executor
+     *            the executor.
+     */
+    public synchronized void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the number of failed pages in a row after which the workers give up, 5 by default. The pages after the last
+     * failed one are then not fetched, and the result is not complete.
+     * 
+     * @param maxConsecutiveFailures
+     *            the maximum number of consecutive failures.
+     */
+    public void setMaxConsecutiveFailures(int maxConsecutiveFailures) {
+        if (maxConsecutiveFailures < 1)
+            throw new IllegalArgumentException("maxConsecutiveFailures must be positive: " + maxConsecutiveFailures);
+        this.maxConsecutiveFailures = maxConsecutiveFailures;
+    }
+
+    /**
+     * Sets the number of objects of the previous page fetched again with each page, 10 by default. It is the number
+     * of deletions a page tolerates during the harvest without missing objects.
+     * 
+     * @param overlap
+     *            the overlap.
+     */
+    public void setOverlap(int overlap) {
+        this.overlap = overlap;
+    }
+
+    /**
+     * Sets the number of new objects per page, 100 by default.
+     * 
+     * @param pageSize
+     *            the page size.
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sets the number of pages fetched at once, 4 by default.
+     * 
+     * @param workers
+     *            the number of workers.
+     */
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    private static <T> HarvestHandler<T> toHandler(final BlockingQueue<? super T> queue) {
+        return new HarvestHandler<T>() {
+
+            @Override
+            public void handle(T object) {
+                try {
+                    queue.put(object);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while queuing", e);
+                }
+            }
+
+        };
+    }
+
+}
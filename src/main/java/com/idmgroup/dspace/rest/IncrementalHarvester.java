@@ -0,0 +1,304 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Harvests the items of collections incrementally: each run only reports the items created, modified or removed
+ * since the previous one.
+ * 
+ * For each collection, a checkpoint file keeps the highest Item.lastModified seen and the IDs of the items seen. The
+ * first run reports all the items. The next ones list the collection reading only the ID, lastModified and withdrawn
+ * fields of the items, then read in full only the items new to the collection or modified after the high-water mark,
+ * one request each, and report the IDs not listed any more as removed. DSpace does not list the items by modification
+ * date, so the listing itself cannot stop early: it is what finds the removed items, and it goes on until an empty page
+ * since a page may be short before the end. The checkpoint of a collection is saved once all its changes are handled,
+ * so a failed run is replayed whole by the next one. E.g.:
+ * 
+ * <pre>
+ * IncrementalHarvester harvester = new IncrementalHarvester(client, Paths.get("harvest.properties"));
+ * harvester.setExpand("metadata");
+ * harvester.sync(collectionId, handler);
+ * </pre>
+ * 
+ * @author arnaud
+ */
+public class IncrementalHarvester {
+
+    /**
+     * What was seen of a collection by the last run.
+     */
+    private static class Checkpoint {
+
+        private final Set<Integer> items;
+
+        private final long lastModified;
+
+        public Checkpoint(long lastModified, Set<Integer> items) {
+            this.lastModified = lastModified;
+            this.items = items;
+        }
+
+    }
+
+    /**
+     * The format of Item.lastModified.
+     */
+    private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss.SSS";
+
+    private static final Projection LISTING = Projection.of("id", "lastModified", "withdrawn");
+
+    private Map<Integer, Checkpoint> checkpoints;
+
+    private final Path checkpointFile;
+
+    private final DSpaceRestClient client;
+
+    private String expand;
+
+    private int pageSize = 100;
+
+    /**
+     * New instance.
+     * 
+     * @param client
+     *            the client used to read the items.
+     * @param checkpointFile
+     *            the file keeping the checkpoints between runs, created if missing.
+     */
+    public IncrementalHarvester(DSpaceRestClient client, Path checkpointFile) {
+        this.client = client;
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Gets the fields to expand on the items handled.
+     * 
+     * @return the fields, or null.
+     */
+    public String getExpand() {
+        return expand;
+    }
+
+    /**
+     * Gets the highest Item.lastModified seen in a collection.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @return the high-water mark in milliseconds since the epoch, or -1 if the collection was never harvested.
+     * @throws IOException
+     *             when the checkpoint file cannot be read.
+     */
+    public synchronized long getHighWaterMark(Integer collection_id) throws IOException {
+        Checkpoint checkpoint = load().get(collection_id);
+        return checkpoint == null ? -1 : checkpoint.lastModified;
+    }
+
+    /**
+     * Gets the number of items listed per request.
+     * 
+     * @return the page size.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    private Map<Integer, Checkpoint> load() throws IOException {
+        if (checkpoints == null) {
+            Map<Integer, Checkpoint> result = new HashMap<Integer, Checkpoint>();
+            if (Files.exists(checkpointFile)) {
+                Properties properties = new Properties();
+                InputStream in = Files.newInputStream(checkpointFile);
+                try {
+                    properties.load(in);
+                } finally {
+                    in.close();
+                }
+                for (String name : properties.stringPropertyNames()) {
+                    if (!name.startsWith("collection.") || !name.endsWith(".lastModified"))
+                        continue;
+                    String prefix = name.substring(0, name.length() - "lastModified".length());
+                    Set<Integer> items = new TreeSet<Integer>();
+                    for (String id : properties.getProperty(prefix + "items", "").split(",")) {
+                        if (!id.isEmpty()) {
+                            items.add(Integer.valueOf(id));
+                        }
+                    }
+                    result.put(Integer.valueOf(prefix.substring("collection.".length(), prefix.length() - 1)),
+                            new Checkpoint(Long.parseLong(properties.getProperty(name)), items));
+                }
+            }
+            checkpoints = result;
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Forgets what was seen of a collection: the next run reports all its items as created.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @throws IOException
+     *             when the checkpoint file cannot be read or written.
+     */
+    public synchronized void reset(Integer collection_id) throws IOException {
+        if (load().remove(collection_id) != null) {
+            save();
+        }
+    }
+
+    /**
+     * Writes all the checkpoints to a temporary file, then moves it over the checkpoint file, so that an interrupted
+     * write does not lose the previous checkpoints.
+     */
+    private void save() throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<Integer, Checkpoint> entry : checkpoints.entrySet()) {
+            String prefix = "collection." + entry.getKey() + ".";
+            StringBuilder items = new StringBuilder();
+            for (Integer id : entry.getValue().items) {
+                if (items.length() > 0) {
+                    items.append(',');
+                }
+                items.append(id);
+            }
+            properties.setProperty(prefix + "lastModified", Long.toString(entry.getValue().lastModified));
+            properties.setProperty(prefix + "items", items.toString());
+        }
+        Path absolute = checkpointFile.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            OutputStream out = Files.newOutputStream(temp);
+            try {
+                properties.store(out, "DSpace incremental harvest checkpoints");
+            } finally {
+                out.close();
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Sets the fields to expand on the items handled, e.g. "metadata", none by default.
+     * 
+     * @param expand
+     *            the fields, or null.
+     */
+    public void setExpand(String expand) {
+        this.expand = expand;
+    }
+
+    /**
+     * Sets the number of items listed per request, 100 by default.
+     * 
+     * @param pageSize
+     *            the page size.
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1)
+            throw new IllegalArgumentException("page size must be positive: " + pageSize);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Reports the changes of a collection since the last run, then saves its checkpoint. The first run of a
+     * collection reports all its items as created.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param handler
+     *            receives the changes, from the calling thread.
+     * @return the outcome.
+     * @throws IOException
+     *             when the checkpoint file cannot be read or written.
+     * @throws RuntimeException
+     *             when a request or the handler fails: the checkpoint is then kept as it was.
+     */
+    public synchronized SyncResult sync(final Integer collection_id, final ItemChangeHandler handler)
+            throws IOException {
+        Checkpoint previous = load().get(collection_id);
+        final boolean full = previous == null;
+        final long since = full ? -1 : previous.lastModified;
+        final Set<Integer> seen = full ? new TreeSet<Integer>() : previous.items;
+        final Set<Integer> listed = new TreeSet<Integer>();
+        final List<Integer> created = new ArrayList<Integer>();
+        final List<Integer> modified = new ArrayList<Integer>();
+        final SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT);
+        final long[] highWaterMark = { since };
+
+        ListingHandler<Item> listing = new ListingHandler<Item>() {
+
+            @Override
+            public void handle(Item item) {
+                if ("true".equals(item.getWithdrawn()) || !listed.add(item.getId()))
+                    return;
+                long lastModified;
+                try {
+                    lastModified = item.getLastModified() == null ? -1 : format.parse(item.getLastModified())
+                            .getTime();
+                } catch (ParseException e) {
+                    // Unknown format: always reported.
+                    lastModified = Long.MAX_VALUE;
+                }
+                if (lastModified != Long.MAX_VALUE && lastModified > highWaterMark[0]) {
+                    highWaterMark[0] = lastModified;
+                }
+                if (full) {
+                    created.add(item.getId());
+                    handler.created(collection_id, item);
+                } else if (!seen.contains(item.getId())) {
+                    created.add(item.getId());
+                } else if (lastModified > since) {
+                    modified.add(item.getId());
+                }
+            }
+
+        };
+        for (int offset = 0;; offset += pageSize) {
+            // The first run reads the items in full, the next ones only what tells the changes.
+            long count = full ? client.getCollectionItems(collection_id, expand, pageSize, offset, listing) : client
+                    .getCollectionItems(collection_id, null, pageSize, offset, LISTING, listing);
+            // DSpace leaves out of a page the items the caller may not read: only an empty page ends the listing, so
+            // that the items after a short page are not reported as removed.
+            if (count == 0)
+                break;
+        }
+
+        if (!full) {
+            for (Integer id : created) {
+                handler.created(collection_id, client.getItem(id, expand));
+            }
+            for (Integer id : modified) {
+                handler.modified(collection_id, client.getItem(id, expand));
+            }
+        }
+        long removed = 0;
+        for (Integer id : seen) {
+            if (!listed.contains(id)) {
+                handler.removed(collection_id, id);
+                ++removed;
+            }
+        }
+        checkpoints.put(collection_id, new Checkpoint(highWaterMark[0], listed));
+        save();
+        return new SyncResult(listed.size(), created.size(), modified.size(), removed);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.idmgroup.dspace.rest;
+
+/**
+ * Receives the outcome of each item created by a {@link BulkIngester}.
+ * 
+ * @author arnaud
+ */
+public interface IngestHandler {
+
+    /**
+     * Handles the outcome of one item. Called concurrently from the ingester workers, in no particular order.
+     * 
+     * @param result
+     *            the outcome.
+     */
+    void handle(IngestResult result);
+
+}
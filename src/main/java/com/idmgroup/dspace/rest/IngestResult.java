@@ -0,0 +1,96 @@
+package com.idmgroup.dspace.rest;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Outcome of the creation of one item by a {@link BulkIngester}.
+ * 
+ * @author arnaud
+ */
+public class IngestResult {
+
+    private final Item created;
+
+    private final RuntimeException failure;
+
+    private final long index;
+
+    private final Item source;
+
+    public IngestResult(long index, Item source, Item created, RuntimeException failure) {
+        this.index = index;
+        this.source = source;
+        this.created = created;
+        this.failure = failure;
+    }
+
+    /**
+     * Gets the item as created by DSpace.
+     * 
+     * @return the created item, or null if the creation failed.
+     */
+    public Item getCreated() {
+        return created;
+    }
+
+    /**
+     * Gets the error that prevented the creation.
+     * 
+     * @return the error, or null if the item was created.
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Gets the handle of the created item.
+     * 
+     * @return the handle, or null if the creation failed.
+     */
+    public String getHandle() {
+        return created == null ? null : created.getHandle();
+    }
+
+    /**
+     * Gets the ID of the created item.
+     * 
+     * @return the ID, or null if the creation failed.
+     */
+    public Integer getId() {
+        return created == null ? null : created.getId();
+    }
+
+    /**
+     * Gets the position of the item in the source.
+     * 
+     * @return the index, from 0.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the item as given to the ingester.
+     * 
+     * @return the source item.
+     */
+    public Item getSource() {
+        return source;
+    }
+
+    /**
+     * Tells whether the item was created.
+     * 
+     * @return true if there was no failure.
+     */
+    public boolean isCreated() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestResult [index=" + index + ", id=" + getId() + ", handle=" + getHandle() + ", failure="
+                + failure + "]";
+    }
+
+}
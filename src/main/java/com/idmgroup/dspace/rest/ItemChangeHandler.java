@@ -0,0 +1,43 @@
+package com.idmgroup.dspace.rest;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Receives the changes found by an {@link IncrementalHarvester}.
+ * 
+ * @author arnaud
+ */
+public interface ItemChangeHandler {
+
+    /**
+     * Handles an item new to the collection since the last run: created, or moved or mapped into the collection.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param item
+     *            the item.
+     */
+    void created(Integer collection_id, Item item);
+
+    /**
+     * Handles an item modified since the last run.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param item
+     *            the item.
+     */
+    void modified(Integer collection_id, Item item);
+
+    /**
+     * Handles an item gone from the collection since the last run: deleted, withdrawn, or moved or unmapped out of
+     * the collection.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param item_id
+     *            the item ID.
+     */
+    void removed(Integer collection_id, Integer item_id);
+
+}
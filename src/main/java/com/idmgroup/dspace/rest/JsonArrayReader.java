@@ -0,0 +1,94 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Reads a JSON array incrementally, binding and handing over one element at a time, so that only one element is
+ * alive at once whatever the length of the array.
+ * 
+ * @author arnaud
+ * @param <T>
+ *            the type of the elements.
+ */
+final class JsonArrayReader<T> {
+
+    private final ObjectMapper objectMapper;
+
+    private final Projection projection;
+
+    private final ObjectReader reader;
+
+    /**
+     * New instance.
+     * 
+     * @param objectMapper
+     *            the object mapper, configured like the one of the message converters.
+     * @param type
+     *            the type of the elements.
+     */
+    public JsonArrayReader(ObjectMapper objectMapper, Class<T> type) {
+        this(objectMapper, type, null);
+    }
+
+    /**
+     * New instance reading only some fields of the elements.
+     * 
+     * @param objectMapper
+     *            the object mapper, configured like the one of the message converters.
+     * @param type
+     *            the type of the elements.
+     * @param projection
+     *            the fields to read, or null for all of them.
+     */
+    public JsonArrayReader(ObjectMapper objectMapper, Class<T> type, Projection projection) {
+        this.objectMapper = objectMapper;
+        this.projection = projection;
+        this.reader = objectMapper.readerFor(type);
+    }
+
+    /**
+     * Reads a JSON array. The stream is not closed.
+     * 
+     * @param in
+     *            the JSON array.
+     * @param handler
+     *            receives the elements, in order. The null elements are skipped.
+     * @return the number of elements handled.
+     * @throws IOException
+     */
+    public long read(InputStream in, ListingHandler<? super T> handler) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(in);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        try {
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.START_ARRAY)
+                throw new HttpMessageNotReadableException("Expected a JSON array but got " + token);
+            long count = 0;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null)
+                    throw new HttpMessageNotReadableException("Unexpected end of the JSON array after " + count
+                            + " elements");
+                if (token == JsonToken.VALUE_NULL)
+                    continue;
+                T element = projection == null ? reader.<T> readValue(parser) : projection.<T> bind(parser, reader);
+                handler.handle(element);
+                ++count;
+            }
+            return count;
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("Could not read JSON: " + e.getMessage(), e);
+        } finally {
+            parser.close();
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.idmgroup.dspace.rest;
+
+/**
+ * Receives the objects of a listing one at a time, as they are parsed from the response, see
+ * {@link DSpaceRestClient#getItems(String, Integer, Integer, ListingHandler)}.
+ * 
+ * @author arnaud
+ * @param <T>
+ *            the type of the listed objects.
+ */
+public interface ListingHandler<T> {
+
+    /**
+     * Handles one object. Called from the thread reading the response, while the connection is still open: a slow
+     * handler holds the connection and an exception aborts the listing.
+     * 
+     * @param object
+     *            the object.
+     */
+    void handle(T object);
+
+}
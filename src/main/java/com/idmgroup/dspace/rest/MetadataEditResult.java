@@ -0,0 +1,66 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.Map;
+
+/**
+ * Outcome of {@link MetadataEditor#apply()}.
+ * 
+ * @author arnaud
+ */
+public class MetadataEditResult {
+
+    private final long edited;
+
+    private final Map<Integer, RuntimeException> failures;
+
+    private final long requests;
+
+    public MetadataEditResult(long edited, long requests, Map<Integer, RuntimeException> failures) {
+        this.edited = edited;
+        this.requests = requests;
+        this.failures = failures;
+    }
+
+    /**
+     * Gets the number of items whose edits were all applied.
+     * 
+     * @return the number of items edited.
+     */
+    public long getEdited() {
+        return edited;
+    }
+
+    /**
+     * Gets the items whose edits could not be applied, all or part of them.
+     * 
+     * @return the errors, by item ID.
+     */
+    public Map<Integer, RuntimeException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the number of REST requests sent.
+     * 
+     * @return the number of requests.
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Tells whether every edit was applied.
+     * 
+     * @return true if there was no failure.
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataEditResult [edited=" + edited + ", requests=" + requests + ", failures=" + failures.keySet()
+                + "]";
+    }
+
+}
@@ -0,0 +1,271 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.idmgroup.dspace.rest.Workers.Action;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+
+/**
+ * Collects metadata edits and applies them with as few requests as possible per item, several items at once.
+ * 
+ * The edits of an item are combined per key, in the order they were made, e.g. a value added after the key was
+ * replaced becomes one more value of the replacement. Then an item costs at most two requests: one
+ * {@link DSpaceRestClient#updateItemMetadata(Integer, MetadataEntry[])} with the first value of each replaced key,
+ * and one {@link DSpaceRestClient#addItemMetadata(Integer, MetadataEntry[])} with all the other values. A key cannot
+ * be removed: DSpace cannot delete one key, and rewriting all the metadata of the item would lose it on a failure.
+ * E.g.:
+ * 
+ * <pre>
+ * MetadataEditor editor = new MetadataEditor(client);
+ * editor.replace(itemId, "dc.title", "A new title", "en_US");
+ * editor.add(itemId, "dc.subject", "Physics", "en_US");
+ * MetadataEditResult result = editor.apply();
+ * </pre>
+ * 
+ * This class is thread-safe: edits can be collected from several threads.
+ * 
+ * @author arnaud
+ */
+public class MetadataEditor {
+
+    /**
+     * The combined edits of one key of an item.
+     */
+    private static class KeyEdit {
+
+        /**
+         * Whether the values of the item are dropped first.
+         */
+        private boolean replace;
+
+        private final List<MetadataEntry> values = new ArrayList<MetadataEntry>();
+
+    }
+
+    private static MetadataEntry entry(String key, String value, String language) {
+        MetadataEntry entry = new MetadataEntry();
+        entry.setKey(key);
+        entry.setValue(value);
+        entry.setLanguage(language);
+        return entry;
+    }
+
+    private static MetadataEntry[] toArray(List<MetadataEntry> entries) {
+        return entries.toArray(new MetadataEntry[entries.size()]);
+    }
+
+    private final DSpaceRestClient client;
+
+    private int concurrency = 4;
+
+    /**
+     * The pending edits, by item ID and by key.
+     */
+    private Map<Integer, Map<String, KeyEdit>> edits = new LinkedHashMap<Integer, Map<String, KeyEdit>>();
+
+    private ExecutorService executor;
+
+    /**
+     * New instance.
+     * 
+     * @param client
+     *            the client used to edit the items.
+     */
+    public MetadataEditor(DSpaceRestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Adds a value to a metadata field of an item.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @param entry
+     *            the entry to add.
+     */
+    public synchronized void add(Integer item_id, MetadataEntry entry) {
+        edit(item_id, entry.getKey()).values.add(entry);
+    }
+
+    /**
+     * Adds a value to a metadata field of an item.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @param key
+     *            the key, e.g. "dc.subject".
+     * @param value
+     *            the value.
+     * @param language
+     *            the language, or null.
+     */
+    public void add(Integer item_id, String key, String value, String language) {
+        add(item_id, entry(key, value, language));
+    }
+
+    /**
+     * Applies the pending edits and forgets them, even those that failed. Returns when all the items are done.
+     * 
+     * @return the outcome.
+     */
+    public MetadataEditResult apply() {
+        List<Map.Entry<Integer, Map<String, KeyEdit>>> pending;
+        synchronized (this) {
+            pending = new ArrayList<Map.Entry<Integer, Map<String, KeyEdit>>>(edits.entrySet());
+            edits = new LinkedHashMap<Integer, Map<String, KeyEdit>>();
+        }
+        final AtomicLong edited = new AtomicLong();
+        final AtomicLong requests = new AtomicLong();
+        final Map<Integer, RuntimeException> failures = new TreeMap<Integer, RuntimeException>();
+        Workers.forEach(getExecutor(), concurrency, pending, new Action<Map.Entry<Integer, Map<String, KeyEdit>>>() {
+
+            @Override
+            public void run(Map.Entry<Integer, Map<String, KeyEdit>> next) {
+                try {
+                    apply(next.getKey(), next.getValue(), requests);
+                    edited.incrementAndGet();
+                } catch (RuntimeException e) {
+                    synchronized (failures) {
+                        failures.put(next.getKey(), e);
+                    }
+                }
+            }
+
+        });
+        return new MetadataEditResult(edited.get(), requests.get(), failures);
+    }
+
+    private void apply(Integer item_id, Map<String, KeyEdit> keys, AtomicLong requests) {
+        List<MetadataEntry> updates = new ArrayList<MetadataEntry>();
+        List<MetadataEntry> additions = new ArrayList<MetadataEntry>();
+        for (KeyEdit edit : keys.values()) {
+            if (edit.replace) {
+                // DSpace drops the values of the key again for each entry of the update: one entry per key.
+                updates.add(edit.values.get(0));
+                additions.addAll(edit.values.subList(1, edit.values.size()));
+            } else {
+                additions.addAll(edit.values);
+            }
+        }
+        if (!updates.isEmpty()) {
+            requests.incrementAndGet();
+            client.updateItemMetadata(item_id, toArray(updates));
+        }
+        if (!additions.isEmpty()) {
+            requests.incrementAndGet();
+            client.addItemMetadata(item_id, toArray(additions));
+        }
+    }
+
+    private KeyEdit edit(Integer item_id, String key) {
+        Map<String, KeyEdit> keys = edits.get(item_id);
+        if (keys == null) {
+            keys = new LinkedHashMap<String, KeyEdit>();
+            edits.put(item_id, keys);
+        }
+        KeyEdit edit = keys.get(key);
+        if (edit == null) {
+            edit = new KeyEdit();
+            keys.put(key, edit);
+        }
+        return edit;
+    }
+
+    /**
+     * Gets the maximum number of items edited at once.
+     * 
+     * @return the concurrency.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Gets the executor running the edits.
+     * 
+     * @return the executor, by default a pool of daemon threads created on first use.
+     */
+    public synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Workers.daemonPool("dspace-metadata-editor");
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the number of items having pending edits.
+     * 
+     * @return the number of items.
+     */
+    public synchronized int getPendingItems() {
+        return edits.size();
+    }
+
+    /**
+     * Replaces all the values of a metadata field of an item.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @param key
+     *            the key, e.g. "dc.title".
+     * @param entries
+     *            the new values, their key is set to the given key. At least one.
+     * @throws IllegalArgumentException
+     *             if no value is given.
+     */
+    public synchronized void replace(Integer item_id, String key, MetadataEntry... entries) {
+        if (entries.length == 0)
+            throw new IllegalArgumentException("no value to replace " + key + " with");
+        KeyEdit edit = edit(item_id, key);
+        edit.replace = true;
+        edit.values.clear();
+        for (MetadataEntry entry : entries) {
+            edit.values.add(entry(key, entry.getValue(), entry.getLanguage()));
+        }
+    }
+
+    /**
+     * Replaces all the values of a metadata field of an item by one value.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @param key
+     *            the key, e.g. "dc.title".
+     * @param value
+     *            the new value.
+     * @param language
+     *            the language, or null.
+     */
+    public void replace(Integer item_id, String key, String value, String language) {
+        replace(item_id, key, entry(key, value, language));
+    }
+
+    /**
+     * Sets the maximum number of items edited at once, 4 by default.
+     * 
+     * @param concurrency
+     *            the concurrency.
+     */
+    public void setConcurrency(int concurrency) {
+        if (concurrency < 1)
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Sets the executor running the edits. It is not shut down by this class.
+     * 
+     * @param executor
+     *            the executor.
+     */
+    public synchronized void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+}
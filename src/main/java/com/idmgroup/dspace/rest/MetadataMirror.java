@@ -0,0 +1,565 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Local store of communities, collections and items, by ID and by handle, kept on disk across restarts.
+ * 
+ * The objects are appended as JSON records to a log, each with the time it was fetched, and found through an index
+ * mapped in memory: an open addressing hash table from the ID and the handle of each object to the position of its
+ * last record. Replacing or removing an object appends a new record, {@link #compact()} drops the old ones. The log
+ * is the reference: when opening, the records written after the index was last updated are indexed again, and a
+ * record cut by a crash is dropped. Both files are written through the operating system cache:
+ * {@link #flush()} forces them to the disk.
+ * 
+ * The directory must not be shared with another instance. This class is thread-safe. E.g.:
+ * 
+ * <pre>
+ * MetadataMirror mirror = new MetadataMirror(Paths.get("mirror"));
+ * mirror.put(item);
+ * MetadataMirror.Entry&lt;Item&gt; entry = mirror.get(Item.class, item.getId());
+ * </pre>
+ * 
+ * @author arnaud
+ */
+public class MetadataMirror implements Closeable {
+
+    /**
+     * A mirrored object.
+     * 
+     * @param <T>
+     *            the type of the object.
+     */
+    public static final class Entry<T extends DSpaceObject> {
+
+        private final long fetched;
+
+        private final T object;
+
+        Entry(T object, long fetched) {
+            this.object = object;
+            this.fetched = fetched;
+        }
+
+        /**
+         * Gets the time the object was fetched from DSpace.
+         * 
+         * @return the time, in milliseconds since the epoch.
+         */
+        public long getFetched() {
+            return fetched;
+        }
+
+        /**
+         * Gets the object, a copy of its own for each read of the mirror.
+         * 
+         * @return the object.
+         */
+        public T getObject() {
+            return object;
+        }
+
+    }
+
+    /**
+     * A record of the log.
+     */
+    private static class Record {
+
+        private long fetched;
+
+        private String handle;
+
+        private int id;
+
+        private byte[] json;
+
+        /**
+         * The position of the next record.
+         */
+        private long next;
+
+        private boolean removed;
+
+        private byte type;
+
+    }
+
+    private static final byte COLLECTION = 2;
+
+    private static final byte COMMUNITY = 1;
+
+    private static final int HEADER_SIZE = 32;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final byte ITEM = 3;
+
+    private static final int MAGIC = 0x44534d31;
+
+    /**
+     * Length, CRC, type, flags, ID, fetched and handle length.
+     */
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 1 + 1 + 4 + 8 + 2;
+
+    private static final int SLOT_SIZE = 16;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static Class<? extends DSpaceObject> classOf(byte type) {
+        switch (type) {
+        case COMMUNITY:
+            return Community.class;
+        case COLLECTION:
+            return Collection.class;
+        default:
+            return Item.class;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a, never 0 which marks the empty slots.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); ++i) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static String handleKey(String handle) {
+        return "@" + handle;
+    }
+
+    private static String idKey(byte type, int id) {
+        return "#" + type + "/" + id;
+    }
+
+    private static byte typeOf(Class<?> type) {
+        if (Community.class.isAssignableFrom(type))
+            return COMMUNITY;
+        if (Collection.class.isAssignableFrom(type))
+            return COLLECTION;
+        if (Item.class.isAssignableFrom(type))
+            return ITEM;
+        throw new IllegalArgumentException("only communities, collections and items are mirrored: " + type);
+    }
+
+    private int capacity;
+
+    private final Path directory;
+
+    private MappedByteBuffer index;
+
+    private final FileChannel indexChannel;
+
+    private FileChannel log;
+
+    private long logLength;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private int used;
+
+    /**
+     * Opens a mirror, creating it if needed.
+     * 
+     * @param directory
+     *            the directory of the files of the mirror, created if needed.
+     * @throws IOException
+     *             when the files cannot be opened.
+     */
+    public MetadataMirror(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        log = FileChannel.open(logPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(directory.resolve("objects.idx"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long indexed = 0;
+        if (indexChannel.size() >= HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(indexChannel, header, 0);
+            capacity = header.getInt(4);
+            indexed = header.getLong(16);
+            if (header.getInt(0) != MAGIC || Integer.bitCount(capacity) != 1
+                    || indexChannel.size() != HEADER_SIZE + (long) capacity * SLOT_SIZE || indexed > log.size()) {
+                capacity = 0;
+            } else {
+                used = header.getInt(8);
+            }
+        }
+        if (capacity == 0) {
+            // Missing or unusable: indexed again from the whole log.
+            capacity = INITIAL_CAPACITY;
+            indexed = 0;
+            indexChannel.truncate(0);
+        }
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        if (indexed == 0) {
+            clearIndex();
+        }
+        replay(indexed);
+    }
+
+    private long append(byte type, int id, boolean removed, long fetched, String handle, byte[] json)
+            throws IOException {
+        byte[] handleBytes = handle == null ? new byte[0] : handle.getBytes(UTF8);
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + handleBytes.length + json.length);
+        buffer.putInt(buffer.capacity() - 4);
+        buffer.putInt(0);
+        buffer.put(type);
+        buffer.put((byte) (removed ? 1 : 0));
+        buffer.putInt(id);
+        buffer.putLong(fetched);
+        buffer.putShort((short) handleBytes.length);
+        buffer.put(handleBytes);
+        buffer.put(json);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 8, buffer.capacity() - 8);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        long offset = logLength;
+        while (buffer.hasRemaining()) {
+            log.write(buffer, offset + buffer.position());
+        }
+        logLength += buffer.capacity();
+        return offset;
+    }
+
+    private void clearIndex() {
+        for (int i = HEADER_SIZE; i < index.capacity(); i += 8) {
+            index.putLong(i, 0);
+        }
+        used = 0;
+        index.putInt(0, MAGIC);
+        index.putInt(4, capacity);
+        writeHeader(0);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        try {
+            log.close();
+        } finally {
+            indexChannel.close();
+        }
+    }
+
+    /**
+     * Rewrites the log with only the last record of each object still mirrored. The mirror cannot be read during the
+     * compaction.
+     * 
+     * @throws IOException
+     *             when the log cannot be rewritten.
+     */
+    public synchronized void compact() throws IOException {
+        Path temp = directory.resolve("objects.log.tmp");
+        FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        try {
+            for (int slot = 0; slot < capacity; ++slot) {
+                long hash = index.getLong(slotPosition(slot));
+                if (hash == 0)
+                    continue;
+                long offset = index.getLong(slotPosition(slot) + 8);
+                Record record = read(offset);
+                // Once per object, from the slot of its ID.
+                if (record == null || record.removed || hash != hash(idKey(record.type, record.id)))
+                    continue;
+                for (long done = 0; done < record.next - offset;) {
+                    done += log.transferTo(offset + done, record.next - offset - done, out);
+                }
+            }
+            out.force(true);
+        } finally {
+            out.close();
+        }
+        // Forget the index first: after a crash, the new log is indexed again.
+        clearIndex();
+        index.force();
+        log.close();
+        Files.move(temp, logPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log = FileChannel.open(logPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        replay(0);
+    }
+
+    private long find(String key) throws IOException {
+        long hash = hash(key);
+        int mask = capacity - 1;
+        for (int slot = (int) hash & mask;; slot = (slot + 1) & mask) {
+            long slotHash = index.getLong(slotPosition(slot));
+            if (slotHash == 0)
+                return -1;
+            if (slotHash == hash) {
+                long offset = index.getLong(slotPosition(slot) + 8);
+                if (matches(key, read(offset)))
+                    return offset;
+            }
+        }
+    }
+
+    /**
+     * Forces the log and the index to the disk.
+     * 
+     * @throws IOException
+     *             when the log cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        log.force(false);
+        index.force();
+    }
+
+    /**
+     * Gets an object by ID.
+     * 
+     * @param type
+     *            the type of the object: Community, Collection or Item.
+     * @param id
+     *            the ID.
+     * @return the object, or null if not mirrored.
+     * @throws IOException
+     *             when the log cannot be read.
+     */
+    public synchronized <T extends DSpaceObject> Entry<T> get(Class<T> type, Integer id) throws IOException {
+        long offset = find(idKey(typeOf(type), id));
+        if (offset < 0)
+            return null;
+        return toEntry(type, read(offset));
+    }
+
+    /**
+     * Gets an object by handle.
+     * 
+     * @param handle
+     *            the handle, e.g. "123456789/1".
+     * @return the community, collection or item, or null if not mirrored.
+     * @throws IOException
+     *             when the log cannot be read.
+     */
+    public synchronized Entry<DSpaceObject> getByHandle(String handle) throws IOException {
+        long offset = find(handleKey(handle));
+        if (offset < 0)
+            return null;
+        Record record = read(offset);
+        // The handle may have moved to another record of the object since.
+        if (find(idKey(record.type, record.id)) != offset)
+            return null;
+        return toEntry(DSpaceObject.class, record);
+    }
+
+    /**
+     * Gets the size of the log, which grows with each change until {@link #compact()}.
+     * 
+     * @return the size, in bytes.
+     */
+    public synchronized long getLogSize() {
+        return logLength;
+    }
+
+    private void grow() throws IOException {
+        capacity *= 2;
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        clearIndex();
+        replay(0);
+    }
+
+    private void index(Record record, long offset) throws IOException {
+        put(idKey(record.type, record.id), offset);
+        if (record.handle != null) {
+            put(handleKey(record.handle), offset);
+        }
+    }
+
+    private Path logPath() {
+        return directory.resolve("objects.log");
+    }
+
+    private boolean matches(String key, Record record) {
+        if (record == null)
+            return false;
+        if (key.startsWith("@"))
+            return key.substring(1).equals(record.handle);
+        return key.equals(idKey(record.type, record.id));
+    }
+
+    /**
+     * Stores an object, fetched now.
+     * 
+     * @param object
+     *            the community, collection or item.
+     * @throws IOException
+     *             when the log cannot be written.
+     */
+    public void put(DSpaceObject object) throws IOException {
+        put(object, System.currentTimeMillis());
+    }
+
+    /**
+     * Stores an object.
+     * 
+     * @param object
+     *            the community, collection or item.
+     * @param fetched
+     *            the time it was fetched from DSpace, in milliseconds since the epoch.
+     * @throws IOException
+     *             when the log cannot be written.
+     */
+    public synchronized void put(DSpaceObject object, long fetched) throws IOException {
+        byte type = typeOf(object.getClass());
+        byte[] json = objectMapper.writeValueAsBytes(object);
+        Record record = new Record();
+        record.type = type;
+        record.id = object.getId();
+        record.handle = object.getHandle();
+        long offset = append(type, record.id, false, fetched, record.handle, json);
+        index(record, offset);
+        writeHeader(logLength);
+    }
+
+    private void put(String key, long offset) throws IOException {
+        if ((used + 1) * 2 > capacity) {
+            // Indexes the whole log, this record included.
+            grow();
+            return;
+        }
+        long hash = hash(key);
+        int mask = capacity - 1;
+        for (int slot = (int) hash & mask;; slot = (slot + 1) & mask) {
+            int position = slotPosition(slot);
+            long slotHash = index.getLong(position);
+            if (slotHash == 0) {
+                index.putLong(position, hash);
+                index.putLong(position + 8, offset);
+                ++used;
+                return;
+            }
+            if (slotHash == hash && matches(key, read(index.getLong(position + 8)))) {
+                index.putLong(position + 8, offset);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads a record.
+     * 
+     * @return the record, or null if it is cut or corrupt.
+     */
+    private Record read(long offset) throws IOException {
+        if (offset + RECORD_HEADER_SIZE > log.size())
+            return null;
+        ByteBuffer length = ByteBuffer.allocate(4);
+        readFully(log, length, offset);
+        int size = length.getInt(0);
+        if (size < RECORD_HEADER_SIZE - 4 || offset + 4 + size > log.size())
+            return null;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        readFully(log, buffer, offset + 4);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 4, size - 4);
+        if (buffer.getInt(0) != (int) crc.getValue())
+            return null;
+        buffer.position(4);
+        Record record = new Record();
+        record.type = buffer.get();
+        record.removed = buffer.get() != 0;
+        record.id = buffer.getInt();
+        record.fetched = buffer.getLong();
+        byte[] handle = new byte[buffer.getShort()];
+        buffer.get(handle);
+        record.handle = handle.length == 0 ? null : new String(handle, UTF8);
+        record.json = new byte[buffer.remaining()];
+        buffer.get(record.json);
+        record.next = offset + 4 + size;
+        return record;
+    }
+
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException();
+        }
+    }
+
+    /**
+     * Removes an object, e.g. deleted from DSpace.
+     * 
+     * @param type
+     *            the type of the object: Community, Collection or Item.
+     * @param id
+     *            the ID.
+     * @throws IOException
+     *             when the log cannot be written.
+     */
+    public synchronized void remove(Class<? extends DSpaceObject> type, Integer id) throws IOException {
+        byte code = typeOf(type);
+        long previous = find(idKey(code, id));
+        if (previous < 0)
+            return;
+        Record record = read(previous);
+        record.removed = true;
+        long offset = append(code, id, true, System.currentTimeMillis(), record.handle, new byte[0]);
+        index(record, offset);
+        writeHeader(logLength);
+    }
+
+    /**
+     * Indexes the records from a position of the log, and drops a record cut at the end.
+     */
+    private void replay(long from) throws IOException {
+        long position = from;
+        long end = log.size();
+        while (position < end) {
+            Record record = read(position);
+            if (record == null)
+                break;
+            index(record, position);
+            position = record.next;
+        }
+        if (position < end) {
+            log.truncate(position);
+        }
+        logLength = position;
+        writeHeader(logLength);
+    }
+
+    private int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private <T extends DSpaceObject> Entry<T> toEntry(Class<T> type, Record record) throws IOException {
+        if (record.removed)
+            return null;
+        DSpaceObject object = objectMapper.readValue(record.json, classOf(record.type));
+        return new Entry<T>(type.cast(object), record.fetched);
+    }
+
+    private void writeHeader(long indexed) {
+        index.putInt(8, used);
+        index.putLong(16, indexed);
+    }
+
+}
@@ -0,0 +1,799 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+import com.idmgroup.dspace.rest.jersey.ResourcePolicy;
+
+/**
+ * DSpace REST client reading the communities, collections and items through a {@link MetadataMirror} on disk.
+ * 
+ * The mirrored methods are {@link #getCommunity(Integer, String)},
+ * {@link #getCollection(Integer, String, Integer, Integer)} without limit nor offset, {@link #getItem(Integer, String)}
+ * and {@link #getObject(String, String, String, Class)} as a {@link DSpaceObject}, when asked for the fields expanded
+ * in the mirror, see {@link #setExpand(String)}. An object mirrored for less than {@link #getMaxAge()} is read from the
+ * disk; an older or missing one is fetched from DSpace and mirrored. When DSpace cannot be reached or answers with a
+ * server error, e.g. during a maintenance, the mirrored object is returned whatever its age. An object DSpace answers
+ * not found for is removed from the mirror.
+ * 
+ * The mutating methods of this client remove from the mirror the objects they change and the parents they add children
+ * to or remove children from. The bitstreams are not mirrored themselves: a change to a bitstream removes its item when
+ * the mirrored fields embed the bitstreams, the item being found by asking DSpace for the parent of the bitstream
+ * before the change. Likewise, deleting an object removes its parents, found by asking DSpace before the deletion.
+ * Changes made by other clients, or to the descendants of a deleted object, are only seen once the mirrored objects are
+ * older than the maximum age. The mirror can also be filled beforehand, e.g. by a {@link Harvester}.
+ * 
+ * @author arnaud
+ */
+public class MirroringDSpaceRestClient extends DSpaceRestClient {
+
+    /**
+     * Fetches an object from DSpace.
+     */
+    private interface Fetch<T> {
+
+        T fetch();
+
+    }
+
+    private static Integer id(DSpaceObject object) {
+        return object == null ? null : object.getId();
+    }
+
+    private static boolean same(String expand1, String expand2) {
+        return expand1 == null ? expand2 == null : expand1.equals(expand2);
+    }
+
+    private String expand;
+
+    private long maxAge = 10 * 60 * 1000L;
+
+    private final MetadataMirror mirror;
+
+    /**
+     * New instance with a base URL and a configured {@link RestTemplate} instance.
+     * 
+     * @param baseUrl
+     *            the base URL of the DSpace REST API, e.g. "https://demo.dspace.org/rest".
+     * @param restTemplate
+     * @param mirror
+     *            the mirror, not closed by this client.
+     */
+    public MirroringDSpaceRestClient(String baseUrl, RestTemplate restTemplate, MetadataMirror mirror) {
+        super(baseUrl, restTemplate);
+        this.mirror = mirror;
+    }
+
+    @Override
+    public Void addBitstreamPolicy(Integer bitstream_id, ResourcePolicy requestBody) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.addBitstreamPolicy(bitstream_id, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void addBitstreamPolicy(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor,
+            ResourcePolicy requestBody) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.addBitstreamPolicy(bitstream_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Item addCollectionItem(Integer collection_id, Item requestBody) {
+        try {
+            return super.addCollectionItem(collection_id, requestBody);
+        } finally {
+            changed(Collection.class, collection_id);
+        }
+    }
+
+    @Override
+    public Item addCollectionItem(Integer collection_id, String userIP, String userAgent, String xforwardedfor,
+            Item requestBody) {
+        try {
+            return super.addCollectionItem(collection_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(Collection.class, collection_id);
+        }
+    }
+
+    @Override
+    public Collection addCommunityCollection(Integer community_id, Collection requestBody) {
+        try {
+            return super.addCommunityCollection(community_id, requestBody);
+        } finally {
+            changed(Community.class, community_id);
+        }
+    }
+
+    @Override
+    public Collection addCommunityCollection(Integer community_id, String userIP, String userAgent,
+            String xforwardedfor, Collection requestBody) {
+        try {
+            return super.addCommunityCollection(community_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(Community.class, community_id);
+        }
+    }
+
+    @Override
+    public Community addCommunityCommunity(Integer community_id, Community requestBody) {
+        try {
+            return super.addCommunityCommunity(community_id, requestBody);
+        } finally {
+            changed(Community.class, community_id);
+        }
+    }
+
+    @Override
+    public Community addCommunityCommunity(Integer community_id, String userIP, String userAgent,
+            String xforwardedfor, Community requestBody) {
+        try {
+            return super.addCommunityCommunity(community_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(Community.class, community_id);
+        }
+    }
+
+    @Override
+    public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year,
+            Integer month, Integer day, InputStream requestBody) {
+        try {
+            return super.addItemBitstream(item_id, name, description, groupId, year, month, day, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year,
+            Integer month, Integer day, InputStream requestBody, long contentLength) {
+        try {
+            return super.addItemBitstream(item_id, name, description, groupId, year, month, day, requestBody,
+                    contentLength);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Bitstream addItemBitstream(Integer item_id, String name, String description, Integer groupId, Integer year,
+            Integer month, Integer day, String userIP, String userAgent, String xforwardedfor,
+            InputStream requestBody) {
+        try {
+            return super.addItemBitstream(item_id, name, description, groupId, year, month, day, userIP, userAgent,
+                    xforwardedfor, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public void addItemMetadata(Integer item_id, MetadataEntry[] requestBody) {
+        try {
+            super.addItemMetadata(item_id, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void addItemMetadata(Integer item_id, MetadataEntry requestBody) {
+        try {
+            return super.addItemMetadata(item_id, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void addItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor,
+            MetadataEntry requestBody) {
+        try {
+            return super.addItemMetadata(item_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    /**
+     * Finds the item of a bitstream, if the mirrored items embed their bitstreams.
+     * 
+     * @return the ID of the item, or null if none or not needed.
+     */
+    private Integer bitstreamItem(Integer bitstream_id) {
+        if (expand == null || !(expand.contains("bitstreams") || expand.contains("all")))
+            return null;
+        Bitstream bitstream;
+        try {
+            bitstream = super.getBitstream(bitstream_id, "parent");
+        } catch (HttpClientErrorException e) {
+            // The change fails the same way.
+            return null;
+        }
+        DSpaceObject parent = bitstream == null ? null : bitstream.getParentObject();
+        return parent == null ? null : parent.getId();
+    }
+
+    private void changed(Class<? extends DSpaceObject> type, Integer id) {
+        if (id == null)
+            return;
+        try {
+            mirror.remove(type, id);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot write to the mirror", e);
+        }
+    }
+
+    /**
+     * Finds the community of a collection, before deleting it.
+     * 
+     * @return the ID of the community, or null if none.
+     */
+    private Integer collectionCommunity(Integer collection_id) {
+        Collection collection;
+        try {
+            collection = super.getCollection(collection_id, "parentCommunity", null, null);
+        } catch (HttpClientErrorException e) {
+            // The deletion fails the same way.
+            return null;
+        }
+        return collection == null ? null : id(collection.getParentCommunity());
+    }
+
+    /**
+     * Finds the parent of a community, before deleting it.
+     * 
+     * @return the ID of the parent, or null if none, e.g. for a top community.
+     */
+    private Integer communityParent(Integer community_id) {
+        Community community;
+        try {
+            community = super.getCommunity(community_id, "parentCommunity");
+        } catch (HttpClientErrorException e) {
+            // The deletion fails the same way.
+            return null;
+        }
+        return community == null ? null : id(community.getParentCommunity());
+    }
+
+    @Override
+    public Void deleteBitstream(Integer bitstream_id) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.deleteBitstream(bitstream_id);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteBitstream(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.deleteBitstream(bitstream_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteBitstreamPolicy(Integer policy_id, Integer bitstream_id) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.deleteBitstreamPolicy(policy_id, bitstream_id);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteBitstreamPolicy(Integer policy_id, Integer bitstream_id, String userIP, String userAgent,
+            String xforwardedfor) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.deleteBitstreamPolicy(policy_id, bitstream_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteCollection(Integer collection_id) {
+        Integer community_id = collectionCommunity(collection_id);
+        try {
+            return super.deleteCollection(collection_id);
+        } finally {
+            changed(Collection.class, collection_id);
+            changed(Community.class, community_id);
+        }
+    }
+
+    @Override
+    public Void deleteCollection(Integer collection_id, String userIP, String userAgent, String xforwardedfor) {
+        Integer community_id = collectionCommunity(collection_id);
+        try {
+            return super.deleteCollection(collection_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Collection.class, collection_id);
+            changed(Community.class, community_id);
+        }
+    }
+
+    @Override
+    public Void deleteCollectionItem(Integer collection_id, Integer item_id) {
+        try {
+            return super.deleteCollectionItem(collection_id, item_id);
+        } finally {
+            changed(Collection.class, collection_id);
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteCollectionItem(Integer collection_id, Integer item_id, String userIP, String userAgent,
+            String xforwardedfor) {
+        try {
+            return super.deleteCollectionItem(collection_id, item_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Collection.class, collection_id);
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteCommunity(Integer community_id) {
+        Integer parent_id = communityParent(community_id);
+        try {
+            return super.deleteCommunity(community_id);
+        } finally {
+            changed(Community.class, community_id);
+            changed(Community.class, parent_id);
+        }
+    }
+
+    @Override
+    public Void deleteCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor) {
+        Integer parent_id = communityParent(community_id);
+        try {
+            return super.deleteCommunity(community_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Community.class, community_id);
+            changed(Community.class, parent_id);
+        }
+    }
+
+    @Override
+    public Void deleteCommunityCollection(Integer collection_id, Integer community_id) {
+        try {
+            return super.deleteCommunityCollection(collection_id, community_id);
+        } finally {
+            changed(Community.class, community_id);
+            changed(Collection.class, collection_id);
+        }
+    }
+
+    @Override
+    public Void deleteCommunityCollection(Integer collection_id, Integer community_id, String userIP,
+            String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteCommunityCollection(collection_id, community_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Community.class, community_id);
+            changed(Collection.class, collection_id);
+        }
+    }
+
+    @Override
+    public Void deleteCommunityCommunity(Integer community_id, Integer community_id2) {
+        try {
+            return super.deleteCommunityCommunity(community_id, community_id2);
+        } finally {
+            changed(Community.class, community_id);
+            changed(Community.class, community_id2);
+        }
+    }
+
+    @Override
+    public Void deleteCommunityCommunity(Integer community_id, Integer community_id2, String userIP,
+            String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteCommunityCommunity(community_id, community_id2, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Community.class, community_id);
+            changed(Community.class, community_id2);
+        }
+    }
+
+    @Override
+    public Void deleteItem(Integer item_id) {
+        List<Integer> collection_ids = itemCollections(item_id);
+        try {
+            return super.deleteItem(item_id);
+        } finally {
+            changed(Item.class, item_id);
+            for (Integer collection_id : collection_ids) {
+                changed(Collection.class, collection_id);
+            }
+        }
+    }
+
+    @Override
+    public Void deleteItem(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        List<Integer> collection_ids = itemCollections(item_id);
+        try {
+            return super.deleteItem(item_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Item.class, item_id);
+            for (Integer collection_id : collection_ids) {
+                changed(Collection.class, collection_id);
+            }
+        }
+    }
+
+    @Override
+    public Void deleteItemBitstream(Integer item_id, Integer bitstream_id) {
+        try {
+            return super.deleteItemBitstream(item_id, bitstream_id);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteItemBitstream(Integer item_id, Integer bitstream_id, String userIP, String userAgent,
+            String xforwardedfor) {
+        try {
+            return super.deleteItemBitstream(item_id, bitstream_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteItemMetadata(Integer item_id) {
+        try {
+            return super.deleteItemMetadata(item_id);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void deleteItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        try {
+            return super.deleteItemMetadata(item_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Collection getCollection(final Integer collection_id, final String expand, final Integer limit,
+            final Integer offset) {
+        if (limit != null || offset != null || !same(expand, this.expand))
+            return super.getCollection(collection_id, expand, limit, offset);
+        return read(Collection.class, collection_id, new Fetch<Collection>() {
+
+            @Override
+            public Collection fetch() {
+                return MirroringDSpaceRestClient.super.getCollection(collection_id, expand, limit, offset);
+            }
+
+        });
+    }
+
+    @Override
+    public Community getCommunity(final Integer community_id, final String expand) {
+        if (!same(expand, this.expand))
+            return super.getCommunity(community_id, expand);
+        return read(Community.class, community_id, new Fetch<Community>() {
+
+            @Override
+            public Community fetch() {
+                return MirroringDSpaceRestClient.super.getCommunity(community_id, expand);
+            }
+
+        });
+    }
+
+    /**
+     * Gets the fields expanded on the mirrored objects.
+     * 
+     * @return the fields, or null.
+     */
+    public String getExpand() {
+        return expand;
+    }
+
+    @Override
+    public Item getItem(final Integer item_id, final String expand) {
+        if (!same(expand, this.expand))
+            return super.getItem(item_id, expand);
+        return read(Item.class, item_id, new Fetch<Item>() {
+
+            @Override
+            public Item fetch() {
+                return MirroringDSpaceRestClient.super.getItem(item_id, expand);
+            }
+
+        });
+    }
+
+    /**
+     * Gets the age up to which the mirrored objects are returned without asking DSpace.
+     * 
+     * @return the maximum age, in milliseconds.
+     */
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Gets the mirror.
+     * 
+     * @return the mirror.
+     */
+    public MetadataMirror getMirror() {
+        return mirror;
+    }
+
+    @Override
+    public <T> T getObject(String prefix, String suffix, String expand, Class<T> returnType) {
+        // E.g. as Object.class, DSpace answers a map, which a mirrored object must not replace.
+        if (!same(expand, this.expand) || !DSpaceObject.class.isAssignableFrom(returnType))
+            return super.getObject(prefix, suffix, expand, returnType);
+        MetadataMirror.Entry<DSpaceObject> entry;
+        try {
+            entry = mirror.getByHandle(prefix + "/" + suffix);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read the mirror", e);
+        }
+        if (entry != null && !returnType.isInstance(entry.getObject())) {
+            entry = null;
+        }
+        if (entry != null && System.currentTimeMillis() - entry.getFetched() <= maxAge)
+            return returnType.cast(entry.getObject());
+        T result;
+        try {
+            result = super.getObject(prefix, suffix, expand, returnType);
+        } catch (ResourceAccessException e) {
+            if (entry == null)
+                throw e;
+            return returnType.cast(entry.getObject());
+        } catch (HttpServerErrorException e) {
+            if (entry == null)
+                throw e;
+            return returnType.cast(entry.getObject());
+        }
+        if (result instanceof Community || result instanceof Collection || result instanceof Item) {
+            store((DSpaceObject) result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the collections of an item, the owning one and the ones it is mapped to, before deleting it.
+     * 
+     * @return the IDs of the collections, empty if none.
+     */
+    private List<Integer> itemCollections(Integer item_id) {
+        Item item;
+        try {
+            item = super.getItem(item_id, "parentCollection,parentCollectionList");
+        } catch (HttpClientErrorException e) {
+            // The deletion fails the same way.
+            return Collections.emptyList();
+        }
+        List<Integer> collection_ids = new ArrayList<Integer>();
+        if (item != null) {
+            collection_ids.add(id(item.getParentCollection()));
+            for (Collection collection : item.getParentCollectionList()) {
+                collection_ids.add(id(collection));
+            }
+        }
+        return collection_ids;
+    }
+
+    private <T extends DSpaceObject> T read(Class<T> type, Integer id, Fetch<T> fetch) {
+        MetadataMirror.Entry<T> entry;
+        try {
+            entry = mirror.get(type, id);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot read the mirror", e);
+        }
+        if (entry != null && System.currentTimeMillis() - entry.getFetched() <= maxAge)
+            return entry.getObject();
+        T result;
+        try {
+            result = fetch.fetch();
+        } catch (HttpClientErrorException e) {
+            if (entry != null && e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                changed(type, id);
+            }
+            throw e;
+        } catch (ResourceAccessException e) {
+            // DSpace is down: better late than never.
+            if (entry == null)
+                throw e;
+            return entry.getObject();
+        } catch (HttpServerErrorException e) {
+            if (entry == null)
+                throw e;
+            return entry.getObject();
+        }
+        if (result != null) {
+            store(result);
+        }
+        return result;
+    }
+
+    /**
+     * Sets the fields expanded on the mirrored objects, e.g. "metadata", none by default. Only the reads asking for
+     * these fields go through the mirror.
+     * 
+     * @param expand
+     *            the fields, or null.
+     */
+    public void setExpand(String expand) {
+        this.expand = expand;
+    }
+
+    /**
+     * Sets the age up to which the mirrored objects are returned without asking DSpace, 10 minutes by default.
+     * 
+     * @param maxAge
+     *            the maximum age, in milliseconds.
+     */
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    private void store(DSpaceObject object) {
+        try {
+            mirror.put(object);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot write to the mirror", e);
+        }
+    }
+
+    @Override
+    public Void updateBitstream(Integer bitstream_id, Bitstream requestBody) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.updateBitstream(bitstream_id, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void updateBitstream(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor,
+            Bitstream requestBody) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.updateBitstream(bitstream_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void updateBitstreamData(Integer bitstream_id, InputStream requestBody) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.updateBitstreamData(bitstream_id, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public void updateBitstreamData(Integer bitstream_id, InputStream requestBody, long contentLength) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            super.updateBitstreamData(bitstream_id, requestBody, contentLength);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void updateBitstreamData(Integer bitstream_id, String userIP, String userAgent, String xforwardedfor,
+            InputStream requestBody) {
+        Integer item_id = bitstreamItem(bitstream_id);
+        try {
+            return super.updateBitstreamData(bitstream_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void updateCollection(Integer collection_id, Collection requestBody) {
+        try {
+            return super.updateCollection(collection_id, requestBody);
+        } finally {
+            changed(Collection.class, collection_id);
+        }
+    }
+
+    @Override
+    public Void updateCollection(Integer collection_id, String userIP, String userAgent, String xforwardedfor,
+            Collection requestBody) {
+        try {
+            return super.updateCollection(collection_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(Collection.class, collection_id);
+        }
+    }
+
+    @Override
+    public Void updateCommunity(Integer community_id, Community requestBody) {
+        try {
+            return super.updateCommunity(community_id, requestBody);
+        } finally {
+            changed(Community.class, community_id);
+        }
+    }
+
+    @Override
+    public Void updateCommunity(Integer community_id, String userIP, String userAgent, String xforwardedfor,
+            Community requestBody) {
+        try {
+            return super.updateCommunity(community_id, userIP, userAgent, xforwardedfor, requestBody);
+        } finally {
+            changed(Community.class, community_id);
+        }
+    }
+
+    @Override
+    public void updateItemMetadata(Integer item_id, MetadataEntry[] requestBody) {
+        try {
+            super.updateItemMetadata(item_id, requestBody);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void updateItemMetadata(Integer item_id) {
+        try {
+            return super.updateItemMetadata(item_id);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+    @Override
+    public Void updateItemMetadata(Integer item_id, String userIP, String userAgent, String xforwardedfor) {
+        try {
+            return super.updateItemMetadata(item_id, userIP, userAgent, xforwardedfor);
+        } finally {
+            changed(Item.class, item_id);
+        }
+    }
+
+}
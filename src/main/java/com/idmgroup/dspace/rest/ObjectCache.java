@@ -0,0 +1,466 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded LRU cache of DSpace objects with a time to live, used by {@link CachingDSpaceRestClient}.
+ * 
+ * The objects are stored by key, e.g. "item/42", and each key holds the variants fetched with different parameters,
+ * e.g. different expand values. The cache also remembers which objects embed which others, e.g. a collection
+ * expanded with its items, so that invalidating an object also invalidates the objects embedding it.
+ * 
+ * The values stored with validators, i.e. an ETag or a last modification date, are kept once expired so that they can
+ * be revalidated with a conditional request, see {@link #getEntry(String, String)} and
+ * {@link #touch(String, String, Entry)}.
+ * 
+ * To avoid storing a value fetched before a concurrent invalidation, the callers take a {@link #stamp()} before
+ * fetching and pass it to {@link #put(String, String, Object, Collection, long)}: the value is dropped if
+ * anything was invalidated in between.
+ * 
+ * @author arnaud
+ */
+public class ObjectCache {
+
+    /**
+     * A cached value, with the validators to revalidate it once expired.
+     */
+    public static class Entry {
+
+        private final String eTag;
+
+        private final long expires;
+
+        private final long lastModified;
+
+        private final Object value;
+
+        public Entry(Object value, long expires, String eTag, long lastModified) {
+            this.value = value;
+            this.expires = expires;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Gets the entity tag sent by the server with the value.
+         * 
+         * @return the ETag, or null.
+         */
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * Gets the last modification date of the value.
+         * 
+         * @return the date in milliseconds since the epoch, or -1 if unknown.
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Gets the value.
+         * 
+         * @return the value.
+         */
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Tells whether the value can be revalidated with a conditional request.
+         * 
+         * @return true if there is an ETag or a last modification date.
+         */
+        public boolean hasValidators() {
+            return eTag != null || lastModified >= 0;
+        }
+
+        /**
+         * Tells whether the time to live of the value is over.
+         * 
+         * @return true if expired.
+         */
+        public boolean isExpired() {
+            return expires - System.currentTimeMillis() <= 0;
+        }
+
+    }
+
+    private static class Node {
+
+        private final Set<String> embedded = new HashSet<String>();
+
+        private final Set<String> handles = new HashSet<String>();
+
+        private final Map<String, Entry> variants = new HashMap<String, Entry>();
+
+    }
+
+    private static final String HANDLE_VARIANT = "handle:";
+
+    // key of an embedded object -> keys of the objects embedding it
+    private final Map<String, Set<String>> containers = new HashMap<String, Set<String>>();
+
+    private long generation;
+
+    // handle -> key of the object it resolved to
+    private final Map<String, String> handles = new HashMap<String, String>();
+
+    private long hitCount;
+
+    private int maxSize = 10000;
+
+    private long missCount;
+
+    private final LinkedHashMap<String, Node> nodes = new LinkedHashMap<String, Node>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Node> eldest) {
+            if (size() > maxSize) {
+                unlink(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+
+    };
+
+    private long timeToLive = 5 * 60 * 1000;
+
+    /**
+     * Removes all the objects.
+     */
+    public synchronized void clear() {
+        nodes.clear();
+        handles.clear();
+        containers.clear();
+        ++generation;
+    }
+
+    /**
+     * Gets a variant of an object.
+     * 
+     * @param key
+     *            the key of the object.
+     * @param variant
+     *            the variant.
+     * @return the value, or null if it is not cached or expired.
+     */
+    public synchronized Object get(String key, String variant) {
+        Entry entry = getEntry(key, variant);
+        return entry == null || entry.isExpired() ? null : entry.getValue();
+    }
+
+    /**
+     * Gets an object by handle.
+     * 
+     * @param handle
+     *            the handle, including any parameter of the lookup.
+     * @return the value, or null if it is not cached or expired.
+     */
+    public synchronized Object getByHandle(String handle) {
+        String key = handles.get(handle);
+        if (key == null) {
+            ++missCount;
+            return null;
+        }
+        return get(key, HANDLE_VARIANT + handle);
+    }
+
+    /**
+     * Gets a variant of an object, even expired if it can be revalidated. Counts as a hit if it is not expired.
+     * 
+     * @param key
+     *            the key of the object.
+     * @param variant
+     *            the variant.
+     * @return the entry, or null if it is not cached or expired without validators.
+     */
+    public synchronized Entry getEntry(String key, String variant) {
+        Node node = nodes.get(key);
+        Entry result = node == null ? null : entry(key, node, variant);
+        if (result == null || result.isExpired())
+            ++missCount;
+        else
+            ++hitCount;
+        return result;
+    }
+
+    /**
+     * Gets the number of lookups that found a value.
+     * 
+     * @return the hit count.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the maximum number of objects.
+     * 
+     * @return the maximum size.
+     */
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of lookups that found nothing.
+     * 
+     * @return the miss count.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the time to live of the values.
+     * 
+     * @return the time to live in milliseconds.
+     */
+    public synchronized long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Invalidates an object, and the objects embedding it.
+     * 
+     * @param key
+     *            the key of the object.
+     * @param cascade
+     *            whether to also invalidate the objects it embeds, e.g. when it is deleted.
+     * @return the keys of the objects invalidated.
+     */
+    public synchronized Set<String> invalidate(String key, boolean cascade) {
+        Set<String> result = new HashSet<String>();
+        Node node = nodes.get(key);
+        List<String> embedded = node == null || !cascade ? Collections.<String> emptyList() : new ArrayList<String>(
+                node.embedded);
+        remove(key, result);
+        Set<String> embedding = containers.get(key);
+        if (embedding != null) {
+            for (String container : new ArrayList<String>(embedding)) {
+                remove(container, result);
+            }
+        }
+        for (String e : embedded) {
+            remove(e, result);
+        }
+        ++generation;
+        return result;
+    }
+
+    /**
+     * Invalidates all the objects of a type.
+     * 
+     * @param type
+     *            the type, i.e. the part of the keys before the "/".
+     */
+    public synchronized void invalidateType(String type) {
+        String prefix = type + "/";
+        List<String> keys = new ArrayList<String>();
+        for (String key : nodes.keySet()) {
+            if (key.startsWith(prefix))
+                keys.add(key);
+        }
+        Set<String> removed = new HashSet<String>();
+        for (String key : keys) {
+            remove(key, removed);
+        }
+        ++generation;
+    }
+
+    /**
+     * Stores a variant of an object.
+     * 
+     * @param key
+     *            the key of the object.
+     * @param variant
+     *            the variant.
+     * @param value
+     *            the value.
+     * @param embedded
+     *            the keys of the objects embedded in the value.
+     * @param stamp
+     *            the {@link #stamp()} taken before fetching the value.
+     */
+    public synchronized void put(String key, String variant, Object value, Collection<String> embedded, long stamp) {
+        put(key, variant, value, embedded, stamp, null, -1);
+    }
+
+    /**
+     * Stores a variant of an object, with the validators to revalidate it once expired.
+     * 
+     * @param key
+     *            the key of the object.
+     * @param variant
+     *            the variant.
+     * @param value
+     *            the value.
+     * @param embedded
+     *            the keys of the objects embedded in the value.
+     * @param stamp
+     *            the {@link #stamp()} taken before fetching the value.
+     * @param eTag
+     *            the ETag sent by the server, or null.
+     * @param lastModified
+     *            the last modification date in milliseconds since the epoch, or -1 if unknown.
+     */
+    public synchronized void put(String key, String variant, Object value, Collection<String> embedded, long stamp,
+            String eTag, long lastModified) {
+        if (stamp != generation || value == null)
+            return;
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node();
+            nodes.put(key, node);
+        }
+        node.variants.put(variant, new Entry(value, System.currentTimeMillis() + timeToLive, eTag, lastModified));
+        for (String e : embedded) {
+            if (e.equals(key) || !node.embedded.add(e))
+                continue;
+            Set<String> embedding = containers.get(e);
+            if (embedding == null) {
+                embedding = new HashSet<String>();
+                containers.put(e, embedding);
+            }
+            embedding.add(key);
+        }
+    }
+
+    /**
+     * Stores an object found by handle.
+     * 
+     * @param handle
+     *            the handle, including any parameter of the lookup.
+     * @param key
+     *            the key of the object.
+     * @param value
+     *            the value.
+     * @param embedded
+     *            the keys of the objects embedded in the value.
+     * @param stamp
+     *            the {@link #stamp()} taken before fetching the value.
+     */
+    public synchronized void putByHandle(String handle, String key, Object value, Collection<String> embedded,
+            long stamp) {
+        if (stamp != generation || value == null)
+            return;
+        put(key, HANDLE_VARIANT + handle, value, embedded, stamp);
+        String previous = handles.put(handle, key);
+        if (previous != null && !previous.equals(key)) {
+            Node node = nodes.get(previous);
+            if (node != null) {
+                node.handles.remove(handle);
+                node.variants.remove(HANDLE_VARIANT + handle);
+            }
+        }
+        Node node = nodes.get(key);
+        if (node != null)
+            node.handles.add(handle);
+    }
+
+    /**
+     * Sets the maximum number of objects, 10000 by default. The least recently used objects are evicted first.
+     * 
+     * @param maxSize
+     *            the maximum size.
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Sets the time to live of the values, 5 minutes by default.
+     * 
+     * @param timeToLive
+     *            the time to live in milliseconds.
+     */
+    public synchronized void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Gets the number of objects.
+     * 
+     * @return the size.
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Takes a stamp to pass to {@link #put(String, String, Object, Collection, long)}.
+     * 
+     * @return the current stamp.
+     */
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    /**
+     * Restarts the time to live of a variant, e.g. after the server answered it is not modified.
+     * 
+     * @param key
+     *            the key of the object.
+     * @param variant
+     *            the variant.
+     * @param entry
+     *            the entry revalidated, as returned by {@link #getEntry(String, String)}.
+     */
+    public synchronized void touch(String key, String variant, Entry entry) {
+        Node node = nodes.get(key);
+        if (node != null && node.variants.get(variant) == entry) {
+            node.variants.put(variant, new Entry(entry.value, System.currentTimeMillis() + timeToLive, entry.eTag,
+                    entry.lastModified));
+        }
+    }
+
+    private void remove(String key, Set<String> removed) {
+        Node node = nodes.remove(key);
+        if (node != null) {
+            unlink(key, node);
+            removed.add(key);
+        }
+    }
+
+    private void unlink(String key, Node node) {
+        for (String e : node.embedded) {
+            Set<String> embedding = containers.get(e);
+            if (embedding != null) {
+                embedding.remove(key);
+                if (embedding.isEmpty())
+                    containers.remove(e);
+            }
+        }
+        for (String handle : node.handles) {
+            if (key.equals(handles.get(handle)))
+                handles.remove(handle);
+        }
+    }
+
+    private Entry entry(String key, Node node, String variant) {
+        Entry entry = node.variants.get(variant);
+        if (entry == null || !entry.isExpired() || entry.hasValidators())
+            return entry;
+        node.variants.remove(variant);
+        if (node.variants.isEmpty()) {
+            nodes.remove(key);
+            unlink(key, node);
+        }
+        return null;
+    }
+
+}
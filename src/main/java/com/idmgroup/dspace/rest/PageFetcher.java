@@ -0,0 +1,23 @@
+package com.idmgroup.dspace.rest;
+
+/**
+ * Fetches one page of a limit/offset listing, e.g. {@link DSpaceRestClient#getItems(String, Integer, Integer)}.
+ * 
+ * @author arnaud
+ * @param <T>
+ *            the type of the listed objects.
+ */
+public interface PageFetcher<T> {
+
+    /**
+     * Fetches a page.
+     * 
+     * @param limit
+     *            the maximum number of objects.
+     * @param offset
+     *            the offset of the first object.
+     * @return the page, shorter than limit, empty or null at the end of the listing.
+     */
+    T[] fetch(int limit, int offset);
+
+}
@@ -0,0 +1,46 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A limit/offset listing that is fetched lazily each time it is iterated, see {@link PageIterator}.
+ * 
+ * @author arnaud
+ * @param <T>
+ *            the type of the listed objects.
+ */
+public class PageIterable<T> implements Iterable<T> {
+
+    private final ExecutorService executor;
+
+    private final PageFetcher<T> fetcher;
+
+    private final int pageSize;
+
+    private final int prefetch;
+
+    /**
+     * New instance.
+     * 
+     * @param fetcher
+     *            fetches the pages.
+     * @param pageSize
+     *            the number of objects per page.
+     * @param prefetch
+     *            the number of pages fetched ahead, 0 to fetch them on demand in the caller thread.
+     * @param executor
+     *            runs the background fetches, may be null when prefetch is 0.
+     */
+    public PageIterable(PageFetcher<T> fetcher, int pageSize, int prefetch, ExecutorService executor) {
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+        this.executor = executor;
+    }
+
+    @Override
+    public PageIterator<T> iterator() {
+        return new PageIterator<T>(fetcher, pageSize, prefetch, executor);
+    }
+
+}
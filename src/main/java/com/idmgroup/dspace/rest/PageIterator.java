@@ -0,0 +1,161 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Iterates over a limit/offset listing, page by page, lazily.
+ * 
+ * While the caller works on page N, the next pages, up to the prefetch depth, are fetched in the background. The
+ * listing ends with the first page shorter than the page size. Objects created or deleted during the iteration shift
+ * the pages, so they may be missed or seen twice.
+ * 
+ * Close the iterator when it is abandoned before the end, to cancel the pending fetches.
+ * 
+ * @author arnaud
+ * @param <T>
+ *            the type of the listed objects.
+ */
+public class PageIterator<T> implements Iterator<T>, Closeable {
+
+    private boolean exhausted;
+
+    private final ExecutorService executor;
+
+    private final PageFetcher<T> fetcher;
+
+    private int index;
+
+    private int nextOffset;
+
+    private T[] page;
+
+    private final int pageSize;
+
+    private final Deque<Future<T[]>> pending = new ArrayDeque<Future<T[]>>();
+
+    private final int prefetch;
+
+    /**
+     * New instance.
+     * 
+     * @param fetcher
+     *            fetches the pages.
+     * @param pageSize
+     *            the number of objects per page.
+     * @param prefetch
+     *            the number of pages fetched ahead, 0 to fetch them on demand in the caller thread.
+     * @param executor
+     *            runs the background fetches, may be null when prefetch is 0.
+     */
+    public PageIterator(PageFetcher<T> fetcher, int pageSize, int prefetch, ExecutorService executor) {
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("pageSize must be positive");
+        if (prefetch > 0 && executor == null)
+            throw new IllegalArgumentException("an executor is needed to prefetch");
+        this.fetcher = fetcher;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+        this.executor = executor;
+    }
+
+    private void cancelPending() {
+        for (Future<T[]> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Cancels the pending fetches and ends the iteration.
+     */
+    @Override
+    public void close() {
+        exhausted = true;
+        page = null;
+        cancelPending();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (page == null || index >= page.length) {
+            if (exhausted)
+                return false;
+            page = nextPage();
+            index = 0;
+            if (page == null || page.length < pageSize) {
+                // Last page, the ones fetched ahead are useless.
+                exhausted = true;
+                cancelPending();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        return page[index++];
+    }
+
+    private T[] nextPage() {
+        if (prefetch <= 0) {
+            T[] result = fetcher.fetch(pageSize, nextOffset);
+            nextOffset += pageSize;
+            return result;
+        }
+        if (pending.isEmpty()) {
+            schedule(1);
+        }
+        Future<T[]> future = pending.poll();
+        // Keep the background busy while the caller works on this page.
+        schedule(prefetch);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("interrupted while fetching a page", e);
+        } catch (ExecutionException e) {
+            close();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Fetches the next pages in the background, up to a number of pending fetches.
+     */
+    private void schedule(int depth) {
+        while (pending.size() < depth) {
+            final int offset = nextOffset;
+            nextOffset += pageSize;
+            pending.add(executor.submit(new Callable<T[]>() {
+
+                @Override
+                public T[] call() {
+                    return fetcher.fetch(pageSize, offset);
+                }
+
+            }));
+        }
+    }
+
+}
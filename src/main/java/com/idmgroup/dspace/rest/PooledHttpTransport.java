@@ -0,0 +1,339 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.DSpaceJerseyRestClient;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.config.ClientConfig;
+import com.sun.jersey.client.apache4.ApacheHttpClient4Handler;
+
+/**
+ * HTTP transport sharing a pool of persistent connections between the clients built with it, based on Apache
+ * HttpClient 4.5, an optional dependency. It serves both {@link DSpaceRestClient} and {@link DSpaceJerseyRestClient}.
+ * 
+ * The pool limits the connections in total and per route, i.e. per DSpace server, and evicts the connections idle
+ * for too long. All the HTTPS connections share one {@link SSLContext}, so that its session cache lets the new
+ * connections resume the TLS sessions of the previous ones. The transport is configured before the first client is
+ * built, and closed when the clients are not used anymore. E.g.:
+ * 
+ * <pre>
+ * PooledHttpTransport transport = new PooledHttpTransport();
+ * transport.setMaxPerRoute(64);
+ * DSpaceRestClient client = transport.newClient("https://demo.dspace.org/rest");
+ * ...
+ * transport.close();
+ * </pre>
+ * 
+ * @author arnaud
+ */
+public class PooledHttpTransport implements Closeable {
+
+    private int connectionRequestTimeout = 30000;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    private int connectTimeout = 10000;
+
+    private CloseableHttpClient httpClient;
+
+    private long idleTimeout = 60000;
+
+    private long keepAlive = 30000;
+
+    private int maxPerRoute = 20;
+
+    private int maxTotal = 100;
+
+    private int socketTimeout = 60000;
+
+    private SSLContext sslContext;
+
+    /**
+     * Closes the HTTP client and all the connections of the pool.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+            httpClient = null;
+            connectionManager = null;
+        }
+    }
+
+    /**
+     * Gets the maximum time to wait for a connection from the pool.
+     * 
+     * @return the timeout in milliseconds.
+     */
+    public int getConnectionRequestTimeout() {
+        return connectionRequestTimeout;
+    }
+
+    /**
+     * Gets the connection pool, e.g. to watch its statistics.
+     * 
+     * @return the connection pool, created on first use.
+     */
+    public synchronized PoolingHttpClientConnectionManager getConnectionManager() {
+        getHttpClient();
+        return connectionManager;
+    }
+
+    /**
+     * Gets the maximum time to establish a connection.
+     * 
+     * @return the timeout in milliseconds.
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Gets the HTTP client sending the requests.
+     * 
+     * @return the HTTP client, created on first use with the current settings.
+     */
+    public synchronized CloseableHttpClient getHttpClient() {
+        if (httpClient == null) {
+            SSLContext context = sslContext == null ? SSLContexts.createDefault() : sslContext;
+            Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory> create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", new SSLConnectionSocketFactory(context)).build();
+            connectionManager = new PoolingHttpClientConnectionManager(registry);
+            connectionManager.setMaxTotal(maxTotal);
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(connectTimeout)
+                    .setConnectionRequestTimeout(connectionRequestTimeout).setSocketTimeout(socketTimeout).build();
+            ConnectionKeepAliveStrategy keepAliveStrategy = new DefaultConnectionKeepAliveStrategy() {
+
+                @Override
+                public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                    long duration = super.getKeepAliveDuration(response, context);
+                    return duration < 0 ? keepAlive : duration;
+                }
+
+            };
+            // Without connection state, the pooled TLS connections are reusable by any thread.
+            httpClient = HttpClients.custom().setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfig).setKeepAliveStrategy(keepAliveStrategy)
+                    .disableConnectionState().evictExpiredConnections()
+                    .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS).build();
+        }
+        return httpClient;
+    }
+
+    /**
+     * Gets the time after which the idle connections are closed.
+     * 
+     * @return the timeout in milliseconds.
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Gets the time a connection is kept alive when the server does not tell.
+     * 
+     * @return the duration in milliseconds.
+     */
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Gets the maximum number of connections per route.
+     * 
+     * @return the maximum number of connections.
+     */
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Gets the maximum number of connections in total.
+     * 
+     * @return the maximum number of connections.
+     */
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Gets the maximum time of inactivity while waiting for data.
+     * 
+     * @return the timeout in milliseconds.
+     */
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    /**
+     * Gets the SSL context of the HTTPS connections.
+     * 
+     * @return the SSL context, or null for the default one.
+     */
+    public SSLContext getSslContext() {
+        return sslContext;
+    }
+
+    /**
+     * New client using this transport, for its uploads too.
+     * 
+     * @param baseUrl
+     *            the base URL of the DSpace REST API, e.g. "https://demo.dspace.org/rest".
+     * @return the client.
+     */
+    public DSpaceRestClient newClient(String baseUrl) {
+        DSpaceRestClient client = new DSpaceRestClient(baseUrl, newRestTemplate());
+        client.setUploadRequestFactory(newUploadRequestFactory());
+        return client;
+    }
+
+    /**
+     * New Jersey client using this transport, e.g. for {@link DSpaceJerseyRestClient#setClient(Client)}. It requires
+     * the optional jersey-apache-client4 dependency.
+     * 
+     * @param config
+     *            the configuration of the client.
+     * @return the Jersey client.
+     */
+    public Client newJerseyClient(ClientConfig config) {
+        return new Client(new ApacheHttpClient4Handler(getHttpClient(), null, false), config);
+    }
+
+    /**
+     * New request factory using this transport.
+     * 
+     * @return the request factory.
+     */
+    public ClientHttpRequestFactory newRequestFactory() {
+        return new HttpComponentsClientHttpRequestFactory(getHttpClient());
+    }
+
+    /**
+     * New request factory using this transport without buffering the request bodies, e.g. for
+     * {@link DSpaceRestClient#setUploadRequestFactory(ClientHttpRequestFactory)}.
+     * 
+     * @return the request factory.
+     */
+    public ClientHttpRequestFactory newUploadRequestFactory() {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(
+                getHttpClient());
+        requestFactory.setBufferRequestBody(false);
+        return requestFactory;
+    }
+
+    /**
+     * New REST template using this transport, e.g. for {@link DSpaceRestClient#setRestTemplate(RestTemplate)}.
+     * 
+     * @return the REST template.
+     */
+    public RestTemplate newRestTemplate() {
+        return new RestTemplate(newRequestFactory());
+    }
+
+    /**
+     * Sets the maximum time to wait for a connection from the pool, 30 seconds by default.
+     * 
+     * @param connectionRequestTimeout
+     *            the timeout in milliseconds, 0 for none.
+     */
+    public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+    }
+
+    /**
+     * Sets the maximum time to establish a connection, 10 seconds by default.
+     * 
+     * @param connectTimeout
+     *            the timeout in milliseconds, 0 for none.
+     */
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Sets the time after which the idle connections are closed, 1 minute by default.
+     * 
+     * @param idleTimeout
+     *            the timeout in milliseconds.
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Sets the time a connection is kept alive when the server does not tell with a Keep-Alive header, 30 seconds by
+     * default.
+     * 
+     * @param keepAlive
+     *            the duration in milliseconds, negative for ever.
+     */
+    public void setKeepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Sets the maximum number of connections per route, 20 by default. It should be at least the number of threads
+     * sending requests to the same DSpace server.
+     * 
+     * @param maxPerRoute
+     *            the maximum number of connections.
+     */
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+
+    /**
+     * Sets the maximum number of connections in total, 100 by default.
+     * 
+     * @param maxTotal
+     *            the maximum number of connections.
+     */
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    /**
+     * Sets the maximum time of inactivity while waiting for data, 1 minute by default.
+     * 
+     * @param socketTimeout
+     *            the timeout in milliseconds, 0 for none.
+     */
+    public void setSocketTimeout(int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    /**
+     * Sets the SSL context of the HTTPS connections, e.g. to trust a private certificate authority.
+     * 
+     * @param sslContext
+     *            the SSL context, null for the default one.
+     */
+    public void setSslContext(SSLContext sslContext) {
+        this.sslContext = sslContext;
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * The fields of the DSpace objects a caller needs, e.g. the ID and the handle of items and their "dc.title" metadata
+ * entries:
+ * 
+ * <pre>
+ * Projection projection = Projection.of("id", "handle").withMetadataKeys("dc.title");
+ * </pre>
+ * 
+ * The fields are JSON property names, nested ones being dotted paths, e.g. "parentCollection.name" or
+ * "bitstreams.retrieveLink"; a field includes all of its value. The other fields are skipped at the token level while
+ * reading the response, without binding them nor creating their strings, so they are left null or empty in the
+ * objects.
+ * 
+ * Projections are immutable.
+ * 
+ * @author arnaud
+ */
+public final class Projection {
+
+    /**
+     * Includes a whole value.
+     */
+    private static final Projection ALL = new Projection(true, Collections.<String, Projection> emptyMap(), null);
+
+    /**
+     * Gets a projection on fields.
+     * 
+     * @param fields
+     *            the fields, nested ones as dotted paths.
+     * @return the projection.
+     */
+    public static Projection of(String... fields) {
+        Map<String, Projection> children = new HashMap<String, Projection>();
+        Map<String, Set<String>> nested = new HashMap<String, Set<String>>();
+        for (String field : fields) {
+            int dot = field.indexOf('.');
+            if (dot < 0) {
+                children.put(field, ALL);
+                continue;
+            }
+            String name = field.substring(0, dot);
+            Set<String> paths = nested.get(name);
+            if (paths == null) {
+                paths = new HashSet<String>();
+                nested.put(name, paths);
+            }
+            paths.add(field.substring(dot + 1));
+        }
+        for (Map.Entry<String, Set<String>> entry : nested.entrySet()) {
+            if (!children.containsKey(entry.getKey())) {
+                children.put(entry.getKey(), of(entry.getValue().toArray(new String[entry.getValue().size()])));
+            }
+        }
+        return new Projection(false, Collections.unmodifiableMap(children), null);
+    }
+
+    private static void skipObject(JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_OBJECT) {
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private final boolean all;
+
+    private final Map<String, Projection> children;
+
+    private final Set<String> metadataKeys;
+
+    private Projection(boolean all, Map<String, Projection> children, Set<String> metadataKeys) {
+        this.all = all;
+        this.children = children;
+        this.metadataKeys = metadataKeys;
+    }
+
+    /**
+     * Binds the object the parser is on, reading only the projected fields. The parser is left on the end of the
+     * object.
+     * 
+     * @param parser
+     *            the parser, on the start of an object.
+     * @param reader
+     *            the reader of the type of the object.
+     * @return the object.
+     * @throws IOException
+     */
+    <T> T bind(JsonParser parser, ObjectReader reader) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(parser);
+        copyObject(parser, buffer);
+        JsonParser projected = buffer.asParser(parser);
+        try {
+            return reader.readValue(projected);
+        } finally {
+            projected.close();
+        }
+    }
+
+    private void copyArray(JsonParser parser, TokenBuffer buffer) throws IOException {
+        buffer.writeStartArray();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                if (metadataKeys != null) {
+                    copyMetadataEntry(parser, buffer);
+                } else {
+                    copyObject(parser, buffer);
+                }
+            } else {
+                buffer.copyCurrentStructure(parser);
+            }
+        }
+        buffer.writeEndArray();
+    }
+
+    private void copyMetadataEntry(JsonParser parser, TokenBuffer buffer) throws IOException {
+        // DSpace sends the key first: the other entries are then skipped without reading their values.
+        if (parser.nextToken() == JsonToken.FIELD_NAME && "key".equals(parser.getCurrentName())) {
+            parser.nextToken();
+            String key = parser.getValueAsString();
+            if (!metadataKeys.contains(key)) {
+                skipObject(parser);
+                return;
+            }
+            buffer.writeStartObject();
+            buffer.writeFieldName("key");
+            buffer.writeString(key);
+            while (parser.nextToken() != JsonToken.END_OBJECT) {
+                buffer.copyCurrentStructure(parser);
+            }
+            buffer.writeEndObject();
+            return;
+        }
+        TokenBuffer entry = new TokenBuffer(parser);
+        entry.writeStartObject();
+        String key = null;
+        for (JsonToken token = parser.getCurrentToken(); token != JsonToken.END_OBJECT; token = parser.nextToken()) {
+            if (token == JsonToken.FIELD_NAME && "key".equals(parser.getCurrentName())) {
+                parser.nextToken();
+                key = parser.getValueAsString();
+                entry.writeFieldName("key");
+                entry.writeString(key);
+            } else {
+                entry.copyCurrentStructure(parser);
+            }
+        }
+        entry.writeEndObject();
+        if (metadataKeys.contains(key)) {
+            entry.serialize(buffer);
+        }
+    }
+
+    private void copyObject(JsonParser parser, TokenBuffer buffer) throws IOException {
+        buffer.writeStartObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            Projection child = children.get(name);
+            if (child == null) {
+                parser.skipChildren();
+                continue;
+            }
+            buffer.writeFieldName(name);
+            if (token == JsonToken.START_ARRAY && (!child.all || child.metadataKeys != null)) {
+                child.copyArray(parser, buffer);
+            } else if (token == JsonToken.START_OBJECT && !child.all) {
+                child.copyObject(parser, buffer);
+            } else {
+                buffer.copyCurrentStructure(parser);
+            }
+        }
+        buffer.writeEndObject();
+    }
+
+    /**
+     * Gets a projection including the "metadata" field, restricted to the entries having some keys.
+     * 
+     * @param keys
+     *            the keys of the metadata entries, e.g. "dc.title".
+     * @return a new projection.
+     */
+    public Projection withMetadataKeys(String... keys) {
+        Map<String, Projection> newChildren = new HashMap<String, Projection>(children);
+        newChildren.put("metadata", new Projection(true, Collections.<String, Projection> emptyMap(),
+                Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(keys)))));
+        return new Projection(all, Collections.unmodifiableMap(newChildren), metadataKeys);
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+
+/**
+ * The hierarchy of a DSpace repository, as read by a {@link TreeCrawler}: the top communities, their subcommunities
+ * and collections, and the items of the collections, linked both ways.
+ * 
+ * A snapshot cannot be changed once crawled, so it can be shared between threads without synchronization. The DSpace
+ * objects it holds are shared too: they must not be modified.
+ * 
+ * @author arnaud
+ */
+public final class RepositorySnapshot {
+
+    /**
+     * A community, a collection or an item of the snapshot.
+     */
+    public static final class Node {
+
+        private final List<Node> children = new ArrayList<Node>();
+
+        private final DSpaceObject object;
+
+        private final Node parent;
+
+        Node(DSpaceObject object, Node parent) {
+            this.object = object;
+            this.parent = parent;
+        }
+
+        /**
+         * Only called by the crawler, before the snapshot is published.
+         */
+        void addChild(Node child) {
+            children.add(child);
+        }
+
+        /**
+         * Gets the children: the subcommunities then the collections of a community, or the items of a collection.
+         * 
+         * @return the children, in the order DSpace lists them, empty for an item.
+         */
+        public List<Node> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * Gets the handle of the object.
+         * 
+         * @return the handle.
+         */
+        public String getHandle() {
+            return object.getHandle();
+        }
+
+        /**
+         * Gets the ID of the object.
+         * 
+         * @return the ID.
+         */
+        public Integer getId() {
+            return object.getId();
+        }
+
+        /**
+         * Gets the name of the object.
+         * 
+         * @return the name.
+         */
+        public String getName() {
+            return object.getName();
+        }
+
+        /**
+         * Gets the object, as listed by DSpace.
+         * 
+         * @return the community, collection or item, not to be modified.
+         */
+        public DSpaceObject getObject() {
+            return object;
+        }
+
+        /**
+         * Gets the parent: the community of a subcommunity or of a collection, or the collection an item was listed
+         * in.
+         * 
+         * @return the parent, or null for a top community.
+         */
+        public Node getParent() {
+            return parent;
+        }
+
+        @Override
+        public String toString() {
+            return "Node [" + object.getClass().getSimpleName() + " " + object.getId() + ", " + object.getName()
+                    + "]";
+        }
+
+    }
+
+    private final Map<Integer, Node> collections;
+
+    private final Map<Integer, Node> communities;
+
+    private final Map<Integer, Node> items;
+
+    private final List<Node> topCommunities;
+
+    RepositorySnapshot(List<Node> topCommunities, Map<Integer, Node> communities, Map<Integer, Node> collections,
+            Map<Integer, Node> items) {
+        this.topCommunities = Collections.unmodifiableList(new ArrayList<Node>(topCommunities));
+        this.communities = Collections.unmodifiableMap(new HashMap<Integer, Node>(communities));
+        this.collections = Collections.unmodifiableMap(new HashMap<Integer, Node>(collections));
+        this.items = Collections.unmodifiableMap(new HashMap<Integer, Node>(items));
+    }
+
+    /**
+     * Gets a collection.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @return the collection, or null if not found.
+     */
+    public Node getCollection(Integer collection_id) {
+        return collections.get(collection_id);
+    }
+
+    /**
+     * Gets all the collections.
+     * 
+     * @return the collections, in no particular order.
+     */
+    public Collection<Node> getCollections() {
+        return collections.values();
+    }
+
+    /**
+     * Gets all the communities, top communities and subcommunities.
+     * 
+     * @return the communities, in no particular order.
+     */
+    public Collection<Node> getCommunities() {
+        return communities.values();
+    }
+
+    /**
+     * Gets a community.
+     * 
+     * @param community_id
+     *            the community ID.
+     * @return the community, or null if not found.
+     */
+    public Node getCommunity(Integer community_id) {
+        return communities.get(community_id);
+    }
+
+    /**
+     * Gets an item. An item mapped into several collections is a child of each of them: this is the node of the
+     * first collection it was found in.
+     * 
+     * @param item_id
+     *            the item ID.
+     * @return the item, or null if not found.
+     */
+    public Node getItem(Integer item_id) {
+        return items.get(item_id);
+    }
+
+    /**
+     * Gets all the items, once each.
+     * 
+     * @return the items, in no particular order.
+     */
+    public Collection<Node> getItems() {
+        return items.values();
+    }
+
+    /**
+     * Gets the top communities.
+     * 
+     * @return the top communities, in the order DSpace lists them.
+     */
+    public List<Node> getTopCommunities() {
+        return topCommunities;
+    }
+
+    @Override
+    public String toString() {
+        return "RepositorySnapshot [communities=" + communities.size() + ", collections=" + collections.size()
+                + ", items=" + items.size() + "]";
+    }
+
+}
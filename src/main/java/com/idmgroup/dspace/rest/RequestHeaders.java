@@ -0,0 +1,67 @@
+package com.idmgroup.dspace.rest;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Immutable request headers for a token and a media type, shared by the requests as long as neither changes: the
+ * requests without a body share the same entity.
+ * 
+ * @author arnaud
+ */
+final class RequestHeaders {
+
+    /**
+     * Gets the headers for a token and a media type.
+     * 
+     * @param cached
+     *            the headers built for the previous request, or null.
+     * @param dspaceToken
+     *            the token.
+     * @param mediaType
+     *            the media type of the request body.
+     * @return the cached headers if they match, new ones otherwise.
+     */
+    public static RequestHeaders of(RequestHeaders cached, String dspaceToken, MediaType mediaType) {
+        if (cached != null && ObjectUtils.nullSafeEquals(cached.dspaceToken, dspaceToken)
+                && ObjectUtils.nullSafeEquals(cached.mediaType, mediaType))
+            return cached;
+        return new RequestHeaders(dspaceToken, mediaType);
+    }
+
+    private final String dspaceToken;
+
+    private final HttpEntity<Object> emptyEntity;
+
+    private final MediaType mediaType;
+
+    private RequestHeaders(String dspaceToken, MediaType mediaType) {
+        this.dspaceToken = dspaceToken;
+        this.mediaType = mediaType;
+        HttpHeaders headers = new HttpHeaders();
+        if (dspaceToken != null) {
+            headers.add("rest-dspace-token", dspaceToken);
+        }
+        if (mediaType != null) {
+            headers.setContentType(mediaType);
+        }
+        // The entity keeps a read-only copy of the headers.
+        this.emptyEntity = new HttpEntity<Object>(headers);
+    }
+
+    /**
+     * Gets an entity with these headers.
+     * 
+     * @param body
+     *            the body, possibly null.
+     * @return the shared entity without a body if the body is null, a new entity otherwise.
+     */
+    public HttpEntity<?> toEntity(Object body) {
+        if (body == null)
+            return emptyEntity;
+        return new HttpEntity<Object>(body, emptyEntity.getHeaders());
+    }
+
+}
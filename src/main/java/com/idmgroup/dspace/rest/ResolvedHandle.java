@@ -0,0 +1,75 @@
+package com.idmgroup.dspace.rest;
+
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * The object a handle points to, as found by a {@link HandleResolver}.
+ * 
+ * @author arnaud
+ */
+public class ResolvedHandle {
+
+    private final String handle;
+
+    private final Integer id;
+
+    private final String type;
+
+    public ResolvedHandle(String handle, String type, Integer id) {
+        this.handle = handle;
+        this.type = type;
+        this.id = id;
+    }
+
+    /**
+     * Gets the handle, e.g. "123456789/42".
+     * 
+     * @return the handle.
+     */
+    public String getHandle() {
+        return handle;
+    }
+
+    /**
+     * Gets the ID of the object.
+     * 
+     * @return the ID.
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Gets the class matching the type of the object.
+     * 
+     * @return {@link Item}, {@link Collection}, {@link Community}, or {@link DSpaceObject} for any other type.
+     */
+    public Class<? extends DSpaceObject> getObjectClass() {
+        if ("item".equals(type))
+            return Item.class;
+        else if ("collection".equals(type))
+            return Collection.class;
+        else if ("community".equals(type))
+            return Community.class;
+        else
+            return DSpaceObject.class;
+    }
+
+    /**
+     * Gets the type of the object, i.e. the "type" field of {@link DSpaceObject}, e.g. "item".
+     * 
+     * @return the type.
+     */
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "ResolvedHandle [handle=" + handle + ", type=" + type + ", id=" + id + "]";
+    }
+
+}
@@ -0,0 +1,466 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.DSpaceJerseyRestClient;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+/**
+ * Retries the requests failed for a transient reason. It serves both {@link DSpaceRestClient}, as an interceptor of
+ * its {@link RestTemplate}, and {@link DSpaceJerseyRestClient}, as a filter of its Jersey client.
+ * 
+ * Only the requests safe to repeat are retried after an I/O error or a 500, 502, 503 or 504 status: GET, HEAD, PUT,
+ * DELETE and the finding of items by metadata field, a read sent as a POST. The other POSTs, which create or add
+ * something, are only retried when DSpace could not have seen them: when the connection was refused or the status is
+ * 429. The delay before a retry is drawn at random between 0 and an exponential backoff, capped, so that the clients
+ * failed together do not retry together. A Retry-After header is honoured; beyond {@link #getMaxRetryAfter()} the
+ * request is not retried.
+ * 
+ * The retries are paid from a budget shared by all the requests: each request adds {@link #getBudgetRatio()} to it,
+ * up to {@link #getBudgetCap()}, and each retry takes one. During an outage, the retries stop once the budget is
+ * spent, instead of multiplying the load by the number of attempts. E.g.:
+ * 
+ * <pre>
+ * RetryPolicy retryPolicy = new RetryPolicy();
+ * retryPolicy.apply(restTemplate);
+ * DSpaceRestClient client = new DSpaceRestClient("https://demo.dspace.org/rest", restTemplate);
+ * </pre>
+ * 
+ * The uploads streamed by {@link DSpaceRestClient} do not go through the {@link RestTemplate} and are not retried:
+ * their body cannot be sent twice. Neither are the Jersey requests with a stream as body. An error occurring while a
+ * response body is read, e.g. a download cut halfway, is thrown to the caller. This class is thread-safe; it is
+ * configured before it is applied.
+ * 
+ * @author arnaud
+ */
+public class RetryPolicy {
+
+    /**
+     * The unit of the budget: one retry.
+     */
+    private static final long RETRY = 1000;
+
+    private static final String RETRY_AFTER = "Retry-After";
+
+    /**
+     * Parses a Retry-After header: a number of seconds or an HTTP date.
+     * 
+     * @return the delay in milliseconds, or -1 if none or not understood.
+     */
+    static long parseRetryAfter(String retryAfter, long now) {
+        if (retryAfter == null)
+            return -1;
+        String value = retryAfter.trim();
+        if (value.matches("[0-9]{1,9}"))
+            return Long.parseLong(value) * 1000;
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return Math.max(0, format.parse(value).getTime() - now);
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    private final AtomicLong budget;
+
+    private long budgetCap = 100;
+
+    private double budgetRatio = 0.2;
+
+    private final AtomicLong budgetRefusals = new AtomicLong();
+
+    private long initialBackoff = 100;
+
+    private int maxAttempts = 4;
+
+    private long maxBackoff = 10000;
+
+    private long maxRetryAfter = 60000;
+
+    private final AtomicLong retries = new AtomicLong();
+
+    /**
+     * New instance, with the default settings.
+     */
+    public RetryPolicy() {
+        budget = new AtomicLong(budgetCap * RETRY);
+    }
+
+    /**
+     * Adds an interceptor of this policy to a REST template, after the interceptors it already has.
+     * 
+     * @param restTemplate
+     *            the REST template.
+     */
+    public void apply(RestTemplate restTemplate) {
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<ClientHttpRequestInterceptor>(
+                restTemplate.getInterceptors());
+        interceptors.add(newInterceptor());
+        restTemplate.setInterceptors(interceptors);
+    }
+
+    /**
+     * Computes the backoff before a retry: a random delay up to the initial backoff doubled at each retry, capped.
+     * 
+     * @param retry
+     *            the number of the retry, from 1.
+     * @return the delay, in milliseconds.
+     */
+    long backoff(int retry) {
+        long cap = initialBackoff;
+        for (int i = 1; i < retry && cap < maxBackoff; ++i) {
+            cap *= 2;
+        }
+        cap = Math.min(cap, maxBackoff);
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     * Adds the share of a request to the budget.
+     */
+    private void deposit() {
+        long share = (long) (budgetRatio * RETRY);
+        long cap = budgetCap * RETRY;
+        while (true) {
+            long current = budget.get();
+            long next = Math.min(cap, current + share);
+            if (next <= current || budget.compareAndSet(current, next))
+                return;
+        }
+    }
+
+    /**
+     * Gets the maximum number of retries the budget can hold.
+     * 
+     * @return the budget cap.
+     */
+    public long getBudgetCap() {
+        return budgetCap;
+    }
+
+    /**
+     * Gets the share of a retry added to the budget by each request.
+     * 
+     * @return the budget ratio.
+     */
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * Gets the number of retries given up because the budget was spent.
+     * 
+     * @return the number of refusals.
+     */
+    public long getBudgetRefusals() {
+        return budgetRefusals.get();
+    }
+
+    /**
+     * Gets the backoff before the first retry.
+     * 
+     * @return the initial backoff, in milliseconds.
+     */
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Gets the maximum number of attempts of a request, the first one included.
+     * 
+     * @return the maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Gets the maximum backoff before a retry.
+     * 
+     * @return the maximum backoff, in milliseconds.
+     */
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Gets the longest Retry-After honoured.
+     * 
+     * @return the maximum delay asked by the server, in milliseconds.
+     */
+    public long getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    /**
+     * Gets the number of retries made.
+     * 
+     * @return the number of retries.
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Tells whether a request can be sent twice without changing the outcome.
+     * 
+     * @param method
+     *            the HTTP method, e.g. "GET".
+     * @param uri
+     *            the URI of the request.
+     * @return true for GET, HEAD, OPTIONS, PUT, DELETE and the finding of items by metadata field.
+     */
+    public boolean isIdempotent(String method, URI uri) {
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method) || "PUT".equals(method)
+                || "DELETE".equals(method))
+            return true;
+        // A read, even though it is a POST.
+        return "POST".equals(method) && uri.getPath() != null
+                && uri.getPath().endsWith("/items/find-by-metadata-field");
+    }
+
+    /**
+     * New interceptor retrying the requests of a REST template, see {@link #apply(RestTemplate)}. It must be the last
+     * interceptor: the retries do not go through the ones after it.
+     * 
+     * @return the interceptor.
+     */
+    public ClientHttpRequestInterceptor newInterceptor() {
+        return new ClientHttpRequestInterceptor() {
+
+            @Override
+            public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                    throws IOException {
+                String method = request.getMethod().name();
+                deposit();
+                for (int attempt = 1;; ++attempt) {
+                    ClientHttpResponse response;
+                    try {
+                        response = execution.execute(request, body);
+                    } catch (IOException e) {
+                        long delay = retryDelay(method, request.getURI(), attempt, e);
+                        if (delay < 0)
+                            throw e;
+                        pause(delay);
+                        continue;
+                    }
+                    long delay = retryDelay(method, request.getURI(), attempt, response.getRawStatusCode(),
+                            response.getHeaders().getFirst(RETRY_AFTER));
+                    if (delay < 0)
+                        return response;
+                    response.close();
+                    pause(delay);
+                }
+            }
+
+        };
+    }
+
+    /**
+     * New filter retrying the requests of a Jersey client, e.g. for {@link DSpaceJerseyRestClient#setRetryPolicy}. It
+     * must be added last, so that it is the first one called.
+     * 
+     * @return the filter.
+     */
+    public ClientFilter newJerseyFilter() {
+        return new ClientFilter() {
+
+            @Override
+            public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+                String method = request.getMethod();
+                boolean replayable = !(request.getEntity() instanceof InputStream);
+                deposit();
+                for (int attempt = 1;; ++attempt) {
+                    ClientResponse response;
+                    try {
+                        response = getNext().handle(request);
+                    } catch (ClientHandlerException e) {
+                        if (!replayable || !(e.getCause() instanceof IOException))
+                            throw e;
+                        long delay = retryDelay(method, request.getURI(), attempt, (IOException) e.getCause());
+                        if (delay < 0)
+                            throw e;
+                        pauseUnchecked(delay);
+                        continue;
+                    }
+                    if (!replayable)
+                        return response;
+                    long delay = retryDelay(method, request.getURI(), attempt, response.getStatus(),
+                            response.getHeaders().getFirst(RETRY_AFTER));
+                    if (delay < 0)
+                        return response;
+                    response.close();
+                    pauseUnchecked(delay);
+                }
+            }
+
+        };
+    }
+
+    private void pause(long delay) throws InterruptedIOException {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("interrupted while waiting to retry");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+    }
+
+    private void pauseUnchecked(long delay) {
+        try {
+            pause(delay);
+        } catch (InterruptedIOException e) {
+            throw new ClientHandlerException(e);
+        }
+    }
+
+    /**
+     * Decides whether to retry after an I/O error.
+     * 
+     * @return the delay before the retry in milliseconds, or -1 to give up.
+     */
+    private long retryDelay(String method, URI uri, int attempt, IOException error) {
+        if (attempt >= maxAttempts || error instanceof InterruptedIOException && Thread.currentThread().isInterrupted())
+            return -1;
+        // A refused connection sent nothing, whatever the method.
+        if (!(error instanceof ConnectException) && !isIdempotent(method, uri))
+            return -1;
+        return withdraw() ? backoff(attempt) : -1;
+    }
+
+    /**
+     * Decides whether to retry after a response.
+     * 
+     * @return the delay before the retry in milliseconds, or -1 to give up.
+     */
+    private long retryDelay(String method, URI uri, int attempt, int status, String retryAfter) {
+        if (attempt >= maxAttempts)
+            return -1;
+        boolean transientError = status == 500 || status == 502 || status == 503 || status == 504;
+        // 429 tells the request was not handled.
+        if (status != 429 && !(transientError && isIdempotent(method, uri)))
+            return -1;
+        long delay = parseRetryAfter(retryAfter, System.currentTimeMillis());
+        if (delay > maxRetryAfter)
+            return -1;
+        if (!withdraw())
+            return -1;
+        return delay >= 0 ? delay : backoff(attempt);
+    }
+
+    /**
+     * Sets the maximum number of retries the budget can hold, 100 by default. The budget starts full.
+     * 
+     * @param budgetCap
+     *            the budget cap.
+     */
+    public void setBudgetCap(long budgetCap) {
+        if (budgetCap < 0)
+            throw new IllegalArgumentException("budget cap must not be negative: " + budgetCap);
+        this.budgetCap = budgetCap;
+        budget.set(budgetCap * RETRY);
+    }
+
+    /**
+     * Sets the share of a retry added to the budget by each request, 0.2 by default: during an outage, at most one
+     * request in five is retried once the budget is spent.
+     * 
+     * @param budgetRatio
+     *            the budget ratio, between 0 and 1.
+     */
+    public void setBudgetRatio(double budgetRatio) {
+        if (budgetRatio < 0 || budgetRatio > 1)
+            throw new IllegalArgumentException("budget ratio must be between 0 and 1: " + budgetRatio);
+        this.budgetRatio = budgetRatio;
+    }
+
+    /**
+     * Sets the backoff before the first retry, 100 milliseconds by default. It doubles at each retry.
+     * 
+     * @param initialBackoff
+     *            the initial backoff, in milliseconds.
+     */
+    public void setInitialBackoff(long initialBackoff) {
+        if (initialBackoff < 0)
+            throw new IllegalArgumentException("initial backoff must not be negative: " + initialBackoff);
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * Sets the maximum number of attempts of a request, the first one included, 4 by default.
+     * 
+     * @param maxAttempts
+     *            the maximum number of attempts, 1 for no retry.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("maximum attempts must be positive: " + maxAttempts);
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Sets the maximum backoff before a retry, 10 seconds by default.
+     * 
+     * @param maxBackoff
+     *            the maximum backoff, in milliseconds.
+     */
+    public void setMaxBackoff(long maxBackoff) {
+        if (maxBackoff < 0)
+            throw new IllegalArgumentException("maximum backoff must not be negative: " + maxBackoff);
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Sets the longest Retry-After honoured, 1 minute by default. A request asked to wait longer is not retried.
+     * 
+     * @param maxRetryAfter
+     *            the maximum delay asked by the server, in milliseconds.
+     */
+    public void setMaxRetryAfter(long maxRetryAfter) {
+        this.maxRetryAfter = maxRetryAfter;
+    }
+
+    /**
+     * Takes a retry from the budget.
+     * 
+     * @return false if the budget is spent.
+     */
+    private boolean withdraw() {
+        while (true) {
+            long current = budget.get();
+            if (current < RETRY) {
+                budgetRefusals.incrementAndGet();
+                return false;
+            }
+            if (budget.compareAndSet(current, current - RETRY)) {
+                retries.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.idmgroup.dspace.rest;
+
+/**
+ * Calls DSpace with the client of a session, see
+ * {@link SessionManager#execute(com.idmgroup.dspace.rest.jersey.User, SessionCallback)}.
+ * 
+ * @author arnaud
+ * @param <T>
+ *            the type of the result.
+ */
+public interface SessionCallback<T> {
+
+    /**
+     * Makes the requests. Called again, once, when DSpace answered 401 or 403 because the session expired: the
+     * requests made before the failure must be harmless to repeat.
+     * 
+     * @param client
+     *            the client of the session, logged in.
+     * @return the result.
+     */
+    T doWithClient(DSpaceRestClient client);
+
+}
@@ -0,0 +1,126 @@
+package com.idmgroup.dspace.rest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Status;
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Keeps one authenticated session per user, so that threads acting as different users can share a manager instead of
+ * a client.
+ * 
+ * Each session is a {@link DSpaceRestClient} of its own, sharing the {@link RestTemplate}, logged in on first use. A
+ * call reads the session from a concurrent map and its token from a volatile field: once logged in, no lock is taken.
+ * When DSpace answers 401 or 403, the manager asks {@link DSpaceRestClient#status()} whether the session is still
+ * authenticated. If not, it logs in again and calls once more; if so, the user is really not allowed and the error is
+ * thrown. When many threads see the same session expire, only one of them logs in again. E.g.:
+ * 
+ * <pre>
+ * SessionManager sessions = new SessionManager("https://demo.dspace.org/rest", restTemplate);
+ * Community created = sessions.execute(user, new SessionCallback&lt;Community&gt;() {
+ * 
+ *     &#64;Override
+ *     public Community doWithClient(DSpaceRestClient client) {
+ *         return client.createCommunity(community);
+ *     }
+ * 
+ * });
+ * </pre>
+ * 
+ * This class is thread-safe. The users are told apart by their e-mail.
+ * 
+ * @author arnaud
+ */
+public class SessionManager extends AbstractSessionManager<DSpaceRestClient> {
+
+    private final String baseUrl;
+
+    private final RestTemplate restTemplate;
+
+    /**
+     * New instance.
+     * 
+     * @param baseUrl
+     *            the base URL of the DSpace REST API, e.g. "https://demo.dspace.org/rest".
+     * @param restTemplate
+     *            the REST template shared by the sessions.
+     */
+    public SessionManager(String baseUrl, RestTemplate restTemplate) {
+        this.baseUrl = baseUrl;
+        this.restTemplate = restTemplate;
+    }
+
+    /**
+     * Calls DSpace as a user, logging in first if needed, and once more if the session expired.
+     * 
+     * @param user
+     *            the user.
+     * @param callback
+     *            makes the requests, called again if the session expired.
+     * @return the result of the callback.
+     * @throws HttpClientErrorException
+     *             403 when the user is not allowed, or cannot log in.
+     */
+    public <T> T execute(User user, final SessionCallback<T> callback) {
+        return call(user, new Call<DSpaceRestClient, T>() {
+
+            @Override
+            public T call(DSpaceRestClient client) {
+                return callback.doWithClient(client);
+            }
+
+        });
+    }
+
+    /**
+     * Gets the base URL of the DSpace REST API.
+     * 
+     * @return the base URL.
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    protected String getToken(DSpaceRestClient client) {
+        return client.getDspaceToken();
+    }
+
+    @Override
+    protected boolean isAuthenticated(DSpaceRestClient client) {
+        Status status = client.status();
+        return status != null && status.isAuthenticated();
+    }
+
+    @Override
+    protected boolean isRefused(RuntimeException error) {
+        if (!(error instanceof HttpClientErrorException))
+            return false;
+        HttpStatus status = ((HttpClientErrorException) error).getStatusCode();
+        return status == HttpStatus.UNAUTHORIZED || status == HttpStatus.FORBIDDEN;
+    }
+
+    @Override
+    protected String login(DSpaceRestClient client, User user) {
+        return client.login(user);
+    }
+
+    @Override
+    protected void logout(DSpaceRestClient client) {
+        client.logout();
+    }
+
+    /**
+     * Creates the client of a new session, sharing the REST template. Can be overridden, e.g. to return a
+     * {@link CachingDSpaceRestClient}.
+     * 
+     * @return the client, not logged in.
+     */
+    @Override
+    protected DSpaceRestClient newClient() {
+        return new DSpaceRestClient(baseUrl, restTemplate);
+    }
+
+}
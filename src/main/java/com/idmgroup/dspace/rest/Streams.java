@@ -0,0 +1,195 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Stream helpers shared by both clients.
+ * 
+ * All the copies go through a single fixed size buffer, so the memory used does not depend on the size of the
+ * bitstream.
+ * 
+ * @author arnaud
+ */
+public final class Streams {
+
+    /**
+     * Size of the copy buffer.
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Copies an input stream to a channel. None of the streams is closed.
+     * 
+     * @param in
+     *            the source.
+     * @param out
+     *            the destination.
+     * @return the number of bytes copied.
+     * @throws IOException
+     */
+    public static long copy(InputStream in, WritableByteChannel out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer wrapper = ByteBuffer.wrap(buffer);
+        long count = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            wrapper.clear();
+            wrapper.limit(read);
+            while (wrapper.hasRemaining()) {
+                out.write(wrapper);
+            }
+            count += read;
+        }
+        return count;
+    }
+
+    /**
+     * Copies at most a given number of bytes of an input stream to a channel. None of the streams is closed.
+     * 
+     * @param in
+     *            the source.
+     * @param out
+     *            the destination.
+     * @param limit
+     *            the maximum number of bytes to copy.
+     * @return the number of bytes copied.
+     * @throws IOException
+     */
+    public static long copy(InputStream in, WritableByteChannel out, long limit) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer wrapper = ByteBuffer.wrap(buffer);
+        long count = 0;
+        int read;
+        while (count < limit && (read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - count))) != -1) {
+            wrapper.clear();
+            wrapper.limit(read);
+            while (wrapper.hasRemaining()) {
+                out.write(wrapper);
+            }
+            count += read;
+        }
+        return count;
+    }
+
+    /**
+     * Copies an input stream to an output stream. None of the streams is closed.
+     * 
+     * @param in
+     *            the source.
+     * @param out
+     *            the destination.
+     * @return the number of bytes copied.
+     * @throws IOException
+     */
+    public static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long count = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            count += read;
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * Copies an input stream to a file. The input stream is not closed.
+     * 
+     * @param in
+     *            the source.
+     * @param path
+     *            the destination file, created or truncated by default.
+     * @param options
+     *            the options used to open the file.
+     * @return the number of bytes copied.
+     * @throws IOException
+     */
+    public static long copy(InputStream in, Path path, OpenOption... options) throws IOException {
+        OutputStream out = Files.newOutputStream(path, options);
+        try {
+            return copy(in, out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Computes the digest of a file.
+     * 
+     * @param path
+     *            the file.
+     * @param algorithm
+     *            the digest algorithm, e.g. "MD5".
+     * @return the digest, as lower case hexadecimal.
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     */
+    public static String digest(Path path, String algorithm) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance(algorithm);
+        InputStream in = Files.newInputStream(path);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Skips exactly a given number of bytes.
+     * 
+     * @param in
+     *            the stream.
+     * @param count
+     *            the number of bytes to skip.
+     * @throws IOException
+     *             if the end of the stream is reached before.
+     */
+    public static void skip(InputStream in, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1)
+                    throw new EOFException("end of stream after skipping " + (count - remaining) + " bytes");
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * Converts bytes to lower case hexadecimal.
+     * 
+     * @param bytes
+     *            the bytes.
+     * @return the hexadecimal string.
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder result = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            result.append(Character.forDigit((b >> 4) & 0xf, 16));
+            result.append(Character.forDigit(b & 0xf, 16));
+        }
+        return result.toString();
+    }
+
+    private Streams() {
+    }
+
+}
@@ -0,0 +1,377 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.idmgroup.dspace.rest.Workers.Action;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Deletes a community or a collection with everything below it, several objects at once.
+ * 
+ * Deleting a large community in one request makes DSpace walk the whole subtree in a single transaction, which
+ * often times out. This class lists the subtree first, then deletes it leaves first, level by level: all the items,
+ * then the collections, then the communities from the deepest up. The objects of a level are deleted in parallel,
+ * the next level starts once the current one is done. A container is only deleted once all its content is, so a
+ * failure keeps the containers above it and the rest of the subtree is deleted anyway. An object already gone counts
+ * as deleted. E.g.:
+ * 
+ * <pre>
+ * DeletionResult result = new SubtreeDeleter(client).deleteCommunity(communityId);
+ * </pre>
+ * 
+ * Items mapped into the subtree but owned by a collection outside of it are not deleted, only unmapped along with
+ * their collection.
+ * 
+ * @author arnaud
+ */
+public class SubtreeDeleter {
+
+    /**
+     * The state of one deletion.
+     */
+    private class Deletion {
+
+        /**
+         * The containers to keep, by path.
+         */
+        private final Set<String> blocked = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        /**
+         * The collections of the subtree, by ID.
+         */
+        private final Set<Integer> collectionIds = Collections
+                .newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+        private final AtomicLong collections = new AtomicLong();
+
+        private final AtomicLong communities = new AtomicLong();
+
+        private final Map<String, RuntimeException> failures = new TreeMap<String, RuntimeException>();
+
+        private final AtomicLong items = new AtomicLong();
+
+        private final AtomicLong kept = new AtomicLong();
+
+        private final DeletionListener listener;
+
+        /**
+         * The container of each object of the subtree, by path.
+         */
+        private final Map<String, String> parents = new ConcurrentHashMap<String, String>();
+
+        public Deletion(DeletionListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Keeps the ancestors of an object.
+         */
+        private void block(String path) {
+            String parent = parents.get(path);
+            while (parent != null && blocked.add(parent)) {
+                parent = parents.get(parent);
+            }
+        }
+
+        private void delete(final String prefix, List<Integer> ids) {
+            forEach(ids, new Action<Integer>() {
+
+                @Override
+                public void run(Integer id) {
+                    String path = prefix + id;
+                    if (blocked.contains(path)) {
+                        kept.incrementAndGet();
+                        return;
+                    }
+                    try {
+                        if (ITEMS.equals(prefix)) {
+                            client.deleteItem(id);
+                        } else if (COLLECTIONS.equals(prefix)) {
+                            client.deleteCollection(id);
+                        } else {
+                            client.deleteCommunity(id);
+                        }
+                    } catch (HttpClientErrorException e) {
+                        if (e.getStatusCode() != HttpStatus.NOT_FOUND) {
+                            failed(path, e);
+                            return;
+                        }
+                    } catch (RuntimeException e) {
+                        failed(path, e);
+                        return;
+                    }
+                    if (ITEMS.equals(prefix)) {
+                        items.incrementAndGet();
+                    } else if (COLLECTIONS.equals(prefix)) {
+                        collections.incrementAndGet();
+                    } else {
+                        communities.incrementAndGet();
+                    }
+                    if (listener != null) {
+                        listener.deleted(path);
+                    }
+                }
+
+            });
+        }
+
+        private void failed(String path, RuntimeException error) {
+            synchronized (failures) {
+                failures.put(path, error);
+            }
+            blocked.add(path);
+            block(path);
+            if (listener != null) {
+                listener.failed(path, error);
+            }
+        }
+
+        /**
+         * Lists the items of the collections of the subtree.
+         */
+        private List<Integer> listItems(List<Integer> ids) {
+            final List<Integer> result = Collections.synchronizedList(new ArrayList<Integer>());
+            forEach(ids, new Action<Integer>() {
+
+                @Override
+                public void run(Integer collectionId) {
+                    try {
+                        int offset = 0;
+                        Item[] page;
+                        while ((page = client.getCollectionItems(collectionId, "parentCollection", pageSize,
+                                offset)) != null && page.length > 0) {
+                            for (Item item : page) {
+                                Collection owner = item.getParentCollection();
+                                Integer ownerId = owner == null ? collectionId : owner.getId();
+                                if (collectionIds.contains(ownerId)
+                                        && parents.put(ITEMS + item.getId(), COLLECTIONS + ownerId) == null) {
+                                    result.add(item.getId());
+                                }
+                            }
+                            offset += page.length;
+                        }
+                    } catch (RuntimeException e) {
+                        failed(COLLECTIONS + collectionId, e);
+                    }
+                }
+
+            });
+            return result;
+        }
+
+        private DeletionResult toResult() {
+            return new DeletionResult(items.get(), collections.get(), communities.get(), kept.get(), failures);
+        }
+
+    }
+
+    private static final String COLLECTIONS = "/collections/";
+
+    private static final String COMMUNITIES = "/communities/";
+
+    private static final String ITEMS = "/items/";
+
+    private final DSpaceRestClient client;
+
+    private int concurrency = 8;
+
+    private ExecutorService executor;
+
+    private int pageSize = 100;
+
+    /**
+     * New instance.
+     * 
+     * @param client
+     *            the client used to list and delete the objects, logged in.
+     */
+    public SubtreeDeleter(DSpaceRestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Deletes a collection with its items.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @return the outcome.
+     */
+    public DeletionResult deleteCollection(Integer collection_id) {
+        return deleteCollection(collection_id, null);
+    }
+
+    /**
+     * Deletes a collection with its items.
+     * 
+     * @param collection_id
+     *            the collection ID.
+     * @param listener
+     *            follows the progress, or null.
+     * @return the outcome.
+     */
+    public DeletionResult deleteCollection(Integer collection_id, DeletionListener listener) {
+        Deletion deletion = new Deletion(listener);
+        List<Integer> collections = Collections.singletonList(collection_id);
+        deletion.collectionIds.add(collection_id);
+        deletion.delete(ITEMS, deletion.listItems(collections));
+        deletion.delete(COLLECTIONS, collections);
+        return deletion.toResult();
+    }
+
+    /**
+     * Deletes a community with its subcommunities, collections and items.
+     * 
+     * @param community_id
+     *            the community ID.
+     * @return the outcome.
+     */
+    public DeletionResult deleteCommunity(Integer community_id) {
+        return deleteCommunity(community_id, null);
+    }
+
+    /**
+     * Deletes a community with its subcommunities, collections and items.
+     * 
+     * @param community_id
+     *            the community ID.
+     * @param listener
+     *            follows the progress, or null.
+     * @return the outcome.
+     */
+    public DeletionResult deleteCommunity(Integer community_id, DeletionListener listener) {
+        final Deletion deletion = new Deletion(listener);
+        final List<Integer> collections = Collections.synchronizedList(new ArrayList<Integer>());
+        List<List<Integer>> levels = new ArrayList<List<Integer>>();
+        List<Integer> level = Collections.singletonList(community_id);
+        while (!level.isEmpty()) {
+            levels.add(level);
+            final List<Integer> next = Collections.synchronizedList(new ArrayList<Integer>());
+            forEach(level, new Action<Integer>() {
+
+                @Override
+                public void run(Integer communityId) {
+                    String path = COMMUNITIES + communityId;
+                    try {
+                        int offset = 0;
+                        Community[] communities;
+                        while ((communities = client.getCommunityCommunities(communityId, null, pageSize,
+                                offset)) != null && communities.length > 0) {
+                            for (Community community : communities) {
+                                deletion.parents.put(COMMUNITIES + community.getId(), path);
+                                next.add(community.getId());
+                            }
+                            offset += communities.length;
+                        }
+                        offset = 0;
+                        Collection[] page;
+                        while ((page = client.getCommunityCollections(communityId, null, pageSize, offset)) != null
+                                && page.length > 0) {
+                            for (Collection collection : page) {
+                                deletion.parents.put(COLLECTIONS + collection.getId(), path);
+                                deletion.collectionIds.add(collection.getId());
+                                collections.add(collection.getId());
+                            }
+                            offset += page.length;
+                        }
+                    } catch (RuntimeException e) {
+                        deletion.failed(path, e);
+                    }
+                }
+
+            });
+            level = next;
+        }
+
+        deletion.delete(ITEMS, deletion.listItems(collections));
+        deletion.delete(COLLECTIONS, collections);
+        for (int i = levels.size() - 1; i >= 0; --i) {
+            deletion.delete(COMMUNITIES, levels.get(i));
+        }
+        return deletion.toResult();
+    }
+
+    /**
+     * Runs an action on each object, {@link #getConcurrency()} at once. Returns when all are done.
+     */
+    private <T> void forEach(List<T> objects, Action<T> action) {
+        Workers.forEach(getExecutor(), concurrency, objects, action);
+    }
+
+    /**
+     * Gets the maximum number of requests in flight.
+     * 
+     * @return the concurrency.
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Gets the executor running the requests.
+     * 
+     * @return the executor, by default a pool of daemon threads created on first use.
+     */
+    public synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Workers.daemonPool("dspace-subtree-deleter");
+        }
+        return executor;
+    }
+
+    /**
+     * Gets the number of objects listed per request.
+     * 
+     * @return the page size.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the maximum number of requests in flight, 8 by default.
+     * 
+     * @param concurrency
+     *            the concurrency.
+     */
+    public void setConcurrency(int concurrency) {
+        if (concurrency < 1)
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Sets the executor running the requests. It is not shut down by this class.
+     * 
+     * @param executor
+     *            the executor.
+     */
+    public synchronized void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the number of objects listed per request, 100 by default.
+     * 
+     * @param pageSize
+     *            the page size.
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1)
+            throw new IllegalArgumentException("page size must be positive: " + pageSize);
+        this.pageSize = pageSize;
+    }
+
+}
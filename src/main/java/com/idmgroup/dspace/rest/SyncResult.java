@@ -0,0 +1,76 @@
+package com.idmgroup.dspace.rest;
+
+/**
+ * Outcome of an {@link IncrementalHarvester} run on a collection.
+ * 
+ * @author arnaud
+ */
+public class SyncResult {
+
+    private final long created;
+
+    private final long listed;
+
+    private final long modified;
+
+    private final long removed;
+
+    public SyncResult(long listed, long created, long modified, long removed) {
+        this.listed = listed;
+        this.created = created;
+        this.modified = modified;
+        this.removed = removed;
+    }
+
+    /**
+     * Gets the number of items new to the collection.
+     * 
+     * @return the number of items created.
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Gets the number of items listed in the collection.
+     * 
+     * @return the number of items listed.
+     */
+    public long getListed() {
+        return listed;
+    }
+
+    /**
+     * Gets the number of items modified.
+     * 
+     * @return the number of items modified.
+     */
+    public long getModified() {
+        return modified;
+    }
+
+    /**
+     * Gets the number of items gone from the collection.
+     * 
+     * @return the number of items removed.
+     */
+    public long getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Tells whether anything changed.
+     * 
+     * @return true if some items were created, modified or removed.
+     */
+    public boolean isChanged() {
+        return created > 0 || modified > 0 || removed > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncResult [listed=" + listed + ", created=" + created + ", modified=" + modified + ", removed="
+                + removed + "]";
+    }
+
+}
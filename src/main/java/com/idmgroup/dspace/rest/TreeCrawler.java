@@ -0,0 +1,319 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import com.idmgroup.dspace.rest.RepositorySnapshot.Node;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Reads the whole hierarchy of a DSpace repository into a {@link RepositorySnapshot}, listing the communities,
+ * collections and items in parallel.
+ * 
+ * The listings of the children of each community, and of each page of items of each collection, do not depend on
+ * one another: they are run as fork/join tasks, so the crawl takes about the latency of the deepest path instead of
+ * the sum of all the latencies. The pages of items of a collection are all requested at once, from the number of
+ * items DSpace gives with the collection. E.g.:
+ * 
+ * <pre>
+ * RepositorySnapshot snapshot = new TreeCrawler(client).crawl();
+ * for (RepositorySnapshot.Node community : snapshot.getTopCommunities()) {
+ *     ...
+ * }
+ * </pre>
+ * 
+ * @author arnaud
+ */
+public class TreeCrawler {
+
+    /**
+     * Lists the items of a collection.
+     */
+    private class CollectionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Crawl crawl;
+
+        private final Node node;
+
+        public CollectionTask(Crawl crawl, Node node) {
+            this.crawl = crawl;
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            Integer count = ((Collection) node.getObject()).getNumberItems();
+            List<PageTask> pages = new ArrayList<PageTask>();
+            for (int offset = 0; count != null && offset < count; offset += pageSize) {
+                pages.add(new PageTask(node.getId(), offset));
+            }
+            invokeAll(pages);
+            Item[] last = null;
+            for (PageTask page : pages) {
+                last = page.join();
+                crawl.addItems(node, last);
+            }
+            // The count is only a hint: go on while the pages are full.
+            boolean more = count == null || (last != null && last.length >= pageSize);
+            for (int offset = pages.size() * pageSize; more; offset += last.length) {
+                last = client.getCollectionItems(node.getId(), itemExpand, pageSize, offset);
+                if (last == null || last.length == 0)
+                    break;
+                crawl.addItems(node, last);
+                more = last.length >= pageSize;
+            }
+        }
+
+    }
+
+    /**
+     * Lists the subcommunities and the collections of a community, then crawls them.
+     */
+    private class CommunityTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Crawl crawl;
+
+        private final Node node;
+
+        public CommunityTask(Crawl crawl, Node node) {
+            this.crawl = crawl;
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForkJoinTask<?>> children = new ArrayList<ForkJoinTask<?>>();
+            Community[] communities;
+            for (int offset = 0; (communities = client.getCommunityCommunities(node.getId(), null, pageSize,
+                    offset)) != null && communities.length > 0; offset += communities.length) {
+                for (Community community : communities) {
+                    children.add(new CommunityTask(crawl, crawl.add(crawl.communities, community, node)));
+                }
+            }
+            Collection[] collections;
+            for (int offset = 0; (collections = client.getCommunityCollections(node.getId(), null, pageSize,
+                    offset)) != null && collections.length > 0; offset += collections.length) {
+                for (Collection collection : collections) {
+                    children.add(new CollectionTask(crawl, crawl.add(crawl.collections, collection, node)));
+                }
+            }
+            invokeAll(children);
+        }
+
+    }
+
+    /**
+     * The state of one crawl.
+     */
+    private static class Crawl {
+
+        private final Map<Integer, Node> collections = new ConcurrentHashMap<Integer, Node>();
+
+        private final Map<Integer, Node> communities = new ConcurrentHashMap<Integer, Node>();
+
+        private final ConcurrentHashMap<Integer, Node> items = new ConcurrentHashMap<Integer, Node>();
+
+        private final List<Node> topCommunities = new ArrayList<Node>();
+
+        private Node add(Map<Integer, Node> index, DSpaceObject object, Node parent) {
+            Node node = new Node(object, parent);
+            if (parent != null) {
+                parent.addChild(node);
+            }
+            index.put(object.getId(), node);
+            return node;
+        }
+
+        private void addItems(Node collection, Item[] page) {
+            for (Item item : page) {
+                Node node = new Node(item, collection);
+                collection.addChild(node);
+                items.putIfAbsent(item.getId(), node);
+            }
+        }
+
+    }
+
+    /**
+     * Lists a page of items of a collection.
+     */
+    private class PageTask extends RecursiveTask<Item[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Integer collection_id;
+
+        private final int offset;
+
+        public PageTask(Integer collection_id, int offset) {
+            this.collection_id = collection_id;
+            this.offset = offset;
+        }
+
+        @Override
+        protected Item[] compute() {
+            Item[] page = client.getCollectionItems(collection_id, itemExpand, pageSize, offset);
+            return page == null ? new Item[0] : page;
+        }
+
+    }
+
+    private final DSpaceRestClient client;
+
+    private String itemExpand;
+
+    private int pageSize = 100;
+
+    private int parallelism = 16;
+
+    private ForkJoinPool pool;
+
+    /**
+     * New instance.
+     * 
+     * @param client
+     *            the client used to list the objects.
+     */
+    public TreeCrawler(DSpaceRestClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Reads the whole hierarchy. Returns when it is done.
+     * 
+     * @return the snapshot.
+     * @throws RuntimeException
+     *             the first listing error, which stops the crawl.
+     */
+    public RepositorySnapshot crawl() {
+        final Crawl crawl = new Crawl();
+        getPool().invoke(new RecursiveAction() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                List<CommunityTask> children = new ArrayList<CommunityTask>();
+                Community[] communities;
+                for (int offset = 0; (communities = client.getTopCommunities(null, pageSize, offset)) != null
+                        && communities.length > 0; offset += communities.length) {
+                    for (Community community : communities) {
+                        Node node = crawl.add(crawl.communities, community, null);
+                        crawl.topCommunities.add(node);
+                        children.add(new CommunityTask(crawl, node));
+                    }
+                }
+                invokeAll(children);
+            }
+
+        });
+        return new RepositorySnapshot(crawl.topCommunities, crawl.communities, crawl.collections, crawl.items);
+    }
+
+    /**
+     * Gets the fields to expand on the items.
+     * 
+     * @return the fields, or null.
+     */
+    public String getItemExpand() {
+        return itemExpand;
+    }
+
+    /**
+     * Gets the number of objects listed per request.
+     * 
+     * @return the page size.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Gets the maximum number of requests in flight.
+     * 
+     * @return the parallelism.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Gets the pool running the listings.
+     * 
+     * @return the pool, by default a pool of {@link #getParallelism()} daemon threads created on first use.
+     */
+    public synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+
+                @Override
+                public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("dspace-crawler-" + thread.getPoolIndex());
+                    return thread;
+                }
+
+            }, null, false);
+        }
+        return pool;
+    }
+
+    /**
+     * Sets the fields to expand on the items, e.g. "metadata", none by default.
+     * 
+     * @param itemExpand
+     *            the fields, or null.
+     */
+    public void setItemExpand(String itemExpand) {
+        this.itemExpand = itemExpand;
+    }
+
+    /**
+     * Sets the number of objects listed per request, 100 by default.
+     * 
+     * @param pageSize
+     *            the page size.
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize < 1)
+            throw new IllegalArgumentException("page size must be positive: " + pageSize);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sets the maximum number of requests in flight, 16 by default. Only used when the default pool is created.
+     * 
+     * @param parallelism
+     *            the parallelism.
+     */
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the pool running the listings. It is not shut down by this class.
+     * 
+     * @param pool
+     *            the pool.
+     */
+    public synchronized void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+}
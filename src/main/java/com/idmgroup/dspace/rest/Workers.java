@@ -0,0 +1,116 @@
+package com.idmgroup.dspace.rest;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Worker thread helpers shared by the classes running many requests at once, e.g. {@link SubtreeDeleter}.
+ * 
+ * @author arnaud
+ */
+final class Workers {
+
+    /**
+     * Something to do on each object of a list.
+     */
+    interface Action<T> {
+
+        void run(T object);
+
+    }
+
+    /**
+     * New pool of daemon threads, so that a pool created on first use never keeps the JVM alive.
+     * 
+     * @param name
+     *            the name of the threads.
+     * @return the pool, creating threads as needed and dropping them after a minute idle.
+     */
+    public static ExecutorService daemonPool(final String name) {
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+
+        });
+    }
+
+    /**
+     * Runs an action on each object of a list, at most concurrency at once, each worker taking the next object when
+     * done with one. Returns when all are done.
+     * 
+     * @param executor
+     *            runs the workers.
+     * @param concurrency
+     *            the maximum number of objects handled at once.
+     * @param objects
+     *            the objects.
+     * @param action
+     *            the action, which should catch its own failures: a failure not caught stops its worker, and the
+     *            first one is thrown once the other workers are done.
+     * @throws IllegalStateException
+     *             if interrupted while waiting, the workers being cancelled.
+     */
+    public static <T> void forEach(ExecutorService executor, int concurrency, List<T> objects,
+            final Action<T> action) {
+        final Iterator<T> pending = objects.iterator();
+        int count = Math.min(concurrency, objects.size());
+        Runnable worker = new Runnable() {
+
+            @Override
+            public void run() {
+                while (true) {
+                    T next;
+                    synchronized (pending) {
+                        if (!pending.hasNext())
+                            return;
+                        next = pending.next();
+                    }
+                    action.run(next);
+                }
+            }
+
+        };
+
+        Future<?>[] futures = new Future<?>[count];
+        for (int i = 0; i < count; ++i) {
+            futures[i] = executor.submit(worker);
+        }
+        Throwable failure = null;
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null)
+                        failure = e.getCause();
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the workers", e);
+        }
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        if (failure != null)
+            throw new IllegalStateException(failure);
+    }
+
+    private Workers() {
+    }
+
+}
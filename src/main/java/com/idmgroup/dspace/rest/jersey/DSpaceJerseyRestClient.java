@@ -1,12 +1,21 @@
 package com.idmgroup.dspace.rest.jersey;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
 
 import javax.annotation.PostConstruct;
 import javax.ws.rs.core.MultivaluedMap;
 
 import com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider;
+import com.idmgroup.dspace.rest.PooledHttpTransport;
+import com.idmgroup.dspace.rest.RetryPolicy;
+import com.idmgroup.dspace.rest.Streams;
 import com.idmgroup.dspace.rest.jersey.DemoDspaceOrg_Rest.Bitstreams;
 import com.idmgroup.dspace.rest.jersey.DemoDspaceOrg_Rest.Collections;
 import com.idmgroup.dspace.rest.jersey.DemoDspaceOrg_Rest.Communities;
@@ -26,6 +35,10 @@ import com.sun.jersey.api.client.filter.ClientFilter;
  * 
  * It is based on the wald2java tool and {@link Client} and manages the "rest-dspace-token" header for you.
  * 
+ * The resources, e.g. {@link #items()}, are built once by {@link #init()} and shared: they build a new sub-resource
+ * for each call. Give it a {@link PooledHttpTransport} to send the requests through a pool of persistent connections,
+ * and a {@link RetryPolicy} to retry them after a transient failure.
+ * 
  * @author arnaud
  */
 public class DSpaceJerseyRestClient {
@@ -34,12 +47,28 @@ public class DSpaceJerseyRestClient {
 
     private String baseUrl;
 
+    private Bitstreams bitstreams;
+
     private Client client;
 
-    private String dspaceToken;
+    private Collections collections;
+
+    private Communities communities;
+
+    private volatile String dspaceToken;
+
+    private Handle handle;
+
+    private Items items;
 
     private final ObjectFactory objectFactory = new ObjectFactory();
 
+    private RetryPolicy retryPolicy;
+
+    private Root root;
+
+    private PooledHttpTransport transport;
+
     /**
      * New instance, unconfigured.
      */
@@ -74,7 +103,7 @@ public class DSpaceJerseyRestClient {
      * @return the bitstreams resource.
      */
     public Bitstreams bitstreams() {
-        return DemoDspaceOrg_Rest.bitstreams(client, baseUri);
+        return bitstreams;
     }
 
     /**
@@ -83,7 +112,7 @@ public class DSpaceJerseyRestClient {
      * @return the collections resource.
      */
     public Collections collections() {
-        return DemoDspaceOrg_Rest.collections(client, baseUri);
+        return collections;
     }
 
     /**
@@ -92,7 +121,7 @@ public class DSpaceJerseyRestClient {
      * @return the communities resource.
      */
     public Communities communities() {
-        return DemoDspaceOrg_Rest.communities(client, baseUri);
+        return communities;
     }
 
     /**
@@ -113,6 +142,66 @@ public class DSpaceJerseyRestClient {
         return baseUrl;
     }
 
+    /**
+     * Streams the content of a bitstream to an output stream, through a fixed size buffer. The output stream is not
+     * closed.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param out
+     *            the destination.
+     * @return the number of bytes written.
+     * @throws IOException
+     */
+    public long getBitstreamData(Integer bitstream_id, OutputStream out) throws IOException {
+        InputStream in = openBitstreamData(bitstream_id);
+        try {
+            return Streams.copy(in, out);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Streams the content of a bitstream to a file, through a fixed size buffer.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param path
+     *            the destination file.
+     * @param options
+     *            the options used to open the file, by default it is created or truncated.
+     * @return the number of bytes written.
+     * @throws IOException
+     */
+    public long getBitstreamData(Integer bitstream_id, Path path, OpenOption... options) throws IOException {
+        InputStream in = openBitstreamData(bitstream_id);
+        try {
+            return Streams.copy(in, path, options);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Streams the content of a bitstream to a channel, through a fixed size buffer. The channel is not closed.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @param out
+     *            the destination.
+     * @return the number of bytes written.
+     * @throws IOException
+     */
+    public long getBitstreamData(Integer bitstream_id, WritableByteChannel out) throws IOException {
+        InputStream in = openBitstreamData(bitstream_id);
+        try {
+            return Streams.copy(in, out);
+        } finally {
+            in.close();
+        }
+    }
+
     /**
      * Gets the jersey client.
      * 
@@ -122,17 +211,44 @@ public class DSpaceJerseyRestClient {
         return client;
     }
 
+    /**
+     * Gets the "rest-dspace-token" sent with the requests.
+     * 
+     * @return the token of the session opened by {@link #loginJsonAsUser(User)}, or null if not logged in.
+     */
+    public String getDspaceToken() {
+        return dspaceToken;
+    }
+
+    /**
+     * Gets the retry policy of the requests.
+     * 
+     * @return the retry policy, or null if the requests are not retried.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Gets the transport used to build the jersey client.
+     * 
+     * @return the transport, or null for the default one.
+     */
+    public PooledHttpTransport getTransport() {
+        return transport;
+    }
+
     /**
      * Get the handle resource.
      * 
      * @return the handle resource.
      */
     public Handle handle() {
-        return DemoDspaceOrg_Rest.handle(client, baseUri);
+        return handle;
     }
 
     /**
-     * Builds the client and add the filter to manage the "rest-dspace-token" header.
+     * Builds the client and add the filter to manage the "rest-dspace-token" header, then builds the resources.
      * 
      * @throws URISyntaxException
      */
@@ -141,7 +257,10 @@ public class DSpaceJerseyRestClient {
         if (this.client == null) {
             ClientConfig cc = new DefaultClientConfig();
             cc.getClasses().add(JacksonJsonProvider.class);
-            this.client = Client.create(cc);
+            if (transport != null)
+                this.client = transport.newJerseyClient(cc);
+            else
+                this.client = Client.create(cc);
         }
         this.client.addFilter(new ClientFilter() {
 
@@ -158,7 +277,17 @@ public class DSpaceJerseyRestClient {
             }
 
         });
+        if (retryPolicy != null) {
+            // Added last so that it runs first, and retries through the token filter.
+            this.client.addFilter(retryPolicy.newJerseyFilter());
+        }
         this.baseUri = new URI(baseUrl);
+        this.bitstreams = DemoDspaceOrg_Rest.bitstreams(client, baseUri);
+        this.collections = DemoDspaceOrg_Rest.collections(client, baseUri);
+        this.communities = DemoDspaceOrg_Rest.communities(client, baseUri);
+        this.handle = DemoDspaceOrg_Rest.handle(client, baseUri);
+        this.items = DemoDspaceOrg_Rest.items(client, baseUri);
+        this.root = DemoDspaceOrg_Rest.root(client, baseUri);
     }
 
     /**
@@ -167,7 +296,7 @@ public class DSpaceJerseyRestClient {
      * @return the items resource.
      */
     public Items items() {
-        return DemoDspaceOrg_Rest.items(client, baseUri);
+        return items;
     }
 
     public String loginJsonAsUser(User input) {
@@ -196,13 +325,25 @@ public class DSpaceJerseyRestClient {
         }
     }
 
+    /**
+     * Opens the content of a bitstream as a live stream, read from {@link #bitstreams()}. Nothing is buffered: the
+     * caller reads directly from the connection and must close the stream to release it.
+     * 
+     * @param bitstream_id
+     *            the bitstream ID.
+     * @return the content of the bitstream.
+     */
+    public InputStream openBitstreamData(Integer bitstream_id) {
+        return bitstreams().bitstream_idRetrieve(bitstream_id).getAs(InputStream.class);
+    }
+
     /**
      * Get the root resource.
      * 
      * @return the root resource.
      */
     public Root root() {
-        return DemoDspaceOrg_Rest.root(client, baseUri);
+        return root;
     }
 
     /**
@@ -228,4 +369,33 @@ public class DSpaceJerseyRestClient {
         this.client = client;
     }
 
+    /**
+     * Sets the retry policy of the requests, added to the jersey client in {@link #init()}.
+     * 
+     * @param retryPolicy
+     *            the retry policy, null for no retry.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Sets the transport used to build the jersey client in {@link #init()}, when no client is set.
+     * 
+     * @param transport
+     *            the transport, null for the default URLConnection handler of Jersey.
+     */
+    public void setTransport(PooledHttpTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Gets the status of the session, read from {@link #root()}.
+     * 
+     * @return the status, telling whether the token is still authenticated.
+     */
+    public Status status() {
+        return this.root().status().getAsJson(Status.class);
+    }
+
 }
@@ -0,0 +1,137 @@
+package com.idmgroup.dspace.rest.jersey;
+
+import java.net.URISyntaxException;
+
+import javax.ws.rs.WebApplicationException;
+
+import com.idmgroup.dspace.rest.AbstractSessionManager;
+import com.idmgroup.dspace.rest.PooledHttpTransport;
+import com.sun.jersey.api.client.UniformInterfaceException;
+
+/**
+ * Keeps one authenticated session per user for the Jersey client, as {@link com.idmgroup.dspace.rest.SessionManager}
+ * does for the Spring one.
+ * 
+ * Each session is a {@link DSpaceJerseyRestClient} of its own, with its own Jersey client since the token is added by
+ * a filter of the client. Give the manager a {@link PooledHttpTransport} so that the sessions share one pool of
+ * connections. When DSpace answers 401 or 403, the manager asks {@link DSpaceJerseyRestClient#status()} whether the
+ * session is still authenticated, logs in again if not, and calls once more. E.g.:
+ * 
+ * <pre>
+ * JerseySessionManager sessions = new JerseySessionManager("https://demo.dspace.org/rest", transport);
+ * Community created = sessions.execute(user, new JerseySessionCallback&lt;Community&gt;() {
+ * 
+ *     &#64;Override
+ *     public Community doWithClient(DSpaceJerseyRestClient client) {
+ *         return client.communities().postJsonAs(community, Community.class);
+ *     }
+ * 
+ * });
+ * </pre>
+ * 
+ * This class is thread-safe. The users are told apart by their e-mail.
+ * 
+ * @author arnaud
+ */
+public class JerseySessionManager extends AbstractSessionManager<DSpaceJerseyRestClient> {
+
+    private final String baseUrl;
+
+    private final PooledHttpTransport transport;
+
+    /**
+     * New instance.
+     * 
+     * @param baseUrl
+     *            the base URL of the DSpace REST API, e.g. "https://demo.dspace.org/rest".
+     * @param transport
+     *            the transport shared by the sessions, null for the default URLConnection handler of Jersey.
+     */
+    public JerseySessionManager(String baseUrl, PooledHttpTransport transport) {
+        this.baseUrl = baseUrl;
+        this.transport = transport;
+    }
+
+    /**
+     * Calls DSpace as a user, logging in first if needed, and once more if the session expired.
+     * 
+     * @param user
+     *            the user.
+     * @param callback
+     *            makes the requests, called again if the session expired.
+     * @return the result of the callback.
+     * @throws WebApplicationException
+     *             403 when the user is not allowed, or cannot log in.
+     */
+    public <T> T execute(User user, final JerseySessionCallback<T> callback) {
+        return call(user, new Call<DSpaceJerseyRestClient, T>() {
+
+            @Override
+            public T call(DSpaceJerseyRestClient client) {
+                return callback.doWithClient(client);
+            }
+
+        });
+    }
+
+    /**
+     * Gets the base URL of the DSpace REST API.
+     * 
+     * @return the base URL.
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    protected String getToken(DSpaceJerseyRestClient client) {
+        return client.getDspaceToken();
+    }
+
+    @Override
+    protected boolean isAuthenticated(DSpaceJerseyRestClient client) {
+        Status status = client.status();
+        return status != null && status.isAuthenticated();
+    }
+
+    @Override
+    protected boolean isRefused(RuntimeException error) {
+        int status;
+        if (error instanceof WebApplicationException)
+            status = ((WebApplicationException) error).getResponse().getStatus();
+        else if (error instanceof UniformInterfaceException)
+            status = ((UniformInterfaceException) error).getResponse().getStatus();
+        else
+            return false;
+        return status == 401 || status == 403;
+    }
+
+    @Override
+    protected String login(DSpaceJerseyRestClient client, User user) {
+        return client.loginJsonAsUser(user);
+    }
+
+    @Override
+    protected void logout(DSpaceJerseyRestClient client) {
+        client.logout();
+    }
+
+    /**
+     * Creates the client of a new session, with a Jersey client of its own built by the transport. Can be overridden,
+     * e.g. to set a {@link com.idmgroup.dspace.rest.RetryPolicy}.
+     * 
+     * @return the client, initialized and not logged in.
+     */
+    @Override
+    protected DSpaceJerseyRestClient newClient() {
+        DSpaceJerseyRestClient client = new DSpaceJerseyRestClient(baseUrl);
+        client.setTransport(transport);
+        try {
+            client.init();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("invalid base URL: " + baseUrl, e);
+        }
+        return client;
+    }
+
+}
@@ -0,0 +1,1518 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.CheckSum;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+import com.idmgroup.dspace.rest.jersey.ResourcePolicy;
+import com.idmgroup.dspace.rest.jersey.Status;
+
+/**
+ * In-memory DSpace repository behind {@link StubDSpaceServer}: communities, collections, items, bitstreams, handles
+ * and sessions.
+ * 
+ * The objects are kept as internal nodes and converted to new REST objects for each call, expanded as requested, the
+ * way DSpace does. The listings are ordered by ID and paged with a limit of 100 by default. The methods return null
+ * or false when the object is not found. All the methods are synchronized.
+ * 
+ * A synthetic repository of any size can be seeded with {@link #seed(int, int, int)}, the content of the seeded
+ * bitstreams being {@link SyntheticInputStream}s that are never held in memory.
+ * 
+ * @author arnaud
+ */
+public class StubDSpaceRepository {
+
+    private static class BitstreamNode extends Node {
+
+        private String bundleName = "ORIGINAL";
+
+        private String checksum;
+
+        private byte[] data;
+
+        private String description;
+
+        private String format;
+
+        private String mimeType;
+
+        private ItemNode owner;
+
+        private final List<ResourcePolicy> policies = new ArrayList<ResourcePolicy>();
+
+        private int sequenceId;
+
+        private long size;
+
+        private BitstreamNode(int id) {
+            super(id);
+        }
+
+        private InputStream open(long start, long end) {
+            if (data == null)
+                return new SyntheticInputStream(start, end);
+            return new ByteArrayInputStream(data, (int) start, (int) (end - start));
+        }
+
+    }
+
+    private static class CollectionNode extends Node {
+
+        private String copyrightText;
+
+        private String introductoryText;
+
+        private final List<ItemNode> items = new ArrayList<ItemNode>();
+
+        private String license;
+
+        private CommunityNode parent;
+
+        private String shortDescription;
+
+        private String sidebarText;
+
+        private CollectionNode(int id) {
+            super(id);
+        }
+
+    }
+
+    private static class CommunityNode extends Node {
+
+        private final List<CollectionNode> collections = new ArrayList<CollectionNode>();
+
+        private String copyrightText;
+
+        private String introductoryText;
+
+        private CommunityNode parent;
+
+        private String shortDescription;
+
+        private String sidebarText;
+
+        private final List<CommunityNode> subcommunities = new ArrayList<CommunityNode>();
+
+        private CommunityNode(int id) {
+            super(id);
+        }
+
+    }
+
+    /**
+     * Content of a bitstream, or a range of it.
+     */
+    public static class Content {
+
+        private final byte[] data;
+
+        private final long end;
+
+        private final String mimeType;
+
+        private final long size;
+
+        private final long start;
+
+        private Content(BitstreamNode node, long start, long end) {
+            this.data = node.data;
+            this.mimeType = node.mimeType;
+            this.size = node.size;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Gets the position after the last byte of the range.
+         * 
+         * @return the end position.
+         */
+        public long getEnd() {
+            return end;
+        }
+
+        /**
+         * Gets the MIME type of the bitstream.
+         * 
+         * @return the MIME type.
+         */
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /**
+         * Gets the size of the whole bitstream.
+         * 
+         * @return the size in bytes.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the position of the first byte of the range.
+         * 
+         * @return the start position.
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * Opens the range.
+         * 
+         * @return the stream of the bytes from the start to the end.
+         */
+        public InputStream open() {
+            if (data == null)
+                return new SyntheticInputStream(start, end);
+            return new ByteArrayInputStream(data, (int) start, (int) (end - start));
+        }
+
+    }
+
+    private static class ItemNode extends Node {
+
+        private final List<BitstreamNode> bitstreams = new ArrayList<BitstreamNode>();
+
+        private long lastModified;
+
+        private final List<MetadataEntry> metadata = new ArrayList<MetadataEntry>();
+
+        private CollectionNode owner;
+
+        private ItemNode(int id) {
+            super(id);
+        }
+
+    }
+
+    private static abstract class Node {
+
+        protected String handle;
+
+        protected final int id;
+
+        protected String name;
+
+        private Node(int id) {
+            this.id = id;
+        }
+
+    }
+
+    private static final String[] BITSTREAM_EXPAND = { "parent", "policies", "all" };
+
+    private static final String[] COLLECTION_EXPAND = { "parentCommunityList", "parentCommunity", "items", "license",
+            "logo", "all" };
+
+    private static final String[] COMMUNITY_EXPAND = { "parentCommunity", "collections", "subCommunities", "logo",
+            "all" };
+
+    /**
+     * Formats of the uploaded bitstreams by file extension: MIME type and short description, as in the DSpace
+     * bitstream format registry.
+     */
+    private static final Map<String, String[]> FORMATS = new HashMap<String, String[]>();
+
+    private static final String HANDLE_PREFIX = "123456789";
+
+    private static final String[] ITEM_EXPAND = { "metadata", "parentCollection", "parentCollectionList",
+            "parentCommunityList", "bitstreams", "all" };
+
+    private static final int LIMIT = 100;
+
+    private static final String[] METADATA_KEYS = { "dc.contributor.author", "dc.date.issued",
+            "dc.description.abstract", "dc.identifier.uri", "dc.language.iso", "dc.publisher", "dc.subject",
+            "dc.type" };
+
+    private static final String[] UNKNOWN_FORMAT = { "application/octet-stream", "application/octet-stream" };
+
+    static {
+        FORMATS.put("gif", new String[] { "image/gif", "GIF" });
+        FORMATS.put("htm", new String[] { "text/html", "HTML" });
+        FORMATS.put("html", new String[] { "text/html", "HTML" });
+        FORMATS.put("jpeg", new String[] { "image/jpeg", "JPEG" });
+        FORMATS.put("jpg", new String[] { "image/jpeg", "JPEG" });
+        FORMATS.put("pdf", new String[] { "application/pdf", "Adobe PDF" });
+        FORMATS.put("png", new String[] { "image/png", "image/png" });
+        FORMATS.put("txt", new String[] { "text/plain", "Text" });
+        FORMATS.put("xml", new String[] { "text/xml", "XML" });
+    }
+
+    private static Set<String> expandSet(String expand) {
+        if (expand == null || expand.isEmpty())
+            return Collections.emptySet();
+        return new HashSet<String>(Arrays.asList(expand.split(",")));
+    }
+
+    private static boolean expanded(Set<String> expand, String name) {
+        return expand.contains(name) || expand.contains("all");
+    }
+
+    private static String formatDate(long millis) {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(millis));
+    }
+
+    private static <T> List<T> page(List<T> list, Integer limit, Integer offset) {
+        int from = Math.min(list.size(), offset == null ? 0 : Math.max(0, offset));
+        int to = Math.min(list.size(), from + (limit == null ? LIMIT : Math.max(0, limit)));
+        return list.subList(from, to);
+    }
+
+    private static <T> List<T> page(Map<Integer, T> map, Integer limit, Integer offset) {
+        return page(new ArrayList<T>(map.values()), limit, offset);
+    }
+
+    private static void setExpand(DSpaceObject object, String[] available, Set<String> expand) {
+        for (String name : available) {
+            if (!expand.contains(name) && !expand.contains("all")) {
+                object.getExpand().add(name);
+            }
+        }
+    }
+
+    private static String title(List<MetadataEntry> metadata) {
+        for (MetadataEntry entry : metadata) {
+            if ("dc.title".equals(entry.getKey()))
+                return entry.getValue();
+        }
+        return null;
+    }
+
+    private final Map<Integer, BitstreamNode> bitstreams = new TreeMap<Integer, BitstreamNode>();
+
+    private final Map<Integer, CollectionNode> collections = new TreeMap<Integer, CollectionNode>();
+
+    private final Map<Integer, CommunityNode> communities = new TreeMap<Integer, CommunityNode>();
+
+    private final Map<String, Node> handles = new HashMap<String, Node>();
+
+    private final Map<Integer, ItemNode> items = new TreeMap<Integer, ItemNode>();
+
+    private int lastHandle;
+
+    private int lastId;
+
+    private int lastPolicyId;
+
+    private final Map<String, String> passwords = new HashMap<String, String>();
+
+    private int seedBitstreams = 1;
+
+    private long seedBitstreamSize = 4096;
+
+    private int seedMetadataEntries = 10;
+
+    private int seedSubcommunities = 0;
+
+    private final Map<String, String> sessions = new HashMap<String, String>();
+
+    /**
+     * Adds a policy to a bitstream.
+     * 
+     * @param bitstreamId
+     *            the bitstream ID.
+     * @param policy
+     *            the policy, given an ID.
+     * @return false if the bitstream is not found.
+     */
+    public synchronized boolean addBitstreamPolicy(int bitstreamId, ResourcePolicy policy) {
+        BitstreamNode node = bitstreams.get(bitstreamId);
+        if (node == null)
+            return false;
+        policy.setId(++lastPolicyId);
+        policy.setResourceId(bitstreamId);
+        policy.setResourceType("bitstream");
+        node.policies.add(policy);
+        return true;
+    }
+
+    /**
+     * Adds a bitstream to an item.
+     * 
+     * @param itemId
+     *            the item ID.
+     * @param name
+     *            the file name, whose extension gives the format.
+     * @param description
+     *            the description.
+     * @param data
+     *            the content.
+     * @return the bitstream, or null if the item is not found.
+     */
+    public synchronized Bitstream addItemBitstream(int itemId, String name, String description, byte[] data) {
+        ItemNode item = items.get(itemId);
+        if (item == null)
+            return null;
+        BitstreamNode node = newBitstream(item, name, description);
+        setData(node, data);
+        item.lastModified = System.currentTimeMillis();
+        return toBitstream(node, Collections.<String> emptySet());
+    }
+
+    /**
+     * Adds metadata entries to an item.
+     * 
+     * @param itemId
+     *            the item ID.
+     * @param entries
+     *            the entries.
+     * @return false if the item is not found.
+     */
+    public synchronized boolean addItemMetadata(int itemId, List<MetadataEntry> entries) {
+        ItemNode node = items.get(itemId);
+        if (node == null)
+            return false;
+        for (MetadataEntry entry : entries) {
+            node.metadata.add(copy(entry));
+        }
+        touch(node);
+        return true;
+    }
+
+    /**
+     * Registers a user who can log in.
+     * 
+     * @param email
+     *            the e-mail.
+     * @param password
+     *            the password.
+     */
+    public synchronized void addUser(String email, String password) {
+        passwords.put(email, password);
+    }
+
+    private String checksum(BitstreamNode node) {
+        if (node.checksum == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("MD5");
+                InputStream in = node.open(0, node.size);
+                byte[] buffer = new byte[Streams.BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+                node.checksum = Streams.toHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return node.checksum;
+    }
+
+    private int collectionItemCount(CollectionNode node) {
+        return node.items.size();
+    }
+
+    private int communityItemCount(CommunityNode node) {
+        int count = 0;
+        for (CollectionNode collection : node.collections) {
+            count += collectionItemCount(collection);
+        }
+        for (CommunityNode sub : node.subcommunities) {
+            count += communityItemCount(sub);
+        }
+        return count;
+    }
+
+    private MetadataEntry copy(MetadataEntry entry) {
+        MetadataEntry result = new MetadataEntry();
+        result.setKey(entry.getKey());
+        result.setLanguage(entry.getLanguage());
+        result.setValue(entry.getValue());
+        return result;
+    }
+
+    /**
+     * Creates a collection in a community.
+     * 
+     * @param communityId
+     *            the community ID.
+     * @param collection
+     *            the name and texts of the collection.
+     * @return the collection, or null if the community is not found.
+     */
+    public synchronized Collection createCollection(int communityId, Collection collection) {
+        CommunityNode parent = communities.get(communityId);
+        if (parent == null)
+            return null;
+        CollectionNode node = new CollectionNode(++lastId);
+        node.parent = parent;
+        setFields(node, collection);
+        register(node);
+        collections.put(node.id, node);
+        parent.collections.add(node);
+        return toCollection(node, Collections.<String> emptySet(), null, null);
+    }
+
+    /**
+     * Creates a community.
+     * 
+     * @param parentId
+     *            the parent community ID, or null for a top community.
+     * @param community
+     *            the name and texts of the community.
+     * @return the community, or null if the parent community is not found.
+     */
+    public synchronized Community createCommunity(Integer parentId, Community community) {
+        CommunityNode parent = null;
+        if (parentId != null) {
+            parent = communities.get(parentId);
+            if (parent == null)
+                return null;
+        }
+        CommunityNode node = new CommunityNode(++lastId);
+        node.parent = parent;
+        setFields(node, community);
+        register(node);
+        communities.put(node.id, node);
+        if (parent != null) {
+            parent.subcommunities.add(node);
+        }
+        return toCommunity(node, Collections.<String> emptySet());
+    }
+
+    /**
+     * Creates an item in a collection.
+     * 
+     * @param collectionId
+     *            the collection ID.
+     * @param item
+     *            the metadata of the item.
+     * @return the item, or null if the collection is not found.
+     */
+    public synchronized Item createItem(int collectionId, Item item) {
+        CollectionNode owner = collections.get(collectionId);
+        if (owner == null)
+            return null;
+        ItemNode node = new ItemNode(++lastId);
+        node.owner = owner;
+        for (MetadataEntry entry : item.getMetadata()) {
+            node.metadata.add(copy(entry));
+        }
+        touch(node);
+        register(node);
+        items.put(node.id, node);
+        owner.items.add(node);
+        return toItem(node, Collections.<String> emptySet());
+    }
+
+    /**
+     * Deletes a bitstream.
+     * 
+     * @param bitstreamId
+     *            the bitstream ID.
+     * @return false if the bitstream is not found.
+     */
+    public synchronized boolean deleteBitstream(int bitstreamId) {
+        BitstreamNode node = bitstreams.get(bitstreamId);
+        if (node == null)
+            return false;
+        remove(node);
+        node.owner.bitstreams.remove(node);
+        node.owner.lastModified = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Deletes a policy of a bitstream.
+     * 
+     * @param bitstreamId
+     *            the bitstream ID.
+     * @param policyId
+     *            the policy ID.
+     * @return false if the bitstream or the policy is not found.
+     */
+    public synchronized boolean deleteBitstreamPolicy(int bitstreamId, int policyId) {
+        BitstreamNode node = bitstreams.get(bitstreamId);
+        if (node == null)
+            return false;
+        for (Iterator<ResourcePolicy> it = node.policies.iterator(); it.hasNext();) {
+            if (it.next().getId() == policyId) {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes a collection with its items.
+     * 
+     * @param collectionId
+     *            the collection ID.
+     * @return false if the collection is not found.
+     */
+    public synchronized boolean deleteCollection(int collectionId) {
+        CollectionNode node = collections.get(collectionId);
+        if (node == null)
+            return false;
+        node.parent.collections.remove(node);
+        remove(node);
+        return true;
+    }
+
+    /**
+     * Deletes a community with its subcommunities, collections and items.
+     * 
+     * @param communityId
+     *            the community ID.
+     * @return false if the community is not found.
+     */
+    public synchronized boolean deleteCommunity(int communityId) {
+        CommunityNode node = communities.get(communityId);
+        if (node == null)
+            return false;
+        if (node.parent != null) {
+            node.parent.subcommunities.remove(node);
+        }
+        remove(node);
+        return true;
+    }
+
+    /**
+     * Deletes an item with its bitstreams.
+     * 
+     * @param itemId
+     *            the item ID.
+     * @return false if the item is not found.
+     */
+    public synchronized boolean deleteItem(int itemId) {
+        ItemNode node = items.get(itemId);
+        if (node == null)
+            return false;
+        node.owner.items.remove(node);
+        remove(node);
+        return true;
+    }
+
+    /**
+     * Deletes all the metadata of an item.
+     * 
+     * @param itemId
+     *            the item ID.
+     * @return false if the item is not found.
+     */
+    public synchronized boolean deleteItemMetadata(int itemId) {
+        ItemNode node = items.get(itemId);
+        if (node == null)
+            return false;
+        node.metadata.clear();
+        touch(node);
+        return true;
+    }
+
+    /**
+     * Finds the collections by name.
+     * 
+     * @param name
+     *            the name.
+     * @return the collections.
+     */
+    public synchronized Collection[] findCollectionsByName(String name) {
+        List<Collection> result = new ArrayList<Collection>();
+        for (CollectionNode node : collections.values()) {
+            if (node.name != null && node.name.equals(name)) {
+                result.add(toCollection(node, Collections.<String> emptySet(), null, null));
+            }
+        }
+        return result.toArray(new Collection[result.size()]);
+    }
+
+    /**
+     * Finds the items having a metadata entry.
+     * 
+     * @param entry
+     *            the key, value and optional language of the entry.
+     * @param expand
+     *            the fields to expand, e.g. "metadata", or null.
+     * @return the items.
+     */
+    public synchronized Item[] findItemsByMetadataField(MetadataEntry entry, String expand) {
+        Set<String> expandSet = expandSet(expand);
+        List<Item> result = new ArrayList<Item>();
+        for (ItemNode node : items.values()) {
+            for (MetadataEntry candidate : node.metadata) {
+                if (candidate.getKey().equals(entry.getKey()) && candidate.getValue().equals(entry.getValue())
+                        && (entry.getLanguage() == null || entry.getLanguage().equals(candidate.getLanguage()))) {
+                    result.add(toItem(node, expandSet));
+                    break;
+                }
+            }
+        }
+        return result.toArray(new Item[result.size()]);
+    }
+
+    /**
+     * Gets a bitstream.
+     * 
+     * @param bitstreamId
+     *            the bitstream ID.
+     * @param expand
+     *            the fields to expand, or null.
+     * @return the bitstream, or null.
+     */
+    public synchronized Bitstream getBitstream(int bitstreamId, String expand) {
+        BitstreamNode node = bitstreams.get(bitstreamId);
+        if (node == null)
+            return null;
+        return toBitstream(node, expandSet(expand));
+    }
+
+    /**
+     * Gets the content of a bitstream, or a range of it.
+     * 
+     * @param bitstreamId
+     *            the bitstream ID.
+     * @param start
+     *            the position of the first byte.
+     * @param end
+     *            the position after the last byte, -1 for the end of the bitstream.
+     * @return the content, or null.
+     */
+    public synchronized Content getBitstreamContent(int bitstreamId, long start, long end) {
+        BitstreamNode node = bitstreams.get(bitstreamId);
+        if (node == null)
+            return null;
+        long to = end < 0 ? node.size : Math.min(end, node.size);
+        return new Content(node, Math.min(start, to), to);
+    }
+
+    /**
+     * Gets the policies of a bitstream.
+     * 
+     * @param bitstreamId
+     *            the bitstream ID.
+     * @return the policies, or null.
+     */
+    public synchronized ResourcePolicy[] getBitstreamPolicies(int bitstreamId) {
+        BitstreamNode node = bitstreams.get(bitstreamId);
+        if (node == null)
+            return null;
+        return node.policies.toArray(new ResourcePolicy[node.policies.size()]);
+    }
+
+    /**
+     * Gets a page of all the bitstreams.
+     * 
+     * @param expand
+     *            the fields to expand, or null.
+     * @param limit
+     *            the page size, 100 if null.
+     * @param offset
+     *            the offset, 0 if null.
+     * @return the bitstreams.
+     */
+    public synchronized Bitstream[] getBitstreams(String expand, Integer limit, Integer offset) {
+        Set<String> expandSet = expandSet(expand);
+        List<Bitstream> result = new ArrayList<Bitstream>();
+        for (BitstreamNode node : page(bitstreams, limit, offset)) {
+            result.add(toBitstream(node, expandSet));
+        }
+        return result.toArray(new Bitstream[result.size()]);
+    }
+
+    /**
+     * Gets a collection.
+     * 
+     * @param collectionId
+     *            the collection ID.
+     * @param expand
+     *            the fields to expand, or null.
+     * @param limit
+     *            the number of items when expanded, 100 if null.
+     * @param offset
+     *            the offset of the items when expanded, 0 if null.
+     * @return the collection, or null.
+     */
+    public synchronized Collection getCollection(int collectionId, String expand, Integer limit, Integer offset) {
+        CollectionNode node = collections.get(collectionId);
+        if (node == null)
+            return null;
+        return toCollection(node, expandSet(expand), limit, offset);
+    }
+
+    /**
+     * Gets a page of the items of a collection.
+     * 
+     * @param collectionId
+     *            the collection ID.
+     * @param expand
+     *            the fields to expand, or null.
+     * @param limit
+     *            the page size, 100 if null.
+     * @param offset
+     *            the offset, 0 if null.
+     * @return the items, or null if the collection is not found.
+     */
+    public synchronized Item[] getCollectionItems(int collectionId, String expand, Integer limit, Integer offset) {
+        CollectionNode node = collections.get(collectionId);
+        if (node == null)
+            return null;
+        return toItems(page(node.items, limit, offset), expandSet(expand));
+    }
+
+    /**
+     * Gets a page of all the collections.
+     * 
+     * @param expand
+     *            the fields to expand, or null.
+     * @param limit
+     *            the page size, 100 if null.
+     * @param offset
+     *            the offset, 0 if null.
+     * @return the collections.
+     */
+    public synchronized Collection[] getCollections(String expand, Integer limit, Integer offset) {
+        return toCollections(page(collections, limit, offset), expandSet(expand));
+    }
+
+    /**
+     * Gets a page of all the communities.
+     * 
+     * @param expand
+     *            the fields to expand, or null.
+     * @param limit
+     *            the page size, 100 if null.
+     * @param offset
+     *            the offset, 0 if null.
+     * @return the communities.
+     */
+    public synchronized Community[] getCommunities(String expand, Integer limit, Integer offset) {
+        return toCommunities(page(communities, limit, offset), expandSet(expand));
+    }
+
+    /**
+     * Gets a community.
+     * 
+     * @param communityId
+     *            the community ID.
+     * @param expand
+     *            the fields to expand, or null.
+     * @return the community, or null.
+     */
+    public synchronized Community getCommunity(int communityId, String expand) {
+        CommunityNode node = communities.get(communityId);
+        if (node == null)
+            return null;
+        return toCommunity(node, expandSet(expand));
+    }
+
+    /**
+     * Gets a page of the collections of a community.
+     * 
+     * @param communityId
+     *            the community ID.
+     * @param expand
+     *            the fields to expand, or null.
+     * @param limit
+     *            the page size, 100 if null.
+     * @param offset
+     *            the offset, 0 if null.
+     * @return the collections, or null if the community is not found.
+     */
+    public synchronized Collection[] getCommunityCollections(int communityId, String expand, Integer limit,
+            Integer offset) {
+        CommunityNode node = communities.get(communityId);
+        if (node == null)
+            return null;
+        return toCollections(page(node.collections, limit, offset), expandSet(expand));
+    }
+
+    /**
+     * Gets a page of the subcommunities of a community.
+     * 
+     * @param communityId
+     *            the community ID.
+     * @param expand
+     *            the fields to expand, or null.
+     * @param limit
+     *            the page size, 100 if null.
+     * @param offset
+     *            the offset, 0 if null.
+     * @return the subcommunities, or null if the community is not found.
+     */
+    public synchronized Community[] getCommunityCommunities(int communityId, String expand, Integer limit,
+            Integer offset) {
+        CommunityNode node = communities.get(communityId);
+        if (node == null)
+            return null;
+        return toCommunities(page(node.subcommunities, limit, offset), expandSet(expand));
+    }
+
+    /**
+     * Gets an item.
+     * 
+     * @param itemId
+     *            the item ID.
+     * @param expand
+     *            the fields to expand, or null.
+     * @return the item, or null.
+     */
+    public synchronized Item getItem(int itemId, String expand) {
+        ItemNode node = items.get(itemId);
+        if (node == null)
+            return null;
+        return toItem(node, expandSet(expand));
+    }
+
+    /**
+     * Gets a page of the bitstreams of an item.
+     * 
+     * @param itemId
+     *            the item ID.
+     * @param limit
+     *            the page size, 100 if null.
+     * @param offset
+     *            the offset, 0 if null.
+     * @return the bitstreams, or null if the item is not found.
+     */
+    public synchronized Bitstream[] getItemBitstreams(int itemId, Integer limit, Integer offset) {
+        ItemNode node = items.get(itemId);
+        if (node == null)
+            return null;
+        List<Bitstream> result = new ArrayList<Bitstream>();
+        for (BitstreamNode bitstream : page(node.bitstreams, limit, offset)) {
+            result.add(toBitstream(bitstream, Collections.<String> emptySet()));
+        }
+        return result.toArray(new Bitstream[result.size()]);
+    }
+
+    /**
+     * Gets the metadata of an item.
+     * 
+     * @param itemId
+     *            the item ID.
+     * @return the metadata entries, or null if the item is not found.
+     */
+    public synchronized MetadataEntry[] getItemMetadata(int itemId) {
+        ItemNode node = items.get(itemId);
+        if (node == null)
+            return null;
+        MetadataEntry[] result = new MetadataEntry[node.metadata.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = copy(node.metadata.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Gets a page of all the items.
+     * 
+     * @param expand
+     *            the fields to expand, or null.
+     * @param limit
+     *            the page size, 100 if null.
+     * @param offset
+     *            the offset, 0 if null.
+     * @return the items.
+     */
+    public synchronized Item[] getItems(String expand, Integer limit, Integer offset) {
+        return toItems(page(items, limit, offset), expandSet(expand));
+    }
+
+    /**
+     * Gets the number of bitstreams of the seeded items.
+     * 
+     * @return the number of bitstreams per item.
+     */
+    public synchronized int getSeedBitstreams() {
+        return seedBitstreams;
+    }
+
+    /**
+     * Gets the size of the seeded bitstreams.
+     * 
+     * @return the size in bytes.
+     */
+    public synchronized long getSeedBitstreamSize() {
+        return seedBitstreamSize;
+    }
+
+    /**
+     * Gets the number of metadata entries of the seeded items, besides the title.
+     * 
+     * @return the number of metadata entries per item.
+     */
+    public synchronized int getSeedMetadataEntries() {
+        return seedMetadataEntries;
+    }
+
+    /**
+     * Gets the number of subcommunities of the seeded communities.
+     * 
+     * @return the number of subcommunities per top community.
+     */
+    public synchronized int getSeedSubcommunities() {
+        return seedSubcommunities;
+    }
+
+    /**
+     * Gets a page of the top communities.
+     * 
+     * @param expand
+     *            the fields to expand, or null.
+     * @param limit
+     *            the page size, 100 if null.
+     * @param offset
+     *            the offset, 0 if null.
+     * @return the top communities.
+     */
+    public synchronized Community[] getTopCommunities(String expand, Integer limit, Integer offset) {
+        List<CommunityNode> top = new ArrayList<CommunityNode>();
+        for (CommunityNode node : communities.values()) {
+            if (node.parent == null) {
+                top.add(node);
+            }
+        }
+        return toCommunities(page(top, limit, offset), expandSet(expand));
+    }
+
+    /**
+     * Tells whether a token belongs to a session.
+     * 
+     * @param token
+     *            the "rest-dspace-token", possibly null.
+     * @return true if the session is open.
+     */
+    public synchronized boolean isAuthenticated(String token) {
+        return token != null && sessions.containsKey(token);
+    }
+
+    /**
+     * Opens a session.
+     * 
+     * @param email
+     *            the e-mail of the user.
+     * @param password
+     *            the password.
+     * @return the token, or null if the credentials are wrong.
+     */
+    public synchronized String login(String email, String password) {
+        if (email == null || password == null || !password.equals(passwords.get(email)))
+            return null;
+        String token = UUID.randomUUID().toString();
+        sessions.put(token, email);
+        return token;
+    }
+
+    /**
+     * Closes a session.
+     * 
+     * @param token
+     *            the token of the session.
+     * @return false if there was no such session.
+     */
+    public synchronized boolean logout(String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    private BitstreamNode newBitstream(ItemNode item, String name, String description) {
+        BitstreamNode node = new BitstreamNode(++lastId);
+        node.owner = item;
+        node.name = name;
+        node.description = description;
+        node.sequenceId = item.bitstreams.size() + 1;
+        String extension = name == null ? "" : name.replaceAll("^.*\\.", "").toLowerCase();
+        String[] format = FORMATS.containsKey(extension) ? FORMATS.get(extension) : UNKNOWN_FORMAT;
+        node.mimeType = format[0];
+        node.format = format[1];
+        bitstreams.put(node.id, node);
+        item.bitstreams.add(node);
+        return node;
+    }
+
+    private void register(Node node) {
+        node.handle = HANDLE_PREFIX + "/" + (++lastHandle);
+        handles.put(node.handle, node);
+    }
+
+    private void remove(Node node) {
+        if (node instanceof CommunityNode) {
+            CommunityNode community = (CommunityNode) node;
+            for (CommunityNode sub : community.subcommunities) {
+                remove(sub);
+            }
+            for (CollectionNode collection : community.collections) {
+                remove(collection);
+            }
+            communities.remove(node.id);
+        } else if (node instanceof CollectionNode) {
+            for (ItemNode item : ((CollectionNode) node).items) {
+                remove(item);
+            }
+            collections.remove(node.id);
+        } else if (node instanceof ItemNode) {
+            for (BitstreamNode bitstream : ((ItemNode) node).bitstreams) {
+                remove(bitstream);
+            }
+            items.remove(node.id);
+        } else {
+            bitstreams.remove(node.id);
+        }
+        if (node.handle != null) {
+            handles.remove(node.handle);
+        }
+    }
+
+    /**
+     * Resolves a handle.
+     * 
+     * @param prefix
+     *            the handle prefix, e.g. "123456789".
+     * @param suffix
+     *            the handle suffix.
+     * @param expand
+     *            the fields to expand, or null.
+     * @return the community, collection or item, or null.
+     */
+    public synchronized DSpaceObject resolveHandle(String prefix, String suffix, String expand) {
+        Node node = handles.get(prefix + "/" + suffix);
+        if (node instanceof CommunityNode)
+            return toCommunity((CommunityNode) node, expandSet(expand));
+        if (node instanceof CollectionNode)
+            return toCollection((CollectionNode) node, expandSet(expand), null, null);
+        if (node instanceof ItemNode)
+            return toItem((ItemNode) node, expandSet(expand));
+        return null;
+    }
+
+    /**
+     * Seeds a synthetic repository: top communities holding collections of items, each item having the metadata
+     * entries and bitstreams given by the seed properties, e.g. {@link #setSeedMetadataEntries(int)}.
+     * 
+     * @param communities
+     *            the number of top communities.
+     * @param collectionsPerCommunity
+     *            the number of collections of each community, and of each subcommunity.
+     * @param itemsPerCollection
+     *            the number of items of each collection.
+     */
+    public synchronized void seed(int communities, int collectionsPerCommunity, int itemsPerCollection) {
+        for (int i = 0; i < communities; ++i) {
+            Community community = new Community();
+            community.setName("Community " + (i + 1));
+            community.setShortDescription("Synthetic community " + (i + 1));
+            int communityId = createCommunity(null, community).getId();
+            seedCollections(communityId, collectionsPerCommunity, itemsPerCollection);
+            for (int j = 0; j < seedSubcommunities; ++j) {
+                Community sub = new Community();
+                sub.setName("Community " + (i + 1) + "." + (j + 1));
+                sub.setShortDescription("Synthetic subcommunity " + (i + 1) + "." + (j + 1));
+                int subId = createCommunity(communityId, sub).getId();
+                seedCollections(subId, collectionsPerCommunity, itemsPerCollection);
+            }
+        }
+    }
+
+    private void seedCollections(int communityId, int collectionsPerCommunity, int itemsPerCollection) {
+        for (int i = 0; i < collectionsPerCommunity; ++i) {
+            Collection collection = new Collection();
+            collection.setName("Collection " + communityId + "." + (i + 1));
+            collection.setShortDescription("Synthetic collection " + communityId + "." + (i + 1));
+            int collectionId = createCollection(communityId, collection).getId();
+            for (int j = 0; j < itemsPerCollection; ++j) {
+                seedItem(collectionId, j + 1);
+            }
+        }
+    }
+
+    private void seedItem(int collectionId, int number) {
+        Item item = new Item();
+        MetadataEntry title = new MetadataEntry();
+        title.setKey("dc.title");
+        title.setLanguage("en_US");
+        title.setValue("Item " + collectionId + "." + number);
+        item.getMetadata().add(title);
+        for (int i = 0; i < seedMetadataEntries; ++i) {
+            MetadataEntry entry = new MetadataEntry();
+            entry.setKey(METADATA_KEYS[i % METADATA_KEYS.length]);
+            entry.setLanguage("en_US");
+            entry.setValue("Value " + (i + 1) + " of the item " + collectionId + "." + number);
+            item.getMetadata().add(entry);
+        }
+        ItemNode node = items.get(createItem(collectionId, item).getId());
+        for (int i = 0; i < seedBitstreams; ++i) {
+            BitstreamNode bitstream = newBitstream(node, "file-" + (i + 1) + ".pdf", "Synthetic bitstream");
+            // Synthetic content, its checksum is computed on first use.
+            bitstream.size = seedBitstreamSize;
+        }
+    }
+
+    private void setData(BitstreamNode node, byte[] data) {
+        node.data = data;
+        node.size = data.length;
+        node.checksum = null;
+    }
+
+    private void setFields(CollectionNode node, Collection collection) {
+        node.name = collection.getName();
+        node.copyrightText = collection.getCopyrightText();
+        node.introductoryText = collection.getIntroductoryText();
+        node.license = collection.getLicense();
+        node.shortDescription = collection.getShortDescription();
+        node.sidebarText = collection.getSidebarText();
+    }
+
+    private void setFields(CommunityNode node, Community community) {
+        node.name = community.getName();
+        node.copyrightText = community.getCopyrightText();
+        node.introductoryText = community.getIntroductoryText();
+        node.shortDescription = community.getShortDescription();
+        node.sidebarText = community.getSidebarText();
+    }
+
+    /**
+     * Sets the number of bitstreams of the seeded items.
+     * 
+     * @param seedBitstreams
+     *            the number of bitstreams per item, 1 by default.
+     */
+    public synchronized void setSeedBitstreams(int seedBitstreams) {
+        this.seedBitstreams = seedBitstreams;
+    }
+
+    /**
+     * Sets the size of the seeded bitstreams.
+     * 
+     * @param seedBitstreamSize
+     *            the size in bytes, 4096 by default.
+     */
+    public synchronized void setSeedBitstreamSize(long seedBitstreamSize) {
+        this.seedBitstreamSize = seedBitstreamSize;
+    }
+
+    /**
+     * Sets the number of metadata entries of the seeded items, besides the title.
+     * 
+     * @param seedMetadataEntries
+     *            the number of metadata entries per item, 10 by default.
+     */
+    public synchronized void setSeedMetadataEntries(int seedMetadataEntries) {
+        this.seedMetadataEntries = seedMetadataEntries;
+    }
+
+    /**
+     * Sets the number of subcommunities of the seeded communities, each holding as many collections as the top
+     * communities.
+     * 
+     * @param seedSubcommunities
+     *            the number of subcommunities per top community, 0 by default.
+     */
+    public synchronized void setSeedSubcommunities(int seedSubcommunities) {
+        this.seedSubcommunities = seedSubcommunities;
+    }
+
+    /**
+     * Gets the status of a session.
+     * 
+     * @param token
+     *            the token, possibly null.
+     * @return the status.
+     */
+    public synchronized Status status(String token) {
+        Status status = new Status();
+        status.setOkay(true);
+        String email = token == null ? null : sessions.get(token);
+        if (email != null) {
+            status.setAuthenticated(true);
+            status.setEmail(email);
+            status.setFullname(email);
+            status.setToken(token);
+        }
+        return status;
+    }
+
+    private Bitstream toBitstream(BitstreamNode node, Set<String> expand) {
+        Bitstream result = new Bitstream();
+        result.setId(node.id);
+        result.setName(node.name);
+        result.setType("bitstream");
+        result.setLink("/rest/bitstreams/" + node.id);
+        result.setBundleName(node.bundleName);
+        CheckSum checkSum = new CheckSum();
+        checkSum.setCheckSumAlgorithm("MD5");
+        checkSum.setValue(checksum(node));
+        result.setCheckSum(checkSum);
+        result.setDescription(node.description);
+        result.setFormat(node.format);
+        result.setMimeType(node.mimeType);
+        result.setRetrieveLink("/bitstreams/" + node.id + "/retrieve");
+        result.setSequenceId(node.sequenceId);
+        result.setSizeBytes(node.size);
+        if (expanded(expand, "parent")) {
+            result.setParentObject(toItem(node.owner, Collections.<String> emptySet()));
+        }
+        if (expanded(expand, "policies")) {
+            result.getPolicies().addAll(node.policies);
+        }
+        setExpand(result, BITSTREAM_EXPAND, expand);
+        return result;
+    }
+
+    private Collection toCollection(CollectionNode node, Set<String> expand, Integer limit, Integer offset) {
+        Collection result = new Collection();
+        result.setId(node.id);
+        result.setName(node.name);
+        result.setHandle(node.handle);
+        result.setType("collection");
+        result.setLink("/rest/collections/" + node.id);
+        result.setCopyrightText(node.copyrightText);
+        result.setIntroductoryText(node.introductoryText);
+        result.setNumberItems(collectionItemCount(node));
+        result.setShortDescription(node.shortDescription);
+        result.setSidebarText(node.sidebarText);
+        if (expanded(expand, "license")) {
+            result.setLicense(node.license);
+        }
+        if (expanded(expand, "parentCommunity")) {
+            result.setParentCommunity(toCommunity(node.parent, Collections.<String> emptySet()));
+        }
+        if (expanded(expand, "parentCommunityList")) {
+            for (CommunityNode parent = node.parent; parent != null; parent = parent.parent) {
+                result.getParentCommunityList().add(0, toCommunity(parent, Collections.<String> emptySet()));
+            }
+        }
+        if (expanded(expand, "items")) {
+            for (ItemNode item : page(node.items, limit, offset)) {
+                result.getItems().add(toItem(item, Collections.<String> emptySet()));
+            }
+        }
+        setExpand(result, COLLECTION_EXPAND, expand);
+        return result;
+    }
+
+    private Collection[] toCollections(List<CollectionNode> nodes, Set<String> expand) {
+        Collection[] result = new Collection[nodes.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = toCollection(nodes.get(i), expand, null, null);
+        }
+        return result;
+    }
+
+    private Community[] toCommunities(List<CommunityNode> nodes, Set<String> expand) {
+        Community[] result = new Community[nodes.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = toCommunity(nodes.get(i), expand);
+        }
+        return result;
+    }
+
+    private Community toCommunity(CommunityNode node, Set<String> expand) {
+        Community result = new Community();
+        result.setId(node.id);
+        result.setName(node.name);
+        result.setHandle(node.handle);
+        result.setType("community");
+        result.setLink("/rest/communities/" + node.id);
+        result.setCopyrightText(node.copyrightText);
+        result.setCountItems(communityItemCount(node));
+        result.setIntroductoryText(node.introductoryText);
+        result.setShortDescription(node.shortDescription);
+        result.setSidebarText(node.sidebarText);
+        if (expanded(expand, "parentCommunity") && node.parent != null) {
+            result.setParentCommunity(toCommunity(node.parent, Collections.<String> emptySet()));
+        }
+        if (expanded(expand, "collections")) {
+            for (CollectionNode collection : node.collections) {
+                result.getCollections().add(toCollection(collection, Collections.<String> emptySet(), null, null));
+            }
+        }
+        if (expanded(expand, "subCommunities")) {
+            for (CommunityNode sub : node.subcommunities) {
+                result.getSubcommunities().add(toCommunity(sub, Collections.<String> emptySet()));
+            }
+        }
+        setExpand(result, COMMUNITY_EXPAND, expand);
+        return result;
+    }
+
+    private Item toItem(ItemNode node, Set<String> expand) {
+        Item result = new Item();
+        result.setId(node.id);
+        result.setName(node.name);
+        result.setHandle(node.handle);
+        result.setType("item");
+        result.setLink("/rest/items/" + node.id);
+        result.setArchived("true");
+        result.setWithdrawn("false");
+        result.setLastModified(formatDate(node.lastModified));
+        if (expanded(expand, "metadata")) {
+            for (MetadataEntry entry : node.metadata) {
+                result.getMetadata().add(copy(entry));
+            }
+        }
+        if (expanded(expand, "parentCollection")) {
+            result.setParentCollection(toCollection(node.owner, Collections.<String> emptySet(), null, null));
+        }
+        if (expanded(expand, "parentCollectionList")) {
+            result.getParentCollectionList().add(
+                    toCollection(node.owner, Collections.<String> emptySet(), null, null));
+        }
+        if (expanded(expand, "parentCommunityList")) {
+            for (CommunityNode parent = node.owner.parent; parent != null; parent = parent.parent) {
+                result.getParentCommunityList().add(0, toCommunity(parent, Collections.<String> emptySet()));
+            }
+        }
+        if (expanded(expand, "bitstreams")) {
+            for (BitstreamNode bitstream : node.bitstreams) {
+                result.getBitstreams().add(toBitstream(bitstream, Collections.<String> emptySet()));
+            }
+        }
+        setExpand(result, ITEM_EXPAND, expand);
+        return result;
+    }
+
+    private Item[] toItems(List<ItemNode> nodes, Set<String> expand) {
+        Item[] result = new Item[nodes.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = toItem(nodes.get(i), expand);
+        }
+        return result;
+    }
+
+    private void touch(ItemNode node) {
+        node.name = title(node.metadata);
+        node.lastModified = System.currentTimeMillis();
+    }
+
+    /**
+     * Updates the name, description and format of a bitstream.
+     * 
+     * @param bitstreamId
+     *            the bitstream ID.
+     * @param bitstream
+     *            the new values, the null ones being left unchanged.
+     * @return false if the bitstream is not found.
+     */
+    public synchronized boolean updateBitstream(int bitstreamId, Bitstream bitstream) {
+        BitstreamNode node = bitstreams.get(bitstreamId);
+        if (node == null)
+            return false;
+        if (bitstream.getName() != null) {
+            node.name = bitstream.getName();
+        }
+        if (bitstream.getDescription() != null) {
+            node.description = bitstream.getDescription();
+        }
+        if (bitstream.getBundleName() != null) {
+            node.bundleName = bitstream.getBundleName();
+        }
+        if (bitstream.getFormat() != null) {
+            node.format = bitstream.getFormat();
+        }
+        if (bitstream.getMimeType() != null) {
+            node.mimeType = bitstream.getMimeType();
+        }
+        node.owner.lastModified = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Replaces the content of a bitstream.
+     * 
+     * @param bitstreamId
+     *            the bitstream ID.
+     * @param data
+     *            the new content.
+     * @return false if the bitstream is not found.
+     */
+    public synchronized boolean updateBitstreamData(int bitstreamId, byte[] data) {
+        BitstreamNode node = bitstreams.get(bitstreamId);
+        if (node == null)
+            return false;
+        setData(node, data);
+        node.owner.lastModified = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Updates the name and texts of a collection.
+     * 
+     * @param collectionId
+     *            the collection ID.
+     * @param collection
+     *            the new values.
+     * @return false if the collection is not found.
+     */
+    public synchronized boolean updateCollection(int collectionId, Collection collection) {
+        CollectionNode node = collections.get(collectionId);
+        if (node == null)
+            return false;
+        setFields(node, collection);
+        return true;
+    }
+
+    /**
+     * Updates the name and texts of a community.
+     * 
+     * @param communityId
+     *            the community ID.
+     * @param community
+     *            the new values.
+     * @return false if the community is not found.
+     */
+    public synchronized boolean updateCommunity(int communityId, Community community) {
+        CommunityNode node = communities.get(communityId);
+        if (node == null)
+            return false;
+        setFields(node, community);
+        return true;
+    }
+
+    /**
+     * Updates metadata entries of an item: the entries with the keys given are replaced by the ones given.
+     * 
+     * @param itemId
+     *            the item ID.
+     * @param entries
+     *            the entries.
+     * @return false if the item is not found.
+     */
+    public synchronized boolean updateItemMetadata(int itemId, List<MetadataEntry> entries) {
+        ItemNode node = items.get(itemId);
+        if (node == null)
+            return false;
+        Set<String> keys = new HashSet<String>();
+        for (MetadataEntry entry : entries) {
+            keys.add(entry.getKey());
+        }
+        for (Iterator<MetadataEntry> it = node.metadata.iterator(); it.hasNext();) {
+            if (keys.contains(it.next().getKey())) {
+                it.remove();
+            }
+        }
+        for (MetadataEntry entry : entries) {
+            node.metadata.add(copy(entry));
+        }
+        touch(node);
+        return true;
+    }
+
+}
@@ -0,0 +1,746 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.stream.StreamSource;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.idmgroup.dspace.rest.StubDSpaceRepository.Content;
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+import com.idmgroup.dspace.rest.jersey.ResourcePolicy;
+import com.idmgroup.dspace.rest.jersey.Status;
+import com.idmgroup.dspace.rest.jersey.User;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * In-process DSpace REST API implementing the resources of the WADL (communities, collections, items, bitstreams,
+ * handle, login, logout and status) on top of a {@link StubDSpaceRepository}, so that both clients can be tested and
+ * benchmarked without the network. E.g.:
+ * 
+ * <pre>
+ * StubDSpaceServer server = new StubDSpaceServer();
+ * server.getRepository().addUser(&quot;admin@example.com&quot;, &quot;secret&quot;);
+ * server.getRepository().seed(10, 5, 100);
+ * server.setLatency(20);
+ * server.start();
+ * DSpaceRestClient client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+ * ...
+ * server.stop();
+ * </pre>
+ * 
+ * The objects are sent in XML when the Accept header lists XML before JSON, in JSON otherwise, and the bodies are
+ * read according to their Content-Type. The updates need the "rest-dspace-token" header of a session opened by
+ * "/login", as in DSpace, but not "/items/find-by-metadata-field". The objects are sent with an ETag and the
+ * bitstreams honor the Range header.
+ * 
+ * The latency is added to each request before it is handled, and the bandwidth limits the rate at which the
+ * response bodies are written.
+ * 
+ * @author arnaud
+ */
+public class StubDSpaceServer {
+
+    /**
+     * Response to a request.
+     */
+    private static class Reply {
+
+        private final Object entity;
+
+        private final int status;
+
+        private Reply(int status, Object entity) {
+            this.status = status;
+            this.entity = entity;
+        }
+
+    }
+
+    /**
+     * Writes at a limited rate, in slices of a hundredth of a second.
+     */
+    private static class ThrottledOutputStream extends FilterOutputStream {
+
+        private final long bytesPerSecond;
+
+        private final long start = System.nanoTime();
+
+        private long written;
+
+        public ThrottledOutputStream(OutputStream out, long bytesPerSecond) {
+            super(out);
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int slice = (int) Math.max(1, bytesPerSecond / 100);
+            while (len > 0) {
+                int count = Math.min(len, slice);
+                out.write(b, off, count);
+                off += count;
+                len -= count;
+                written += count;
+                long due = start + written * 1000000000L / bytesPerSecond;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+    }
+
+    private static final Pattern RANGE = Pattern.compile("bytes=([0-9]+)-([0-9]*)");
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String elementName(Class<?> type) {
+        return type.getSimpleName().toLowerCase();
+    }
+
+    private static Integer integer(String value) {
+        if (value == null)
+            return null;
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Reply reply(int status) {
+        return new Reply(status, null);
+    }
+
+    private static Reply reply(Object entity) {
+        return entity == null ? reply(404) : new Reply(200, entity);
+    }
+
+    private static Reply reply(boolean found) {
+        return reply(found ? 200 : 404);
+    }
+
+    private volatile long bandwidth;
+
+    private final JAXBContext jaxbContext;
+
+    private volatile long latency;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final StubDSpaceRepository repository;
+
+    private final StubHttpServer server;
+
+    private final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    private final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+
+    /**
+     * New instance, with an empty repository.
+     * 
+     * @throws IOException
+     */
+    public StubDSpaceServer() throws IOException {
+        this(new StubDSpaceRepository());
+    }
+
+    /**
+     * New instance.
+     * 
+     * @param repository
+     *            the repository to serve.
+     * @throws IOException
+     */
+    public StubDSpaceServer(StubDSpaceRepository repository) throws IOException {
+        this.repository = repository;
+        try {
+            this.jaxbContext = JAXBContext.newInstance(Bitstream.class, Collection.class, Community.class, Item.class,
+                    MetadataEntry.class, ResourcePolicy.class, Status.class, User.class);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("cannot create the JAXB context", e);
+        }
+        this.server = new StubHttpServer();
+        this.server.handle("", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    serve(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+
+        });
+    }
+
+    private Reply bitstreams(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws IOException {
+        if (path.length == 1)
+            return "GET".equals(method) ? reply(repository.getBitstreams(query.get("expand"),
+                    integer(query.get("limit")), integer(query.get("offset")))) : reply(405);
+        Integer id = integer(path[1]);
+        if (id == null)
+            return reply(404);
+        if (path.length == 2) {
+            if ("GET".equals(method))
+                return reply(repository.getBitstream(id, query.get("expand")));
+            if ("PUT".equals(method))
+                return reply(repository.updateBitstream(id, readEntity(exchange, Bitstream.class)));
+            if ("DELETE".equals(method))
+                return reply(repository.deleteBitstream(id));
+        } else if (path.length == 3 && "retrieve".equals(path[2]) && "GET".equals(method)) {
+            return retrieve(id, exchange);
+        } else if (path.length == 3 && "data".equals(path[2]) && "PUT".equals(method)) {
+            return reply(repository.updateBitstreamData(id, readBody(exchange)));
+        } else if (path.length == 3 && "policy".equals(path[2])) {
+            if ("GET".equals(method))
+                return reply(repository.getBitstreamPolicies(id));
+            if ("POST".equals(method))
+                return reply(repository.addBitstreamPolicy(id, readEntity(exchange, ResourcePolicy.class)));
+        } else if (path.length == 4 && "policy".equals(path[2]) && "DELETE".equals(method)) {
+            Integer policyId = integer(path[3]);
+            return reply(policyId != null && repository.deleteBitstreamPolicy(id, policyId));
+        }
+        return reply(405);
+    }
+
+    private Reply collections(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws IOException {
+        String expand = query.get("expand");
+        Integer limit = integer(query.get("limit"));
+        Integer offset = integer(query.get("offset"));
+        if (path.length == 1)
+            return "GET".equals(method) ? reply(repository.getCollections(expand, limit, offset)) : reply(405);
+        if (path.length == 2 && "find-collection".equals(path[1]))
+            return "POST".equals(method) ? reply(repository.findCollectionsByName(readString(exchange)))
+                    : reply(405);
+        Integer id = integer(path[1]);
+        if (id == null)
+            return reply(404);
+        if (path.length == 2) {
+            if ("GET".equals(method))
+                return reply(repository.getCollection(id, expand, limit, offset));
+            if ("PUT".equals(method))
+                return reply(repository.updateCollection(id, readEntity(exchange, Collection.class)));
+            if ("DELETE".equals(method))
+                return reply(repository.deleteCollection(id));
+        } else if (path.length == 3 && "items".equals(path[2])) {
+            if ("GET".equals(method))
+                return reply(repository.getCollectionItems(id, expand, limit, offset));
+            if ("POST".equals(method))
+                return reply(repository.createItem(id, readEntity(exchange, Item.class)));
+        } else if (path.length == 4 && "items".equals(path[2]) && "DELETE".equals(method)) {
+            Integer itemId = integer(path[3]);
+            Item item = itemId == null ? null : repository.getItem(itemId, "parentCollection");
+            return reply(item != null && id.equals(item.getParentCollection().getId())
+                    && repository.deleteItem(item.getId()));
+        }
+        return reply(405);
+    }
+
+    private Reply communities(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws IOException {
+        String expand = query.get("expand");
+        Integer limit = integer(query.get("limit"));
+        Integer offset = integer(query.get("offset"));
+        if (path.length == 1) {
+            if ("GET".equals(method))
+                return reply(repository.getCommunities(expand, limit, offset));
+            if ("POST".equals(method))
+                return reply(repository.createCommunity(null, readEntity(exchange, Community.class)));
+            return reply(405);
+        }
+        if (path.length == 2 && "top-communities".equals(path[1]))
+            return "GET".equals(method) ? reply(repository.getTopCommunities(expand, limit, offset)) : reply(405);
+        Integer id = integer(path[1]);
+        if (id == null)
+            return reply(404);
+        if (path.length == 2) {
+            if ("GET".equals(method))
+                return reply(repository.getCommunity(id, expand));
+            if ("PUT".equals(method))
+                return reply(repository.updateCommunity(id, readEntity(exchange, Community.class)));
+            if ("DELETE".equals(method))
+                return reply(repository.deleteCommunity(id));
+        } else if (path.length == 3 && "communities".equals(path[2])) {
+            if ("GET".equals(method))
+                return reply(repository.getCommunityCommunities(id, expand, limit, offset));
+            if ("POST".equals(method))
+                return reply(repository.createCommunity(id, readEntity(exchange, Community.class)));
+        } else if (path.length == 3 && "collections".equals(path[2])) {
+            if ("GET".equals(method))
+                return reply(repository.getCommunityCollections(id, expand, limit, offset));
+            if ("POST".equals(method))
+                return reply(repository.createCollection(id, readEntity(exchange, Collection.class)));
+        } else if (path.length == 4 && "collections".equals(path[2]) && "DELETE".equals(method)) {
+            Integer collectionId = integer(path[3]);
+            Collection collection = collectionId == null ? null : repository.getCollection(collectionId,
+                    "parentCommunity", 0, 0);
+            return reply(collection != null && id.equals(collection.getParentCommunity().getId())
+                    && repository.deleteCollection(collectionId));
+        } else if (path.length == 4 && "communities".equals(path[2]) && "DELETE".equals(method)) {
+            Integer subId = integer(path[3]);
+            Community sub = subId == null ? null : repository.getCommunity(subId, "parentCommunity");
+            return reply(sub != null && sub.getParentCommunity() != null
+                    && id.equals(sub.getParentCommunity().getId()) && repository.deleteCommunity(subId));
+        }
+        return reply(405);
+    }
+
+    private String eTag(byte[] body) {
+        try {
+            return "\"" + Streams.toHex(MessageDigest.getInstance("MD5").digest(body)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the bandwidth of the responses.
+     * 
+     * @return the bandwidth in bytes per second, 0 if unlimited.
+     */
+    public long getBandwidth() {
+        return bandwidth;
+    }
+
+    /**
+     * Gets the URL to give to the clients, e.g. "http://127.0.0.1:54321/rest".
+     * 
+     * @return the base URL.
+     */
+    public String getBaseUrl() {
+        return server.getBaseUrl();
+    }
+
+    /**
+     * Gets the latency added to each request.
+     * 
+     * @return the latency in milliseconds.
+     */
+    public long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets the repository served.
+     * 
+     * @return the repository.
+     */
+    public StubDSpaceRepository getRepository() {
+        return repository;
+    }
+
+    private String index() {
+        return "<html><head><title>DSpace REST - index</title></head><body>"
+                + "<h2>Index</h2><ul><li>GET / - Return this page.</li><li>GET /test - Return the string"
+                + " \"REST api is running\" for testing purposes.</li><li>POST /login - Method for logging into the"
+                + " DSpace RESTful API.</li><li>POST /logout - Method for logging out of the DSpace RESTful API.</li>"
+                + "</ul><h2>Communities</h2><ul><li>GET /communities</li></ul>"
+                + "<h2>Collections</h2><ul><li>GET /collections</li></ul>"
+                + "<h2>Items</h2><ul><li>GET /items</li></ul>"
+                + "<h2>Bitstreams</h2><ul><li>GET /bitstreams</li></ul></body></html>";
+    }
+
+    private boolean isXml(HttpExchange exchange) {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        return contentType != null && contentType.contains("xml");
+    }
+
+    private Reply items(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws IOException {
+        String expand = query.get("expand");
+        Integer limit = integer(query.get("limit"));
+        Integer offset = integer(query.get("offset"));
+        if (path.length == 1)
+            return "GET".equals(method) ? reply(repository.getItems(expand, limit, offset)) : reply(405);
+        if (path.length == 2 && "find-by-metadata-field".equals(path[1]))
+            return "POST".equals(method) ? reply(repository.findItemsByMetadataField(
+                    readEntity(exchange, MetadataEntry.class), expand)) : reply(405);
+        Integer id = integer(path[1]);
+        if (id == null)
+            return reply(404);
+        if (path.length == 2) {
+            if ("GET".equals(method))
+                return reply(repository.getItem(id, expand));
+            if ("DELETE".equals(method))
+                return reply(repository.deleteItem(id));
+        } else if (path.length == 3 && "metadata".equals(path[2])) {
+            if ("GET".equals(method))
+                return reply(repository.getItemMetadata(id));
+            if ("POST".equals(method))
+                return reply(repository.addItemMetadata(id, readEntities(exchange, MetadataEntry.class)));
+            if ("PUT".equals(method))
+                return reply(repository.updateItemMetadata(id, readEntities(exchange, MetadataEntry.class)));
+            if ("DELETE".equals(method))
+                return reply(repository.deleteItemMetadata(id));
+        } else if (path.length == 3 && "bitstreams".equals(path[2])) {
+            if ("GET".equals(method))
+                return reply(repository.getItemBitstreams(id, limit, offset));
+            if ("POST".equals(method))
+                return reply(repository.addItemBitstream(id, query.get("name"), query.get("description"),
+                        readBody(exchange)));
+        } else if (path.length == 4 && "bitstreams".equals(path[2]) && "DELETE".equals(method)) {
+            Integer bitstreamId = integer(path[3]);
+            Bitstream bitstream = bitstreamId == null ? null : repository.getBitstream(bitstreamId, "parent");
+            return reply(bitstream != null && id.equals(bitstream.getParentObject().getId())
+                    && repository.deleteBitstream(bitstreamId));
+        }
+        return reply(405);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void marshal(Marshaller marshaller, Object entity, Object target) throws JAXBException {
+        Class type = entity.getClass();
+        JAXBElement element = new JAXBElement(new QName(elementName(type)), type, entity);
+        if (target instanceof XMLStreamWriter) {
+            marshaller.marshal(element, (XMLStreamWriter) target);
+        } else {
+            marshaller.marshal(element, (OutputStream) target);
+        }
+    }
+
+    private Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<String, String>();
+        if (rawQuery != null) {
+            for (String param : rawQuery.split("&")) {
+                int equal = param.indexOf('=');
+                if (equal < 0) {
+                    query.put(decode(param), null);
+                } else {
+                    query.put(decode(param.substring(0, equal)), decode(param.substring(equal + 1)));
+                }
+            }
+        }
+        return query;
+    }
+
+    private boolean prefersXml(String accept) {
+        if (accept == null)
+            return false;
+        int xml = accept.indexOf("/xml");
+        int json = accept.indexOf("/json");
+        return xml >= 0 && (json < 0 || xml < json);
+    }
+
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Streams.copy(exchange.getRequestBody(), body);
+        return body.toByteArray();
+    }
+
+    private <T> List<T> readEntities(HttpExchange exchange, Class<T> type) throws IOException {
+        byte[] body = readBody(exchange);
+        List<T> result = new ArrayList<T>();
+        if (!isXml(exchange)) {
+            String json = new String(body, UTF_8).trim();
+            if (json.startsWith("[")) {
+                for (Object entry : objectMapper.readValue(body, Object[].class)) {
+                    result.add(objectMapper.convertValue(entry, type));
+                }
+            } else {
+                result.add(objectMapper.readValue(body, type));
+            }
+            return result;
+        }
+        try {
+            Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(body));
+            try {
+                reader.nextTag();
+                if (elementName(type).equals(reader.getLocalName())) {
+                    result.add(unmarshaller.unmarshal(reader, type).getValue());
+                    return result;
+                }
+                // A wrapper element holding the entities.
+                reader.nextTag();
+                while (reader.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                    result.add(unmarshaller.unmarshal(reader, type).getValue());
+                    if (reader.getEventType() != XMLStreamConstants.START_ELEMENT
+                            && reader.getEventType() != XMLStreamConstants.END_ELEMENT) {
+                        reader.nextTag();
+                    }
+                }
+                return result;
+            } finally {
+                reader.close();
+            }
+        } catch (JAXBException e) {
+            throw new IllegalArgumentException(e);
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private <T> T readEntity(HttpExchange exchange, Class<T> type) throws IOException {
+        if (!isXml(exchange))
+            return objectMapper.readValue(readBody(exchange), type);
+        try {
+            return jaxbContext.createUnmarshaller()
+                    .unmarshal(new StreamSource(new ByteArrayInputStream(readBody(exchange))), type).getValue();
+        } catch (JAXBException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private String readString(HttpExchange exchange) throws IOException {
+        String body = new String(readBody(exchange), UTF_8).trim();
+        if (body.startsWith("\""))
+            return objectMapper.readValue(body, String.class);
+        return body;
+    }
+
+    private Reply retrieve(int id, HttpExchange exchange) {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range == null)
+            return reply(repository.getBitstreamContent(id, 0, -1));
+        Matcher matcher = RANGE.matcher(range);
+        if (!matcher.matches())
+            return reply(416);
+        long start = Long.parseLong(matcher.group(1));
+        long end = matcher.group(2).isEmpty() ? -1 : Long.parseLong(matcher.group(2)) + 1;
+        Content content = repository.getBitstreamContent(id, start, end);
+        if (content == null)
+            return reply(404);
+        if (start >= content.getSize())
+            return reply(416);
+        return new Reply(206, content);
+    }
+
+    private Reply route(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws IOException {
+        String token = exchange.getRequestHeaders().getFirst("rest-dspace-token");
+        String resource = path.length == 0 ? "" : path[0];
+        if ("login".equals(resource) && path.length == 1) {
+            if (!"POST".equals(method))
+                return reply(405);
+            User user = readEntity(exchange, User.class);
+            String newToken = repository.login(user.getEmail(), user.getPassword());
+            return newToken == null ? reply(403) : reply((Object) newToken);
+        }
+        if ("logout".equals(resource) && path.length == 1) {
+            if (!"POST".equals(method))
+                return reply(405);
+            return reply(repository.logout(token) ? 200 : 400);
+        }
+        // Finding items by metadata field is a read, even though it is a POST.
+        boolean read = "GET".equals(method)
+                || ("items".equals(resource) && path.length == 2 && "find-by-metadata-field".equals(path[1]));
+        if (!read && !repository.isAuthenticated(token))
+            return reply(401);
+        if (path.length == 0)
+            return "GET".equals(method) ? reply((Object) index()) : reply(405);
+        if ("test".equals(resource) && path.length == 1)
+            return reply((Object) "REST api is running.");
+        if ("status".equals(resource) && path.length == 1)
+            return reply(repository.status(token));
+        if ("communities".equals(resource))
+            return communities(method, path, query, exchange);
+        if ("collections".equals(resource))
+            return collections(method, path, query, exchange);
+        if ("items".equals(resource))
+            return items(method, path, query, exchange);
+        if ("bitstreams".equals(resource))
+            return bitstreams(method, path, query, exchange);
+        if ("handle".equals(resource) && path.length == 3)
+            return reply(repository.resolveHandle(path[1], path[2], query.get("expand")));
+        return reply(404);
+    }
+
+    private void send(HttpExchange exchange, Reply reply) throws IOException {
+        if (reply.entity == null) {
+            exchange.sendResponseHeaders(reply.status, -1);
+            return;
+        }
+        if (reply.entity instanceof Content) {
+            Content content = (Content) reply.entity;
+            exchange.getResponseHeaders().set("Content-Type", content.getMimeType());
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            if (reply.status == 206) {
+                exchange.getResponseHeaders().set("Content-Range",
+                        "bytes " + content.getStart() + "-" + (content.getEnd() - 1) + "/" + content.getSize());
+            }
+            long length = content.getEnd() - content.getStart();
+            exchange.sendResponseHeaders(reply.status, length == 0 ? -1 : length);
+            InputStream in = content.open();
+            try {
+                Streams.copy(in, throttle(exchange.getResponseBody()));
+            } finally {
+                in.close();
+            }
+            return;
+        }
+        byte[] body;
+        if (reply.entity instanceof String) {
+            String text = (String) reply.entity;
+            exchange.getResponseHeaders().set("Content-Type",
+                    text.startsWith("<html>") ? "text/html;charset=UTF-8" : "text/plain;charset=UTF-8");
+            body = text.getBytes(UTF_8);
+        } else if (prefersXml(exchange.getRequestHeaders().getFirst("Accept"))) {
+            exchange.getResponseHeaders().set("Content-Type", "application/xml");
+            body = toXml(reply.entity);
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            body = objectMapper.writeValueAsBytes(reply.entity);
+        }
+        if (!(reply.entity instanceof String)) {
+            String eTag = eTag(body);
+            exchange.getResponseHeaders().set("ETag", eTag);
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        exchange.sendResponseHeaders(reply.status, body.length);
+        OutputStream out = throttle(exchange.getResponseBody());
+        out.write(body);
+        out.flush();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        String rawPath = exchange.getRequestURI().getRawPath().substring(StubHttpServer.CONTEXT_PATH.length());
+        List<String> path = new ArrayList<String>();
+        for (String segment : rawPath.split("/")) {
+            if (!segment.isEmpty()) {
+                path.add(decode(segment));
+            }
+        }
+        Reply reply;
+        try {
+            reply = route(exchange.getRequestMethod(), path.toArray(new String[path.size()]),
+                    parseQuery(exchange.getRequestURI().getRawQuery()), exchange);
+        } catch (IllegalArgumentException e) {
+            reply = reply(400);
+        } catch (IOException e) {
+            // Unreadable body.
+            reply = reply(400);
+        }
+        send(exchange, reply);
+    }
+
+    /**
+     * Sets the bandwidth of the responses.
+     * 
+     * @param bandwidth
+     *            the bandwidth in bytes per second, 0 for unlimited, the default.
+     */
+    public void setBandwidth(long bandwidth) {
+        this.bandwidth = bandwidth;
+    }
+
+    /**
+     * Sets the latency added to each request.
+     * 
+     * @param latency
+     *            the latency in milliseconds, 0 by default.
+     */
+    public void setLatency(long latency) {
+        this.latency = latency;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop();
+    }
+
+    private OutputStream throttle(OutputStream out) {
+        long bandwidth = this.bandwidth;
+        return bandwidth > 0 ? new ThrottledOutputStream(out, bandwidth) : out;
+    }
+
+    private byte[] toXml(Object entity) throws IOException {
+        try {
+            Marshaller marshaller = jaxbContext.createMarshaller();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (!entity.getClass().isArray()) {
+                marshal(marshaller, entity, out);
+                return out.toByteArray();
+            }
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            Class<?> type = entity.getClass().getComponentType();
+            XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement(elementName(type) + "s");
+            for (Object element : (Object[]) entity) {
+                marshal(marshaller, element, writer);
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+            return out.toByteArray();
+        } catch (JAXBException e) {
+            throw new IOException(e);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal in-process HTTP server bound to the loopback interface, used to test the clients without the network.
+ * 
+ * @author arnaud
+ */
+public class StubHttpServer {
+
+    public static final String CONTEXT_PATH = "/rest";
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final HttpServer server;
+
+    public StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0), 0);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Gets the URL to give to the clients, e.g. "http://127.0.0.1:54321/rest".
+     * 
+     * @return the base URL.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + CONTEXT_PATH;
+    }
+
+    /**
+     * Registers a handler.
+     * 
+     * @param path
+     *            path relative to the base URL, e.g. "/bitstreams".
+     * @param handler
+     *            the handler.
+     */
+    public void handle(String path, HttpHandler handler) {
+        server.createContext(CONTEXT_PATH + path, handler);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
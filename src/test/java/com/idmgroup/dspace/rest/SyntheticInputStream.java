@@ -0,0 +1,62 @@
+package com.idmgroup.dspace.rest;
+
+import java.io.InputStream;
+
+/**
+ * Deterministic content of any length that is generated on the fly and never held in memory.
+ * 
+ * @author arnaud
+ */
+public class SyntheticInputStream extends InputStream {
+
+    /**
+     * Value of the byte at a given position.
+     * 
+     * @param position
+     *            the position.
+     * @return the byte.
+     */
+    public static int byteAt(long position) {
+        return (int) ((position * 31 + (position >>> 8)) & 0xff);
+    }
+
+    private final long length;
+
+    private long position;
+
+    public SyntheticInputStream(long length) {
+        this(0, length);
+    }
+
+    /**
+     * A slice of the content.
+     * 
+     * @param start
+     *            first position.
+     * @param end
+     *            position after the last one.
+     */
+    public SyntheticInputStream(long start, long end) {
+        this.position = start;
+        this.length = end;
+    }
+
+    @Override
+    public int read() {
+        if (position >= length)
+            return -1;
+        return byteAt(position++);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (position >= length)
+            return -1;
+        int count = (int) Math.min(len, length - position);
+        for (int i = 0; i < count; ++i) {
+            b[off + i] = (byte) byteAt(position++);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.CheckSum;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Tests the bitstream cache, against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestBitstreamCache {
+
+    private static byte[] content(int seed, int size) {
+        byte[] result = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            result[i] = (byte) (seed * 31 + i);
+        }
+        return result;
+    }
+
+    private DSpaceRestClient client;
+
+    private Path directory;
+
+    private Item[] items;
+
+    private StubDSpaceServer server;
+
+    private Bitstream add(int item, byte[] data) {
+        return server.getRepository().addItemBitstream(items[item].getId(), "file.pdf", null, data);
+    }
+
+    private List<Path> files() throws IOException {
+        List<Path> result = new ArrayList<Path>();
+        DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+        try {
+            for (Path file : files) {
+                result.add(file);
+            }
+        } finally {
+            files.close();
+        }
+        return result;
+    }
+
+    private byte[] read(BitstreamCache cache, Integer bitstream_id) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = cache.getBitstreamData(bitstream_id, out);
+        assertEquals("count", out.size(), count);
+        return out.toByteArray();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().setSeedBitstreams(0);
+        server.getRepository().seed(1, 1, 4);
+        server.start();
+        client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+        items = client.getItems(null, 10, 0);
+        directory = Files.createTempDirectory("bitstreams");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop();
+        for (Path file : files()) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testChecksumTimeToLive() throws IOException {
+        BitstreamCache cache = new BitstreamCache(client, directory, 1 << 20);
+        cache.setChecksumTimeToLive(-1);
+        Bitstream bitstream = add(0, content(1, 1000));
+        read(cache, bitstream.getId());
+        server.getRepository().updateBitstreamData(bitstream.getId(), content(2, 1000));
+        assertArrayEquals("expired", content(2, 1000), read(cache, bitstream.getId()));
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        BitstreamCache cache = new BitstreamCache(client, directory, 25000);
+        Bitstream first = add(0, content(1, 10000));
+        Bitstream second = add(1, content(2, 10000));
+        Bitstream third = add(2, content(3, 10000));
+        read(cache, first.getId());
+        read(cache, second.getId());
+        // The first is now the most recently used.
+        read(cache, first.getId());
+        read(cache, third.getId());
+        assertEquals("size", 20000, cache.getSize());
+        assertEquals("files", 2, files().size());
+        assertEquals("misses", 3, cache.getMisses());
+        read(cache, first.getId());
+        assertEquals("hits", 2, cache.getHits());
+        read(cache, second.getId());
+        assertEquals("evicted", 4, cache.getMisses());
+    }
+
+    @Test
+    public void testForget() throws IOException {
+        BitstreamCache cache = new BitstreamCache(client, directory, 1 << 20);
+        Bitstream bitstream = add(0, content(1, 1000));
+        read(cache, bitstream.getId());
+        server.getRepository().updateBitstreamData(bitstream.getId(), content(2, 1000));
+        // The checksum is still the one read first.
+        assertArrayEquals(content(1, 1000), read(cache, bitstream.getId()));
+        cache.forget(bitstream.getId());
+        assertArrayEquals(content(2, 1000), read(cache, bitstream.getId()));
+        assertEquals("misses", 2, cache.getMisses());
+    }
+
+    @Test
+    public void testRestart() throws IOException {
+        Bitstream bitstream = add(0, content(1, 5000));
+        read(new BitstreamCache(client, directory, 1 << 20), bitstream.getId());
+        // A download cut by a crash.
+        Files.write(directory.resolve("bitstream123.tmp"), new byte[10]);
+        BitstreamCache cache = new BitstreamCache(client, directory, 1 << 20);
+        assertEquals("size", 5000, cache.getSize());
+        assertEquals("files", 1, files().size());
+        server.stop();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.getBitstreamData(bitstream, Channels.newChannel(out));
+        assertArrayEquals(content(1, 5000), out.toByteArray());
+        assertEquals("hits", 1, cache.getHits());
+    }
+
+    @Test
+    public void testSharedContent() throws IOException {
+        BitstreamCache cache = new BitstreamCache(client, directory, 1 << 20);
+        byte[] data = content(1, 100000);
+        Bitstream first = add(0, data);
+        Bitstream second = add(1, data);
+        assertArrayEquals(data, read(cache, first.getId()));
+        assertArrayEquals(data, read(cache, second.getId()));
+        assertArrayEquals(data, read(cache, first.getId()));
+        assertEquals("misses", 1, cache.getMisses());
+        assertEquals("hits", 2, cache.getHits());
+        assertEquals("files", 1, files().size());
+        assertEquals("size", 100000, cache.getSize());
+    }
+
+    @Test
+    public void testVerification() throws IOException {
+        BitstreamCache cache = new BitstreamCache(client, directory, 1 << 20);
+        Bitstream bitstream = add(0, content(1, 1000));
+        CheckSum wrong = new CheckSum();
+        wrong.setCheckSumAlgorithm("MD5");
+        wrong.setValue("0123456789abcdef0123456789abcdef");
+        bitstream.setCheckSum(wrong);
+        try {
+            cache.getBitstreamData(bitstream, Channels.newChannel(new ByteArrayOutputStream()));
+            fail("should not match");
+        } catch (BitstreamVerificationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(wrong.getValue()));
+        }
+        assertEquals("files", Arrays.asList(), files());
+    }
+
+}
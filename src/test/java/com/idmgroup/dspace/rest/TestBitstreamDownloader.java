@@ -0,0 +1,232 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the ranged and resumable downloads, against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestBitstreamDownloader {
+
+    /**
+     * Serves one synthetic bitstream, with its metadata, honouring ranges and breaking the first connections.
+     */
+    private static class RangeHandler implements HttpHandler {
+
+        private static final Pattern RANGE = Pattern.compile("bytes=([0-9]+)-([0-9]*)");
+
+        private final AtomicInteger brokenResponses = new AtomicInteger();
+
+        private String checksum;
+
+        private boolean ignoreRange;
+
+        private final List<String> ranges = new CopyOnWriteArrayList<String>();
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (exchange.getRequestURI().getPath().endsWith("/retrieve")) {
+                    retrieve(exchange);
+                } else {
+                    byte[] body = ("{\"id\":1,\"name\":\"synthetic\",\"sizeBytes\":" + LENGTH
+                            + ",\"checkSum\":{\"value\":\"" + checksum + "\",\"checkSumAlgorithm\":\"MD5\"}}")
+                            .getBytes(Charset.forName("UTF-8"));
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private void retrieve(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            long start = 0;
+            long end = LENGTH;
+            int status = 200;
+            if (range != null && !ignoreRange) {
+                ranges.add(range);
+                Matcher matcher = RANGE.matcher(range);
+                assertTrue("range syntax " + range, matcher.matches());
+                start = Long.parseLong(matcher.group(1));
+                if (matcher.group(2).length() > 0)
+                    end = Long.parseLong(matcher.group(2)) + 1;
+                status = 206;
+                exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + (end - 1) + "/" + LENGTH);
+            }
+            exchange.sendResponseHeaders(status, end - start);
+            OutputStream out = exchange.getResponseBody();
+            if (brokenResponses.getAndDecrement() > 0) {
+                // Announce everything, send half, and drop the connection.
+                Streams.copy(new SyntheticInputStream(start, start + (end - start) / 2), out);
+                return;
+            }
+            Streams.copy(new SyntheticInputStream(start, end), out);
+        }
+
+    }
+
+    private static final int LENGTH = 8 * 1024 * 1024 + 13;
+
+    private Path file;
+
+    private RangeHandler handler;
+
+    private StubHttpServer server;
+
+    private DSpaceRestClient newClient(String url) {
+        RestTemplate restTemplate = new RestTemplate();
+        return new DSpaceRestClient(url, restTemplate);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        SyntheticInputStream in = new SyntheticInputStream(LENGTH);
+        byte[] buffer = new byte[Streams.BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            md5.update(buffer, 0, read);
+        }
+        handler = new RangeHandler();
+        handler.checksum = Streams.toHex(md5.digest());
+        server = new StubHttpServer();
+        server.handle("/bitstreams", handler);
+        server.start();
+        file = Files.createTempFile("bitstream", ".bin");
+        Files.delete(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testChecksumMismatch() throws IOException {
+        handler.checksum = "0123456789abcdef0123456789abcdef";
+        BitstreamDownloader downloader = new BitstreamDownloader(newClient(server.getBaseUrl()));
+        try {
+            downloader.download(1, file);
+            fail("Expected BitstreamVerificationException to be thrown");
+        } catch (BitstreamVerificationException e) {
+            assertTrue("message " + e.getMessage(), e.getMessage().contains("MD5"));
+        }
+    }
+
+    @Test
+    public void testDownloadParallel() throws IOException {
+        handler.brokenResponses.set(2);
+        BitstreamDownloader downloader = new BitstreamDownloader(newClient(server.getBaseUrl()));
+        downloader.setParallelism(4);
+        downloader.setMinPartSize(1024 * 1024);
+        downloader.download(1, file);
+        assertEquals("file size", LENGTH, Files.size(file));
+        // the first range, broken, 4 ranges after what it received and a resumed one
+        assertEquals("range requests " + handler.ranges, 6, handler.ranges.size());
+    }
+
+    @Test
+    public void testDownloadParallelWhenRangeIsIgnored() throws IOException {
+        handler.ignoreRange = true;
+        BitstreamDownloader downloader = new BitstreamDownloader(newClient(server.getBaseUrl()));
+        downloader.setParallelism(4);
+        downloader.setMinPartSize(1024 * 1024);
+        downloader.download(1, file);
+        assertEquals("file size", LENGTH, Files.size(file));
+        assertEquals("requests", 1, handler.requests.get());
+    }
+
+    @Test
+    public void testDownloadResumesAfterBrokenConnection() throws IOException {
+        handler.brokenResponses.set(1);
+        BitstreamDownloader downloader = new BitstreamDownloader(newClient(server.getBaseUrl()));
+        downloader.download(1, file);
+        assertEquals("file size", LENGTH, Files.size(file));
+        assertEquals("range requests " + handler.ranges, 1, handler.ranges.size());
+        assertTrue("resumed range " + handler.ranges, handler.ranges.get(0).matches("bytes=[1-9][0-9]*-"));
+    }
+
+    @Test
+    public void testDownloadResumesPartialFile() throws IOException {
+        Streams.copy(new SyntheticInputStream(1000000), file);
+        BitstreamDownloader downloader = new BitstreamDownloader(newClient(server.getBaseUrl()));
+        downloader.download(1, file);
+        assertEquals("file size", LENGTH, Files.size(file));
+        assertEquals("range requests", "[bytes=1000000-]", handler.ranges.toString());
+    }
+
+    @Test
+    public void testDownloadWhenRangeIsIgnored() throws IOException {
+        handler.ignoreRange = true;
+        handler.brokenResponses.set(1);
+        BitstreamDownloader downloader = new BitstreamDownloader(newClient(server.getBaseUrl()));
+        downloader.setParallelism(2);
+        downloader.setMinPartSize(1024 * 1024);
+        downloader.download(1, file);
+        assertEquals("file size", LENGTH, Files.size(file));
+    }
+
+    /**
+     * The local disk is full: retrying would not help.
+     */
+    @Test
+    public void testFileWriteFailure() throws IOException {
+        Path full = Paths.get("/dev/full");
+        assumeTrue(Files.isWritable(full));
+        BitstreamDownloader downloader = new BitstreamDownloader(newClient(server.getBaseUrl()));
+        try {
+            downloader.download(1, full);
+            fail("Expected IOException to be thrown");
+        } catch (IOException e) {
+            assertTrue("message " + e.getMessage(), !e.getMessage().startsWith("giving up"));
+        }
+        assertEquals("requests", 1, handler.requests.get());
+    }
+
+    @Test
+    public void testGiveUp() throws IOException {
+        handler.brokenResponses.set(Integer.MAX_VALUE);
+        handler.ignoreRange = true;
+        BitstreamDownloader downloader = new BitstreamDownloader(newClient(server.getBaseUrl()));
+        downloader.setMaxAttempts(3);
+        try {
+            downloader.download(1, file);
+            fail("Expected IOException to be thrown");
+        } catch (IOException e) {
+            assertTrue("message " + e.getMessage(), e.getMessage().startsWith("giving up"));
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Tests the bulk ingester, against a fake client and against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestBulkIngester {
+
+    /**
+     * Creates items slowly, failing on the names given, and records the number of creations in flight.
+     */
+    private static class FakeClient extends DSpaceRestClient {
+
+        private final AtomicInteger created = new AtomicInteger();
+
+        private final String failing;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        public FakeClient(String failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public Item addCollectionItem(Integer collection_id, Item requestBody) {
+            int current = inFlight.incrementAndGet();
+            int max;
+            while (current > (max = maxInFlight.get()) && !maxInFlight.compareAndSet(max, current)) {
+            }
+            try {
+                Thread.sleep(2);
+                if (requestBody.getName().equals(failing))
+                    throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+                Item result = new Item();
+                result.setId(created.incrementAndGet());
+                result.setHandle("123456789/" + result.getId());
+                result.setName(requestBody.getName());
+                return result;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+    }
+
+    /**
+     * Generates items on demand, and records how far it was read ahead of the created items.
+     */
+    private static class Source implements Iterable<Item>, Iterator<Item> {
+
+        private final FakeClient client;
+
+        private final int count;
+
+        private int maxAhead;
+
+        private int next;
+
+        public Source(FakeClient client, int count) {
+            this.client = client;
+            this.count = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < count;
+        }
+
+        @Override
+        public Iterator<Item> iterator() {
+            return this;
+        }
+
+        @Override
+        public Item next() {
+            maxAhead = Math.max(maxAhead, next - client.created.get());
+            Item item = new Item();
+            item.setName("Item " + next++);
+            return item;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    @Test
+    public void testBackpressure() {
+        FakeClient client = new FakeClient(null);
+        BulkIngester ingester = new BulkIngester(client);
+        ingester.setConcurrency(8);
+        Source source = new Source(client, 500);
+        List<IngestResult> results = ingester.ingest(1, source);
+        assertEquals("results", 500, results.size());
+        assertTrue("max in flight " + client.maxInFlight.get(), client.maxInFlight.get() <= 8);
+        assertTrue("read ahead " + source.maxAhead, source.maxAhead <= 8);
+        for (int i = 0; i < results.size(); ++i) {
+            assertEquals("index", i, results.get(i).getIndex());
+            assertEquals("name", "Item " + i, results.get(i).getCreated().getName());
+        }
+    }
+
+    @Test
+    public void testFailure() {
+        FakeClient client = new FakeClient("Item 42");
+        List<IngestResult> results = new BulkIngester(client).ingest(1, new Source(client, 100));
+        assertEquals("results", 100, results.size());
+        IngestResult failed = results.get(42);
+        assertFalse("created", failed.isCreated());
+        assertNull("ID", failed.getId());
+        assertTrue("failure", failed.getFailure() instanceof HttpServerErrorException);
+        assertEquals("source", "Item 42", failed.getSource().getName());
+        assertEquals("others", 99, client.created.get());
+        assertTrue("created", results.get(43).isCreated());
+    }
+
+    @Test
+    public void testHandlerFailure() {
+        FakeClient client = new FakeClient(null);
+        Source source = new Source(client, 1000);
+        final IllegalArgumentException error = new IllegalArgumentException();
+        try {
+            new BulkIngester(client).ingest(1, source.iterator(), new IngestHandler() {
+
+                @Override
+                public void handle(IngestResult result) {
+                    if (result.getIndex() == 10)
+                        throw error;
+                }
+
+            });
+            fail("should have thrown");
+        } catch (IllegalArgumentException e) {
+            assertSame("exception", error, e);
+        }
+        assertTrue("stopped reading", source.next < 1000);
+    }
+
+    @Test
+    public void testStub() throws IOException {
+        StubDSpaceServer server = new StubDSpaceServer();
+        server.getRepository().addUser("admin@example.com", "secret");
+        server.getRepository().seed(1, 1, 0);
+        server.start();
+        try {
+            DSpaceRestClient client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+            User user = new User();
+            user.setEmail("admin@example.com");
+            user.setPassword("secret");
+            client.login(user);
+            int collectionId = client.getCollections(null, 1, 0)[0].getId();
+            BulkIngester ingester = new BulkIngester(client);
+            ingester.setConcurrency(6);
+            List<IngestResult> results = ingester.ingest(collectionId, new Source(new FakeClient(null), 50));
+            for (IngestResult result : results) {
+                assertTrue(result.toString(), result.isCreated());
+                assertTrue("handle", result.getHandle().startsWith("123456789/"));
+            }
+            assertEquals("items", 50, client.getCollectionItems(collectionId, null, 100, 0).length);
+        } finally {
+            server.stop();
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the caching REST client, against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestCachingDSpaceRestClient {
+
+    /**
+     * Answers the items and collections, recording the requests.
+     * 
+     * The collection N lists the items N * 10 and N * 10 + 1, the item N belongs to the collection N / 10. The handle
+     * 123456789/N is the item N.
+     */
+    private class StubHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath().substring(StubHttpServer.CONTEXT_PATH.length());
+            requests.add(exchange.getRequestMethod() + " " + path);
+            String body;
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                body = "";
+            } else if (path.startsWith("/items/")) {
+                body = item(Integer.parseInt(path.substring("/items/".length())));
+            } else if (path.startsWith("/handle/")) {
+                body = item(Integer.parseInt(path.replaceAll("^.*/", "")));
+            } else {
+                int id = Integer.parseInt(path.substring("/collections/".length()));
+                body = "{\"id\":" + id + ",\"type\":\"collection\",\"items\":[{\"id\":" + (id * 10)
+                        + ",\"type\":\"item\"},{\"id\":" + (id * 10 + 1) + ",\"type\":\"item\"}]}";
+            }
+            byte[] bytes = body.getBytes(Charset.forName("UTF-8"));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length == 0 ? -1 : bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        }
+
+        private String item(int id) {
+            return "{\"id\":" + id + ",\"type\":\"item\",\"name\":\"item " + id + "\",\"parentCollection\":{\"id\":"
+                    + (id / 10) + ",\"type\":\"collection\"}}";
+        }
+
+    }
+
+    private CachingDSpaceRestClient client;
+
+    private final List<String> requests = new CopyOnWriteArrayList<String>();
+
+    private StubHttpServer server;
+
+    private int count(String request) {
+        return Collections.frequency(requests, request);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        StubHandler handler = new StubHandler();
+        server.handle("/items", handler);
+        server.handle("/collections", handler);
+        server.handle("/handle", handler);
+        server.start();
+        client = new CachingDSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testDeleteInvalidatesParents() {
+        client.getCollection(4, "items", null, null);
+        client.getCollection(5, "items", null, null);
+        client.getItem(41, null);
+        client.deleteItem(41);
+        client.getCollection(4, "items", null, null);
+        client.getCollection(5, "items", null, null);
+        client.getItem(41, null);
+        assertEquals("collection 4 fetched again", 2, count("GET /collections/4"));
+        assertEquals("collection 5 still cached", 1, count("GET /collections/5"));
+        assertEquals("item fetched again", 2, count("GET /items/41"));
+    }
+
+    @Test
+    public void testDeleteInvalidatesUnknownParents() {
+        client.getCollection(5, null, null, null);
+        // item 99 is not cached, hence its collections are unknown
+        client.deleteItem(99);
+        client.getCollection(5, null, null, null);
+        assertEquals("collection fetched again", 2, count("GET /collections/5"));
+    }
+
+    @Test
+    public void testExpandIsPartOfTheKey() {
+        Item item = client.getItem(42, null);
+        assertSame("cached", item, client.getItem(42, null));
+        client.getItem(42, "metadata");
+        client.getItem(42, "metadata");
+        assertEquals("requests", 2, count("GET /items/42"));
+        assertEquals("hits", 2, client.getCache().getHitCount());
+    }
+
+    @Test
+    public void testHandle() {
+        Item item = client.getObject("123456789", "42", null, Item.class);
+        assertSame("cached", item, client.getObject("123456789", "42", null, Item.class));
+        assertEquals("requests", 1, count("GET /handle/123456789/42"));
+        client.updateItemMetadata(42);
+        client.getObject("123456789", "42", null, Item.class);
+        assertEquals("requests after update", 2, count("GET /handle/123456789/42"));
+    }
+
+    @Test
+    public void testMaxSize() {
+        client.getCache().setMaxSize(2);
+        client.getItem(1, null);
+        client.getItem(2, null);
+        client.getItem(1, null);
+        client.getItem(3, null);
+        assertEquals("size", 2, client.getCache().size());
+        client.getItem(1, null);
+        client.getItem(2, null);
+        assertEquals("most recently used kept", 1, count("GET /items/1"));
+        assertEquals("least recently used evicted", 2, count("GET /items/2"));
+    }
+
+    @Test
+    public void testStaleStamp() {
+        ObjectCache cache = new ObjectCache();
+        long stamp = cache.stamp();
+        cache.invalidate("item/1", false);
+        cache.put("item/1", "expand=null", new Item(), Collections.<String> emptyList(), stamp);
+        assertNull("fetched before the invalidation", cache.get("item/1", "expand=null"));
+    }
+
+    @Test
+    public void testTimeToLive() throws InterruptedException {
+        client.getCache().setTimeToLive(50);
+        client.getItem(1, null);
+        client.getItem(1, null);
+        Thread.sleep(100);
+        client.getItem(1, null);
+        assertEquals("requests", 2, count("GET /items/1"));
+    }
+
+    @Test
+    public void testUpdateInvalidatesEmbedding() {
+        Collection collection = client.getCollection(4, "items", null, null);
+        assertEquals("items", 2, collection.getItems().size());
+        client.getItem(40, null);
+        client.updateItemMetadata(40);
+        client.getItem(40, null);
+        client.getCollection(4, "items", null, null);
+        assertEquals("item fetched again", 2, count("GET /items/40"));
+        assertEquals("collection fetched again", 2, count("GET /collections/4"));
+        assertEquals("update", 1, count("PUT /items/40/metadata"));
+    }
+
+}
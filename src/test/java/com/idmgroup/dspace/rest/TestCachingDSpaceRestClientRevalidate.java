@@ -0,0 +1,199 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the revalidating mode of the caching REST client, against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestCachingDSpaceRestClientRevalidate {
+
+    /**
+     * The item 1 has an ETag, the item 2 only its lastModified field, the communities a Last-Modified header and the
+     * collections no validator at all. Records the requests and the status of the responses.
+     */
+    private class StubHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath().substring(StubHttpServer.CONTEXT_PATH.length());
+            int id = Integer.parseInt(path.replaceAll("^.*/", ""));
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+            String eTag = "\"v" + version + "\"";
+            String body;
+            if (path.startsWith("/items/") && id == 1) {
+                if (eTag.equals(ifNoneMatch)) {
+                    send(exchange, path, 304, null);
+                    return;
+                }
+                exchange.getResponseHeaders().set("ETag", eTag);
+                body = "{\"id\":1,\"type\":\"item\",\"name\":\"version " + version + "\"}";
+            } else if (path.startsWith("/items/")) {
+                if (ifModifiedSince != null && !modified(ifModifiedSince)) {
+                    send(exchange, path, 304, null);
+                    return;
+                }
+                body = "{\"id\":" + id + ",\"type\":\"item\",\"lastModified\":\"" + LAST_MODIFIED_FIELD + "\"}";
+            } else if (path.startsWith("/communities/")) {
+                if (ifModifiedSince != null && !modified(ifModifiedSince)) {
+                    send(exchange, path, 304, null);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED_HEADER);
+                body = "{\"id\":" + id + ",\"type\":\"community\"}";
+            } else {
+                body = "{\"id\":" + id + ",\"type\":\"collection\"}";
+            }
+            send(exchange, path, 200, body);
+        }
+
+        private boolean modified(String ifModifiedSince) {
+            try {
+                return httpDateFormat().parse(ifModifiedSince).getTime() < lastModified;
+            } catch (ParseException e) {
+                return true;
+            }
+        }
+
+        private void send(HttpExchange exchange, String path, int status, String body) throws IOException {
+            responses.add(status + " " + path);
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                byte[] bytes = body.getBytes(Charset.forName("UTF-8"));
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                exchange.getResponseBody().write(bytes);
+            }
+            exchange.close();
+        }
+
+    }
+
+    private static final String LAST_MODIFIED_FIELD = "2015-10-06 12:08:24.373";
+
+    private static final String LAST_MODIFIED_HEADER = "Tue, 06 Oct 2015 12:08:24 GMT";
+
+    private static SimpleDateFormat httpDateFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format;
+    }
+
+    private CachingDSpaceRestClient client;
+
+    private volatile long lastModified;
+
+    private final List<String> responses = new CopyOnWriteArrayList<String>();
+
+    private StubHttpServer server;
+
+    private volatile int version = 1;
+
+    private int count(String response) {
+        return Collections.frequency(responses, response);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        lastModified = httpDateFormat().parse(LAST_MODIFIED_HEADER).getTime();
+        server = new StubHttpServer();
+        StubHandler handler = new StubHandler();
+        server.handle("/items", handler);
+        server.handle("/collections", handler);
+        server.handle("/communities", handler);
+        server.start();
+        client = new CachingDSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+        client.setRevalidate(true);
+        client.getCache().setTimeToLive(0);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testETag() {
+        Item item = client.getItem(1, null);
+        assertSame("not modified", item, client.getItem(1, null));
+        assertSame("not modified", item, client.getItem(1, null));
+        assertEquals("full responses", 1, count("200 /items/1"));
+        assertEquals("not modified responses", 2, count("304 /items/1"));
+
+        version = 2;
+        Item modified = client.getItem(1, null);
+        assertNotSame("modified", item, modified);
+        assertEquals("name", "version 2", modified.getName());
+        assertSame("not modified", modified, client.getItem(1, null));
+        assertEquals("full responses", 2, count("200 /items/1"));
+    }
+
+    @Test
+    public void testFresh() {
+        client.getCache().setTimeToLive(60000);
+        client.getItem(1, null);
+        client.getItem(1, null);
+        assertEquals("requests", 1, responses.size());
+    }
+
+    @Test
+    public void testInvalidated() {
+        client.getItem(1, null);
+        client.getCache().invalidate("item/1", false);
+        client.getItem(1, null);
+        assertEquals("full responses", 2, count("200 /items/1"));
+    }
+
+
+    @Test
+    public void testItemLastModifiedField() {
+        Item item = client.getItem(2, null);
+        assertSame("not modified", item, client.getItem(2, null));
+        assertEquals("not modified responses", 1, count("304 /items/2"));
+
+        lastModified += 1000;
+        assertNotSame("modified", item, client.getItem(2, null));
+        assertEquals("full responses", 2, count("200 /items/2"));
+    }
+
+    @Test
+    public void testLastModifiedHeader() {
+        Community community = client.getCommunity(3, null);
+        assertSame("not modified", community, client.getCommunity(3, null));
+        assertEquals("full responses", 1, count("200 /communities/3"));
+        assertEquals("not modified responses", 1, count("304 /communities/3"));
+    }
+
+    @Test
+    public void testNoValidators() {
+        client.getCollection(4, null, null, null);
+        client.getCollection(4, null, null, null);
+        assertEquals("full responses", 2, count("200 /collections/4"));
+    }
+
+}
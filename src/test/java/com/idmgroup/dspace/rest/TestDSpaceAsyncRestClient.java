@@ -0,0 +1,110 @@
+package com.idmgroup.dspace.rest;
+
+import static com.idmgroup.dspace.rest.jersey.JerseyTestUtils.user;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the asynchronous REST client, against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestDSpaceAsyncRestClient {
+
+    private static final String TOKEN = "1234-5678";
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(Charset.forName("UTF-8"));
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private StubHttpServer server;
+
+    private DSpaceAsyncRestClient newClient(String url) {
+        AsyncRestTemplate asyncRestTemplate = new AsyncRestTemplate();
+        return new DSpaceAsyncRestClient(url, asyncRestTemplate);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.handle("/login", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                send(exchange, 200, "text/plain", TOKEN);
+            }
+
+        });
+        server.handle("/items", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (!TOKEN.equals(exchange.getRequestHeaders().getFirst("rest-dspace-token"))) {
+                    send(exchange, 401, "text/plain", "");
+                    return;
+                }
+                String id = exchange.getRequestURI().getPath().replaceAll("^.*/", "");
+                send(exchange, 200, "application/json", "{\"id\":" + id + ",\"name\":\"item " + id + "\"}");
+            }
+
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testGetItemsInFlight() throws Exception {
+        DSpaceAsyncRestClient client = newClient(server.getBaseUrl());
+        assertEquals("token", TOKEN, client.login(user("admin", "secret")).get());
+        List<ListenableFuture<Item>> futures = new ArrayList<ListenableFuture<Item>>();
+        for (int i = 1; i <= 50; ++i) {
+            futures.add(client.getItem(i, null));
+        }
+        for (int i = 1; i <= 50; ++i) {
+            Item item = futures.get(i - 1).get();
+            assertEquals("item ID", Integer.valueOf(i), item.getId());
+            assertEquals("item name", "item " + i, item.getName());
+        }
+    }
+
+    @Test
+    public void testNotAuthenticated() throws InterruptedException {
+        DSpaceAsyncRestClient client = newClient(server.getBaseUrl());
+        try {
+            client.getItem(1, null).get();
+            fail("Expected ExecutionException to be thrown");
+        } catch (ExecutionException e) {
+            assertTrue("cause " + e.getCause(), e.getCause() instanceof HttpClientErrorException);
+            assertEquals("HTTP status", HttpStatus.UNAUTHORIZED,
+                    ((HttpClientErrorException) e.getCause()).getStatusCode());
+        }
+    }
+
+}
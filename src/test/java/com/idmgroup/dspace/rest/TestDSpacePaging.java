@@ -0,0 +1,179 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Tests the lazy paging, against a fake client.
+ * 
+ * @author arnaud
+ */
+public class TestDSpacePaging {
+
+    /**
+     * Lists a given number of items, slowly, recording the requested offsets.
+     */
+    private static class FakeClient extends DSpaceRestClient {
+
+        private final long delay;
+
+        private final int failAtOffset;
+
+        private final List<Integer> offsets = new CopyOnWriteArrayList<Integer>();
+
+        private final int total;
+
+        public FakeClient(int total, long delay, int failAtOffset) {
+            this.total = total;
+            this.delay = delay;
+            this.failAtOffset = failAtOffset;
+        }
+
+        @Override
+        public Item[] getCollectionItems(Integer collection_id, String expand, Integer limit, Integer offset) {
+            offsets.add(offset);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (offset == failAtOffset)
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            int count = Math.max(0, Math.min(limit, total - offset));
+            Item[] result = new Item[count];
+            for (int i = 0; i < count; ++i) {
+                result[i] = new Item();
+                result[i].setId(offset + i);
+            }
+            return result;
+        }
+
+    }
+
+    private static int count(Iterable<Item> items) {
+        int expected = 0;
+        for (Item item : items) {
+            assertEquals("item ID", Integer.valueOf(expected), item.getId());
+            ++expected;
+        }
+        return expected;
+    }
+
+    /**
+     * Waits for the tasks submitted before to a single thread executor.
+     */
+    private static void drain(ExecutorService executor) throws InterruptedException, ExecutionException {
+        executor.submit(new Runnable() {
+
+            @Override
+            public void run() {
+                // Runs after the others.
+            }
+
+        }).get();
+    }
+
+    @Test
+    public void testEmpty() {
+        DSpacePaging paging = new DSpacePaging(new FakeClient(0, 0, -1));
+        assertFalse("hasNext", paging.collectionItems(1, null).iterator().hasNext());
+    }
+
+    @Test
+    public void testExactMultipleOfPageSize() {
+        FakeClient client = new FakeClient(30, 0, -1);
+        DSpacePaging paging = new DSpacePaging(client);
+        paging.setPageSize(10);
+        paging.setPrefetch(0);
+        assertEquals("item count", 30, count(paging.collectionItems(1, null)));
+        assertEquals("offsets", "[0, 10, 20, 30]", client.offsets.toString());
+    }
+
+    @Test
+    public void testFailure() {
+        DSpacePaging paging = new DSpacePaging(new FakeClient(100, 0, 20));
+        paging.setPageSize(10);
+        paging.setPrefetch(2);
+        try {
+            count(paging.collectionItems(1, null));
+            fail("Expected HttpServerErrorException to be thrown");
+        } catch (HttpServerErrorException e) {
+            assertEquals("HTTP status", HttpStatus.INTERNAL_SERVER_ERROR, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testPrefetchHidesLatency() {
+        final int pages = 10;
+        final long delay = 50;
+        DSpacePaging paging = new DSpacePaging(new FakeClient(pages * 10 - 3, delay, -1));
+        paging.setPageSize(10);
+        paging.setPrefetch(2);
+        long start = System.currentTimeMillis();
+        int count = 0;
+        for (Item item : paging.collectionItems(1, null)) {
+            assertEquals("item ID", Integer.valueOf(count), item.getId());
+            ++count;
+            if (item.getId() % 10 == 9) {
+                // The caller works as long as a fetch takes.
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        assertEquals("item count", pages * 10 - 3, count);
+        // Serially it would take twice as long.
+        assertTrue("elapsed " + elapsed, elapsed < 2 * pages * delay * 3 / 4);
+    }
+
+    @Test
+    public void testPrefetchOffsets() throws InterruptedException, ExecutionException {
+        FakeClient client = new FakeClient(100, 0, -1);
+        DSpacePaging paging = new DSpacePaging(client);
+        paging.setPageSize(10);
+        paging.setPrefetch(2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            paging.setExecutor(executor);
+            PageIterator<Item> items = paging.collectionItems(1, null).iterator();
+            items.next();
+            drain(executor);
+            // The current page and two ahead.
+            assertEquals("offsets", "[0, 10, 20]", client.offsets.toString());
+            for (int i = 1; i <= 10; ++i) {
+                items.next();
+            }
+            drain(executor);
+            assertEquals("offsets", "[0, 10, 20, 30]", client.offsets.toString());
+            items.close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testShortLastPage() {
+        FakeClient client = new FakeClient(25, 0, -1);
+        DSpacePaging paging = new DSpacePaging(client);
+        paging.setPageSize(10);
+        assertEquals("item count", 25, count(paging.collectionItems(1, null)));
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the REST client (streamed bitstream data), against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestDSpaceRestClientBitstreamData {
+
+    /**
+     * Serves {@link SyntheticInputStream} content, the bitstream ID being its length.
+     */
+    public static class SyntheticRetrieveHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath();
+            long length = Long.parseLong(path.replaceAll("^.*/bitstreams/([0-9]+)/retrieve$", "$1"));
+            if (length == 404) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, length);
+            OutputStream out = exchange.getResponseBody();
+            try {
+                Streams.copy(new SyntheticInputStream(length), out);
+            } finally {
+                exchange.close();
+            }
+        }
+
+    }
+
+    /**
+     * Checks the bytes against {@link SyntheticInputStream} as they are written.
+     */
+    public static class VerifyingOutputStream extends OutputStream {
+
+        private long position;
+
+        public long getPosition() {
+            return position;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if ((b & 0xff) != SyntheticInputStream.byteAt(position))
+                throw new IOException("unexpected byte at " + position);
+            ++position;
+        }
+
+    }
+
+    private static final int LARGE_LENGTH = 64 * 1024 * 1024 + 17;
+
+    private StubHttpServer server;
+
+    private DSpaceRestClient newClient(String url) {
+        RestTemplate restTemplate = new RestTemplate();
+        return new DSpaceRestClient(url, restTemplate);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.handle("/bitstreams", new SyntheticRetrieveHandler());
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testGetBitstreamDataToChannel() {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        VerifyingOutputStream out = new VerifyingOutputStream();
+        long count = client.getBitstreamData(LARGE_LENGTH, Channels.newChannel(out));
+        assertEquals("bytes copied", LARGE_LENGTH, count);
+        assertEquals("bytes verified", LARGE_LENGTH, out.getPosition());
+    }
+
+    @Test
+    public void testGetBitstreamDataToFile() throws IOException {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        Path file = Files.createTempFile("bitstream", ".bin");
+        try {
+            long count = client.getBitstreamData(100000, file);
+            assertEquals("bytes copied", 100000, count);
+            assertEquals("file size", 100000, Files.size(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testGetBitstreamDataToOutputStream() {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        VerifyingOutputStream out = new VerifyingOutputStream();
+        long count = client.getBitstreamData(LARGE_LENGTH, out);
+        assertEquals("bytes copied", LARGE_LENGTH, count);
+        assertEquals("bytes verified", LARGE_LENGTH, out.getPosition());
+    }
+
+    @Test
+    public void testGetBitstreamDataNotFound() {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        try {
+            client.getBitstreamData(404, new VerifyingOutputStream());
+            fail("Expected HttpClientErrorException to be thrown");
+        } catch (HttpClientErrorException e) {
+            assertEquals("HTTP status", HttpStatus.NOT_FOUND, e.getStatusCode());
+        }
+        try {
+            client.openBitstreamData(404);
+            fail("Expected HttpClientErrorException to be thrown");
+        } catch (HttpClientErrorException e) {
+            assertEquals("HTTP status", HttpStatus.NOT_FOUND, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testOpenBitstreamData() throws IOException {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        InputStream in = client.openBitstreamData(LARGE_LENGTH);
+        try {
+            for (int i = 0; i < 1000; ++i) {
+                assertEquals("byte " + i, SyntheticInputStream.byteAt(i), in.read());
+            }
+        } finally {
+            // Closing early must not read the rest of the content.
+            in.close();
+        }
+    }
+
+}
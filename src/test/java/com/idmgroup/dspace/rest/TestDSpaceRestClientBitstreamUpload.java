@@ -0,0 +1,245 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the REST client (streamed uploads), against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestDSpaceRestClientBitstreamUpload {
+
+    /**
+     * Reads the whole request body and answers with a bitstream whose size is the number of bytes received.
+     */
+    private static class CountingHandler implements HttpHandler {
+
+        private volatile String contentLength;
+
+        private volatile String transferEncoding;
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+            transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+            InputStream in = exchange.getRequestBody();
+            byte[] buffer = new byte[Streams.BUFFER_SIZE];
+            long count = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                count += read;
+            }
+            if ("PUT".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                byte[] body = ("{\"id\":1,\"name\":\"synthetic\",\"sizeBytes\":" + count + "}").getBytes(Charset
+                        .forName("UTF-8"));
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+            }
+            exchange.close();
+        }
+
+    }
+
+    /**
+     * Samples the heap retained, forcing a garbage collection before each sample.
+     */
+    private static class RetainedHeapSampler extends Thread {
+
+        private final AtomicLong max = new AtomicLong();
+
+        private volatile boolean running = true;
+
+        public RetainedHeapSampler() {
+            setDaemon(true);
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                long retained = retainedHeap();
+                if (retained > max.get())
+                    max.set(retained);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        public void shutdown() throws InterruptedException {
+            running = false;
+            join();
+        }
+
+    }
+
+    /**
+     * Content of any length that is not even generated: the stub discards it anyway.
+     */
+    private static class UnwrittenInputStream extends InputStream {
+
+        private long remaining;
+
+        public UnwrittenInputStream(long length) {
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() {
+            if (remaining <= 0)
+                return -1;
+            --remaining;
+            return 0;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0)
+                return -1;
+            int count = (int) Math.min(len, remaining);
+            remaining -= count;
+            return count;
+        }
+
+    }
+
+    private static final long HUGE_LENGTH = 300L * 1024 * 1024 + 17;
+
+    private static final long OVER_2_GIB = (1L << 31) + 17;
+
+    private static long retainedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private CountingHandler handler;
+
+    private StubHttpServer server;
+
+    private DSpaceRestClient newClient(String url) {
+        RestTemplate restTemplate = new RestTemplate();
+        return new DSpaceRestClient(url, restTemplate);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        handler = new CountingHandler();
+        server = new StubHttpServer();
+        server.handle("/items", handler);
+        server.handle("/bitstreams", handler);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testAddItemBitstreamFromFile() throws IOException {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        Path file = Files.createTempFile("bitstream", ".bin");
+        try {
+            Streams.copy(new SyntheticInputStream(100000), file);
+            Bitstream bitstream = client.addItemBitstream(1, "synthetic", null, null, null, null, null, file);
+            assertEquals("size received", Long.valueOf(100000), bitstream.getSizeBytes());
+            assertEquals("Content-Length", "100000", handler.contentLength);
+            assertNull("Transfer-Encoding", handler.transferEncoding);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * The body is ten times the allowed heap growth: it must not go through a byte array, and the heap retained after
+     * garbage collections must stay flat.
+     */
+    @Test
+    public void testAddItemBitstreamHugeChunked() throws InterruptedException {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        System.gc();
+        long before = retainedHeap();
+        RetainedHeapSampler sampler = new RetainedHeapSampler();
+        sampler.start();
+        Bitstream bitstream;
+        try {
+            bitstream = client.addItemBitstream(1, "synthetic", null, null, null, null, null,
+                    new SyntheticInputStream(HUGE_LENGTH), -1);
+        } finally {
+            sampler.shutdown();
+        }
+        assertEquals("size received", Long.valueOf(HUGE_LENGTH), bitstream.getSizeBytes());
+        assertEquals("Transfer-Encoding", "chunked", handler.transferEncoding);
+        long growth = sampler.getMax() - before;
+        assertTrue("retained heap growth " + growth, growth < 32 * 1024 * 1024);
+    }
+
+    /**
+     * SimpleStreamingClientHttpRequest truncates the content length to an int: past 2 GiB the body goes chunked.
+     */
+    @Test
+    public void testAddItemBitstreamOver2GiB() {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        Bitstream bitstream = client.addItemBitstream(1, "synthetic", null, null, null, null, null,
+                new UnwrittenInputStream(OVER_2_GIB), OVER_2_GIB);
+        assertEquals("size received", Long.valueOf(OVER_2_GIB), bitstream.getSizeBytes());
+        assertNull("Content-Length", handler.contentLength);
+        assertEquals("Transfer-Encoding", "chunked", handler.transferEncoding);
+    }
+
+    /**
+     * A streaming request factory takes the content length as a long, past 2 GiB too.
+     */
+    @Test
+    public void testAddItemBitstreamOver2GiBStreaming() {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+        requestFactory.setBufferRequestBody(false);
+        client.setUploadRequestFactory(requestFactory);
+        Bitstream bitstream = client.addItemBitstream(1, "synthetic", null, null, null, null, null,
+                new UnwrittenInputStream(OVER_2_GIB), OVER_2_GIB);
+        assertEquals("size received", Long.valueOf(OVER_2_GIB), bitstream.getSizeBytes());
+        assertEquals("Content-Length", Long.toString(OVER_2_GIB), handler.contentLength);
+        assertNull("Transfer-Encoding", handler.transferEncoding);
+    }
+
+    @Test
+    public void testUpdateBitstreamData() {
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        client.updateBitstreamData(1, new SyntheticInputStream(100000), 100000);
+        assertEquals("Content-Length", "100000", handler.contentLength);
+        client.updateBitstreamData(1, new SyntheticInputStream(100000), -1);
+        assertEquals("Transfer-Encoding", "chunked", handler.transferEncoding);
+    }
+
+}
@@ -2,7 +2,6 @@ package com.idmgroup.dspace.rest;
 
 import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
 import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
-import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_URL;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_COMMUNITY_NAME;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_UNICODE;
 import static com.idmgroup.dspace.rest.jersey.JerseyTestUtils.user;
@@ -12,7 +11,6 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
-import org.junit.Before;
 import org.junit.Test;
 import org.mockito.internal.matchers.Matches;
 import org.springframework.http.HttpStatus;
@@ -32,14 +30,9 @@ public class TestDSpaceRestClientCommunities {
         return client;
     }
 
-    @Before
-    public void setUp() {
-        TestUtils.trustAllSSL();
-    }
-
     @Test
     public void testCreateUpdateDeleteCommunity() {
-        DSpaceRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceRestClient client = newClient(TestUtils.dspaceUrl());
         client.login(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD));
 
         Community community = new Community();
@@ -1,11 +1,9 @@
 package com.idmgroup.dspace.rest;
 
-import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_URL;
 import static org.junit.Assert.assertEquals;
 
 import java.util.LinkedHashMap;
 
-import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.springframework.web.client.RestTemplate;
@@ -24,16 +22,11 @@ public class TestDSpaceRestClientHandle {
         return new DSpaceRestClient(url, restTemplate);
     }
 
-    @Before
-    public void setUp() {
-        TestUtils.trustAllSSL();
-    }
-
     @Test
     @Ignore
     // Unignore when the context issue is fixed upstream.
     public void testGetCommunity() {
-        DSpaceRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceRestClient client = newClient(TestUtils.dspaceUrl());
         {
             Object sampleCommunity = client.getObject("123456789", "1", null, Object.class);
             assertEquals("sample community class Object", LinkedHashMap.class, sampleCommunity.getClass());
@@ -9,7 +9,6 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
-import org.junit.Before;
 import org.junit.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.client.HttpClientErrorException;
@@ -27,11 +26,6 @@ public class TestDSpaceRestClientIndex {
         return new DSpaceRestClient(url, restTemplate);
     }
 
-    @Before
-    public void setUp() {
-        TestUtils.trustAllSSL();
-    }
-
          /**
      * Code coverage.
      * 
@@ -49,7 +43,7 @@ public class TestDSpaceRestClientIndex {
      */
     @Test
     public void testIndex() {
-        DSpaceRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceRestClient client = newClient(TestUtils.dspaceUrl());
         String index = client.sayHtmlHello();
         assertTrue("index title", index.indexOf("<title>DSpace REST - index</title>") >= 0);
         assertTrue("index index heading", index.indexOf("<h2>Index</h2>") >= 0);
@@ -64,7 +58,7 @@ public class TestDSpaceRestClientIndex {
      */
     @Test
     public void testLogin() {
-        DSpaceRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceRestClient client = newClient(TestUtils.dspaceUrl());
         String token = client.login(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD));
         assertTrue("dspace token format", token.matches("[-0-9A-Fa-f]+"));
     }
@@ -74,7 +68,7 @@ public class TestDSpaceRestClientIndex {
      */
     @Test
     public void testLoginFail() {
-        DSpaceRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceRestClient client = newClient(TestUtils.dspaceUrl());
         try {
             client.login(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_BAD_PASSWORD));
             fail("Expected HttpClientErrorException to be thrown");
@@ -89,7 +83,7 @@ public class TestDSpaceRestClientIndex {
     // Don't test the logout as it is a global logout
     // @Test
     public void testLogout() {
-        DSpaceRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceRestClient client = newClient(TestUtils.dspaceUrl());
         client.login(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD));
         client.logout();
     }
@@ -99,7 +93,7 @@ public class TestDSpaceRestClientIndex {
      */
     @Test
     public void testLogoutFail() {
-        DSpaceRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceRestClient client = newClient(TestUtils.dspaceUrl());
         try {
             client.logout();
             fail("Expected HttpClientErrorException to be thrown");
@@ -113,7 +107,7 @@ public class TestDSpaceRestClientIndex {
      */
     @Test
     public void testTest() {
-        DSpaceRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceRestClient client = newClient(TestUtils.dspaceUrl());
         String testString = client.test();
         assertEquals("test string", "REST api is running.", testString);
     }
@@ -2,7 +2,6 @@ package com.idmgroup.dspace.rest;
 
 import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
 import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
-import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_URL;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_COLLECTION_NAME;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_COMMUNITY_NAME;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_UNICODE;
@@ -15,7 +14,6 @@ import static org.junit.Assert.fail;
 
 import java.io.InputStream;
 
-import org.junit.Before;
 import org.junit.Test;
 import org.mockito.internal.matchers.Matches;
 import org.springframework.http.HttpStatus;
@@ -55,14 +53,9 @@ public class TestDSpaceRestClientItems {
         return new DSpaceRestClient(url, restTemplate);
     }
 
-    @Before
-    public void setUp() {
-        TestUtils.trustAllSSL();
-    }
-
     @Test
     public void testCreateItemAndBitStreams() {
-        DSpaceRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceRestClient client = newClient(TestUtils.dspaceUrl());
         client.login(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD));
 
         Community community = new Community();
@@ -0,0 +1,151 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+
+/**
+ * Tests the streaming listings of {@link DSpaceRestClient}, against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestDSpaceRestClientStreaming {
+
+    private static class Collector implements ListingHandler<Item> {
+
+        private final List<Item> items = new ArrayList<Item>();
+
+        @Override
+        public void handle(Item object) {
+            items.add(object);
+        }
+
+    }
+
+    private DSpaceRestClient client;
+
+    private StubDSpaceServer server;
+
+    private static void assertSameItems(Item[] expected, List<Item> actual) {
+        assertEquals("count", expected.length, actual.size());
+        for (int i = 0; i < expected.length; ++i) {
+            assertEquals("id", expected[i].getId(), actual.get(i).getId());
+            assertEquals("name", expected[i].getName(), actual.get(i).getName());
+            assertEquals("metadata", expected[i].getMetadata().size(), actual.get(i).getMetadata().size());
+            assertEquals("bitstreams", expected[i].getBitstreams().size(), actual.get(i).getBitstreams().size());
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().setSeedBitstreams(2);
+        server.getRepository().seed(1, 2, 30);
+        server.start();
+        client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testFindItemsByMetadataField() {
+        MetadataEntry entry = new MetadataEntry();
+        entry.setKey("dc.title");
+        entry.setLanguage("en_US");
+        Item first = client.getItems(null, 1, 0)[0];
+        entry.setValue(first.getName());
+        Collector collector = new Collector();
+        assertEquals(1, client.findItemsByMetadataField("metadata", entry, collector));
+        assertSameItems(client.findItemsByMetadataField("metadata", entry), collector.items);
+    }
+
+    @Test
+    public void testGetCollectionItems() {
+        int collectionId = client.getCollections(null, 1, 0)[0].getId();
+        Collector collector = new Collector();
+        assertEquals(20, client.getCollectionItems(collectionId, "metadata", 20, 0, collector));
+        assertEquals(10, client.getCollectionItems(collectionId, "metadata", 20, 20, collector));
+        assertSameItems(client.getCollectionItems(collectionId, "metadata", 100, 0), collector.items);
+    }
+
+    @Test
+    public void testGetItems() {
+        Collector collector = new Collector();
+        assertEquals(60, client.getItems("metadata,bitstreams", 100, 0, collector));
+        assertSameItems(client.getItems("metadata,bitstreams", 100, 0), collector.items);
+    }
+
+    @Test
+    public void testHandlerFailure() {
+        final int[] handled = new int[1];
+        try {
+            client.getItems(null, 100, 0, new ListingHandler<Item>() {
+
+                @Override
+                public void handle(Item object) {
+                    if (++handled[0] == 5)
+                        throw new IllegalStateException("stop");
+                }
+
+            });
+            fail("expected the handler failure");
+        } catch (IllegalStateException e) {
+            assertEquals("stop", e.getMessage());
+        }
+        assertEquals(5, handled[0]);
+    }
+
+    @Test
+    public void testNotFound() {
+        try {
+            client.getCollectionItems(-1, null, 10, 0, new Collector());
+            fail("expected 404");
+        } catch (HttpClientErrorException e) {
+            assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testReader() throws IOException {
+        JsonArrayReader<Item> reader = new JsonArrayReader<Item>(Jackson2ObjectMapperBuilder.json().build(),
+                Item.class);
+        Collector collector = new Collector();
+        byte[] json = "[{\"id\":1},null,{\"id\":2,\"name\":\"two\"}]".getBytes(Charset.forName("UTF-8"));
+        assertEquals(2, reader.read(new ByteArrayInputStream(json), collector));
+        assertEquals(2, collector.items.get(1).getId().intValue());
+        assertEquals("two", collector.items.get(1).getName());
+        try {
+            reader.read(new ByteArrayInputStream("{\"id\":1}".getBytes(Charset.forName("UTF-8"))), collector);
+            fail("expected not an array");
+        } catch (HttpMessageNotReadableException e) {
+            // expected
+        }
+        try {
+            reader.read(new ByteArrayInputStream("[{\"id\":1},".getBytes(Charset.forName("UTF-8"))), collector);
+            fail("expected truncated");
+        } catch (HttpMessageNotReadableException e) {
+            // expected
+        }
+    }
+
+}
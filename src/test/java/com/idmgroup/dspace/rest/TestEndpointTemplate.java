@@ -0,0 +1,86 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.web.util.DefaultUriTemplateHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Tests the endpoint templates against the URIs built by {@link UriComponentsBuilder} and expanded by the REST
+ * template, as the generated clients used to.
+ * 
+ * @author arnaud
+ */
+public class TestEndpointTemplate {
+
+    private static final String BASE_URL = "https://demo.dspace.org/rest";
+
+    private static URI expected(String path, Map<String, Object> uriVariables, String[] queryParams,
+            Object[] queryValues) {
+        UriComponentsBuilder queryBuilder = UriComponentsBuilder.fromUriString(BASE_URL).path(path);
+        for (int i = 0; i < queryParams.length; ++i) {
+            queryBuilder.queryParam(queryParams[i], queryValues[i]);
+        }
+        return new DefaultUriTemplateHandler().expand(queryBuilder.buildAndExpand(uriVariables).toUriString());
+    }
+
+    @Test
+    public void testAsBefore() {
+        EndpointTemplate template = new EndpointTemplate("/items/{item_id}", "expand", "userIP", "userAgent");
+        String[] queryParams = { "expand", "userIP", "userAgent" };
+        Object[][] queryValues = { { null, null, null }, { "metadata,bitstreams", "127.0.0.1", "Mozilla/5.0 (X11)" },
+                { "été", "a+b", "x/y?z" }, { "", "%", "~!$'()*;:@" } };
+        for (Object[] values : queryValues) {
+            Map<String, Object> uriVariables = Collections.<String, Object> singletonMap("item_id", 42);
+            assertEquals(Arrays.toString(values), expected("/items/{item_id}", uriVariables, queryParams, values),
+                    template.expand(BASE_URL, 42, values[0], values[1], values[2]));
+        }
+    }
+
+    @Test
+    public void testNamedValues() {
+        EndpointTemplate template = new EndpointTemplate("/handle/{prefix}/{suffix}", "expand");
+        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
+        uriVariables.put("suffix", "a b/é");
+        uriVariables.put("prefix", "123456789");
+        assertEquals("by name", template.expand(BASE_URL, "123456789", "a b/é", "all"),
+                template.expand(BASE_URL, uriVariables, Collections.singletonMap("expand", "all")));
+        assertEquals("no query parameters", template.expand(BASE_URL, "123456789", "a b/é", null),
+                template.expand(BASE_URL, uriVariables, null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullVariable() {
+        new EndpointTemplate("/items/{item_id}").expand(BASE_URL, (Object) null);
+    }
+
+    @Test
+    public void testPathVariables() {
+        EndpointTemplate template = new EndpointTemplate("/handle/{prefix}/{suffix}", "expand");
+        Map<String, Object> uriVariables = new LinkedHashMap<String, Object>();
+        uriVariables.put("prefix", "123456789");
+        uriVariables.put("suffix", "a b/é");
+        assertEquals("encoded", expected("/handle/{prefix}/{suffix}", uriVariables, new String[] { "expand" },
+                new Object[] { "all" }), template.expand(BASE_URL, "123456789", "a b/é", "all"));
+        assertEquals("variables", Arrays.asList("prefix", "suffix"), template.getVariables());
+    }
+
+    @Test
+    public void testReservedQueryCharacters() {
+        EndpointTemplate template = new EndpointTemplate("/items", "expand");
+        assertEquals("encoded", URI.create(BASE_URL + "/items?expand=a%26b%3Dc"), template.expand(BASE_URL, "a&b=c"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValueCount() {
+        new EndpointTemplate("/items/{item_id}", "expand").expand(BASE_URL, 1);
+    }
+
+}
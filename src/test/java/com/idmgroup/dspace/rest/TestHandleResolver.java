@@ -0,0 +1,162 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the handle resolver, against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestHandleResolver {
+
+    /**
+     * The handle 123456789/N is the item N if N % 3 == 0, the collection N if N % 3 == 1, the community N otherwise.
+     * The handles from 123456789/1000 are not found, 123456789/500 fails.
+     */
+    private class StubHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath().substring(StubHttpServer.CONTEXT_PATH.length());
+            requests.add(path);
+            int id = Integer.parseInt(path.replaceAll("^.*/", ""));
+            if (id == 500) {
+                send(exchange, 500, "");
+                return;
+            }
+            if (id >= 1000) {
+                send(exchange, 404, "");
+                return;
+            }
+            String type;
+            if (path.startsWith("/handle/"))
+                type = TYPES[id % 3];
+            else
+                type = path.substring(1, path.indexOf('/', 1) - 1).replaceFirst("itie$", "ity");
+            send(exchange, 200, "{\"id\":" + id + ",\"type\":\"" + type + "\",\"name\":\"" + type + " " + id + "\"}");
+        }
+
+        private void send(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(Charset.forName("UTF-8"));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        }
+
+    }
+
+    private static final String[] TYPES = { "item", "collection", "community" };
+
+    private final List<String> requests = new CopyOnWriteArrayList<String>();
+
+    private HandleResolver resolver;
+
+    private StubHttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        StubHandler handler = new StubHandler();
+        server.handle("/handle", handler);
+        server.handle("/items", handler);
+        server.handle("/collections", handler);
+        server.handle("/communities", handler);
+        server.start();
+        resolver = new HandleResolver(new DSpaceRestClient(server.getBaseUrl(), new RestTemplate()));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testGetObject() {
+        DSpaceObject object = resolver.getObject("123456789/3", null);
+        assertTrue("item", object instanceof Item);
+        assertEquals("item ID", Integer.valueOf(3), object.getId());
+        assertTrue("collection", resolver.getObject("123456789/4", null) instanceof Collection);
+        assertTrue("community", resolver.getObject("123456789/5", null) instanceof Community);
+        assertNull("not found", resolver.getObject("123456789/1000", null));
+        assertEquals("one request each", "[/handle/123456789/3, /handle/123456789/4, /handle/123456789/5, "
+                + "/handle/123456789/1000]", requests.toString());
+        // Resolved by the same request.
+        assertEquals("type", "item", resolver.resolve("123456789/3").getType());
+        assertNull("not found", resolver.getObject("123456789/1000", null));
+        assertEquals("requests", 4, requests.size());
+        assertEquals("name", "item 3", resolver.getObject("123456789/3", null).getName());
+        assertTrue("typed request", requests.contains("/items/3"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformed() {
+        resolver.resolve("123456789");
+    }
+
+    @Test
+    public void testNotFound() throws InterruptedException {
+        resolver.setNotFoundTimeToLive(100);
+        assertNull("not found", resolver.resolve("123456789/1000"));
+        assertNull("not found", resolver.resolve("123456789/1000"));
+        assertEquals("requests", 1, Collections.frequency(requests, "/handle/123456789/1000"));
+        Thread.sleep(200);
+        assertNull("not found", resolver.resolve("123456789/1000"));
+        assertEquals("requests after expiration", 2, Collections.frequency(requests, "/handle/123456789/1000"));
+    }
+
+    @Test
+    public void testResolve() {
+        ResolvedHandle resolved = resolver.resolve("hdl:123456789/4");
+        assertEquals("handle", "123456789/4", resolved.getHandle());
+        assertEquals("type", "collection", resolved.getType());
+        assertEquals("ID", Integer.valueOf(4), resolved.getId());
+        assertEquals("class", Collection.class, resolved.getObjectClass());
+        resolver.resolve("123456789/4");
+        resolver.resolve("http://hdl.handle.net/123456789/4");
+        assertEquals("requests", 1, requests.size());
+    }
+
+    @Test
+    public void testResolveAll() {
+        List<String> handles = new ArrayList<String>();
+        for (int i = 0; i < 1000; ++i) {
+            handles.add("123456789/" + (i % 100));
+        }
+        handles.add("123456789/1000");
+        handles.add("123456789/500");
+        resolver.setParallelism(4);
+        Map<String, ResolvedHandle> resolved = resolver.resolveAll(handles);
+        assertEquals("distinct handles requested once", 102, requests.size());
+        assertEquals("size", 101, resolved.size());
+        assertEquals("first", "123456789/0", resolved.keySet().iterator().next());
+        assertEquals("type", "community", resolved.get("123456789/98").getType());
+        assertTrue("not found", resolved.containsKey("123456789/1000"));
+        assertNull("not found", resolved.get("123456789/1000"));
+        assertFalse("failed", resolved.containsKey("123456789/500"));
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Tests the parallel harvester, against a fake client.
+ * 
+ * @author arnaud
+ */
+public class TestHarvester {
+
+    /**
+     * Lists a collection of items whose IDs are their initial offsets. The first items can be deleted after a given
+     * number of page fetches, shifting all the others.
+     */
+    private static class FakeClient extends DSpaceRestClient {
+
+        private final int deleteAfter;
+
+        private final int deleteCount;
+
+        private final int failAtOffset;
+
+        private final AtomicInteger fetches = new AtomicInteger();
+
+        private final List<Integer> ids = new ArrayList<Integer>();
+
+        public FakeClient(int total, int failAtOffset, int deleteAfter, int deleteCount) {
+            for (int i = 0; i < total; ++i) {
+                ids.add(i);
+            }
+            this.failAtOffset = failAtOffset;
+            this.deleteAfter = deleteAfter;
+            this.deleteCount = deleteCount;
+        }
+
+        @Override
+        public Collection getCollection(Integer collection_id, String expand, Integer limit, Integer offset) {
+            Collection result = new Collection();
+            result.setId(collection_id);
+            synchronized (ids) {
+                result.setNumberItems(ids.size());
+            }
+            return result;
+        }
+
+        @Override
+        public Item[] getCollectionItems(Integer collection_id, String expand, Integer limit, Integer offset) {
+            if (offset == failAtOffset)
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            synchronized (ids) {
+                if (fetches.incrementAndGet() == deleteAfter) {
+                    ids.subList(0, deleteCount).clear();
+                }
+                int count = Math.max(0, Math.min(limit, ids.size() - offset));
+                Item[] result = new Item[count];
+                for (int i = 0; i < count; ++i) {
+                    result[i] = new Item();
+                    result[i].setId(ids.get(offset + i));
+                }
+                return result;
+            }
+        }
+
+    }
+
+    /**
+     * Records the harvested IDs, failing on the second occurrence of an ID.
+     */
+    private static class Recorder implements HarvestHandler<Item> {
+
+        final BitSet ids = new BitSet();
+
+        @Override
+        public void handle(Item item) {
+            synchronized (ids) {
+                assertFalse("handled twice " + item.getId(), ids.get(item.getId()));
+                ids.set(item.getId());
+            }
+        }
+
+    }
+
+    @Test
+    public void testAll() {
+        Harvester harvester = new Harvester(new FakeClient(1050, -1, -1, 0));
+        Recorder recorder = new Recorder();
+        HarvestResult result = harvester.harvestCollection(1, null, recorder);
+        assertEquals("expected", 1050, result.getExpected());
+        assertEquals("harvested", 1050, result.getHarvested());
+        assertTrue("complete", result.isComplete());
+        assertEquals("IDs", 1050, recorder.ids.cardinality());
+        assertEquals("last ID", 1049, recorder.ids.length() - 1);
+    }
+
+    @Test
+    public void testEmpty() {
+        Harvester harvester = new Harvester(new FakeClient(0, -1, -1, 0));
+        HarvestResult result = harvester.harvestCollection(1, null, new Recorder());
+        assertEquals("harvested", 0, result.getHarvested());
+        assertTrue("complete", result.isComplete());
+    }
+
+    @Test
+    public void testFailure() {
+        Harvester harvester = new Harvester(new FakeClient(1000, 290, -1, 0));
+        harvester.setOverlap(10);
+        Recorder recorder = new Recorder();
+        HarvestResult result = harvester.harvestCollection(1, null, recorder);
+        assertFalse("complete", result.isComplete());
+        assertEquals("failed pages", 1, result.getFailures().size());
+        assertTrue("failed page", result.getFailures().containsKey(300));
+        // the page [300, 400[ is missing, except what the overlap of the next page fetched again
+        assertEquals("harvested", 910, result.getHarvested());
+        assertEquals("first missing ID", 300, recorder.ids.nextClearBit(0));
+    }
+
+    @Test
+    public void testHandlerFailure() {
+        Harvester harvester = new Harvester(new FakeClient(1000, -1, -1, 0));
+        final IllegalArgumentException error = new IllegalArgumentException();
+        try {
+            harvester.harvestCollection(1, null, new HarvestHandler<Item>() {
+
+                @Override
+                public void handle(Item item) {
+                    if (item.getId() == 500)
+                        throw error;
+                }
+
+            });
+            fail("should have thrown");
+        } catch (IllegalArgumentException e) {
+            assertSame("exception", error, e);
+        }
+    }
+
+    @Test
+    public void testQueue() {
+        Harvester harvester = new Harvester(new FakeClient(250, -1, -1, 0));
+        harvester.setPageSize(20);
+        LinkedBlockingQueue<Item> queue = new LinkedBlockingQueue<Item>();
+        HarvestResult result = harvester.harvestCollection(1, null, queue);
+        assertEquals("harvested", 250, result.getHarvested());
+        assertEquals("queued", 250, queue.size());
+    }
+
+    @Test
+    public void testServerDown() {
+        PageFetcher<Item> down = new PageFetcher<Item>() {
+
+            @Override
+            public Item[] fetch(int limit, int offset) {
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }
+
+        };
+        Harvester harvester = new Harvester(new FakeClient(0, -1, -1, 0));
+        harvester.setWorkers(4);
+        harvester.setMaxConsecutiveFailures(3);
+        // unknown size: the workers give up after 3 failures in a row, plus the pages already taken by the others
+        HarvestResult result = harvester.harvest(down, -1, new Recorder());
+        assertFalse("complete", result.isComplete());
+        assertEquals("harvested", 0, result.getHarvested());
+        assertTrue("failures " + result.getFailures().size(), result.getFailures().size() <= 3 + 3);
+
+        // known size: they give up at the first failed page past the announced size plus one page
+        harvester.setMaxConsecutiveFailures(1000);
+        result = harvester.harvest(down, 250, new Recorder());
+        assertFalse("complete", result.isComplete());
+        assertTrue("failures " + result.getFailures().keySet(), result.getFailures().size() <= 4 + 3);
+        for (Integer offset : result.getFailures().keySet()) {
+            assertTrue("offset " + offset, offset < 250 + 100 + 3 * 100);
+        }
+    }
+
+    @Test
+    public void testShift() {
+        // 5 items at the head are deleted after the first pages were fetched: the next pages shift by 5, which the
+        // overlap catches
+        Harvester harvester = new Harvester(new FakeClient(2000, -1, 3, 5));
+        harvester.setWorkers(1);
+        harvester.setOverlap(10);
+        Recorder recorder = new Recorder();
+        HarvestResult result = harvester.harvestCollection(1, null, recorder);
+        assertTrue("complete", result.isComplete());
+        assertEquals("harvested", 2000, result.getHarvested());
+        assertEquals("IDs", 2000, recorder.ids.cardinality());
+        assertTrue("duplicates", result.getDuplicates() > 0);
+    }
+
+    @Test
+    public void testShiftWithoutOverlap() {
+        Harvester harvester = new Harvester(new FakeClient(2000, -1, 3, 5));
+        harvester.setWorkers(1);
+        harvester.setOverlap(0);
+        HarvestResult result = harvester.harvestCollection(1, null, new Recorder());
+        // the 5 items shifted into the pages already fetched are missed
+        assertEquals("harvested", 1995, result.getHarvested());
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.idmgroup.dspace.rest;
+
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Tests the incremental harvester, against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestIncrementalHarvester {
+
+    /**
+     * Leaves some items out of the listings, as DSpace does with the items the caller may not read.
+     */
+    private static class HidingClient extends DSpaceRestClient {
+
+        private final Set<Integer> hidden = new HashSet<Integer>();
+
+        public HidingClient(String baseUrl) {
+            super(baseUrl, new RestTemplate());
+        }
+
+        @Override
+        public long getCollectionItems(Integer collection_id, String expand, Integer limit, Integer offset,
+                Projection projection, final ListingHandler<? super Item> handler) {
+            final long[] dropped = { 0 };
+            long count = super.getCollectionItems(collection_id, expand, limit, offset, projection,
+                    new ListingHandler<Item>() {
+
+                        @Override
+                        public void handle(Item item) {
+                            if (hidden.contains(item.getId()))
+                                ++dropped[0];
+                            else
+                                handler.handle(item);
+                        }
+
+                    });
+            return count - dropped[0];
+        }
+
+    }
+
+    /**
+     * Records the changes.
+     */
+    private static class Recorder implements ItemChangeHandler {
+
+        private final List<Item> created = new ArrayList<Item>();
+
+        private final List<Item> modified = new ArrayList<Item>();
+
+        private final List<Integer> removed = new ArrayList<Integer>();
+
+        @Override
+        public void created(Integer collection_id, Item item) {
+            created.add(item);
+        }
+
+        @Override
+        public void modified(Integer collection_id, Item item) {
+            modified.add(item);
+        }
+
+        @Override
+        public void removed(Integer collection_id, Integer item_id) {
+            removed.add(item_id);
+        }
+
+    }
+
+    private DSpaceRestClient client;
+
+    private int collectionId;
+
+    private Path file;
+
+    private StubDSpaceServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().addUser(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        server.getRepository().setSeedMetadataEntries(2);
+        server.getRepository().seed(1, 1, 30);
+        server.start();
+        client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+        User user = new User();
+        user.setEmail(DEMO_DSPACE_ADMIN);
+        user.setPassword(DEMO_DSPACE_PASSWORD);
+        client.login(user);
+        collectionId = client.getCollections(null, 1, 0)[0].getId();
+        file = Files.createTempFile("harvest", ".properties");
+        Files.delete(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testChanges() throws IOException, InterruptedException {
+        IncrementalHarvester harvester = new IncrementalHarvester(client, file);
+        harvester.setPageSize(7);
+        Recorder first = new Recorder();
+        SyncResult result = harvester.sync(collectionId, first);
+        assertEquals("created", 30, result.getCreated());
+        assertEquals("handled", 30, first.created.size());
+        assertTrue("checkpoint", Files.exists(file));
+        assertTrue("high-water mark", harvester.getHighWaterMark(collectionId) > 0);
+
+        result = harvester.sync(collectionId, new Recorder());
+        assertFalse(result.toString(), result.isChanged());
+        assertEquals("listed", 30, result.getListed());
+
+        Item[] items = client.getCollectionItems(collectionId, null, 100, 0);
+        // lastModified has a millisecond precision.
+        Thread.sleep(5);
+        MetadataEntry subject = new MetadataEntry();
+        subject.setKey("dc.subject");
+        subject.setValue("Physics");
+        client.addItemMetadata(items[3].getId(), new MetadataEntry[] { subject });
+        client.deleteItem(items[10].getId());
+        Item item = new Item();
+        item.setName("New item");
+        Item added = client.addCollectionItem(collectionId, item);
+
+        // Read back from the checkpoint file.
+        harvester = new IncrementalHarvester(client, file);
+        harvester.setExpand("metadata");
+        Recorder next = new Recorder();
+        result = harvester.sync(collectionId, next);
+        assertEquals("listed", 30, result.getListed());
+        assertEquals("created", 1, next.created.size());
+        assertEquals("created", added.getId(), next.created.get(0).getId());
+        assertEquals("modified", 1, next.modified.size());
+        assertEquals("modified", items[3].getId(), next.modified.get(0).getId());
+        assertFalse("expanded", next.modified.get(0).getMetadata().isEmpty());
+        assertEquals("removed", 1, next.removed.size());
+        assertEquals("removed", items[10].getId(), next.removed.get(0));
+
+        result = harvester.sync(collectionId, new Recorder());
+        assertFalse(result.toString(), result.isChanged());
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        IncrementalHarvester harvester = new IncrementalHarvester(client, file);
+        harvester.sync(collectionId, new Recorder());
+        harvester.reset(collectionId);
+        assertEquals("high-water mark", -1, harvester.getHighWaterMark(collectionId));
+        assertEquals("created", 30, harvester.sync(collectionId, new Recorder()).getCreated());
+    }
+
+    @Test
+    public void testShortPage() throws IOException {
+        HidingClient hiding = new HidingClient(server.getBaseUrl());
+        IncrementalHarvester harvester = new IncrementalHarvester(hiding, file);
+        harvester.setPageSize(7);
+        harvester.sync(collectionId, new Recorder());
+
+        // The second page is short, the next ones are not removed.
+        Item[] items = client.getCollectionItems(collectionId, null, 100, 0);
+        hiding.hidden.add(items[8].getId());
+        Recorder next = new Recorder();
+        SyncResult result = harvester.sync(collectionId, next);
+        assertEquals("listed", 29, result.getListed());
+        assertEquals("removed", 1, next.removed.size());
+        assertEquals("removed", items[8].getId(), next.removed.get(0));
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.idmgroup.dspace.rest;
+
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Tests the metadata editor, against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestMetadataEditor {
+
+    private DSpaceRestClient client;
+
+    private Item[] items;
+
+    private StubDSpaceServer server;
+
+    private List<String> values(int itemId, String key) {
+        List<String> result = new ArrayList<String>();
+        for (MetadataEntry entry : client.getItem(itemId, "metadata").getMetadata()) {
+            if (key.equals(entry.getKey())) {
+                result.add(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().addUser(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        server.getRepository().seed(1, 1, 50);
+        server.start();
+        client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+        User user = new User();
+        user.setEmail(DEMO_DSPACE_ADMIN);
+        user.setPassword(DEMO_DSPACE_PASSWORD);
+        client.login(user);
+        items = client.getItems("metadata", 100, 0);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testAdd() {
+        MetadataEditor editor = new MetadataEditor(client);
+        for (Item item : items) {
+            editor.add(item.getId(), "dc.subject", "Physics", "en_US");
+            editor.add(item.getId(), "dc.subject", "Chemistry", "en_US");
+            editor.add(item.getId(), "dc.rights", "CC-BY", null);
+        }
+        assertEquals("pending", 50, editor.getPendingItems());
+        MetadataEditResult result = editor.apply();
+        assertTrue(result.toString(), result.isComplete());
+        assertEquals("edited", 50, result.getEdited());
+        // One request per item.
+        assertEquals("requests", 50, result.getRequests());
+        assertEquals("pending", 0, editor.getPendingItems());
+        int id = items[7].getId();
+        List<String> subjects = values(id, "dc.subject");
+        assertEquals(3, subjects.size());
+        assertTrue(subjects.contains("Physics"));
+        assertTrue(subjects.contains("Chemistry"));
+        assertEquals(1, values(id, "dc.rights").size());
+    }
+
+    @Test
+    public void testFailure() {
+        MetadataEditor editor = new MetadataEditor(client);
+        editor.add(items[0].getId(), "dc.subject", "Physics", null);
+        editor.add(-1, "dc.subject", "Physics", null);
+        MetadataEditResult result = editor.apply();
+        assertFalse("complete", result.isComplete());
+        assertEquals("edited", 1, result.getEdited());
+        assertTrue("failure", result.getFailures().get(-1) instanceof HttpClientErrorException);
+    }
+
+    @Test
+    public void testReplace() {
+        MetadataEditor editor = new MetadataEditor(client);
+        editor.setConcurrency(8);
+        for (Item item : items) {
+            editor.replace(item.getId(), "dc.title", "New title " + item.getId(), "en_US");
+            editor.replace(item.getId(), "dc.contributor.author", "Doe, John", null);
+            // A value added after the replacement is one more value of it.
+            editor.add(item.getId(), "dc.contributor.author", "Roe, Jane", null);
+        }
+        MetadataEditResult result = editor.apply();
+        assertTrue(result.toString(), result.isComplete());
+        // One update with the first values, one addition with the others.
+        assertEquals("requests", 100, result.getRequests());
+        int id = items[12].getId();
+        assertEquals("New title " + id, client.getItem(id, null).getName());
+        List<String> authors = values(id, "dc.contributor.author");
+        assertEquals(2, authors.size());
+        assertTrue(authors.contains("Doe, John"));
+        assertTrue(authors.contains("Roe, Jane"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplaceWithNothing() {
+        new MetadataEditor(client).replace(items[0].getId(), "dc.subject");
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.DSpaceObject;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+
+/**
+ * Tests the metadata mirror.
+ * 
+ * @author arnaud
+ */
+public class TestMetadataMirror {
+
+    private static Item item(int id, String title) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(title);
+        item.setHandle("123456789/" + id);
+        MetadataEntry entry = new MetadataEntry();
+        entry.setKey("dc.title");
+        entry.setValue(title);
+        item.getMetadata().add(entry);
+        return item;
+    }
+
+    private Path directory;
+
+    private MetadataMirror mirror;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mirror");
+        mirror = new MetadataMirror(directory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mirror.close();
+        DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+        try {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        } finally {
+            files.close();
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        for (int i = 0; i < 10; ++i) {
+            mirror.put(item(1, "Version " + i));
+        }
+        mirror.put(item(2, "Removed"));
+        mirror.remove(Item.class, 2);
+        long before = mirror.getLogSize();
+        mirror.compact();
+        assertTrue("size " + mirror.getLogSize(), mirror.getLogSize() < before / 5);
+        assertEquals("Version 9", mirror.get(Item.class, 1).getObject().getName());
+        assertNull("removed", mirror.get(Item.class, 2));
+
+        mirror.close();
+        mirror = new MetadataMirror(directory);
+        assertEquals("Version 9", mirror.get(Item.class, 1).getObject().getName());
+    }
+
+    @Test
+    public void testCutRecord() throws IOException {
+        mirror.put(item(1, "Kept"));
+        mirror.put(item(2, "Cut"));
+        mirror.close();
+        // A crash while appending the last record.
+        FileChannel log = FileChannel.open(directory.resolve("objects.log"), StandardOpenOption.WRITE);
+        try {
+            log.truncate(log.size() - 3);
+        } finally {
+            log.close();
+        }
+        mirror = new MetadataMirror(directory);
+        assertEquals("Kept", mirror.get(Item.class, 1).getObject().getName());
+        assertNull("cut", mirror.get(Item.class, 2));
+        mirror.put(item(3, "Appended"));
+        assertEquals("Appended", mirror.get(Item.class, 3).getObject().getName());
+    }
+
+    @Test
+    public void testGrowth() throws IOException {
+        for (int i = 1; i <= 3000; ++i) {
+            mirror.put(item(i, "Item " + i));
+        }
+        for (int i = 1; i <= 3000; i += 7) {
+            assertEquals("Item " + i, mirror.get(Item.class, i).getObject().getName());
+            assertEquals(i, mirror.getByHandle("123456789/" + i).getObject().getId().intValue());
+        }
+    }
+
+    @Test
+    public void testLostIndex() throws IOException {
+        mirror.put(item(1, "Indexed again"));
+        mirror.close();
+        FileChannel index = FileChannel.open(directory.resolve("objects.idx"), StandardOpenOption.WRITE);
+        try {
+            index.write(ByteBuffer.allocate(4), 0);
+        } finally {
+            index.close();
+        }
+        mirror = new MetadataMirror(directory);
+        assertEquals("Indexed again", mirror.get(Item.class, 1).getObject().getName());
+    }
+
+    @Test
+    public void testPutGet() throws IOException {
+        Community community = new Community();
+        community.setId(1);
+        community.setName("Community");
+        community.setHandle("123456789/c1");
+        Collection collection = new Collection();
+        collection.setId(1);
+        collection.setName("Collection");
+        collection.setNumberItems(3);
+        mirror.put(community);
+        mirror.put(collection);
+        mirror.put(item(1, "Item"), 1234L);
+
+        MetadataMirror.Entry<Item> entry = mirror.get(Item.class, 1);
+        assertEquals("fetched", 1234L, entry.getFetched());
+        assertEquals("metadata", "Item", entry.getObject().getMetadata().get(0).getValue());
+        assertEquals("Community", mirror.get(Community.class, 1).getObject().getName());
+        assertEquals(3, mirror.get(Collection.class, 1).getObject().getNumberItems().intValue());
+        DSpaceObject byHandle = mirror.getByHandle("123456789/c1").getObject();
+        assertTrue("type", byHandle instanceof Community);
+        assertNull("missing", mirror.get(Item.class, 2));
+        assertNull("missing", mirror.getByHandle("123456789/2"));
+
+        // Persisted.
+        mirror.close();
+        mirror = new MetadataMirror(directory);
+        assertEquals("Item", mirror.get(Item.class, 1).getObject().getName());
+        assertEquals("Item", mirror.getByHandle("123456789/1").getObject().getName());
+    }
+
+    @Test
+    public void testReplaceRemove() throws IOException {
+        mirror.put(item(1, "First"));
+        Item moved = item(1, "Second");
+        moved.setHandle("123456789/moved");
+        mirror.put(moved);
+        assertEquals("Second", mirror.get(Item.class, 1).getObject().getName());
+        assertNull("old handle", mirror.getByHandle("123456789/1"));
+        assertEquals("Second", mirror.getByHandle("123456789/moved").getObject().getName());
+
+        mirror.remove(Item.class, 1);
+        assertNull("removed", mirror.get(Item.class, 1));
+        assertNull("removed", mirror.getByHandle("123456789/moved"));
+        mirror.close();
+        mirror = new MetadataMirror(directory);
+        assertNull("removed", mirror.get(Item.class, 1));
+    }
+
+}
@@ -0,0 +1,367 @@
+package com.idmgroup.dspace.rest;
+
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.MetadataEntry;
+import com.idmgroup.dspace.rest.jersey.ResourcePolicy;
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Tests the mirroring client, against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestMirroringDSpaceRestClient {
+
+    private MirroringDSpaceRestClient client;
+
+    private Path directory;
+
+    private Item[] items;
+
+    private MetadataMirror mirror;
+
+    private StubDSpaceServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().addUser(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        server.getRepository().seed(1, 1, 5);
+        server.start();
+        directory = Files.createTempDirectory("mirror");
+        mirror = new MetadataMirror(directory);
+        client = new MirroringDSpaceRestClient(server.getBaseUrl(), new RestTemplate(), mirror);
+        client.setExpand("metadata");
+        User user = new User();
+        user.setEmail(DEMO_DSPACE_ADMIN);
+        user.setPassword(DEMO_DSPACE_PASSWORD);
+        client.login(user);
+        items = client.getItems(null, 10, 0);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop();
+        mirror.close();
+        DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+        try {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        } finally {
+            files.close();
+        }
+        Files.delete(directory);
+    }
+
+    private Bitstream addBitstream(int item_id) {
+        return server.getRepository().addItemBitstream(item_id, "data.bin", "Data", new byte[] { 1, 2, 3 });
+    }
+
+    private Collection mirroredCollection() throws IOException {
+        Collection collection = client.getCollections(null, 1, 0)[0];
+        client.getCollection(collection.getId(), client.getExpand(), null, null);
+        assertNotNull("mirrored", mirror.get(Collection.class, collection.getId()));
+        return collection;
+    }
+
+    private Community mirroredCommunity() throws IOException {
+        Community community = client.getCommunities(null, 1, 0)[0];
+        client.getCommunity(community.getId(), client.getExpand());
+        assertNotNull("mirrored", mirror.get(Community.class, community.getId()));
+        return community;
+    }
+
+    private int mirroredItem() throws IOException {
+        int id = items[0].getId();
+        client.getItem(id, client.getExpand());
+        assertNotNull("mirrored", mirror.get(Item.class, id));
+        return id;
+    }
+
+    @Test
+    public void testAddBitstreamPolicy() throws IOException {
+        client.setExpand("bitstreams");
+        int id = mirroredItem();
+        Bitstream bitstream = addBitstream(id);
+        client.addBitstreamPolicy(bitstream.getId(), new ResourcePolicy());
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+    }
+
+    @Test
+    public void testAddCollectionItem() throws IOException {
+        Collection collection = mirroredCollection();
+        Item item = new Item();
+        item.setName("Added");
+        client.addCollectionItem(collection.getId(), item);
+        assertNull("removed from the mirror", mirror.get(Collection.class, collection.getId()));
+    }
+
+    @Test
+    public void testAddCommunityCollection() throws IOException {
+        Community community = mirroredCommunity();
+        Collection collection = new Collection();
+        collection.setName("Added");
+        client.addCommunityCollection(community.getId(), collection);
+        assertNull("removed from the mirror", mirror.get(Community.class, community.getId()));
+    }
+
+    @Test
+    public void testAddCommunityCommunity() throws IOException {
+        Community community = mirroredCommunity();
+        Community subcommunity = new Community();
+        subcommunity.setName("Added");
+        client.addCommunityCommunity(community.getId(), subcommunity);
+        assertNull("removed from the mirror", mirror.get(Community.class, community.getId()));
+    }
+
+    @Test
+    public void testAddItemBitstream() throws IOException {
+        int id = mirroredItem();
+        client.addItemBitstream(id, "data.bin", "Data", null, null, null, null,
+                new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+    }
+
+    @Test
+    public void testBitstreamsNotMirrored() throws IOException {
+        // The mirrored items do not embed their bitstreams: no need to remove them.
+        int id = mirroredItem();
+        Bitstream bitstream = addBitstream(id);
+        client.updateBitstream(bitstream.getId(), bitstream);
+        assertNotNull("still mirrored", mirror.get(Item.class, id));
+    }
+
+    @Test
+    public void testDeleteBitstream() throws IOException {
+        client.setExpand("bitstreams");
+        int id = mirroredItem();
+        Bitstream bitstream = addBitstream(id);
+        client.getItem(id, "bitstreams");
+        client.deleteBitstream(bitstream.getId());
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+    }
+
+    @Test
+    public void testDeleteBitstreamPolicy() throws IOException {
+        client.setExpand("bitstreams");
+        int id = mirroredItem();
+        Bitstream bitstream = addBitstream(id);
+        ResourcePolicy policy = new ResourcePolicy();
+        policy.setId(1);
+        server.getRepository().addBitstreamPolicy(bitstream.getId(), policy);
+        client.getItem(id, "bitstreams");
+        client.deleteBitstreamPolicy(policy.getId(), bitstream.getId());
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+    }
+
+    @Test
+    public void testDeleteCollection() throws IOException {
+        Community community = mirroredCommunity();
+        Collection collection = mirroredCollection();
+        client.deleteCollection(collection.getId());
+        assertNull("collection removed", mirror.get(Collection.class, collection.getId()));
+        assertNull("community removed", mirror.get(Community.class, community.getId()));
+    }
+
+    @Test
+    public void testDeleteCollectionItem() throws IOException {
+        Collection collection = mirroredCollection();
+        int id = client.getCollectionItems(collection.getId(), null, 1, 0)[0].getId();
+        client.getItem(id, client.getExpand());
+        client.deleteCollectionItem(collection.getId(), id);
+        assertNull("collection removed", mirror.get(Collection.class, collection.getId()));
+        assertNull("item removed", mirror.get(Item.class, id));
+    }
+
+    @Test
+    public void testDeleteCommunity() throws IOException {
+        Community community = mirroredCommunity();
+        Community subcommunity = new Community();
+        subcommunity.setName("Sub");
+        subcommunity = client.addCommunityCommunity(community.getId(), subcommunity);
+        client.getCommunity(community.getId(), client.getExpand());
+        client.getCommunity(subcommunity.getId(), client.getExpand());
+        client.deleteCommunity(subcommunity.getId());
+        assertNull("subcommunity removed", mirror.get(Community.class, subcommunity.getId()));
+        assertNull("community removed", mirror.get(Community.class, community.getId()));
+    }
+
+    @Test
+    public void testDeleteCommunityCollection() throws IOException {
+        Community community = mirroredCommunity();
+        Collection collection = mirroredCollection();
+        client.deleteCommunityCollection(collection.getId(), community.getId());
+        assertNull("community removed", mirror.get(Community.class, community.getId()));
+        assertNull("collection removed", mirror.get(Collection.class, collection.getId()));
+    }
+
+    @Test
+    public void testDeleteCommunityCommunity() throws IOException {
+        Community community = mirroredCommunity();
+        Community subcommunity = new Community();
+        subcommunity.setName("Sub");
+        subcommunity = client.addCommunityCommunity(community.getId(), subcommunity);
+        client.getCommunity(community.getId(), client.getExpand());
+        client.getCommunity(subcommunity.getId(), client.getExpand());
+        client.deleteCommunityCommunity(community.getId(), subcommunity.getId());
+        assertNull("community removed", mirror.get(Community.class, community.getId()));
+        assertNull("subcommunity removed", mirror.get(Community.class, subcommunity.getId()));
+    }
+
+    @Test
+    public void testDeleteItem() throws IOException {
+        Collection collection = mirroredCollection();
+        int id = client.getCollectionItems(collection.getId(), null, 1, 0)[0].getId();
+        client.getItem(id, client.getExpand());
+        client.deleteItem(id);
+        assertNull("item removed", mirror.get(Item.class, id));
+        assertNull("collection removed", mirror.get(Collection.class, collection.getId()));
+    }
+
+    @Test
+    public void testDeleteItemBitstream() throws IOException {
+        int id = mirroredItem();
+        Bitstream bitstream = addBitstream(id);
+        client.deleteItemBitstream(id, bitstream.getId());
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+    }
+
+    @Test
+    public void testGetObjectNotADSpaceObject() throws IOException {
+        mirroredItem();
+        String[] handle = items[0].getHandle().split("/");
+        Object object = client.getObject(handle[0], handle[1], client.getExpand(), Object.class);
+        assertTrue("as DSpace answers it, not the mirrored item", object instanceof Map);
+        assertTrue("mirrored", client.getObject(handle[0], handle[1], client.getExpand(), Item.class) instanceof Item);
+    }
+
+    @Test
+    public void testInvalidate() throws IOException {
+        int id = items[0].getId();
+        int before = client.getItem(id, "metadata").getMetadata().size();
+        MetadataEntry entry = new MetadataEntry();
+        entry.setKey("dc.subject");
+        entry.setValue("Physics");
+        client.addItemMetadata(id, new MetadataEntry[] { entry });
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+        assertEquals(before + 1, client.getItem(id, "metadata").getMetadata().size());
+    }
+
+    @Test
+    public void testReadThrough() throws IOException {
+        int id = items[0].getId();
+        Item item = client.getItem(id, "metadata");
+        assertNotNull("mirrored", mirror.get(Item.class, id));
+        Community community = client.getCommunities(null, 1, 0)[0];
+        client.getCommunity(community.getId(), "metadata");
+        Collection collection = client.getCollections(null, 1, 0)[0];
+        client.getCollection(collection.getId(), "metadata", null, null);
+        // Not the expand of the mirror.
+        client.getItem(items[1].getId(), null);
+        assertNull("not mirrored", mirror.get(Item.class, items[1].getId()));
+
+        server.stop();
+        assertEquals("local", item.getName(), client.getItem(id, "metadata").getName());
+        assertFalse("metadata", client.getItem(id, "metadata").getMetadata().isEmpty());
+        assertEquals("local", community.getName(), client.getCommunity(community.getId(), "metadata").getName());
+        assertEquals("by handle", item.getName(), client.getObject(item.getHandle().split("/")[0],
+                item.getHandle().split("/")[1], "metadata", Item.class).getName());
+        assertEquals("collection", collection.getName(),
+                client.getCollection(collection.getId(), "metadata", null, null).getName());
+    }
+
+    @Test
+    public void testServerDown() {
+        client.setMaxAge(0);
+        int id = items[0].getId();
+        Item item = client.getItem(id, "metadata");
+        server.stop();
+        // Stale, but DSpace cannot be reached.
+        assertEquals("stale", item.getName(), client.getItem(id, "metadata").getName());
+        try {
+            client.getItem(items[1].getId(), "metadata");
+            fail("never mirrored");
+        } catch (ResourceAccessException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testUpdateBitstream() throws IOException {
+        client.setExpand("bitstreams");
+        int id = mirroredItem();
+        Bitstream bitstream = addBitstream(id);
+        client.getItem(id, "bitstreams");
+        bitstream.setName("renamed.bin");
+        client.updateBitstream(bitstream.getId(), bitstream);
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+    }
+
+    @Test
+    public void testUpdateBitstreamData() throws IOException {
+        client.setExpand("bitstreams");
+        int id = mirroredItem();
+        Bitstream bitstream = addBitstream(id);
+        client.getItem(id, "bitstreams");
+        client.updateBitstreamData(bitstream.getId(), new ByteArrayInputStream(new byte[] { 4, 5 }));
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+    }
+
+    @Test
+    public void testUpdateItemMetadata() throws IOException {
+        int id = mirroredItem();
+        MetadataEntry entry = new MetadataEntry();
+        entry.setKey("dc.title");
+        entry.setValue("Updated");
+        client.updateItemMetadata(id, new MetadataEntry[] { entry });
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+        assertEquals("Updated", client.getItem(id, "metadata").getName());
+    }
+
+    @Test
+    public void testUpdateItemMetadataWithUserIP() throws IOException {
+        int id = mirroredItem();
+        try {
+            // No body: replaces the metadata with nothing, or is refused.
+            client.updateItemMetadata(id, "127.0.0.1", "test", null);
+        } catch (HttpStatusCodeException e) {
+            // Removed all the same.
+        }
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+        try {
+            client.getItem(id, client.getExpand());
+            client.updateItemMetadata(id);
+        } catch (HttpStatusCodeException e) {
+            // Removed all the same.
+        }
+        assertNull("removed from the mirror", mirror.get(Item.class, id));
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the pooled HTTP transport, against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestPooledHttpTransport {
+
+    /**
+     * Answers the items, recording the port of the connections.
+     */
+    private class StubHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            ports.add(exchange.getRemoteAddress().getPort());
+            int id = Integer.parseInt(exchange.getRequestURI().getPath().replaceAll("^.*/", ""));
+            byte[] bytes = ("{\"id\":" + id + ",\"type\":\"item\"}").getBytes(Charset.forName("UTF-8"));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        }
+
+    }
+
+    /**
+     * Receives the bitstream data, recording the port of the connections, the length header and the body size.
+     */
+    private class UploadHandler implements HttpHandler {
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            ports.add(exchange.getRemoteAddress().getPort());
+            long size = 0;
+            InputStream in = exchange.getRequestBody();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                size += n;
+            }
+            uploads.add(exchange.getRequestHeaders().getFirst("Content-Length") + " " + size);
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        }
+
+    }
+
+    private final Set<Integer> ports = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    private StubHttpServer server;
+
+    private PooledHttpTransport transport;
+
+    private final List<String> uploads = new CopyOnWriteArrayList<String>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.handle("/items", new StubHandler());
+        server.handle("/bitstreams", new UploadHandler());
+        server.start();
+        transport = new PooledHttpTransport();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        transport.close();
+        server.stop();
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        DSpaceRestClient client = transport.newClient(server.getBaseUrl());
+        client.getItem(1, null);
+        assertEquals("pooled connections", 1, transport.getConnectionManager().getTotalStats().getAvailable());
+        transport.close();
+        client = transport.newClient(server.getBaseUrl());
+        client.getItem(2, null);
+        assertEquals("new connection", 2, ports.size());
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        transport.setMaxPerRoute(4);
+        final DSpaceRestClient client = transport.newClient(server.getBaseUrl());
+        final AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 16; ++i) {
+                futures.add(executor.submit(new Callable<Integer>() {
+
+                    @Override
+                    public Integer call() {
+                        int count = 0;
+                        int id;
+                        while ((id = next.getAndIncrement()) < 400) {
+                            Item item = client.getItem(id, null);
+                            assertEquals("item ID", Integer.valueOf(id), item.getId());
+                            ++count;
+                        }
+                        return count;
+                    }
+
+                }));
+            }
+            int count = 0;
+            for (Future<Integer> future : futures) {
+                count += future.get();
+            }
+            assertEquals("items", 400, count);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue("connections reused: " + ports.size(), ports.size() <= 4);
+        PoolStats stats = transport.getConnectionManager().getTotalStats();
+        assertEquals("leased connections", 0, stats.getLeased());
+        assertEquals("pooled connections", ports.size(), stats.getAvailable());
+    }
+
+    @Test
+    public void testUpload() {
+        DSpaceRestClient client = transport.newClient(server.getBaseUrl());
+        client.getItem(1, null);
+        client.updateBitstreamData(1, new SyntheticInputStream(1 << 20), 1 << 20);
+        // Chunked.
+        client.updateBitstreamData(2, new SyntheticInputStream(1 << 20), -1);
+        assertEquals("uploads", "[1048576 1048576, null 1048576]", uploads.toString());
+        assertEquals("same pooled connection", 1, ports.size());
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Tests the field projections, on raw JSON and through {@link DSpaceRestClient} against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestProjection {
+
+    private static final String ITEMS = "[{\"id\":1,\"name\":\"One\",\"handle\":\"123456789/1\","
+            + "\"parentCollection\":{\"id\":7,\"name\":\"Seven\",\"handle\":\"123456789/7\"},"
+            + "\"metadata\":[{\"key\":\"dc.title\",\"value\":\"One\",\"language\":\"en\"},"
+            + "{\"key\":\"dc.subject\",\"value\":\"Skipped\",\"language\":null},"
+            + "{\"value\":\"Late key\",\"key\":\"dc.title\",\"language\":null}],"
+            + "\"bitstreams\":[{\"id\":3,\"name\":\"file.pdf\",\"sizeBytes\":42}]}]";
+
+    private static List<Item> read(Projection projection) throws IOException {
+        JsonArrayReader<Item> reader = new JsonArrayReader<Item>(Jackson2ObjectMapperBuilder.json().build(),
+                Item.class, projection);
+        final List<Item> items = new ArrayList<Item>();
+        reader.read(new ByteArrayInputStream(ITEMS.getBytes(Charset.forName("UTF-8"))), new ListingHandler<Item>() {
+
+            @Override
+            public void handle(Item object) {
+                items.add(object);
+            }
+
+        });
+        return items;
+    }
+
+    @Test
+    public void testClient() throws IOException {
+        StubDSpaceServer server = new StubDSpaceServer();
+        server.getRepository().seed(1, 1, 5);
+        server.start();
+        try {
+            DSpaceRestClient client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+            Projection projection = Projection.of("id", "handle").withMetadataKeys("dc.title");
+            final List<Item> items = new ArrayList<Item>();
+            assertEquals(5, client.getItems("metadata", 100, 0, projection, new ListingHandler<Item>() {
+
+                @Override
+                public void handle(Item object) {
+                    items.add(object);
+                }
+
+            }));
+            for (Item item : items) {
+                assertTrue(item.getHandle().startsWith("123456789/"));
+                assertNull(item.getName());
+                assertEquals(1, item.getMetadata().size());
+                assertEquals("dc.title", item.getMetadata().get(0).getKey());
+            }
+            Item item = client.getProjected("/items/{item_id}", Collections.singletonMap("item_id", items.get(0)
+                    .getId()), Collections.singletonMap("expand", "metadata,parentCollection"), Item.class,
+                    Projection.of("id", "parentCollection.name"));
+            assertEquals(items.get(0).getId(), item.getId());
+            assertNull(item.getHandle());
+            assertTrue(item.getMetadata().isEmpty());
+            assertNull(item.getParentCollection().getId());
+            assertEquals("Collection 1.1", item.getParentCollection().getName());
+            Collection[] collections = client.getProjected("/collections", Collections.<String, Object> emptyMap(),
+                    Collections.<String, Object> emptyMap(), Collection[].class, Projection.of("name"));
+            assertEquals(1, collections.length);
+            assertEquals("Collection 1.1", collections[0].getName());
+            assertNull(collections[0].getId());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testFields() throws IOException {
+        Item item = read(Projection.of("id", "parentCollection.handle", "bitstreams")).get(0);
+        assertEquals(1, item.getId().intValue());
+        assertNull(item.getName());
+        assertNull(item.getHandle());
+        assertNull(item.getParentCollection().getId());
+        assertNull(item.getParentCollection().getName());
+        assertEquals("123456789/7", item.getParentCollection().getHandle());
+        assertTrue(item.getMetadata().isEmpty());
+        assertEquals(1, item.getBitstreams().size());
+        assertEquals(42L, item.getBitstreams().get(0).getSizeBytes().longValue());
+    }
+
+    @Test
+    public void testMetadataKeys() throws IOException {
+        Item item = read(Projection.of("id").withMetadataKeys("dc.title")).get(0);
+        assertEquals(1, item.getId().intValue());
+        assertEquals(2, item.getMetadata().size());
+        assertEquals("One", item.getMetadata().get(0).getValue());
+        assertEquals("en", item.getMetadata().get(0).getLanguage());
+        // The entry whose key comes after its value is kept too.
+        assertEquals("Late key", item.getMetadata().get(1).getValue());
+        assertTrue(item.getBitstreams().isEmpty());
+        assertNull(item.getParentCollection());
+    }
+
+    @Test
+    public void testNestedAndWhole() throws IOException {
+        // A whole field wins over its nested paths.
+        Item item = read(Projection.of("parentCollection.id", "parentCollection")).get(0);
+        assertEquals(7, item.getParentCollection().getId().intValue());
+        assertEquals("Seven", item.getParentCollection().getName());
+        assertNull(item.getId());
+    }
+
+}
@@ -0,0 +1,240 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the retry policy, against a server failing on purpose.
+ * 
+ * @author arnaud
+ */
+public class TestRetryPolicy {
+
+    /**
+     * Fails the first requests with a status, then answers a fixed body.
+     */
+    public static class FlakyHandler implements HttpHandler {
+
+        private final String body;
+
+        private final String contentType;
+
+        private final int failures;
+
+        private final AtomicInteger requests = new AtomicInteger();
+
+        private final String retryAfter;
+
+        private final int status;
+
+        public FlakyHandler(int failures, int status, String retryAfter, String contentType, String body) {
+            this.failures = failures;
+            this.status = status;
+            this.retryAfter = retryAfter;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public int getRequests() {
+            return requests.get();
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            InputStream in = exchange.getRequestBody();
+            while (in.read() >= 0) {
+                // Drained, so that the connection can be reused.
+            }
+            if (requests.incrementAndGet() <= failures) {
+                if (retryAfter != null) {
+                    exchange.getResponseHeaders().set("Retry-After", retryAfter);
+                }
+                exchange.sendResponseHeaders(status, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = body.getBytes("UTF-8");
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, bytes.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(bytes);
+            out.close();
+        }
+
+    }
+
+    private static final String COMMUNITY = "{\"id\":1,\"name\":\"Created\"}";
+
+    private static final String TEST = "REST api is running.";
+
+    private RetryPolicy policy;
+
+    private StubHttpServer server;
+
+    private DSpaceRestClient newClient(String baseUrl) {
+        RestTemplate restTemplate = new RestTemplate();
+        policy.apply(restTemplate);
+        return new DSpaceRestClient(baseUrl, restTemplate);
+    }
+
+    private FlakyHandler serve(String path, int failures, int status, String retryAfter, String contentType,
+            String body) {
+        FlakyHandler handler = new FlakyHandler(failures, status, retryAfter, contentType, body);
+        server.handle(path, handler);
+        return handler;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        policy = new RetryPolicy();
+        policy.setInitialBackoff(1);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testBackoff() {
+        policy.setInitialBackoff(100);
+        policy.setMaxBackoff(1000);
+        for (int retry = 1; retry <= 10; ++retry) {
+            long cap = Math.min(1000, 100L << (retry - 1));
+            for (int i = 0; i < 100; ++i) {
+                long backoff = policy.backoff(retry);
+                assertTrue("retry " + retry + ": " + backoff, backoff >= 0 && backoff <= cap);
+            }
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        FlakyHandler handler = serve("/test", Integer.MAX_VALUE, 503, null, "text/plain", TEST);
+        server.start();
+        policy.setBudgetRatio(0);
+        policy.setBudgetCap(2);
+        policy.setMaxAttempts(10);
+        DSpaceRestClient client = newClient(server.getBaseUrl());
+        for (int i = 0; i < 2; ++i) {
+            try {
+                client.test();
+                fail("should fail");
+            } catch (HttpServerErrorException e) {
+                assertEquals("status", 503, e.getStatusCode().value());
+            }
+        }
+        assertEquals("requests", 4, handler.getRequests());
+        assertEquals("retries", 2, policy.getRetries());
+        assertEquals("refusals", 2, policy.getBudgetRefusals());
+    }
+
+    @Test
+    public void testConnectionRefused() {
+        server.start();
+        String baseUrl = server.getBaseUrl();
+        server.stop();
+        policy.setMaxAttempts(3);
+        try {
+            newClient(baseUrl).createCommunity(new Community());
+            fail("should fail");
+        } catch (ResourceAccessException e) {
+            assertEquals("retries", 2, policy.getRetries());
+        }
+    }
+
+    @Test
+    public void testGetRetried() {
+        FlakyHandler handler = serve("/test", 2, 503, null, "text/plain", TEST);
+        server.start();
+        assertEquals("result", TEST, newClient(server.getBaseUrl()).test());
+        assertEquals("requests", 3, handler.getRequests());
+        assertEquals("retries", 2, policy.getRetries());
+    }
+
+    @Test
+    public void testMaxAttempts() {
+        FlakyHandler handler = serve("/test", Integer.MAX_VALUE, 502, null, "text/plain", TEST);
+        server.start();
+        try {
+            newClient(server.getBaseUrl()).test();
+            fail("should fail");
+        } catch (HttpServerErrorException e) {
+            assertEquals("status", 502, e.getStatusCode().value());
+        }
+        assertEquals("requests", policy.getMaxAttempts(), handler.getRequests());
+    }
+
+    @Test
+    public void testParseRetryAfter() {
+        assertEquals("seconds", 120000, RetryPolicy.parseRetryAfter("120", 0));
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        long now = 1000000000000L;
+        assertEquals("date", 10000, RetryPolicy.parseRetryAfter(format.format(new Date(now + 10000)), now));
+        assertEquals("past", 0, RetryPolicy.parseRetryAfter(format.format(new Date(now - 10000)), now));
+        assertEquals("garbage", -1, RetryPolicy.parseRetryAfter("soon", now));
+        assertEquals("none", -1, RetryPolicy.parseRetryAfter(null, now));
+    }
+
+    @Test
+    public void testPostNotRetried() {
+        FlakyHandler handler = serve("/communities", 1, 503, null, "application/json", COMMUNITY);
+        server.start();
+        try {
+            newClient(server.getBaseUrl()).createCommunity(new Community());
+            fail("should fail");
+        } catch (HttpServerErrorException e) {
+            assertEquals("status", 503, e.getStatusCode().value());
+        }
+        assertEquals("requests", 1, handler.getRequests());
+    }
+
+    @Test
+    public void testPostRetriedAfter429() {
+        FlakyHandler handler = serve("/communities", 1, 429, "1", "application/json", COMMUNITY);
+        server.start();
+        long start = System.currentTimeMillis();
+        Community created = newClient(server.getBaseUrl()).createCommunity(new Community());
+        assertEquals("name", "Created", created.getName());
+        assertTrue("waited", System.currentTimeMillis() - start >= 900);
+        assertEquals("requests", 2, handler.getRequests());
+    }
+
+    @Test
+    public void testRetryAfterTooLong() {
+        FlakyHandler handler = serve("/test", 1, 503, "3600", "text/plain", TEST);
+        server.start();
+        try {
+            newClient(server.getBaseUrl()).test();
+            fail("should fail");
+        } catch (HttpServerErrorException e) {
+            assertFalse("retried", policy.getRetries() > 0);
+        }
+        assertEquals("requests", 1, handler.getRequests());
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.idmgroup.dspace.rest;
+
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_BAD_PASSWORD;
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Tests the session manager, against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestSessionManager {
+
+    private static final String OTHER = "dspacedemo+submit@gmail.com";
+
+    private static User user(String email, String password) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword(password);
+        return user;
+    }
+
+    private Community community;
+
+    private StubDSpaceServer server;
+
+    private SessionManager sessions;
+
+    private SessionCallback<Void> update(final String name) {
+        return new SessionCallback<Void>() {
+
+            @Override
+            public Void doWithClient(DSpaceRestClient client) {
+                Community update = new Community();
+                update.setName(name);
+                return client.updateCommunity(community.getId(), update);
+            }
+
+        };
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().addUser(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        server.getRepository().addUser(OTHER, DEMO_DSPACE_PASSWORD);
+        server.getRepository().seed(1, 0, 0);
+        server.start();
+        sessions = new SessionManager(server.getBaseUrl(), new RestTemplate());
+        community = sessions.getClient(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD)).getCommunities(null, 1, 0)[0];
+    }
+
+    @After
+    public void tearDown() {
+        sessions.logoutAll();
+        server.stop();
+    }
+
+    @Test
+    public void testBadPassword() {
+        try {
+            sessions.execute(user(OTHER, DEMO_DSPACE_BAD_PASSWORD), update("Denied"));
+            fail("should not log in");
+        } catch (HttpClientErrorException e) {
+            assertEquals("status", HttpStatus.FORBIDDEN, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testConcurrentExpiry() throws Exception {
+        final User admin = user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        server.getRepository().logout(sessions.getClient(admin).getDspaceToken());
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int i = 0; i < 8; ++i) {
+                final String name = "Renamed " + i;
+                futures.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws InterruptedException {
+                        start.await();
+                        return sessions.execute(admin, update(name));
+                    }
+
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("logins", 2, sessions.getLogins());
+    }
+
+    @Test
+    public void testExpiry() {
+        User admin = user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        String expired = sessions.getClient(admin).getDspaceToken();
+        server.getRepository().logout(expired);
+        sessions.execute(admin, update("Renamed"));
+        assertEquals("name", "Renamed", server.getRepository().getCommunity(community.getId(), null).getName());
+        assertEquals("logins", 2, sessions.getLogins());
+        assertFalse("token", expired.equals(sessions.getClient(admin).getDspaceToken()));
+    }
+
+    @Test
+    public void testLogout() {
+        User admin = user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        DSpaceRestClient client = sessions.getClient(admin);
+        sessions.logout(admin);
+        assertNull("token", client.getDspaceToken());
+        assertEquals("sessions", 0, sessions.getSessionCount());
+        assertNotNull("new session", sessions.getClient(admin).getDspaceToken());
+        assertEquals("logins", 2, sessions.getLogins());
+    }
+
+    @Test
+    public void testUsers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 32; ++i) {
+                final User user = user(i % 2 == 0 ? DEMO_DSPACE_ADMIN : OTHER, DEMO_DSPACE_PASSWORD);
+                futures.add(executor.submit(new Callable<String>() {
+
+                    @Override
+                    public String call() {
+                        return sessions.execute(user, new SessionCallback<String>() {
+
+                            @Override
+                            public String doWithClient(DSpaceRestClient client) {
+                                return client.status().getEmail();
+                            }
+
+                        });
+                    }
+
+                }));
+            }
+            for (int i = 0; i < futures.size(); ++i) {
+                assertEquals("user " + i, i % 2 == 0 ? DEMO_DSPACE_ADMIN : OTHER, futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("sessions", 2, sessions.getSessionCount());
+        assertEquals("logins", 2, sessions.getLogins());
+    }
+
+}
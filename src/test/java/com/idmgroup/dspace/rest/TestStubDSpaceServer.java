@@ -0,0 +1,181 @@
+package com.idmgroup.dspace.rest;
+
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Bitstream;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Tests the embedded stub DSpace server, with the Spring client.
+ * 
+ * @author arnaud
+ */
+public class TestStubDSpaceServer {
+
+    private DSpaceRestClient client;
+
+    private StubDSpaceServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().addUser(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        server.getRepository().setSeedSubcommunities(1);
+        server.getRepository().seed(2, 3, 4);
+        server.start();
+        client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testAuthentication() {
+        Community community = new Community();
+        community.setName("Unauthorized");
+        try {
+            client.createCommunity(community);
+            fail("expected 401");
+        } catch (HttpClientErrorException e) {
+            assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+        }
+        User user = new User();
+        user.setEmail(DEMO_DSPACE_ADMIN);
+        user.setPassword(DEMO_DSPACE_PASSWORD);
+        assertNotNull(client.login(user));
+        assertTrue(client.status().isAuthenticated());
+        community.setName("Authorized");
+        Community created = client.createCommunity(community);
+        assertEquals("Authorized", client.getCommunity(created.getId(), null).getName());
+        client.logout();
+        assertFalse(client.status().isAuthenticated());
+    }
+
+    @Test
+    public void testBandwidth() {
+        server.setBandwidth(100000);
+        Bitstream bitstream = client.getItemBitstreams(firstItemId(), 1, 0)[0];
+        long start = System.nanoTime();
+        byte[] data = client.getBitstreamData(bitstream.getId());
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        assertEquals(4096, data.length);
+        // 4096 bytes at 100000 bytes/s.
+        assertTrue("too fast: " + elapsed + " ms", elapsed >= 35);
+    }
+
+    @Test
+    public void testConditionalGet() {
+        int itemId = firstItemId();
+        ResponseEntity<Item> first = client.getConditionally("/items/{item_id}",
+                Collections.singletonMap("item_id", itemId), Collections.<String, Object> emptyMap(), Item.class,
+                null, -1);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        String eTag = first.getHeaders().getETag();
+        assertNotNull(eTag);
+        ResponseEntity<Item> second = client.getConditionally("/items/{item_id}",
+                Collections.singletonMap("item_id", itemId), Collections.<String, Object> emptyMap(), Item.class,
+                eTag, -1);
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+    }
+
+    @Test
+    public void testDelete() {
+        User user = new User();
+        user.setEmail(DEMO_DSPACE_ADMIN);
+        user.setPassword(DEMO_DSPACE_PASSWORD);
+        client.login(user);
+        Community top = client.getTopCommunities(null, 100, 0)[0];
+        client.deleteCommunity(top.getId());
+        assertEquals(1, client.getTopCommunities(null, 100, 0).length);
+        // The items of the community and of its subcommunity are gone with it.
+        assertEquals(24, client.getItems(null, 100, 0).length);
+    }
+
+    @Test
+    public void testExpand() {
+        Item item = client.getItem(firstItemId(), "metadata,bitstreams");
+        // The title and the default 10 seeded entries.
+        assertEquals(11, item.getMetadata().size());
+        assertEquals(1, item.getBitstreams().size());
+        assertTrue(item.getExpand().contains("parentCollection"));
+        assertFalse(item.getExpand().contains("metadata"));
+        Item bare = client.getItem(firstItemId(), null);
+        assertTrue(bare.getMetadata().isEmpty());
+    }
+
+    @Test
+    public void testLatency() {
+        server.setLatency(200);
+        long start = System.nanoTime();
+        client.getItems(null, 1, 0);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        assertTrue("too fast: " + elapsed + " ms", elapsed >= 200);
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        Bitstream bitstream = client.getItemBitstreams(firstItemId(), 1, 0)[0];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(10, client.getBitstreamDataRange(bitstream.getId(), 100, 110, Channels.newChannel(out)));
+        byte[] data = out.toByteArray();
+        for (int i = 0; i < data.length; ++i) {
+            assertEquals(SyntheticInputStream.byteAt(100 + i), data[i] & 0xff);
+        }
+    }
+
+    @Test
+    public void testSeed() {
+        assertEquals(2, client.getTopCommunities(null, 100, 0).length);
+        // Each top community has one subcommunity, and each of them has 3 collections.
+        assertEquals(4, client.getCommunities(null, 100, 0).length);
+        assertEquals(12, client.getCollections(null, 100, 0).length);
+        Item[] all = client.getItems(null, 100, 0);
+        assertEquals(48, all.length);
+        Item[] page = client.getItems(null, 10, 40);
+        assertEquals(8, page.length);
+        assertEquals(all[40].getId(), page[0].getId());
+    }
+
+    @Test
+    public void testXml() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_XML));
+        ResponseEntity<String> response = new RestTemplate().exchange(server.getBaseUrl() + "/items?limit=2",
+                HttpMethod.GET, new HttpEntity<Object>(headers), String.class);
+        assertTrue(MediaType.APPLICATION_XML.isCompatibleWith(response.getHeaders().getContentType()));
+        assertTrue(response.getBody(), response.getBody().contains("<items>"));
+        assertTrue(response.getBody(), response.getBody().contains("<item>"));
+    }
+
+    private int firstItemId() {
+        return client.getItems(null, 1, 0)[0].getId();
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.idmgroup.dspace.rest;
+
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.User;
+
+/**
+ * Tests the subtree deleter, against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestSubtreeDeleter {
+
+    /**
+     * Counts the progress.
+     */
+    private static class Counter implements DeletionListener {
+
+        private final AtomicInteger deleted = new AtomicInteger();
+
+        private final AtomicInteger failed = new AtomicInteger();
+
+        @Override
+        public void deleted(String path) {
+            deleted.incrementAndGet();
+        }
+
+        @Override
+        public void failed(String path, RuntimeException error) {
+            failed.incrementAndGet();
+        }
+
+    }
+
+    /**
+     * Fails to delete the item given, and deletes the others twice, as if someone else was deleting them too.
+     */
+    private static class RacingClient extends DSpaceRestClient {
+
+        private final int failing;
+
+        public RacingClient(String baseUrl, int failing) {
+            super(baseUrl, new RestTemplate());
+            this.failing = failing;
+        }
+
+        @Override
+        public Void deleteItem(Integer item_id) {
+            if (item_id == failing)
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            super.deleteItem(item_id);
+            return super.deleteItem(item_id);
+        }
+
+    }
+
+    private DSpaceRestClient client;
+
+    private Community root;
+
+    private StubDSpaceServer server;
+
+    private void login(DSpaceRestClient client) {
+        User user = new User();
+        user.setEmail(DEMO_DSPACE_ADMIN);
+        user.setPassword(DEMO_DSPACE_PASSWORD);
+        client.login(user);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().addUser(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        server.getRepository().setSeedMetadataEntries(0);
+        server.getRepository().setSeedSubcommunities(2);
+        // Two trees of 3 communities, 9 collections and 180 items.
+        server.getRepository().seed(2, 3, 20);
+        server.start();
+        client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+        login(client);
+        root = client.getCommunities(null, 1, 0)[0];
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testDeleteCollection() {
+        int collectionId = client.getCommunityCollections(root.getId(), null, 1, 0)[0].getId();
+        DeletionResult result = new SubtreeDeleter(client).deleteCollection(collectionId);
+        assertTrue(result.toString(), result.isComplete());
+        assertEquals("items", 20, result.getItems());
+        assertEquals("collections", 1, result.getCollections());
+        assertEquals("communities", 0, result.getCommunities());
+        assertEquals("collections left", 17, client.getCollections(null, 100, 0).length);
+        assertEquals("items left", 340, client.getItems(null, 1000, 0).length);
+    }
+
+    @Test
+    public void testDeleteCommunity() {
+        SubtreeDeleter deleter = new SubtreeDeleter(client);
+        deleter.setConcurrency(6);
+        // Pages smaller than a collection.
+        deleter.setPageSize(7);
+        Counter counter = new Counter();
+        DeletionResult result = deleter.deleteCommunity(root.getId(), counter);
+        assertTrue(result.toString(), result.isComplete());
+        assertEquals("items", 180, result.getItems());
+        assertEquals("collections", 9, result.getCollections());
+        assertEquals("communities", 3, result.getCommunities());
+        assertEquals("kept", 0, result.getKept());
+        assertEquals("deleted", 192, counter.deleted.get());
+        assertEquals("failed", 0, counter.failed.get());
+        assertEquals("collections left", 9, client.getCollections(null, 100, 0).length);
+        assertEquals("items left", 180, client.getItems(null, 1000, 0).length);
+        assertFalse("root left", root.getId().equals(client.getCommunities(null, 1, 0)[0].getId()));
+    }
+
+    @Test
+    public void testFailure() {
+        int collectionId = client.getCommunityCollections(root.getId(), null, 1, 0)[0].getId();
+        int itemId = client.getCollectionItems(collectionId, null, 1, 0)[0].getId();
+        RacingClient racing = new RacingClient(server.getBaseUrl(), itemId);
+        login(racing);
+        Counter counter = new Counter();
+        DeletionResult result = new SubtreeDeleter(racing).deleteCommunity(root.getId(), counter);
+        assertFalse("complete", result.isComplete());
+        assertEquals("failures", 1, result.getFailures().size());
+        assertTrue("failure", result.getFailures().get("/items/" + itemId) instanceof HttpServerErrorException);
+        // The others were found already gone.
+        assertEquals("items", 179, result.getItems());
+        // The collection of the item and the root are kept, the subcommunities are deleted.
+        assertEquals("collections", 8, result.getCollections());
+        assertEquals("communities", 2, result.getCommunities());
+        assertEquals("kept", 2, result.getKept());
+        assertEquals("failed", 1, counter.failed.get());
+        assertEquals("root kept", root.getId(), client.getCommunities(null, 1, 0)[0].getId());
+        assertEquals("item kept", 1, client.getCollectionItems(collectionId, null, 100, 0).length);
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.idmgroup.dspace.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import com.idmgroup.dspace.rest.RepositorySnapshot.Node;
+import com.idmgroup.dspace.rest.jersey.Collection;
+import com.idmgroup.dspace.rest.jersey.Community;
+import com.idmgroup.dspace.rest.jersey.Item;
+
+/**
+ * Tests the tree crawler, against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestTreeCrawler {
+
+    private DSpaceRestClient client;
+
+    private StubDSpaceServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().setSeedMetadataEntries(0);
+        server.getRepository().setSeedSubcommunities(2);
+        // 6 communities, 18 collections, 450 items.
+        server.getRepository().seed(2, 3, 25);
+        server.start();
+        client = new DSpaceRestClient(server.getBaseUrl(), new RestTemplate());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testCrawl() {
+        TreeCrawler crawler = new TreeCrawler(client);
+        // Pages smaller than a collection.
+        crawler.setPageSize(10);
+        crawler.setParallelism(8);
+        RepositorySnapshot snapshot = crawler.crawl();
+        assertEquals("top communities", 2, snapshot.getTopCommunities().size());
+        assertEquals("communities", 6, snapshot.getCommunities().size());
+        assertEquals("collections", 18, snapshot.getCollections().size());
+        assertEquals("items", 450, snapshot.getItems().size());
+
+        Node top = snapshot.getTopCommunities().get(0);
+        assertNull("parent", top.getParent());
+        assertEquals("name", "Community 1", top.getName());
+        // 2 subcommunities, then 3 collections.
+        assertEquals("children", 5, top.getChildren().size());
+        assertTrue("subcommunity", top.getChildren().get(0).getObject() instanceof Community);
+        assertTrue("collection", top.getChildren().get(4).getObject() instanceof Collection);
+        assertSame("parent", top, top.getChildren().get(0).getParent());
+
+        Node collection = top.getChildren().get(0).getChildren().get(0);
+        Item[] items = client.getCollectionItems(collection.getId(), null, 100, 0);
+        assertEquals("items", items.length, collection.getChildren().size());
+        for (int i = 0; i < items.length; ++i) {
+            Node item = collection.getChildren().get(i);
+            assertEquals("order", items[i].getId(), item.getId());
+            assertSame("parent", collection, item.getParent());
+            assertSame("index", item, snapshot.getItem(item.getId()));
+        }
+        assertSame("index", collection, snapshot.getCollection(collection.getId()));
+    }
+
+    @Test
+    public void testImmutable() {
+        RepositorySnapshot snapshot = new TreeCrawler(client).crawl();
+        try {
+            snapshot.getTopCommunities().get(0).getChildren().clear();
+            fail("children should be read-only");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            snapshot.getItems().clear();
+            fail("items should be read-only");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+}
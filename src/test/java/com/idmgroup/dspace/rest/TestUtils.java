@@ -1,8 +1,14 @@
 package com.idmgroup.dspace.rest;
 
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
+
+import java.io.IOException;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
@@ -18,6 +24,8 @@ import com.idmgroup.dspace.rest.jersey.Community;
  */
 public class TestUtils {
 
+    private static StubDSpaceServer stubServer;
+
     /**
      * Cleanup code.
      * 
@@ -25,21 +33,54 @@ public class TestUtils {
      * @param communityName
      */
     public static void cleanCommunitiesByName(DSpaceRestClient client, String communityName) {
+        List<Integer> matching = new ArrayList<Integer>();
         int offset = 0;
         while (true) {
             Community[] slice = client.getCommunities(null, 20, offset);
             if (slice != null && slice.length > 0) {
                 for (Community com : slice) {
                     if (communityName.equals(com.getName())) {
-                        client.deleteCommunity(com.getId());
-                    } else {
-                        ++offset;
+                        matching.add(com.getId());
                     }
                 }
+                offset += slice.length;
             } else {
                 break;
             }
         }
+        SubtreeDeleter deleter = new SubtreeDeleter(client);
+        for (Integer id : matching) {
+            DeletionResult result = deleter.deleteCommunity(id);
+            if (!result.isComplete())
+                throw new IllegalStateException("cannot clean the community " + id + ": " + result);
+        }
+    }
+
+    /**
+     * Gets the URL of the DSpace REST API to test against: the "dspace.rest.url" system property if set, e.g.
+     * "https://demo.dspace.org/rest", or else a {@link StubDSpaceServer} started on first use, knowing the demo
+     * administrator.
+     * 
+     * @return the base URL.
+     */
+    public static synchronized String dspaceUrl() {
+        String url = System.getProperty("dspace.rest.url");
+        if (url != null) {
+            trustAllSSL();
+            return url;
+        }
+        if (stubServer == null) {
+            try {
+                stubServer = new StubDSpaceServer();
+            } catch (IOException e) {
+                throw new IllegalStateException("cannot start the stub server", e);
+            }
+            stubServer.getRepository().addUser(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+            // The first community gets the handle "123456789/1".
+            stubServer.getRepository().seed(1, 1, 1);
+            stubServer.start();
+        }
+        return stubServer.getBaseUrl();
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.idmgroup.dspace.rest.jersey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.ws.rs.WebApplicationException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.idmgroup.dspace.rest.StubHttpServer;
+import com.idmgroup.dspace.rest.SyntheticInputStream;
+import com.idmgroup.dspace.rest.TestDSpaceRestClientBitstreamData.SyntheticRetrieveHandler;
+import com.idmgroup.dspace.rest.TestDSpaceRestClientBitstreamData.VerifyingOutputStream;
+
+/**
+ * Tests the Jersey REST client (streamed bitstream data), against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestDSpaceJerseyRestClientBitstreamData {
+
+    private static final int LARGE_LENGTH = 64 * 1024 * 1024 + 17;
+
+    private StubHttpServer server;
+
+    private DSpaceJerseyRestClient newClient(String url) throws Exception {
+        DSpaceJerseyRestClient client = new DSpaceJerseyRestClient(url);
+        client.setBaseUrl(url);
+        client.init();
+        return client;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        server.handle("/bitstreams", new SyntheticRetrieveHandler());
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testGetBitstreamData() throws Exception {
+        DSpaceJerseyRestClient client = newClient(server.getBaseUrl());
+        VerifyingOutputStream out = new VerifyingOutputStream();
+        long count = client.getBitstreamData(LARGE_LENGTH, out);
+        assertEquals("bytes copied", LARGE_LENGTH, count);
+        assertEquals("bytes verified", LARGE_LENGTH, out.getPosition());
+    }
+
+    @Test
+    public void testGetBitstreamDataNotFound() throws Exception {
+        DSpaceJerseyRestClient client = newClient(server.getBaseUrl());
+        try {
+            client.getBitstreamData(404, new VerifyingOutputStream());
+            fail("Expected WebApplicationException to be thrown");
+        } catch (WebApplicationException e) {
+            assertEquals("HTTP status", 404, e.getResponse().getStatus());
+        }
+    }
+
+    @Test
+    public void testOpenBitstreamData() throws Exception {
+        DSpaceJerseyRestClient client = newClient(server.getBaseUrl());
+        InputStream in = client.openBitstreamData(LARGE_LENGTH);
+        try {
+            for (int i = 0; i < 1000; ++i) {
+                assertEquals("byte " + i, SyntheticInputStream.byteAt(i), in.read());
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+}
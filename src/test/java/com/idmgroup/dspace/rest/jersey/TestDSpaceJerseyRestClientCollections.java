@@ -2,7 +2,6 @@ package com.idmgroup.dspace.rest.jersey;
 
 import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
 import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
-import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_URL;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_COLLECTION_NAME;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_COMMUNITY_NAME;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_UNICODE;
@@ -15,7 +14,6 @@ import static org.junit.Assert.fail;
 
 import javax.ws.rs.WebApplicationException;
 
-import org.junit.Before;
 import org.junit.Test;
 import org.mockito.internal.matchers.Matches;
 
@@ -29,14 +27,9 @@ public class TestDSpaceJerseyRestClientCollections {
         return client;
     }
 
-    @Before
-    public void setUp() throws Exception {
-        TestUtils.trustAllSSL();
-    }
-
     @Test
     public void testCreateUpdateDeleteCollection() throws Exception {
-        DSpaceJerseyRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceJerseyRestClient client = newClient(TestUtils.dspaceUrl());
         client.loginJsonAsUser(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD));
 
         Community community = new Community();
@@ -12,7 +12,6 @@ import static org.junit.Assert.fail;
 
 import javax.ws.rs.WebApplicationException;
 
-import org.junit.Before;
 import org.junit.Test;
 
 import com.idmgroup.dspace.rest.TestUtils;
@@ -30,11 +29,6 @@ public class TestDSpaceJerseyRestClientIndex {
         return client;
     }
 
-    @Before
-    public void setUp() {
-        TestUtils.trustAllSSL();
-    }
-
     /**
      * Code coverage.
      * 
@@ -55,7 +49,7 @@ public class TestDSpaceJerseyRestClientIndex {
      */
     @Test
     public void testIndex() throws Exception {
-        DSpaceJerseyRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceJerseyRestClient client = newClient(TestUtils.dspaceUrl());
         String index = client.root().getAsTextHtml(String.class);
         assertTrue("index title", index.indexOf("<title>DSpace REST - index</title>") >= 0);
         assertTrue("index index heading", index.indexOf("<h2>Index</h2>") >= 0);
@@ -72,7 +66,7 @@ public class TestDSpaceJerseyRestClientIndex {
      */
     @Test
     public void testLogin() throws Exception {
-        DSpaceJerseyRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceJerseyRestClient client = newClient(TestUtils.dspaceUrl());
         String token = client.loginJsonAsUser(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD));
         assertTrue("dspace token format", token.matches("[-0-9A-Fa-f]+"));
         // Code coverage
@@ -88,7 +82,7 @@ public class TestDSpaceJerseyRestClientIndex {
      */
     @Test
     public void testLoginFail() throws Exception {
-        DSpaceJerseyRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceJerseyRestClient client = newClient(TestUtils.dspaceUrl());
         try {
             client.loginJsonAsUser(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_BAD_PASSWORD));
             fail("Expected WebApplicationException to be thrown");
@@ -105,7 +99,7 @@ public class TestDSpaceJerseyRestClientIndex {
     // Don't test the logout as it is a global logout
     // @Test
     public void testLogout() throws Exception {
-        DSpaceJerseyRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceJerseyRestClient client = newClient(TestUtils.dspaceUrl());
         client.loginJsonAsUser(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD));
         client.logout();
     }
@@ -117,7 +111,7 @@ public class TestDSpaceJerseyRestClientIndex {
      */
     @Test
     public void testLogoutFail() throws Exception {
-        DSpaceJerseyRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceJerseyRestClient client = newClient(TestUtils.dspaceUrl());
         try {
             client.logout();
             fail("Expected WebApplicationException to be thrown");
@@ -133,7 +127,7 @@ public class TestDSpaceJerseyRestClientIndex {
      */
     @Test
     public void testTest() throws Exception {
-        DSpaceJerseyRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceJerseyRestClient client = newClient(TestUtils.dspaceUrl());
         String testString = client.root().test().getAs(String.class);
         assertEquals("test string", "REST api is running.", testString);
     }
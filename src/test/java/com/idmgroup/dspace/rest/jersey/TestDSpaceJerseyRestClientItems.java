@@ -2,7 +2,6 @@ package com.idmgroup.dspace.rest.jersey;
 
 import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
 import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
-import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_URL;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_COLLECTION_NAME;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_COMMUNITY_NAME;
 import static com.idmgroup.dspace.rest.TestConstants.TEST_UNICODE;
@@ -17,7 +16,6 @@ import java.io.InputStream;
 
 import javax.ws.rs.WebApplicationException;
 
-import org.junit.Before;
 import org.junit.Test;
 import org.mockito.internal.matchers.Matches;
 
@@ -53,14 +51,9 @@ public class TestDSpaceJerseyRestClientItems {
         return client;
     }
 
-    @Before
-    public void setUp() throws Exception {
-        TestUtils.trustAllSSL();
-    }
-
     @Test
     public void testCreateItemAndBitStreams() throws Exception {
-        DSpaceJerseyRestClient client = newClient(DEMO_DSPACE_URL);
+        DSpaceJerseyRestClient client = newClient(TestUtils.dspaceUrl());
         client.loginJsonAsUser(user(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD));
 
         Community community = new Community();
@@ -0,0 +1,71 @@
+package com.idmgroup.dspace.rest.jersey;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.idmgroup.dspace.rest.RetryPolicy;
+import com.idmgroup.dspace.rest.StubHttpServer;
+import com.idmgroup.dspace.rest.TestDSpaceRestClientBitstreamData.SyntheticRetrieveHandler;
+import com.idmgroup.dspace.rest.TestDSpaceRestClientBitstreamData.VerifyingOutputStream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Tests the Jersey REST client (retries), against a local stub.
+ * 
+ * @author arnaud
+ */
+public class TestDSpaceJerseyRestClientRetry {
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private StubHttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        final HttpHandler handler = new SyntheticRetrieveHandler();
+        server.handle("/bitstreams", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                // Every other request is unavailable.
+                if (requests.incrementAndGet() % 2 == 1) {
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                    return;
+                }
+                handler.handle(exchange);
+            }
+
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testRetried() throws Exception {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setInitialBackoff(1);
+        DSpaceJerseyRestClient client = new DSpaceJerseyRestClient(server.getBaseUrl());
+        client.setRetryPolicy(policy);
+        client.init();
+        for (int i = 0; i < 10; ++i) {
+            VerifyingOutputStream out = new VerifyingOutputStream();
+            assertEquals("bytes copied", 1000 + i, client.getBitstreamData(1000 + i, out));
+        }
+        assertEquals("requests", 20, requests.get());
+        assertEquals("retries", 10, policy.getRetries());
+    }
+
+}
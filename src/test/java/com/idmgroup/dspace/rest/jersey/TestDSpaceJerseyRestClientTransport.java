@@ -0,0 +1,82 @@
+package com.idmgroup.dspace.rest.jersey;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.idmgroup.dspace.rest.PooledHttpTransport;
+import com.idmgroup.dspace.rest.StubHttpServer;
+import com.idmgroup.dspace.rest.TestDSpaceRestClientBitstreamData.SyntheticRetrieveHandler;
+import com.idmgroup.dspace.rest.TestDSpaceRestClientBitstreamData.VerifyingOutputStream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+public class TestDSpaceJerseyRestClientTransport {
+
+    private final Set<Integer> ports = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    private StubHttpServer server;
+
+    private PooledHttpTransport transport;
+
+    private DSpaceJerseyRestClient newClient(String url) throws Exception {
+        DSpaceJerseyRestClient client = new DSpaceJerseyRestClient(url);
+        client.setTransport(transport);
+        client.init();
+        return client;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubHttpServer();
+        final HttpHandler handler = new SyntheticRetrieveHandler();
+        server.handle("/bitstreams", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                ports.add(exchange.getRemoteAddress().getPort());
+                handler.handle(exchange);
+            }
+
+        });
+        server.start();
+        transport = new PooledHttpTransport();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        transport.close();
+        server.stop();
+    }
+
+    @Test
+    public void testPooledConnections() throws Exception {
+        DSpaceJerseyRestClient client = newClient(server.getBaseUrl());
+        for (int i = 0; i < 100; ++i) {
+            VerifyingOutputStream out = new VerifyingOutputStream();
+            assertEquals("bytes copied", 1000 + i, client.getBitstreamData(1000 + i, out));
+        }
+        assertEquals("connections", 1, ports.size());
+        assertEquals("leased connections", 0, transport.getConnectionManager().getTotalStats().getLeased());
+    }
+
+    @Test
+    public void testResourcesReused() throws Exception {
+        DSpaceJerseyRestClient client = newClient(server.getBaseUrl());
+        assertSame("root", client.root(), client.root());
+        assertSame("items", client.items(), client.items());
+        assertSame("bitstreams", client.bitstreams(), client.bitstreams());
+        assertSame("collections", client.collections(), client.collections());
+        assertSame("communities", client.communities(), client.communities());
+        assertSame("handle", client.handle(), client.handle());
+    }
+
+}
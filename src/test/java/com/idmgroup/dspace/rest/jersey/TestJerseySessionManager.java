@@ -0,0 +1,91 @@
+package com.idmgroup.dspace.rest.jersey;
+
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_ADMIN;
+import static com.idmgroup.dspace.rest.TestConstants.DEMO_DSPACE_PASSWORD;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.idmgroup.dspace.rest.StubDSpaceServer;
+
+/**
+ * Tests the session manager of the Jersey client, against the stub server.
+ * 
+ * @author arnaud
+ */
+public class TestJerseySessionManager {
+
+    private static final String OTHER = "dspacedemo+submit@gmail.com";
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword(DEMO_DSPACE_PASSWORD);
+        return user;
+    }
+
+    private StubDSpaceServer server;
+
+    private JerseySessionManager sessions;
+
+    private final JerseySessionCallback<String> whoAmI = new JerseySessionCallback<String>() {
+
+        @Override
+        public String doWithClient(DSpaceJerseyRestClient client) {
+            return client.status().getEmail();
+        }
+
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubDSpaceServer();
+        server.getRepository().addUser(DEMO_DSPACE_ADMIN, DEMO_DSPACE_PASSWORD);
+        server.getRepository().addUser(OTHER, DEMO_DSPACE_PASSWORD);
+        server.start();
+        sessions = new JerseySessionManager(server.getBaseUrl(), null);
+    }
+
+    @After
+    public void tearDown() {
+        sessions.logoutAll();
+        server.stop();
+    }
+
+    @Test
+    public void testExpiry() {
+        User admin = user(DEMO_DSPACE_ADMIN);
+        String expired = sessions.getClient(admin).getDspaceToken();
+        server.getRepository().logout(expired);
+        final int[] calls = { 0 };
+        sessions.execute(admin, new JerseySessionCallback<Void>() {
+
+            @Override
+            public Void doWithClient(DSpaceJerseyRestClient client) {
+                ++calls[0];
+                // Refused while the token is expired.
+                client.communities().postJsonAs(new Community(), Community.class);
+                return null;
+            }
+
+        });
+        assertEquals("calls", 2, calls[0]);
+        assertEquals("logins", 2, sessions.getLogins());
+        assertFalse("token", expired.equals(sessions.getClient(admin).getDspaceToken()));
+    }
+
+    @Test
+    public void testUsers() {
+        assertEquals("admin", DEMO_DSPACE_ADMIN, sessions.execute(user(DEMO_DSPACE_ADMIN), whoAmI));
+        assertEquals("other", OTHER, sessions.execute(user(OTHER), whoAmI));
+        assertEquals("admin again", DEMO_DSPACE_ADMIN, sessions.execute(user(DEMO_DSPACE_ADMIN), whoAmI));
+        assertEquals("sessions", 2, sessions.getSessionCount());
+        assertEquals("logins", 2, sessions.getLogins());
+    }
+
+}